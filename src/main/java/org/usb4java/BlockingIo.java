@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Blocking transfers implemented on top of asynchronous requests.
+ *
+ * The synchronous transfer functions of {@link LibUsb} block inside native
+ * code. A virtual thread calling them pins its carrier thread for the whole
+ * duration of the transfer. The methods of this class have the same
+ * semantics and return the same error codes, but they submit an
+ * asynchronous request and park the calling thread until the request is
+ * completed. A parked virtual thread is unmounted from its carrier thread, so
+ * thousands of threads can wait for transfers concurrently. Platform threads
+ * benefit as well because no thread is blocked in native code.
+ *
+ * Interrupting a waiting thread cancels the transfer. The method then
+ * returns {@link LibUsb#ERROR_INTERRUPTED} (unless the transfer completed
+ * anyway) and the interrupt status of the thread is kept set.
+ *
+ * Requires another thread handling the events of the backend. Data buffers
+ * must satisfy the requirements of the backend, so they must be direct
+ * buffers when using a {@link LibUsbBackend}.
+ *
+ * @author usb4java Team
+ */
+public final class BlockingIo
+{
+    /** The backend. */
+    private final IoBackend backend;
+
+    /**
+     * Waits for the completion of a single request.
+     */
+    private static final class Waiter implements IoCallback
+    {
+        /** The waiting thread. */
+        private final Thread thread = Thread.currentThread();
+
+        /** If request has been completed. */
+        private volatile boolean done;
+
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            this.done = true;
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    /**
+     * Constructs blocking transfers on the specified backend.
+     *
+     * @param backend
+     *            The backend to use.
+     */
+    public BlockingIo(final IoBackend backend)
+    {
+        if (backend == null)
+        {
+            throw new IllegalArgumentException("backend must not be null");
+        }
+        this.backend = backend;
+    }
+
+    /**
+     * Returns the backend.
+     *
+     * @return The backend.
+     */
+    public IoBackend getBackend()
+    {
+        return this.backend;
+    }
+
+    /**
+     * Perform a USB control transfer. See
+     * {@link LibUsb#controlTransfer(DeviceHandle, byte, byte, short, short, ByteBuffer, long)}.
+     *
+     * The remaining bytes of the data buffer are the data stage of the
+     * transfer. The buffer position is not modified.
+     *
+     * @param bmRequestType
+     *            The request type field for the setup packet.
+     * @param bRequest
+     *            The request field for the setup packet.
+     * @param wValue
+     *            The value field for the setup packet.
+     * @param wIndex
+     *            The index field for the setup packet.
+     * @param data
+     *            A suitably-sized data buffer for either input or output
+     *            (depending on direction bits within bmRequestType).
+     * @param timeout
+     *            Timeout (in milliseconds) that this function should wait
+     *            before giving up due to no response being received. For an
+     *            unlimited timeout, use value 0.
+     * @return On success the number of bytes actually transferred, an ERROR
+     *         code on failure.
+     */
+    public int controlTransfer(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex, final ByteBuffer data,
+        final long timeout)
+    {
+        final int length = data == null ? 0 : data.remaining();
+        if (length > 0xffff)
+        {
+            return LibUsb.ERROR_INVALID_PARAM;
+        }
+        final ByteBuffer buffer = BufferUtils.allocateByteBuffer(
+            LibUsb.CONTROL_SETUP_SIZE + length);
+        final ControlSetup setup = new ControlSetup(buffer);
+        setup.setBmRequestType(bmRequestType);
+        setup.setBRequest(bRequest);
+        setup.setWValue(wValue);
+        setup.setWIndex(wIndex);
+        setup.setWLength((short) length);
+        final boolean in =
+            (bmRequestType & LibUsb.ENDPOINT_DIR_MASK) == LibUsb.ENDPOINT_IN;
+        if (!in && length > 0)
+        {
+            buffer.position(LibUsb.CONTROL_SETUP_SIZE);
+            buffer.put(data.duplicate());
+            buffer.rewind();
+        }
+        final IoRequest request = new IoRequest();
+        final Waiter waiter = new Waiter();
+        request.fillControl(buffer, waiter, null, timeout);
+        final int result = this.execute(request, waiter);
+        if (result != LibUsb.SUCCESS)
+        {
+            return result;
+        }
+        final int transferred = request.actualLength();
+        if (in && transferred > 0)
+        {
+            final ByteBuffer received = buffer.duplicate();
+            received.position(LibUsb.CONTROL_SETUP_SIZE);
+            received.limit(LibUsb.CONTROL_SETUP_SIZE + transferred);
+            data.duplicate().put(received);
+        }
+        return transferred;
+    }
+
+    /**
+     * Perform a USB bulk transfer. See
+     * {@link LibUsb#bulkTransfer(DeviceHandle, byte, ByteBuffer, IntBuffer, long)}.
+     *
+     * The remaining bytes of the data buffer are transferred. The buffer
+     * position is not modified.
+     *
+     * @param endpoint
+     *            The address of a valid endpoint to communicate with.
+     * @param data
+     *            A suitably-sized data buffer for either input or output
+     *            (depending on endpoint).
+     * @param transferred
+     *            Output location for the number of bytes actually
+     *            transferred.
+     * @param timeout
+     *            Timeout (in milliseconds) that this function should wait
+     *            before giving up due to no response being received. For an
+     *            unlimited timeout, use value 0.
+     * @return 0 on success (and populates transferred),
+     *         {@link LibUsb#ERROR_TIMEOUT} if the transfer timed out (and
+     *         populates transferred), another ERROR code on other failures.
+     */
+    public int bulkTransfer(final byte endpoint, final ByteBuffer data,
+        final IntBuffer transferred, final long timeout)
+    {
+        final IoRequest request = new IoRequest();
+        final Waiter waiter = new Waiter();
+        request.fillBulk(endpoint, data.duplicate(), waiter, null, timeout);
+        return this.transfer(request, waiter, transferred);
+    }
+
+    /**
+     * Perform a USB interrupt transfer. See
+     * {@link LibUsb#interruptTransfer(DeviceHandle, byte, ByteBuffer, IntBuffer, long)}.
+     *
+     * The remaining bytes of the data buffer are transferred. The buffer
+     * position is not modified.
+     *
+     * @param endpoint
+     *            The address of a valid endpoint to communicate with.
+     * @param data
+     *            A suitably-sized data buffer for either input or output
+     *            (depending on endpoint).
+     * @param transferred
+     *            Output location for the number of bytes actually
+     *            transferred.
+     * @param timeout
+     *            Timeout (in milliseconds) that this function should wait
+     *            before giving up due to no response being received. For an
+     *            unlimited timeout, use value 0.
+     * @return 0 on success (and populates transferred),
+     *         {@link LibUsb#ERROR_TIMEOUT} if the transfer timed out (and
+     *         populates transferred), another ERROR code on other failures.
+     */
+    public int interruptTransfer(final byte endpoint, final ByteBuffer data,
+        final IntBuffer transferred, final long timeout)
+    {
+        final IoRequest request = new IoRequest();
+        final Waiter waiter = new Waiter();
+        request.fillInterrupt(endpoint, data.duplicate(), waiter, null,
+            timeout);
+        return this.transfer(request, waiter, transferred);
+    }
+
+    /**
+     * Executes a bulk or interrupt request and reports the number of
+     * transferred bytes.
+     *
+     * @param request
+     *            The request to execute.
+     * @param waiter
+     *            The callback of the request.
+     * @param transferred
+     *            Output location for the number of bytes actually
+     *            transferred.
+     * @return The error code.
+     */
+    private int transfer(final IoRequest request, final Waiter waiter,
+        final IntBuffer transferred)
+    {
+        final int result = this.execute(request, waiter);
+        if (result == LibUsb.SUCCESS || result == LibUsb.ERROR_TIMEOUT)
+        {
+            transferred.put(0, request.actualLength());
+        }
+        return result;
+    }
+
+    /**
+     * Submits a request and parks the current thread until it is completed.
+     *
+     * @param request
+     *            The request to execute.
+     * @param waiter
+     *            The callback of the request.
+     * @return The error code.
+     */
+    private int execute(final IoRequest request, final Waiter waiter)
+    {
+        final int result = this.backend.submit(request);
+        if (result != LibUsb.SUCCESS)
+        {
+            return result;
+        }
+        boolean interrupted = false;
+        while (!waiter.done)
+        {
+            LockSupport.park(waiter);
+            if (Thread.interrupted() && !interrupted)
+            {
+                // Cancel the transfer and keep waiting for its completion
+                // because the buffer is in use until then.
+                interrupted = true;
+                this.backend.cancel(request);
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return request.resultCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java blocking I/O on %s", this.backend);
+    }
+}
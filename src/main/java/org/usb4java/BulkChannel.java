@@ -0,0 +1,466 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Byte channel on a pair of bulk endpoints.
+ *
+ * Reading is done with read-ahead: A configurable number of IN requests is
+ * kept queued at the device, so data keeps flowing while the application is
+ * processing the previous data. Reads block until at least one byte is
+ * available. Writes block until all data has been written and are done with
+ * a {@link GatheringBulkWriter}, so gathering writes don't copy packet
+ * aligned data.
+ *
+ * Combined with {@link java.nio.channels.Channels#newInputStream} and
+ * {@link java.nio.channels.Channels#newOutputStream} this channel provides
+ * streams for existing stream based code.
+ *
+ * Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class BulkChannel implements ByteChannel, ScatteringByteChannel,
+    GatheringByteChannel
+{
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** The bulk IN endpoint address. 0 if channel is not readable. */
+    private final byte inEndpoint;
+
+    /** The writer. Null if channel is not writable. */
+    private final GatheringBulkWriter writer;
+
+    /** The read timeout in milliseconds. 0 for no timeout. */
+    private final long readTimeout;
+
+    /** The read-ahead requests. */
+    private final IoRequest[] readAhead;
+
+    /** The completed read-ahead requests in completion order. */
+    private final Queue<IoRequest> completed = new ArrayDeque<IoRequest>();
+
+    /** The callback of the read-ahead requests. */
+    private final IoCallback readCallback = new IoCallback()
+    {
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            BulkChannel.this.readCompleted(request);
+        }
+    };
+
+    /** The read-ahead requests which were stopped by an error. */
+    private final Queue<IoRequest> stopped = new ArrayDeque<IoRequest>();
+
+    /** The completed request currently being consumed. */
+    private IoRequest current;
+
+    /** The error code of the last failed read. */
+    private int readError = LibUsb.SUCCESS;
+
+    /** If read-ahead has been started. */
+    private boolean reading;
+
+    /** If channel is open. */
+    private volatile boolean open = true;
+
+    /**
+     * Constructs a new bulk channel.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param inEndpoint
+     *            The address of the bulk IN endpoint. 0 if the channel should
+     *            not be readable.
+     * @param outEndpoint
+     *            The address of the bulk OUT endpoint. 0 if the channel should
+     *            not be writable.
+     * @param maxPacketSize
+     *            The maximum packet size of the endpoints.
+     * @param requestSize
+     *            The size of a single request. Rounded up to a multiple of
+     *            the maximum packet size.
+     * @param readAheadDepth
+     *            The number of IN requests to keep queued.
+     * @param timeout
+     *            The read and write timeout in milliseconds. 0 for no timeout.
+     */
+    public BulkChannel(final IoBackend backend, final byte inEndpoint,
+        final byte outEndpoint, final int maxPacketSize,
+        final int requestSize, final int readAheadDepth, final long timeout)
+    {
+        if (maxPacketSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxPacketSize must be positive");
+        }
+        if (readAheadDepth <= 0)
+        {
+            throw new IllegalArgumentException(
+                "readAheadDepth must be positive");
+        }
+        this.backend = backend;
+        this.inEndpoint = inEndpoint;
+        this.readTimeout = timeout;
+        final int size = ((Math.max(requestSize, 1) + maxPacketSize - 1)
+            / maxPacketSize) * maxPacketSize;
+        if (outEndpoint == 0)
+        {
+            this.writer = null;
+        }
+        else
+        {
+            this.writer = new GatheringBulkWriter(backend, outEndpoint,
+                maxPacketSize, size, timeout);
+        }
+        if (inEndpoint == 0)
+        {
+            this.readAhead = new IoRequest[0];
+        }
+        else
+        {
+            this.readAhead = new IoRequest[readAheadDepth];
+            for (int i = 0; i < readAheadDepth; i++)
+            {
+                final IoRequest request = new IoRequest();
+
+                // Read-ahead requests never time out, the read timeout is
+                // applied while waiting for them.
+                request.fillBulk(inEndpoint,
+                    BufferUtils.allocateByteBuffer(size), this.readCallback,
+                    null, 0);
+                this.readAhead[i] = request;
+            }
+        }
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return this.open;
+    }
+
+    /**
+     * Closes the channel and cancels all pending read-ahead requests.
+     * Data which has already been read ahead is discarded.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (this.completed)
+        {
+            if (!this.open)
+            {
+                return;
+            }
+            this.open = false;
+            this.completed.notifyAll();
+        }
+        for (final IoRequest request : this.readAhead)
+        {
+            this.backend.cancel(request);
+        }
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException
+    {
+        return (int) this.read(new ByteBuffer[] { dst }, 0, 1);
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts) throws IOException
+    {
+        return this.read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public long read(final ByteBuffer[] dsts, final int offset,
+        final int length) throws IOException
+    {
+        if (this.inEndpoint == 0)
+        {
+            throw new NonReadableChannelException();
+        }
+        int index = offset;
+        final int end = offset + length;
+        while (index < end && !dsts[index].hasRemaining())
+        {
+            index++;
+        }
+        if (index == end)
+        {
+            return 0;
+        }
+
+        long read = 0;
+        synchronized (this.completed)
+        {
+            this.startReading();
+            IoRequest request = this.awaitData();
+            while (request != null && index < end)
+            {
+                final ByteBuffer src = request.buffer();
+                final ByteBuffer dst = dsts[index];
+                final int n = Math.min(src.remaining(), dst.remaining());
+                final int limit = src.limit();
+                src.limit(src.position() + n);
+                dst.put(src);
+                src.limit(limit);
+                read += n;
+                if (!dst.hasRemaining())
+                {
+                    index++;
+                }
+                if (!src.hasRemaining())
+                {
+                    this.current = null;
+                    this.resubmit(request);
+                    request = this.nextData();
+                }
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Starts the read-ahead if not already done. Must be called while
+     * holding the completed queue monitor.
+     *
+     * @throws IOException
+     *             When read-ahead could not be started.
+     */
+    private void startReading() throws IOException
+    {
+        if (this.reading)
+        {
+            return;
+        }
+        this.reading = true;
+        for (final IoRequest request : this.readAhead)
+        {
+            this.resubmit(request);
+        }
+        this.checkReadError();
+    }
+
+    /**
+     * Re-submits a read-ahead request. Must be called while holding the
+     * completed queue monitor.
+     *
+     * @param request
+     *            The request to re-submit.
+     */
+    private void resubmit(final IoRequest request)
+    {
+        if (!this.open)
+        {
+            return;
+        }
+        request.buffer().clear();
+        final int result = this.backend.submit(request);
+        if (result != LibUsb.SUCCESS)
+        {
+            this.stopped.add(request);
+            if (this.readError == LibUsb.SUCCESS)
+            {
+                this.readError = result;
+            }
+        }
+    }
+
+    /**
+     * Returns the next request with unread data without waiting. Must be
+     * called while holding the completed queue monitor.
+     *
+     * @return The request with unread data or null if none.
+     */
+    private IoRequest nextData()
+    {
+        if (this.current == null)
+        {
+            IoRequest request = this.completed.poll();
+            while (request != null)
+            {
+                if (request.status() == LibUsb.TRANSFER_COMPLETED
+                    || request.status() == LibUsb.TRANSFER_TIMED_OUT)
+                {
+                    final ByteBuffer buffer = request.buffer();
+                    buffer.limit(request.actualLength());
+                    buffer.position(0);
+                    if (buffer.hasRemaining())
+                    {
+                        this.current = request;
+                        break;
+                    }
+                }
+                else if (this.readError == LibUsb.SUCCESS && this.open)
+                {
+                    this.readError = request.resultCode();
+                }
+
+                // Zero length reads are retried. Failed reads are stopped
+                // until the error has been reported.
+                if (this.readError == LibUsb.SUCCESS)
+                {
+                    this.resubmit(request);
+                }
+                else
+                {
+                    this.stopped.add(request);
+                }
+                request = this.completed.poll();
+            }
+        }
+        return this.current;
+    }
+
+    /**
+     * Waits for unread data. Must be called while holding the completed
+     * queue monitor.
+     *
+     * @return The request with unread data. Never null.
+     * @throws IOException
+     *             When channel was closed, reading failed, timed out or the
+     *             thread was interrupted.
+     */
+    private IoRequest awaitData() throws IOException
+    {
+        final long deadline = System.currentTimeMillis() + this.readTimeout;
+        IoRequest request = this.nextData();
+        while (request == null)
+        {
+            if (!this.open)
+            {
+                throw new ClosedChannelException();
+            }
+            this.checkReadError();
+            long wait = 0;
+            if (this.readTimeout > 0)
+            {
+                wait = deadline - System.currentTimeMillis();
+                if (wait <= 0)
+                {
+                    throw new InterruptedIOException("Read timed out");
+                }
+            }
+            try
+            {
+                this.completed.wait(wait);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Read interrupted");
+            }
+            request = this.nextData();
+        }
+        return request;
+    }
+
+    /**
+     * Throws the recorded read error. Must be called while holding the
+     * completed queue monitor. Restarts the read-ahead requests which were
+     * stopped by the error so the next read tries again.
+     *
+     * @throws IOException
+     *             When a read error has been recorded.
+     */
+    private void checkReadError() throws IOException
+    {
+        final int error = this.readError;
+        if (error == LibUsb.SUCCESS)
+        {
+            return;
+        }
+        this.readError = LibUsb.SUCCESS;
+        final int numStopped = this.stopped.size();
+        for (int i = 0; i < numStopped; i++)
+        {
+            this.resubmit(this.stopped.poll());
+        }
+        throw new IOException("Bulk read failed",
+            LibUsbException.of(error));
+    }
+
+    /**
+     * Called when a read-ahead request is finished.
+     *
+     * @param request
+     *            The finished request.
+     */
+    void readCompleted(final IoRequest request)
+    {
+        synchronized (this.completed)
+        {
+            this.completed.add(request);
+            this.completed.notifyAll();
+        }
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException
+    {
+        return (int) this.write(new ByteBuffer[] { src }, 0, 1);
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs) throws IOException
+    {
+        return this.write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset,
+        final int length) throws IOException
+    {
+        if (this.writer == null)
+        {
+            throw new NonWritableChannelException();
+        }
+        if (!this.open)
+        {
+            throw new ClosedChannelException();
+        }
+        long total = 0;
+        for (int i = offset; i < offset + length; i++)
+        {
+            total += srcs[i].remaining();
+        }
+        if (total == 0)
+        {
+            return 0;
+        }
+        try
+        {
+            return this.writer.write(srcs, offset, length, false);
+        }
+        catch (final LibUsbException e)
+        {
+            throw new IOException("Bulk write failed", e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java bulk channel on %s", this.backend);
+    }
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Message oriented communication over a pair of bulk endpoints.
+ *
+ * On the USB wire a bulk message ends with a short packet. When the length
+ * of a message is a multiple of the maximum packet size the message must be
+ * terminated with a zero length packet instead, otherwise the receiver keeps
+ * waiting for more data. This class takes care of these rules:
+ *
+ * <ul>
+ * <li>Written messages automatically get the
+ * {@link LibUsb#TRANSFER_ADD_ZERO_PACKET} flag when their length is a
+ * multiple of the maximum packet size.</li>
+ * <li>Read requests which end with a full packet are joined with the
+ * following requests until a short packet is received, so
+ * {@link #readMessage()} always returns whole messages.</li>
+ * </ul>
+ *
+ * Messages which fit into a single read request are returned without
+ * copying: The application receives the request buffer itself and the
+ * request continues with a fresh buffer. Returned buffers can be handed back
+ * with {@link #recycle(ByteBuffer)} so they are reused for reading.
+ *
+ * Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class BulkMessagePipe
+{
+    /** Mask for the packet size bits of wMaxPacketSize. */
+    private static final int MAX_PACKET_SIZE_MASK = 0x7ff;
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** The larger maximum packet size of both endpoints. */
+    private final int maxPacketSize;
+
+    /** The maximum packet size of the OUT endpoint. */
+    private final int outMaxPacketSize;
+
+    /** The size of a single read request. */
+    private final int requestSize;
+
+    /** The writer. Null if pipe is not writable. */
+    private final GatheringBulkWriter writer;
+
+    /** The read timeout in milliseconds. 0 for no timeout. */
+    private final long readTimeout;
+
+    /** The read-ahead requests. */
+    private final IoRequest[] readAhead;
+
+    /** The completed read-ahead requests in completion order. */
+    private final Queue<IoRequest> completed = new ArrayDeque<IoRequest>();
+
+    /** Free read buffers. */
+    private final Queue<ByteBuffer> freeBuffers = new ArrayDeque<ByteBuffer>();
+
+    /** The read-ahead requests which could not be re-submitted. */
+    private final Queue<IoRequest> stopped = new ArrayDeque<IoRequest>();
+
+    /** The full parts of the message which is currently received. */
+    private final List<ByteBuffer> parts = new ArrayList<ByteBuffer>();
+
+    /** The callback of the read-ahead requests. */
+    private final IoCallback readCallback = new IoCallback()
+    {
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            synchronized (BulkMessagePipe.this.completed)
+            {
+                BulkMessagePipe.this.completed.add(request);
+                BulkMessagePipe.this.completed.notifyAll();
+            }
+        }
+    };
+
+    /** If read-ahead has been started. */
+    private boolean reading;
+
+    /** If pipe is open. */
+    private volatile boolean open = true;
+
+    /**
+     * Constructs a new message pipe.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param inEndpoint
+     *            The address of the bulk IN endpoint. 0 if the pipe should
+     *            not be readable.
+     * @param outEndpoint
+     *            The address of the bulk OUT endpoint. 0 if the pipe should
+     *            not be writable.
+     * @param maxPacketSize
+     *            The maximum packet size of the endpoints.
+     * @param requestSize
+     *            The size of a single request. Rounded up to a multiple of
+     *            the maximum packet size. Messages up to this size are read
+     *            without copying.
+     * @param readAheadDepth
+     *            The number of IN requests to keep queued.
+     * @param timeout
+     *            The read and write timeout in milliseconds. 0 for no timeout.
+     */
+    public BulkMessagePipe(final IoBackend backend, final byte inEndpoint,
+        final byte outEndpoint, final int maxPacketSize,
+        final int requestSize, final int readAheadDepth, final long timeout)
+    {
+        this(backend, inEndpoint, outEndpoint, maxPacketSize, maxPacketSize,
+            requestSize, readAheadDepth, timeout);
+    }
+
+    /**
+     * Constructs a new message pipe for endpoints with different maximum
+     * packet sizes.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param inEndpoint
+     *            The address of the bulk IN endpoint. 0 if the pipe should
+     *            not be readable.
+     * @param outEndpoint
+     *            The address of the bulk OUT endpoint. 0 if the pipe should
+     *            not be writable.
+     * @param inMaxPacketSize
+     *            The maximum packet size of the IN endpoint.
+     * @param outMaxPacketSize
+     *            The maximum packet size of the OUT endpoint. Decides when a
+     *            zero length packet is appended to a written message.
+     * @param requestSize
+     *            The size of a single request. Rounded up to a multiple of
+     *            the larger maximum packet size. Messages up to this size
+     *            are read without copying.
+     * @param readAheadDepth
+     *            The number of IN requests to keep queued.
+     * @param timeout
+     *            The read and write timeout in milliseconds. 0 for no timeout.
+     */
+    public BulkMessagePipe(final IoBackend backend, final byte inEndpoint,
+        final byte outEndpoint, final int inMaxPacketSize,
+        final int outMaxPacketSize, final int requestSize,
+        final int readAheadDepth, final long timeout)
+    {
+        if (inMaxPacketSize <= 0 || outMaxPacketSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxPacketSize must be positive");
+        }
+        this.backend = backend;
+        // Packet sizes are powers of two, so the larger one is a multiple
+        // of the smaller one
+        this.maxPacketSize = Math.max(inMaxPacketSize, outMaxPacketSize);
+        this.outMaxPacketSize = outMaxPacketSize;
+        this.requestSize = ((Math.max(requestSize, 1)
+            + this.maxPacketSize - 1) / this.maxPacketSize)
+            * this.maxPacketSize;
+        this.readTimeout = timeout;
+        if (outEndpoint == 0)
+        {
+            this.writer = null;
+        }
+        else
+        {
+            this.writer = new GatheringBulkWriter(backend, outEndpoint,
+                outMaxPacketSize, this.requestSize, timeout);
+        }
+        final int depth = inEndpoint == 0 ? 0 : Math.max(readAheadDepth, 1);
+        this.readAhead = new IoRequest[depth];
+        for (int i = 0; i < depth; i++)
+        {
+            final IoRequest request = new IoRequest();
+            request.fillBulk(inEndpoint,
+                BufferUtils.allocateByteBuffer(this.requestSize),
+                this.readCallback, null, 0);
+            this.readAhead[i] = request;
+        }
+    }
+
+    /**
+     * Creates a message pipe for the specified endpoints. The endpoint
+     * addresses and the maximum packet size are taken from the descriptors.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param in
+     *            The bulk IN endpoint descriptor. Null if the pipe should not
+     *            be readable.
+     * @param out
+     *            The bulk OUT endpoint descriptor. Null if the pipe should not
+     *            be writable.
+     * @param requestSize
+     *            The size of a single request.
+     * @param readAheadDepth
+     *            The number of IN requests to keep queued.
+     * @param timeout
+     *            The read and write timeout in milliseconds. 0 for no timeout.
+     * @return The message pipe.
+     */
+    public static BulkMessagePipe create(final IoBackend backend,
+        final EndpointDescriptor in, final EndpointDescriptor out,
+        final int requestSize, final int readAheadDepth, final long timeout)
+    {
+        final int inMaxPacketSize =
+            in == null ? getMaxPacketSize(out) : getMaxPacketSize(in);
+        final int outMaxPacketSize =
+            out == null ? inMaxPacketSize : getMaxPacketSize(out);
+        return new BulkMessagePipe(backend,
+            in == null ? 0 : in.bEndpointAddress(),
+            out == null ? 0 : out.bEndpointAddress(), inMaxPacketSize,
+            outMaxPacketSize, requestSize, readAheadDepth, timeout);
+    }
+
+    /**
+     * Returns the maximum packet size of the specified endpoint. This is the
+     * packet size part of wMaxPacketSize without the bits for additional
+     * transactions per microframe.
+     *
+     * @param descriptor
+     *            The endpoint descriptor.
+     * @return The maximum packet size.
+     */
+    public static int getMaxPacketSize(final EndpointDescriptor descriptor)
+    {
+        return descriptor.wMaxPacketSize() & MAX_PACKET_SIZE_MASK;
+    }
+
+    /**
+     * Returns the larger maximum packet size of both endpoints.
+     *
+     * @return The maximum packet size.
+     */
+    public int getMaxPacketSize()
+    {
+        return this.maxPacketSize;
+    }
+
+    /**
+     * Writes a message. A zero length packet is automatically appended when
+     * the length of the message is a multiple of the maximum packet size of
+     * the OUT endpoint.
+     *
+     * @param message
+     *            The message to write. Its position is advanced by the
+     *            number of written bytes.
+     * @throws IOException
+     *             When writing failed.
+     */
+    public void writeMessage(final ByteBuffer message) throws IOException
+    {
+        this.writeMessage(new ByteBuffer[] { message });
+    }
+
+    /**
+     * Writes a message which is scattered over multiple buffers. A zero
+     * length packet is automatically appended when the length of the message
+     * is a multiple of the maximum packet size of the OUT endpoint.
+     *
+     * @param message
+     *            The buffers containing the message. Their positions are
+     *            advanced by the number of written bytes.
+     * @throws IOException
+     *             When writing failed.
+     */
+    public void writeMessage(final ByteBuffer[] message) throws IOException
+    {
+        if (this.writer == null)
+        {
+            throw new IllegalStateException("Pipe is not writable");
+        }
+        this.checkOpen();
+        long length = 0;
+        for (final ByteBuffer buffer : message)
+        {
+            length += buffer.remaining();
+        }
+        try
+        {
+            this.writer.write(message,
+                length % this.outMaxPacketSize == 0);
+        }
+        catch (final LibUsbException e)
+        {
+            throw new IOException("Bulk message write failed", e);
+        }
+    }
+
+    /**
+     * Reads the next message. The returned buffer belongs to the caller. It
+     * can be handed back with {@link #recycle(ByteBuffer)} when no longer
+     * needed.
+     *
+     * A read-ahead request which can't be re-submitted after its data has
+     * been received doesn't fail the read which received the data. The
+     * submission is retried by the next read, which fails if the retry
+     * fails too.
+     *
+     * @return The message. Position is 0 and limit is the message length.
+     * @throws IOException
+     *             When reading failed, timed out or the thread was
+     *             interrupted, or when a read-ahead request could not be
+     *             re-submitted.
+     */
+    public ByteBuffer readMessage() throws IOException
+    {
+        if (this.readAhead.length == 0)
+        {
+            throw new IllegalStateException("Pipe is not readable");
+        }
+        final long deadline = System.currentTimeMillis() + this.readTimeout;
+        synchronized (this.completed)
+        {
+            this.startReading();
+            while (true)
+            {
+                final IoRequest request = this.awaitRequest(deadline);
+                if (request.status() != LibUsb.TRANSFER_COMPLETED)
+                {
+                    this.discardParts();
+                    this.resubmit(request);
+                    throw new IOException("Bulk message read failed",
+                        LibUsbException.of(request.resultCode()));
+                }
+                final int actualLength = request.actualLength();
+                if (actualLength == this.requestSize)
+                {
+                    // Full request, message continues in the next one
+                    this.parts.add(this.takeBuffer(request));
+                    this.submit(request);
+                    continue;
+                }
+                if (this.parts.isEmpty())
+                {
+                    final ByteBuffer message = this.takeBuffer(request);
+                    this.resubmit(request);
+                    return message;
+                }
+                final ByteBuffer message = this.joinParts(request);
+                this.resubmit(request);
+                return message;
+            }
+        }
+    }
+
+    /**
+     * Hands a message buffer back to the pipe so it can be reused for
+     * reading. Buffers which don't fit are ignored.
+     *
+     * @param buffer
+     *            The buffer to recycle. Must not be used anymore by the
+     *            caller.
+     */
+    public void recycle(final ByteBuffer buffer)
+    {
+        if (buffer.isDirect() && buffer.capacity() == this.requestSize)
+        {
+            synchronized (this.completed)
+            {
+                if (this.freeBuffers.size() < this.readAhead.length)
+                {
+                    this.freeBuffers.add(buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the pipe and cancels all pending read-ahead requests.
+     */
+    public void close()
+    {
+        synchronized (this.completed)
+        {
+            if (!this.open)
+            {
+                return;
+            }
+            this.open = false;
+            this.completed.notifyAll();
+        }
+        for (final IoRequest request : this.readAhead)
+        {
+            this.backend.cancel(request);
+        }
+    }
+
+    /**
+     * Checks if pipe is still open.
+     *
+     * @throws IOException
+     *             When pipe is closed.
+     */
+    private void checkOpen() throws IOException
+    {
+        if (!this.open)
+        {
+            throw new IOException("Pipe is closed");
+        }
+    }
+
+    /**
+     * Starts the read-ahead if not already done and restarts read-ahead
+     * requests which could not be re-submitted earlier. Must be called while
+     * holding the completed queue monitor.
+     *
+     * @throws IOException
+     *             When read-ahead could not be started.
+     */
+    private void startReading() throws IOException
+    {
+        if (!this.reading)
+        {
+            this.reading = true;
+            for (final IoRequest request : this.readAhead)
+            {
+                this.stopped.add(request);
+            }
+        }
+        final int numStopped = this.stopped.size();
+        for (int i = 0; i < numStopped; i++)
+        {
+            this.submit(this.stopped.poll());
+        }
+    }
+
+    /**
+     * Waits for the next completed request. Must be called while holding the
+     * completed queue monitor.
+     *
+     * @param deadline
+     *            The deadline for the read timeout.
+     * @return The completed request. Never null.
+     * @throws IOException
+     *             When pipe was closed, reading timed out or the thread was
+     *             interrupted.
+     */
+    private IoRequest awaitRequest(final long deadline) throws IOException
+    {
+        IoRequest request = this.completed.poll();
+        while (request == null)
+        {
+            this.checkOpen();
+            long wait = 0;
+            if (this.readTimeout > 0)
+            {
+                wait = deadline - System.currentTimeMillis();
+                if (wait <= 0)
+                {
+                    throw new InterruptedIOException("Read timed out");
+                }
+            }
+            try
+            {
+                this.completed.wait(wait);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Read interrupted");
+            }
+            request = this.completed.poll();
+        }
+        return request;
+    }
+
+    /**
+     * Re-submits a read-ahead request. Must be called while holding the
+     * completed queue monitor.
+     *
+     * @param request
+     *            The request to submit.
+     * @throws IOException
+     *             When request could not be submitted.
+     */
+    private void submit(final IoRequest request) throws IOException
+    {
+        final int result = this.resubmit(request);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new IOException("Unable to submit read request",
+                LibUsbException.of(result));
+        }
+    }
+
+    /**
+     * Re-submits a read-ahead request without throwing. A request which
+     * could not be submitted is kept stopped, so the next read retries it
+     * and reports the failure if it persists. Must be called while holding
+     * the completed queue monitor.
+     *
+     * @param request
+     *            The request to submit.
+     * @return {@link LibUsb#SUCCESS} or the error code of the backend.
+     */
+    private int resubmit(final IoRequest request)
+    {
+        if (!this.open)
+        {
+            return LibUsb.SUCCESS;
+        }
+        request.buffer().clear();
+        final int result = this.backend.submit(request);
+        if (result != LibUsb.SUCCESS)
+        {
+            // Keep the request in circulation, next read retries it
+            this.stopped.add(request);
+        }
+        return result;
+    }
+
+    /**
+     * Takes the received data out of the request and gives the request a
+     * fresh buffer. Must be called while holding the completed queue
+     * monitor.
+     *
+     * @param request
+     *            The completed request.
+     * @return The received data.
+     */
+    private ByteBuffer takeBuffer(final IoRequest request)
+    {
+        final ByteBuffer data = request.buffer();
+        data.position(0);
+        data.limit(request.actualLength());
+        ByteBuffer buffer = this.freeBuffers.poll();
+        if (buffer == null)
+        {
+            buffer = BufferUtils.allocateByteBuffer(this.requestSize);
+        }
+        request.setBuffer(buffer);
+        return data;
+    }
+
+    /**
+     * Joins the collected full parts and the final short part of the
+     * specified request into a single message. Must be called while holding
+     * the completed queue monitor.
+     *
+     * @param last
+     *            The request with the final part.
+     * @return The message.
+     */
+    private ByteBuffer joinParts(final IoRequest last)
+    {
+        final int lastLength = last.actualLength();
+        final ByteBuffer message = BufferUtils.allocateByteBuffer(
+            this.parts.size() * this.requestSize + lastLength);
+        for (final ByteBuffer part : this.parts)
+        {
+            message.put(part);
+            this.recycleLocked(part);
+        }
+        this.parts.clear();
+        final ByteBuffer tail = last.buffer();
+        tail.position(0);
+        tail.limit(lastLength);
+        message.put(tail);
+        message.flip();
+        return message;
+    }
+
+    /**
+     * Discards the collected parts of an incomplete message. Must be called
+     * while holding the completed queue monitor.
+     */
+    private void discardParts()
+    {
+        for (final ByteBuffer part : this.parts)
+        {
+            this.recycleLocked(part);
+        }
+        this.parts.clear();
+    }
+
+    /**
+     * Recycles a buffer. Must be called while holding the completed queue
+     * monitor.
+     *
+     * @param buffer
+     *            The buffer to recycle.
+     */
+    private void recycleLocked(final ByteBuffer buffer)
+    {
+        if (this.freeBuffers.size() < this.readAhead.length)
+        {
+            this.freeBuffers.add(buffer);
+        }
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves the processing of completed requests and transfers from the event
+ * handling thread to a pool of worker threads.
+ *
+ * Callbacks are normally called by the thread handling the libusb events,
+ * so a slow callback delays all other completions of the context. Callbacks
+ * wrapped with {@link #wrapRequest(IoCallback)} or
+ * {@link #wrapTransfer(TransferCallback)} only put a record of the
+ * completion into a preallocated lock-free ring and return immediately. The
+ * record holds the completed request or transfer, the callback to call and
+ * a copy of the status and actual length taken on the event handling
+ * thread. The worker threads take the records from the ring and call the
+ * wrapped callbacks. The copied status and actual length of a request are
+ * restored before its callback is called, so each record reports the
+ * completion it was created for.
+ *
+ * The data buffer, the isochronous packet results and the native fields of
+ * a transfer are not copied. A request or transfer must therefore not be
+ * resubmitted, reused or freed before its wrapped callback has run, which
+ * is usually the place where it is resubmitted. Transfers with the
+ * {@link LibUsb#TRANSFER_FREE_TRANSFER} flag are freed by libusb as soon as
+ * the callback returns, so they are never handed off but always processed
+ * directly on the event handling thread.
+ *
+ * When the ring is full the wrapped callback is called directly on the
+ * event handling thread, so completions are never dropped and the event
+ * handling thread never blocks. This is counted as an overflow.
+ *
+ * With more than one worker thread callbacks may run concurrently and out
+ * of completion order. Use a single worker when order matters.
+ *
+ * @author usb4java Team
+ */
+public final class CompletionHandoff
+{
+    /** The time in nanoseconds an idle worker waits before checking again. */
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * A slot of the ring.
+     */
+    private static final class Slot
+    {
+        /** The completed request. Null if slot holds a transfer. */
+        IoRequest request;
+
+        /** The callback of the request. */
+        IoCallback callback;
+
+        /** The completed transfer. Null if slot holds a request. */
+        Transfer transfer;
+
+        /** The callback of the transfer. */
+        TransferCallback transferCallback;
+
+        /** The status at the time of the completion. */
+        int status;
+
+        /** The actual length at the time of the completion. */
+        int actualLength;
+
+        /** The time of the completion. */
+        long time;
+    }
+
+    /** The ring slots. */
+    private final Slot[] slots;
+
+    /** The sequence numbers of the ring slots. */
+    private final AtomicLongArray sequences;
+
+    /** The index mask of the ring. */
+    private final int mask;
+
+    /** The next write position. */
+    private final AtomicLong writePosition = new AtomicLong();
+
+    /** The next read position. */
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /** The worker threads. */
+    private final Thread[] workers;
+
+    /** The idle workers waiting for records. */
+    private final Queue<Thread> idleWorkers =
+        new ConcurrentLinkedQueue<Thread>();
+
+    /** The number of handed off completions. */
+    private final AtomicLong handoffs = new AtomicLong();
+
+    /** The summed up handoff latency in nanoseconds. */
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    /** The maximum handoff latency in nanoseconds. */
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /** The maximum ring occupancy. */
+    private final AtomicLong maxOccupancy = new AtomicLong();
+
+    /** The number of completions processed on the event thread. */
+    private final AtomicLong overflows = new AtomicLong();
+
+    /** If workers should stop. */
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a new completion handoff and starts the worker threads.
+     *
+     * @param capacity
+     *            The capacity of the ring. Rounded up to a power of two.
+     * @param workerCount
+     *            The number of worker threads.
+     */
+    public CompletionHandoff(final int capacity, final int workerCount)
+    {
+        if (capacity <= 0 || capacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("Invalid capacity: "
+                + capacity);
+        }
+        if (workerCount <= 0)
+        {
+            throw new IllegalArgumentException("workerCount must be positive");
+        }
+        int size = 1;
+        while (size < capacity)
+        {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+        {
+            this.slots[i] = new Slot();
+            this.sequences.set(i, i);
+        }
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++)
+        {
+            final Thread worker = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    CompletionHandoff.this.work();
+                }
+            }, "usb4java completion " + i);
+            worker.setDaemon(true);
+            this.workers[i] = worker;
+        }
+        for (final Thread worker : this.workers)
+        {
+            worker.start();
+        }
+    }
+
+    /**
+     * Wraps a request callback so it is called by a worker thread.
+     *
+     * @param callback
+     *            The callback to wrap.
+     * @return The wrapping callback to use for requests.
+     */
+    public IoCallback wrapRequest(final IoCallback callback)
+    {
+        return new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                if (!CompletionHandoff.this.offer(request, callback, null,
+                    null))
+                {
+                    callback.processRequest(request);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps a transfer callback so it is called by a worker thread.
+     * Transfers with the {@link LibUsb#TRANSFER_FREE_TRANSFER} flag are
+     * processed directly on the event handling thread.
+     *
+     * @param callback
+     *            The callback to wrap.
+     * @return The wrapping callback to use for transfers.
+     */
+    public TransferCallback wrapTransfer(final TransferCallback callback)
+    {
+        return new TransferCallback()
+        {
+            @Override
+            public void processTransfer(final Transfer transfer)
+            {
+                if ((transfer.flags() & LibUsb.TRANSFER_FREE_TRANSFER) != 0
+                    || !CompletionHandoff.this.offer(null, null, transfer,
+                        callback))
+                {
+                    callback.processTransfer(transfer);
+                }
+            }
+        };
+    }
+
+    /**
+     * Puts a completion record into the ring.
+     *
+     * @param request
+     *            The completed request or null.
+     * @param callback
+     *            The callback of the request or null.
+     * @param transfer
+     *            The completed transfer or null.
+     * @param transferCallback
+     *            The callback of the transfer or null.
+     * @return True if record was put into the ring, false if the ring is
+     *         full or the workers have been stopped.
+     */
+    boolean offer(final IoRequest request, final IoCallback callback,
+        final Transfer transfer, final TransferCallback transferCallback)
+    {
+        if (this.stopped)
+        {
+            this.overflows.incrementAndGet();
+            return false;
+        }
+        long position = this.writePosition.get();
+        int index;
+        while (true)
+        {
+            index = (int) position & this.mask;
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0)
+            {
+                if (this.writePosition.compareAndSet(position, position + 1))
+                {
+                    break;
+                }
+            }
+            else if (difference < 0)
+            {
+                this.overflows.incrementAndGet();
+                return false;
+            }
+            position = this.writePosition.get();
+        }
+        final Slot slot = this.slots[index];
+        slot.request = request;
+        slot.callback = callback;
+        slot.transfer = transfer;
+        slot.transferCallback = transferCallback;
+        if (request != null)
+        {
+            slot.status = request.status();
+            slot.actualLength = request.actualLength();
+        }
+        else
+        {
+            slot.status = transfer.status();
+            slot.actualLength = transfer.actualLength();
+        }
+        slot.time = System.nanoTime();
+        this.sequences.lazySet(index, position + 1);
+
+        final long occupancy = position + 1 - this.readPosition.get();
+        updateMax(this.maxOccupancy, occupancy);
+        final Thread idle = this.idleWorkers.poll();
+        if (idle != null)
+        {
+            LockSupport.unpark(idle);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the next record from the ring and calls its callback.
+     *
+     * @return True if a record was processed, false if the ring is empty.
+     */
+    boolean poll()
+    {
+        long position = this.readPosition.get();
+        int index;
+        while (true)
+        {
+            index = (int) position & this.mask;
+            final long difference =
+                this.sequences.get(index) - (position + 1);
+            if (difference == 0)
+            {
+                if (this.readPosition.compareAndSet(position, position + 1))
+                {
+                    break;
+                }
+            }
+            else if (difference < 0)
+            {
+                return false;
+            }
+            position = this.readPosition.get();
+        }
+        final Slot slot = this.slots[index];
+        final IoRequest request = slot.request;
+        final IoCallback callback = slot.callback;
+        final Transfer transfer = slot.transfer;
+        final TransferCallback transferCallback = slot.transferCallback;
+        final int status = slot.status;
+        final int actualLength = slot.actualLength;
+        final long latency = System.nanoTime() - slot.time;
+        slot.request = null;
+        slot.callback = null;
+        slot.transfer = null;
+        slot.transferCallback = null;
+        this.sequences.lazySet(index, position + this.mask + 1);
+
+        this.handoffs.incrementAndGet();
+        this.totalLatency.addAndGet(latency);
+        updateMax(this.maxLatency, latency);
+        try
+        {
+            if (request != null)
+            {
+                request.setResult(status, actualLength);
+                callback.processRequest(request);
+            }
+            else
+            {
+                transferCallback.processTransfer(transfer);
+            }
+        }
+        catch (final RuntimeException e)
+        {
+            // Report the exception but keep the worker running
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+        return true;
+    }
+
+    /**
+     * Updates a maximum value.
+     *
+     * @param max
+     *            The maximum to update.
+     * @param value
+     *            The new value.
+     */
+    private static void updateMax(final AtomicLong max, final long value)
+    {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value))
+        {
+            current = max.get();
+        }
+    }
+
+    /**
+     * The work loop of the worker threads.
+     */
+    void work()
+    {
+        final Thread thread = Thread.currentThread();
+        while (true)
+        {
+            if (this.poll())
+            {
+                continue;
+            }
+            if (this.stopped)
+            {
+                return;
+            }
+            this.idleWorkers.add(thread);
+
+            // Check again so a record offered in the meantime is not missed
+            if (this.getOccupancy() == 0)
+            {
+                LockSupport.parkNanos(this, IDLE_WAIT);
+            }
+            this.idleWorkers.remove(thread);
+        }
+    }
+
+    /**
+     * Stops the worker threads after they have processed the records in the
+     * ring. Completions arriving afterwards are processed on the event
+     * thread.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting for the workers to end.
+     */
+    public void shutdown() throws InterruptedException
+    {
+        this.stopped = true;
+        for (final Thread worker : this.workers)
+        {
+            LockSupport.unpark(worker);
+        }
+        for (final Thread worker : this.workers)
+        {
+            worker.join();
+        }
+
+        // Process records which were offered while stopping
+        while (this.poll())
+        {
+            continue;
+        }
+    }
+
+    /**
+     * Returns the capacity of the ring.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity()
+    {
+        return this.slots.length;
+    }
+
+    /**
+     * Returns the current number of records in the ring.
+     *
+     * @return The ring occupancy.
+     */
+    public int getOccupancy()
+    {
+        final long occupancy =
+            this.writePosition.get() - this.readPosition.get();
+        return (int) Math.max(0, Math.min(occupancy, this.slots.length));
+    }
+
+    /**
+     * Returns the maximum number of records which were in the ring at the
+     * same time.
+     *
+     * @return The maximum ring occupancy.
+     */
+    public int getMaxOccupancy()
+    {
+        return (int) Math.min(this.maxOccupancy.get(), this.slots.length);
+    }
+
+    /**
+     * Returns the number of completions handed off to the workers.
+     *
+     * @return The number of handed off completions.
+     */
+    public long getHandoffCount()
+    {
+        return this.handoffs.get();
+    }
+
+    /**
+     * Returns the number of completions processed on the event thread
+     * because the ring was full.
+     *
+     * @return The number of overflows.
+     */
+    public long getOverflowCount()
+    {
+        return this.overflows.get();
+    }
+
+    /**
+     * Returns the average time from the completion until a worker took the
+     * record from the ring.
+     *
+     * @return The average handoff latency in nanoseconds.
+     */
+    public long getAverageHandoffLatency()
+    {
+        final long count = this.handoffs.get();
+        return count == 0 ? 0 : this.totalLatency.get() / count;
+    }
+
+    /**
+     * Returns the maximum time from the completion until a worker took the
+     * record from the ring.
+     *
+     * @return The maximum handoff latency in nanoseconds.
+     */
+    public long getMaxHandoffLatency()
+    {
+        return this.maxLatency.get();
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public void resetStatistics()
+    {
+        this.handoffs.set(0);
+        this.totalLatency.set(0);
+        this.maxLatency.set(0);
+        this.maxOccupancy.set(0);
+        this.overflows.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "usb4java completion handoff (%d workers, %d/%d slots used)",
+            this.workers.length, this.getOccupancy(), this.slots.length);
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads devices over multiple independent libusb contexts.
+ *
+ * The transfer callbacks of a context are called by the single thread
+ * handling its events, so one context can use only a single core for
+ * callback processing. This class initializes a number of contexts (the
+ * shards), each with its own {@link EventHandlingThread}. Devices opened with
+ * {@link #open(Device)} are opened in the shard with the fewest open devices,
+ * so the callbacks of the transfers of different devices run on different
+ * threads. Transfers don't need any routing: Transfers on a device handle are
+ * always handled by the context the handle was opened in.
+ *
+ * All open handles of the same device belong to the same shard.
+ *
+ * @author usb4java Team
+ */
+public final class ContextShards
+{
+    /** The contexts. */
+    private final Context[] contexts;
+
+    /** The event handling threads. */
+    private final EventHandlingThread[] threads;
+
+    /** The router assigning devices to shards. */
+    private final ShardRouter router;
+
+    /** The device keys of the open handles. */
+    private final Map<DeviceHandle, String> handles =
+        new HashMap<DeviceHandle, String>();
+
+    /** If shards have been closed. */
+    private boolean closed;
+
+    /**
+     * Initializes the specified number of contexts and starts their event
+     * handling threads.
+     *
+     * @param count
+     *            The number of shards. Typically the number of cores which
+     *            should process transfer callbacks.
+     * @throws LibUsbException
+     *             When a context could not be initialized.
+     */
+    public ContextShards(final int count)
+    {
+        this(count, EventHandlingThread.DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * Initializes the specified number of contexts and starts their event
+     * handling threads with the specified poll interval.
+     *
+     * @param count
+     *            The number of shards.
+     * @param pollInterval
+     *            The poll interval of the event handling threads in
+     *            microseconds.
+     * @throws LibUsbException
+     *             When a context could not be initialized.
+     */
+    ContextShards(final int count, final long pollInterval)
+    {
+        if (count <= 0)
+        {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        this.router = new ShardRouter(count);
+        this.contexts = new Context[count];
+        this.threads = new EventHandlingThread[count];
+        for (int i = 0; i < count; i++)
+        {
+            final Context context = new Context();
+            final int result = LibUsb.init(context);
+            if (result != LibUsb.SUCCESS)
+            {
+                this.shutdown(i);
+                throw new LibUsbException("Unable to initialize shard "
+                    + i, result);
+            }
+            this.contexts[i] = context;
+            final EventHandlingThread thread =
+                new EventHandlingThread(context, pollInterval);
+            thread.setName("usb4java events " + i);
+            thread.start();
+            this.threads[i] = thread;
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount()
+    {
+        return this.contexts.length;
+    }
+
+    /**
+     * Returns the context of a shard.
+     *
+     * @param shard
+     *            The shard index.
+     * @return The context.
+     */
+    public Context getContext(final int shard)
+    {
+        return this.contexts[shard];
+    }
+
+    /**
+     * Runs a task on the event handling thread of a shard, serialized with
+     * the transfer callbacks of the shard. See
+     * {@link EventHandlingThread#execute(Runnable)}.
+     *
+     * @param shard
+     *            The shard index.
+     * @param task
+     *            The task to run.
+     */
+    void execute(final int shard, final Runnable task)
+    {
+        this.threads[shard].execute(task);
+    }
+
+    /**
+     * Returns the number of devices open in a shard.
+     *
+     * @param shard
+     *            The shard index.
+     * @return The number of open devices.
+     */
+    public int getLoad(final int shard)
+    {
+        return this.router.getLoad(shard);
+    }
+
+    /**
+     * Returns the shard a device handle belongs to.
+     *
+     * @param handle
+     *            The device handle opened with {@link #open(Device)}.
+     * @return The shard index or -1 if the handle wasn't opened by this
+     *         class or has already been closed.
+     */
+    public synchronized int getShard(final DeviceHandle handle)
+    {
+        final String key = this.handles.get(handle);
+        return key == null ? -1 : this.router.getShard(key);
+    }
+
+    /**
+     * Returns the key identifying a device across contexts. The key consists
+     * of the bus number and the port numbers, like "1-4.2". The device
+     * address is used when the port numbers are not available.
+     *
+     * @param device
+     *            The device.
+     * @return The device key.
+     */
+    static String getDeviceKey(final Device device)
+    {
+        final StringBuilder key = new StringBuilder();
+        key.append(LibUsb.getBusNumber(device));
+        final ByteBuffer path = BufferUtils.allocateByteBuffer(8);
+        final int depth = LibUsb.getPortNumbers(device, path);
+        if (depth > 0)
+        {
+            for (int i = 0; i < depth; i++)
+            {
+                key.append(i == 0 ? '-' : '.');
+                key.append(path.get(i) & 0xff);
+            }
+        }
+        else
+        {
+            key.append(':').append(LibUsb.getDeviceAddress(device));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Opens a device in the least loaded shard, or in the shard the device
+     * is already open in.
+     *
+     * @param device
+     *            The device to open. May come from any context, for example
+     *            from the device list of the first shard.
+     * @return The device handle. Must be closed with
+     *         {@link #close(DeviceHandle)}.
+     * @throws LibUsbException
+     *             When the device could not be found in the shard or could
+     *             not be opened.
+     */
+    public DeviceHandle open(final Device device)
+    {
+        final String key = getDeviceKey(device);
+        final int shard;
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                throw new IllegalStateException("Shards have been closed");
+            }
+            shard = this.router.acquire(key);
+        }
+        final DeviceHandle handle = new DeviceHandle();
+        final DeviceList list = new DeviceList();
+        int result = LibUsb.getDeviceList(this.contexts[shard], list);
+        if (result >= 0)
+        {
+            try
+            {
+                result = LibUsb.ERROR_NOT_FOUND;
+                for (final Device candidate : list)
+                {
+                    if (key.equals(getDeviceKey(candidate)))
+                    {
+                        result = LibUsb.open(candidate, handle);
+                        break;
+                    }
+                }
+            }
+            finally
+            {
+                LibUsb.freeDeviceList(list, true);
+            }
+        }
+        synchronized (this)
+        {
+            if (result != LibUsb.SUCCESS)
+            {
+                this.router.release(key);
+                throw new LibUsbException("Unable to open device " + key
+                    + " in shard " + shard, result);
+            }
+            this.handles.put(handle, key);
+        }
+        return handle;
+    }
+
+    /**
+     * Closes a device handle opened with {@link #open(Device)}.
+     *
+     * @param handle
+     *            The device handle to close.
+     */
+    public void close(final DeviceHandle handle)
+    {
+        synchronized (this)
+        {
+            final String key = this.handles.remove(handle);
+            if (key == null)
+            {
+                return;
+            }
+            this.router.release(key);
+        }
+        LibUsb.close(handle);
+    }
+
+    /**
+     * Closes all open device handles, stops the event handling threads and
+     * deinitializes the contexts.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting for the event handling
+     *             threads to end.
+     */
+    public void close() throws InterruptedException
+    {
+        final List<DeviceHandle> open;
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+            this.closed = true;
+            open = new ArrayList<DeviceHandle>(this.handles.keySet());
+        }
+        for (final DeviceHandle handle : open)
+        {
+            this.close(handle);
+        }
+        for (final EventHandlingThread thread : this.threads)
+        {
+            thread.abort();
+        }
+        for (final EventHandlingThread thread : this.threads)
+        {
+            thread.join();
+        }
+        this.shutdown(this.contexts.length);
+    }
+
+    /**
+     * Deinitializes the initialized contexts and stops the event handling
+     * threads not stopped yet.
+     *
+     * @param count
+     *            The number of initialized contexts.
+     */
+    private void shutdown(final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (this.threads[i] != null && this.threads[i].isAlive())
+            {
+                this.threads[i].abort();
+                try
+                {
+                    this.threads[i].join();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            LibUsb.exit(this.contexts[i]);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java context shards (%d shards)",
+            this.contexts.length);
+    }
+}
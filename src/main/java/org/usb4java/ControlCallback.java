@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Control request callback of a {@link ControlChannel}.
+ *
+ * @author usb4java Team
+ */
+public interface ControlCallback
+{
+    /**
+     * Processes a finished control request.
+     *
+     * Called in the order the requests were queued. For libusb based
+     * backends this is called from the thread which is handling libusb
+     * events, so it should return quickly.
+     *
+     * @param result
+     *            The number of bytes actually transferred on success, an
+     *            ERROR code on failure.
+     * @param data
+     *            The data stage of the request (From position 0 to the
+     *            number of bytes actually transferred). The buffer is reused
+     *            after the callback returns, so the data must be copied if
+     *            needed later.
+     * @param userData
+     *            The user data passed when the request was queued.
+     */
+    void processControl(int result, ByteBuffer data, Object userData);
+}
@@ -0,0 +1,572 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipelined asynchronous control transfers.
+ *
+ * The channel owns an arena of slots, each with a preformatted buffer for
+ * the setup packet and up to a configurable amount of data and a reusable
+ * request. All slot buffers are slices of a single direct buffer allocated
+ * once, so queuing a control request only writes the setup packet and the
+ * OUT data into a free slot and submits it. Many requests can be queued back
+ * to back without waiting for the previous ones, which avoids a full round
+ * trip per request when poking registers or downloading firmware.
+ *
+ * Callbacks are called in the order the requests were queued, even if the
+ * backend reports completions out of order. When all slots are in use,
+ * queuing blocks until the oldest request has been delivered. Callbacks may
+ * queue further requests, but get {@link LibUsb#ERROR_BUSY} instead of
+ * blocking when all slots are in use.
+ *
+ * Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class ControlChannel
+{
+    /**
+     * A slot of the arena.
+     */
+    private static final class Slot
+    {
+        /** The request of the slot. */
+        final IoRequest request = new IoRequest();
+
+        /** The setup packet and data buffer. */
+        final ByteBuffer buffer;
+
+        /** The setup packet. */
+        final ControlSetup setup;
+
+        /** The data stage view of the buffer. */
+        final ByteBuffer data;
+
+        /** The callback of the queued request. */
+        ControlCallback callback;
+
+        /** The user data of the queued request. */
+        Object userData;
+
+        /** The number of transferred bytes or the error code. */
+        int result;
+
+        /** If the request is finished. */
+        volatile boolean done;
+
+        /**
+         * Constructor.
+         *
+         * @param buffer
+         *            The setup packet and data buffer.
+         */
+        Slot(final ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+            this.setup = new ControlSetup(buffer);
+            this.data = BufferUtils.slice(buffer, LibUsb.CONTROL_SETUP_SIZE,
+                buffer.capacity() - LibUsb.CONTROL_SETUP_SIZE);
+        }
+    }
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** The backend created by this channel. Null if not owned. */
+    private final LibUsbBackend ownedBackend;
+
+    /** The slots. */
+    private final Slot[] slots;
+
+    /** The maximum data length of a request. */
+    private final int maxDataLength;
+
+    /** The callback of the slot requests. */
+    private final IoCallback completion = new IoCallback()
+    {
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            final Slot slot = (Slot) request.userData();
+            if (request.status() == LibUsb.TRANSFER_COMPLETED)
+            {
+                slot.result = request.actualLength();
+            }
+            else
+            {
+                slot.result = request.resultCode();
+            }
+            slot.done = true;
+            ControlChannel.this.drain();
+        }
+    };
+
+    /** The work counter serializing the delivery. */
+    private final AtomicInteger work = new AtomicInteger();
+
+    /** The number of the oldest undelivered request. */
+    private long head;
+
+    /** The number of the next queued request. */
+    private long tail;
+
+    /** The first error since the last flush. */
+    private int firstError = LibUsb.SUCCESS;
+
+    /** The thread currently delivering finished requests. */
+    private volatile Thread deliverer;
+
+    /** If channel is closed. */
+    private boolean closed;
+
+    /**
+     * Constructs a new control channel on a device handle. Creates its own
+     * {@link LibUsbBackend} with preallocated transfers for all slots.
+     *
+     * @param handle
+     *            The open device handle.
+     * @param depth
+     *            The number of slots, which is the maximum number of
+     *            requests in flight.
+     * @param maxDataLength
+     *            The maximum data length of a request.
+     */
+    public ControlChannel(final DeviceHandle handle, final int depth,
+        final int maxDataLength)
+    {
+        this(new LibUsbBackend(handle), depth, maxDataLength, true);
+    }
+
+    /**
+     * Constructs a new control channel.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param depth
+     *            The number of slots, which is the maximum number of
+     *            requests in flight.
+     * @param maxDataLength
+     *            The maximum data length of a request.
+     */
+    public ControlChannel(final IoBackend backend, final int depth,
+        final int maxDataLength)
+    {
+        this(backend, depth, maxDataLength, false);
+    }
+
+    /**
+     * Constructs a new control channel.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param depth
+     *            The number of slots.
+     * @param maxDataLength
+     *            The maximum data length of a request.
+     * @param owned
+     *            If the backend is a {@link LibUsbBackend} owned by this
+     *            channel.
+     */
+    private ControlChannel(final IoBackend backend, final int depth,
+        final int maxDataLength, final boolean owned)
+    {
+        if (backend == null)
+        {
+            throw new IllegalArgumentException("backend must not be null");
+        }
+        if (depth <= 0)
+        {
+            throw new IllegalArgumentException("depth must be positive");
+        }
+        if (maxDataLength < 0 || maxDataLength > 0xffff)
+        {
+            throw new IllegalArgumentException("Invalid maxDataLength: "
+                + maxDataLength);
+        }
+        this.backend = backend;
+        this.maxDataLength = maxDataLength;
+        final int slotSize = LibUsb.CONTROL_SETUP_SIZE + maxDataLength;
+        final ByteBuffer arena = BufferUtils.allocateByteBuffer(
+            depth * slotSize);
+        this.slots = new Slot[depth];
+        for (int i = 0; i < depth; i++)
+        {
+            this.slots[i] = new Slot(BufferUtils.slice(arena, i * slotSize,
+                slotSize));
+        }
+        if (owned)
+        {
+            this.ownedBackend = (LibUsbBackend) backend;
+            this.ownedBackend.preallocate(depth, 0);
+        }
+        else
+        {
+            this.ownedBackend = null;
+        }
+    }
+
+    /**
+     * Queues a host-to-device control request.
+     *
+     * @param bmRequestType
+     *            The request type field for the setup packet. Must have the
+     *            direction bit {@link LibUsb#ENDPOINT_OUT} set.
+     * @param bRequest
+     *            The request field for the setup packet.
+     * @param wValue
+     *            The value field for the setup packet.
+     * @param wIndex
+     *            The index field for the setup packet.
+     * @param data
+     *            The data to send. May be null for requests without data
+     *            stage. The data is copied, so the buffer can be reused
+     *            immediately. The buffer position is not modified.
+     * @param timeout
+     *            Timeout (in milliseconds) of the request. For an unlimited
+     *            timeout, use value 0.
+     * @param callback
+     *            The callback to call when the request is finished. May be
+     *            null when only {@link #flush()} is used to check the
+     *            result.
+     * @param userData
+     *            User data to pass to the callback.
+     * @return {@link LibUsb#SUCCESS} when queued,
+     *         {@link LibUsb#ERROR_BUSY} when called from a callback while
+     *         all slots are in use, {@link LibUsb#ERROR_INTERRUPTED} when
+     *         interrupted while waiting for a free slot,
+     *         {@link LibUsb#ERROR_NO_DEVICE} when the channel is closed.
+     */
+    public int write(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex, final ByteBuffer data,
+        final long timeout, final ControlCallback callback,
+        final Object userData)
+    {
+        if ((bmRequestType & LibUsb.ENDPOINT_DIR_MASK) != LibUsb.ENDPOINT_OUT)
+        {
+            throw new IllegalArgumentException(
+                "Request type must be host-to-device");
+        }
+        final int length = data == null ? 0 : data.remaining();
+        return this.queue(bmRequestType, bRequest, wValue, wIndex, data,
+            length, timeout, callback, userData);
+    }
+
+    /**
+     * Queues a device-to-host control request.
+     *
+     * @param bmRequestType
+     *            The request type field for the setup packet. Must have the
+     *            direction bit {@link LibUsb#ENDPOINT_IN} set.
+     * @param bRequest
+     *            The request field for the setup packet.
+     * @param wValue
+     *            The value field for the setup packet.
+     * @param wIndex
+     *            The index field for the setup packet.
+     * @param length
+     *            The number of bytes to read.
+     * @param timeout
+     *            Timeout (in milliseconds) of the request. For an unlimited
+     *            timeout, use value 0.
+     * @param callback
+     *            The callback receiving the read data.
+     * @param userData
+     *            User data to pass to the callback.
+     * @return {@link LibUsb#SUCCESS} when queued,
+     *         {@link LibUsb#ERROR_BUSY} when called from a callback while
+     *         all slots are in use, {@link LibUsb#ERROR_INTERRUPTED} when
+     *         interrupted while waiting for a free slot,
+     *         {@link LibUsb#ERROR_NO_DEVICE} when the channel is closed.
+     */
+    public int read(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex, final int length,
+        final long timeout, final ControlCallback callback,
+        final Object userData)
+    {
+        if ((bmRequestType & LibUsb.ENDPOINT_DIR_MASK) != LibUsb.ENDPOINT_IN)
+        {
+            throw new IllegalArgumentException(
+                "Request type must be device-to-host");
+        }
+        if (callback == null)
+        {
+            throw new IllegalArgumentException("callback must not be null");
+        }
+        return this.queue(bmRequestType, bRequest, wValue, wIndex, null,
+            length, timeout, callback, userData);
+    }
+
+    /**
+     * Puts a request into the next free slot and submits it.
+     *
+     * @param bmRequestType
+     *            The request type.
+     * @param bRequest
+     *            The request.
+     * @param wValue
+     *            The value.
+     * @param wIndex
+     *            The index.
+     * @param data
+     *            The OUT data or null.
+     * @param length
+     *            The data length.
+     * @param timeout
+     *            The timeout in milliseconds.
+     * @param callback
+     *            The callback or null.
+     * @param userData
+     *            The user data.
+     * @return The error code.
+     */
+    private int queue(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex, final ByteBuffer data,
+        final int length, final long timeout, final ControlCallback callback,
+        final Object userData)
+    {
+        if (length < 0 || length > this.maxDataLength)
+        {
+            throw new IllegalArgumentException("Invalid data length: "
+                + length);
+        }
+        synchronized (this)
+        {
+            while (!this.closed && this.tail - this.head == this.slots.length)
+            {
+                if (this.deliverer == Thread.currentThread())
+                {
+                    return LibUsb.ERROR_BUSY;
+                }
+                try
+                {
+                    this.wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return LibUsb.ERROR_INTERRUPTED;
+                }
+            }
+            if (this.closed)
+            {
+                return LibUsb.ERROR_NO_DEVICE;
+            }
+            final Slot slot = this.slots[(int) (this.tail % this.slots.length)];
+            this.tail++;
+            slot.callback = callback;
+            slot.userData = userData;
+            slot.done = false;
+            slot.setup.setBmRequestType(bmRequestType);
+            slot.setup.setBRequest(bRequest);
+            slot.setup.setWValue(wValue);
+            slot.setup.setWIndex(wIndex);
+            slot.setup.setWLength((short) length);
+            if (data != null)
+            {
+                slot.data.clear();
+                slot.data.put(data.duplicate());
+            }
+            slot.buffer.clear();
+            slot.buffer.limit(LibUsb.CONTROL_SETUP_SIZE + length);
+            slot.request.fillControl(slot.buffer, this.completion, slot,
+                timeout);
+
+            // Submitted while holding the monitor so the backend sees the
+            // requests in slot order.
+            final int result = this.backend.submit(slot.request);
+            if (result == LibUsb.SUCCESS)
+            {
+                return LibUsb.SUCCESS;
+            }
+            slot.result = result;
+            slot.done = true;
+        }
+
+        // The failure is reported in order through the callback
+        this.drain();
+        return LibUsb.SUCCESS;
+    }
+
+    /**
+     * Delivers finished requests in slot order. Only one thread delivers at
+     * a time.
+     */
+    void drain()
+    {
+        if (this.work.getAndIncrement() != 0)
+        {
+            return;
+        }
+        int missed = 1;
+        do
+        {
+            this.deliverer = Thread.currentThread();
+            while (true)
+            {
+                final Slot slot;
+                synchronized (this)
+                {
+                    if (this.head == this.tail)
+                    {
+                        break;
+                    }
+                    slot = this.slots[(int) (this.head % this.slots.length)];
+                    if (!slot.done)
+                    {
+                        break;
+                    }
+                }
+                this.deliver(slot);
+                synchronized (this)
+                {
+                    if (slot.result < 0 && this.firstError == LibUsb.SUCCESS)
+                    {
+                        this.firstError = slot.result;
+                    }
+                    slot.callback = null;
+                    slot.userData = null;
+                    this.head++;
+                    this.notifyAll();
+                }
+            }
+            this.deliverer = null;
+            missed = this.work.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    /**
+     * Calls the callback of a finished request.
+     *
+     * @param slot
+     *            The slot of the finished request.
+     */
+    private void deliver(final Slot slot)
+    {
+        final ControlCallback callback = slot.callback;
+        if (callback == null)
+        {
+            return;
+        }
+        slot.data.clear();
+        slot.data.limit(Math.max(slot.result, 0));
+        try
+        {
+            callback.processControl(slot.result, slot.data, slot.userData);
+        }
+        catch (final RuntimeException e)
+        {
+            // Report the exception but keep delivering
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * Waits until all queued requests have been delivered. Must not be
+     * called from a callback.
+     *
+     * @return {@link LibUsb#SUCCESS} if all requests since the last flush
+     *         were successful, otherwise the error code of the first failed
+     *         request. {@link LibUsb#ERROR_INTERRUPTED} when interrupted
+     *         while waiting.
+     */
+    public synchronized int flush()
+    {
+        if (this.deliverer == Thread.currentThread())
+        {
+            throw new IllegalStateException(
+                "flush must not be called from a callback");
+        }
+        while (this.head != this.tail)
+        {
+            try
+            {
+                this.wait();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return LibUsb.ERROR_INTERRUPTED;
+            }
+        }
+        final int result = this.firstError;
+        this.firstError = LibUsb.SUCCESS;
+        return result;
+    }
+
+    /**
+     * Returns the number of queued requests which have not been delivered
+     * yet.
+     *
+     * @return The number of pending requests.
+     */
+    public synchronized int getPending()
+    {
+        return (int) (this.tail - this.head);
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return The maximum number of requests in flight.
+     */
+    public int getDepth()
+    {
+        return this.slots.length;
+    }
+
+    /**
+     * Returns the maximum data length of a request.
+     *
+     * @return The maximum data length.
+     */
+    public int getMaxDataLength()
+    {
+        return this.maxDataLength;
+    }
+
+    /**
+     * Closes the channel. Pending requests are cancelled and delivered
+     * with their cancellation result when the backend reports them. The
+     * backend created by the channel is closed, its transfers still in
+     * flight are freed when they complete.
+     */
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+            this.closed = true;
+            this.notifyAll();
+            for (long i = this.head; i < this.tail; i++)
+            {
+                final Slot slot = this.slots[(int) (i % this.slots.length)];
+                if (!slot.done)
+                {
+                    this.backend.cancel(slot.request);
+                }
+            }
+        }
+        if (this.ownedBackend != null)
+        {
+            this.ownedBackend.close();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java control channel on %s (%d/%d pending)",
+            this.backend, this.getPending(), this.slots.length);
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces and caches idempotent control requests.
+ *
+ * Device-to-host control requests can be marked as idempotent with
+ * {@link #markIdempotent(byte, byte, long)}, for example GET_DESCRIPTOR or a
+ * vendor specific "read register" request. When multiple threads issue the
+ * same marked request (same request type, request, value, index and length)
+ * at the same time then only one transfer is sent to the device and all
+ * threads receive its result. Successful results are cached for the time to
+ * live configured for the request, so repeated requests within this time
+ * don't need any transfer at all.
+ *
+ * All other requests are passed through. Host-to-device requests invalidate
+ * the whole cache because they may change the state reported by the cached
+ * requests. Marked requests which were in flight while a host-to-device
+ * request completed are neither cached nor joined by later requests, so
+ * no result read before a write is returned after it.
+ *
+ * Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class ControlRequestCache
+{
+    /** The default maximum number of cached results. */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * The identity of a control request.
+     */
+    private static final class Key
+    {
+        /** The packed request type, request and length. */
+        private final int header;
+
+        /** The packed value and index. */
+        private final int parameters;
+
+        /**
+         * Constructor.
+         *
+         * @param bmRequestType
+         *            The request type.
+         * @param bRequest
+         *            The request.
+         * @param wValue
+         *            The value.
+         * @param wIndex
+         *            The index.
+         * @param wLength
+         *            The data length.
+         */
+        Key(final byte bmRequestType, final byte bRequest, final short wValue,
+            final short wIndex, final int wLength)
+        {
+            this.header = ((bmRequestType & 0xff) << 24)
+                | ((bRequest & 0xff) << 16) | (wLength & 0xffff);
+            this.parameters = ((wValue & 0xffff) << 16) | (wIndex & 0xffff);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.header * 31 + this.parameters;
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.header == other.header
+                && this.parameters == other.parameters;
+        }
+    }
+
+    /**
+     * The result of a control request. Used for cache entries and for
+     * requests in flight.
+     */
+    private static final class Result
+    {
+        /** The received data. Null while in flight or on failure. */
+        byte[] data;
+
+        /** The result code. Only valid when done. */
+        int code;
+
+        /** The expiry time of the cache entry. */
+        long expires;
+
+        /** The cache generation when the request was started. */
+        long generation;
+
+        /** If the request is done. Guarded by the cache monitor. */
+        boolean done;
+    }
+
+    /** The blocking I/O used for the transfers. */
+    private final BlockingIo io;
+
+    /** The time to live in nanoseconds by request type and request. */
+    private final Map<Integer, Long> idempotent = new HashMap<Integer, Long>();
+
+    /** The requests in flight. */
+    private final Map<Key, Result> inFlight = new HashMap<Key, Result>();
+
+    /** The cached results in access order. */
+    private final LinkedHashMap<Key, Result> cache;
+
+    /**
+     * The cache generation. Incremented whenever a host-to-device request
+     * completes or the cache is invalidated.
+     */
+    private long generation;
+
+    /** The number of requests answered from the cache. */
+    private long hits;
+
+    /** The number of requests which joined a request in flight. */
+    private long coalesced;
+
+    /** The number of transfers issued for marked requests. */
+    private long misses;
+
+    /** The number of requests passed through. */
+    private long bypassed;
+
+    /**
+     * Constructs a new control request cache with the default maximum
+     * number of cached results.
+     *
+     * @param backend
+     *            The backend to use.
+     */
+    public ControlRequestCache(final IoBackend backend)
+    {
+        this(backend, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a new control request cache.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param maxEntries
+     *            The maximum number of cached results. When exceeded the
+     *            least recently used result is dropped.
+     */
+    public ControlRequestCache(final IoBackend backend, final int maxEntries)
+    {
+        if (maxEntries <= 0)
+        {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.io = new BlockingIo(backend);
+        this.cache = new LinkedHashMap<Key, Result>(16, 0.75f, true)
+        {
+            /** Serial version UID. */
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                final Map.Entry<Key, Result> eldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Marks a device-to-host request as idempotent, so concurrent identical
+     * requests are coalesced and results are cached.
+     *
+     * @param bmRequestType
+     *            The request type. Must have the direction bit
+     *            {@link LibUsb#ENDPOINT_IN} set.
+     * @param bRequest
+     *            The request.
+     * @param ttl
+     *            The time to live of cached results in milliseconds. 0 to
+     *            only coalesce concurrent requests without caching.
+     */
+    public synchronized void markIdempotent(final byte bmRequestType,
+        final byte bRequest, final long ttl)
+    {
+        if ((bmRequestType & LibUsb.ENDPOINT_DIR_MASK) != LibUsb.ENDPOINT_IN)
+        {
+            throw new IllegalArgumentException(
+                "Only device-to-host requests can be idempotent");
+        }
+        if (ttl < 0)
+        {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+        this.idempotent.put(requestId(bmRequestType, bRequest),
+            TimeUnit.MILLISECONDS.toNanos(ttl));
+    }
+
+    /**
+     * Returns the ID of a request type and request combination.
+     *
+     * @param bmRequestType
+     *            The request type.
+     * @param bRequest
+     *            The request.
+     * @return The request ID.
+     */
+    private static Integer requestId(final byte bmRequestType,
+        final byte bRequest)
+    {
+        return Integer.valueOf(((bmRequestType & 0xff) << 8)
+            | (bRequest & 0xff));
+    }
+
+    /**
+     * Perform a USB control transfer. Same as
+     * {@link BlockingIo#controlTransfer(byte, byte, short, short, ByteBuffer, long)},
+     * but requests marked as idempotent may be answered from the cache or
+     * by a concurrent identical request.
+     *
+     * @param bmRequestType
+     *            The request type field for the setup packet.
+     * @param bRequest
+     *            The request field for the setup packet.
+     * @param wValue
+     *            The value field for the setup packet.
+     * @param wIndex
+     *            The index field for the setup packet.
+     * @param data
+     *            A suitably-sized data buffer for either input or output
+     *            (depending on direction bits within bmRequestType). The
+     *            buffer position is not modified.
+     * @param timeout
+     *            Timeout (in milliseconds) that this function should wait
+     *            before giving up due to no response being received. For an
+     *            unlimited timeout, use value 0.
+     * @return On success the number of bytes actually transferred, an ERROR
+     *         code on failure.
+     */
+    public int controlTransfer(final byte bmRequestType, final byte bRequest,
+        final short wValue, final short wIndex, final ByteBuffer data,
+        final long timeout)
+    {
+        final int length = data == null ? 0 : data.remaining();
+        final boolean out = (bmRequestType & LibUsb.ENDPOINT_DIR_MASK)
+            == LibUsb.ENDPOINT_OUT;
+        final Long ttl;
+        synchronized (this)
+        {
+            ttl = this.idempotent.get(requestId(bmRequestType, bRequest));
+            if (ttl == null)
+            {
+                this.bypassed++;
+                if (out)
+                {
+                    this.cache.clear();
+                }
+            }
+        }
+        if (ttl == null || length > 0xffff)
+        {
+            try
+            {
+                return this.io.controlTransfer(bmRequestType, bRequest,
+                    wValue, wIndex, data, timeout);
+            }
+            finally
+            {
+                if (out)
+                {
+                    // Results read while the write was in flight are stale
+                    this.invalidate();
+                }
+            }
+        }
+
+        final Key key = new Key(bmRequestType, bRequest, wValue, wIndex,
+            length);
+        final Result result;
+        synchronized (this)
+        {
+            final Result cached = this.cache.get(key);
+            if (cached != null)
+            {
+                if (cached.expires - System.nanoTime() > 0)
+                {
+                    this.hits++;
+                    return deliver(cached, data);
+                }
+                this.cache.remove(key);
+            }
+            final Result pending = this.inFlight.get(key);
+            if (pending != null && pending.generation == this.generation)
+            {
+                this.coalesced++;
+                return this.await(pending, data);
+            }
+            result = new Result();
+            result.generation = this.generation;
+            this.inFlight.put(key, result);
+            this.misses++;
+        }
+
+        // This thread carries out the transfer for all coalesced requests
+        int code = LibUsb.ERROR_OTHER;
+        final ByteBuffer buffer = BufferUtils.allocateByteBuffer(length);
+        try
+        {
+            code = this.io.controlTransfer(bmRequestType, bRequest, wValue,
+                wIndex, buffer, timeout);
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                if (code >= 0)
+                {
+                    result.data = new byte[code];
+                    buffer.get(result.data);
+                    if (ttl.longValue() > 0
+                        && result.generation == this.generation)
+                    {
+                        result.expires = System.nanoTime() + ttl.longValue();
+                        this.cache.put(key, result);
+                    }
+                }
+                result.code = code;
+                result.done = true;
+                if (this.inFlight.get(key) == result)
+                {
+                    this.inFlight.remove(key);
+                }
+                this.notifyAll();
+            }
+        }
+        return deliver(result, data);
+    }
+
+    /**
+     * Waits for a request in flight. Must be called while holding the cache
+     * monitor.
+     *
+     * @param result
+     *            The result of the request in flight.
+     * @param data
+     *            The buffer to copy the received data to.
+     * @return The result code.
+     */
+    private int await(final Result result, final ByteBuffer data)
+    {
+        boolean interrupted = false;
+        while (!result.done)
+        {
+            try
+            {
+                this.wait();
+            }
+            catch (final InterruptedException e)
+            {
+                // The request in flight is not ours to cancel, just wait
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return deliver(result, data);
+    }
+
+    /**
+     * Copies the received data of a finished request into the data buffer.
+     *
+     * @param result
+     *            The result of the finished request.
+     * @param data
+     *            The buffer to copy the received data to. The buffer
+     *            position is not modified.
+     * @return The result code.
+     */
+    private static int deliver(final Result result, final ByteBuffer data)
+    {
+        if (result.code > 0)
+        {
+            data.duplicate().put(result.data);
+        }
+        return result.code;
+    }
+
+    /**
+     * Drops all cached results. Marked requests in flight are not cached
+     * when they complete and are not joined by later requests.
+     */
+    public synchronized void invalidate()
+    {
+        this.cache.clear();
+        this.generation++;
+    }
+
+    /**
+     * Returns the number of requests answered from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of requests which were answered by an identical
+     * request in flight.
+     *
+     * @return The number of coalesced requests.
+     */
+    public synchronized long getCoalescedCount()
+    {
+        return this.coalesced;
+    }
+
+    /**
+     * Returns the number of transfers issued for requests marked as
+     * idempotent.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of requests not marked as idempotent which were
+     * passed through.
+     *
+     * @return The number of passed through requests.
+     */
+    public synchronized long getBypassCount()
+    {
+        return this.bypassed;
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public synchronized void resetStatistics()
+    {
+        this.hits = 0;
+        this.coalesced = 0;
+        this.misses = 0;
+        this.bypassed = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java control request cache on %s",
+            this.io.getBackend());
+    }
+}
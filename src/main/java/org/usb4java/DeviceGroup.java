@@ -0,0 +1,878 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules asynchronous requests to many devices.
+ *
+ * Each device is a {@link Member} of the group. Members are backends
+ * themselves, so any code using an {@link IoBackend} (channels, pipes,
+ * publishers) can use a member instead and its requests are scheduled by the
+ * group. Requests are queued per member and submitted to the devices
+ * whenever the group limit and the member limit of submitted requests allow
+ * it. The next request is selected with deficit round robin over the request
+ * lengths, so each device with pending requests gets a share of the
+ * transfer volume proportional to its weight, no matter how large its
+ * requests are.
+ *
+ * No threads are needed per device. Requests to libusb devices are completed
+ * by the event handling threads of their contexts, started with
+ * {@link #startEventHandling(Context)}. Per member the group records the
+ * throughput and the time requests waited in the queue.
+ *
+ * @author usb4java Team
+ */
+public final class DeviceGroup
+{
+    /** The default quantum in bytes per weight unit and round. */
+    public static final int DEFAULT_QUANTUM = 16384;
+
+    /**
+     * A request waiting in the queue of a member.
+     */
+    private static final class Entry
+    {
+        /** The member the request was submitted to. */
+        final Member member;
+
+        /** The request. */
+        final IoRequest request;
+
+        /** The time when the request was queued. */
+        final long queued;
+
+        /**
+         * Constructor.
+         *
+         * @param member
+         *            The member the request was submitted to.
+         * @param request
+         *            The request.
+         * @param queued
+         *            The time when the request was queued.
+         */
+        Entry(final Member member, final IoRequest request, final long queued)
+        {
+            this.member = member;
+            this.request = request;
+            this.queued = queued;
+        }
+    }
+
+    /**
+     * A device of the group. Requests submitted to a member are scheduled by
+     * the group and then submitted to the backend of the device. Statistics
+     * are guarded by the group monitor.
+     */
+    public final class Member implements IoBackend
+    {
+        /** The name of the member. */
+        private final String name;
+
+        /** The backend of the device. */
+        private final IoBackend backend;
+
+        /** The weight of the member. */
+        private final int weight;
+
+        /** The maximum number of submitted requests of this member. */
+        private final int maxInFlight;
+
+        /** The queued requests. */
+        private final Queue<Entry> queue = new ArrayDeque<Entry>();
+
+        /** The original callbacks of the submitted requests. */
+        private final Map<IoRequest, IoCallback> callbacks =
+            new IdentityHashMap<IoRequest, IoCallback>();
+
+        /** The bytes the member may still transfer in the current round. */
+        private long deficit;
+
+        /** If member has been removed. */
+        private boolean removed;
+
+        /** The number of completed requests. */
+        private long completedRequests;
+
+        /** The number of failed requests. */
+        private long failedRequests;
+
+        /** The number of transferred bytes. */
+        private long transferredBytes;
+
+        /** The summed up queue delay of submitted requests in nanoseconds. */
+        private long totalQueueDelay;
+
+        /** The number of requests the queue delay has been recorded for. */
+        private long dispatchedRequests;
+
+        /** The maximum queue delay in nanoseconds. */
+        private long maxQueueDelay;
+
+        /** The time the member has been starved in nanoseconds. */
+        private long starvedTime;
+
+        /** If the member is currently starved. */
+        private boolean starved;
+
+        /** Start of the current starvation. Only valid while starved. */
+        private long starvedSince;
+
+        /** Start of statistics. */
+        private long statisticsStart = System.nanoTime();
+
+        /**
+         * Constructor.
+         *
+         * @param name
+         *            The name of the member.
+         * @param backend
+         *            The backend of the device.
+         * @param weight
+         *            The weight of the member.
+         * @param maxInFlight
+         *            The maximum number of submitted requests.
+         */
+        Member(final String name, final IoBackend backend, final int weight,
+            final int maxInFlight)
+        {
+            this.name = name;
+            this.backend = backend;
+            this.weight = weight;
+            this.maxInFlight = maxInFlight;
+        }
+
+        /**
+         * Returns the name of the member.
+         *
+         * @return The name.
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * Returns the backend of the device.
+         *
+         * @return The backend.
+         */
+        public IoBackend getBackend()
+        {
+            return this.backend;
+        }
+
+        /**
+         * Returns the weight of the member.
+         *
+         * @return The weight.
+         */
+        public int getWeight()
+        {
+            return this.weight;
+        }
+
+        /**
+         * Queues a request. The request callback is called when the request
+         * has been completed by the device, cancelled or could not be
+         * submitted to the device.
+         *
+         * @param request
+         *            The request to queue.
+         * @return {@link LibUsb#SUCCESS}, {@link LibUsb#ERROR_NOT_FOUND} if
+         *         the member has been removed from the group or
+         *         {@link LibUsb#ERROR_BUSY} if the request is already queued
+         *         or submitted in this group.
+         */
+        @Override
+        public int submit(final IoRequest request)
+        {
+            final DeviceGroup group = DeviceGroup.this;
+            synchronized (group)
+            {
+                if (this.removed)
+                {
+                    return LibUsb.ERROR_NOT_FOUND;
+                }
+                if (group.owners.containsKey(request))
+                {
+                    return LibUsb.ERROR_BUSY;
+                }
+                final long now = System.nanoTime();
+                this.queue.add(new Entry(this, request, now));
+                group.owners.put(request, this);
+                this.updateStarvation(now);
+            }
+            group.dispatch();
+            return LibUsb.SUCCESS;
+        }
+
+        /**
+         * Cancels a request. A queued request is removed from the queue and
+         * completed with the status {@link LibUsb#TRANSFER_CANCELLED}. A
+         * submitted request is cancelled by the device backend.
+         *
+         * @param request
+         *            The request to cancel.
+         * @return The error code.
+         */
+        @Override
+        public int cancel(final IoRequest request)
+        {
+            boolean dequeued = false;
+            synchronized (DeviceGroup.this)
+            {
+                for (final Entry entry : this.queue)
+                {
+                    if (entry.request == request)
+                    {
+                        this.queue.remove(entry);
+                        DeviceGroup.this.owners.remove(request);
+                        this.updateStarvation(System.nanoTime());
+                        dequeued = true;
+                        break;
+                    }
+                }
+                if (!dequeued && !this.callbacks.containsKey(request))
+                {
+                    return LibUsb.ERROR_NOT_FOUND;
+                }
+            }
+            if (dequeued)
+            {
+                request.complete(LibUsb.TRANSFER_CANCELLED, 0);
+                return LibUsb.SUCCESS;
+            }
+            return this.backend.cancel(request);
+        }
+
+        /**
+         * Checks if the next queued request of this member may be submitted
+         * as far as the member is concerned. Must be called while holding
+         * the group monitor.
+         *
+         * @return True if member is eligible for submission.
+         */
+        boolean isEligible()
+        {
+            return !this.queue.isEmpty()
+                && this.callbacks.size() < this.maxInFlight;
+        }
+
+        /**
+         * Updates the starvation time. A member is starved while it has
+         * queued requests but none submitted. Must be called while holding
+         * the group monitor.
+         *
+         * @param now
+         *            The current time.
+         */
+        void updateStarvation(final long now)
+        {
+            final boolean starved =
+                !this.queue.isEmpty() && this.callbacks.isEmpty();
+            if (starved && !this.starved)
+            {
+                this.starved = true;
+                this.starvedSince = now;
+            }
+            else if (!starved && this.starved)
+            {
+                this.starved = false;
+                this.starvedTime += now - this.starvedSince;
+            }
+        }
+
+        /**
+         * Returns the number of queued requests.
+         *
+         * @return The number of queued requests.
+         */
+        public int getQueued()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                return this.queue.size();
+            }
+        }
+
+        /**
+         * Returns the number of requests submitted to the device.
+         *
+         * @return The number of submitted requests.
+         */
+        public int getInFlight()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                return this.callbacks.size();
+            }
+        }
+
+        /**
+         * Returns the number of requests completed by the device, including
+         * failed requests.
+         *
+         * @return The number of completed requests.
+         */
+        public long getCompletedRequests()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                return this.completedRequests;
+            }
+        }
+
+        /**
+         * Returns the number of requests which failed or could not be
+         * submitted.
+         *
+         * @return The number of failed requests.
+         */
+        public long getFailedRequests()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                return this.failedRequests;
+            }
+        }
+
+        /**
+         * Returns the number of transferred bytes.
+         *
+         * @return The number of transferred bytes.
+         */
+        public long getTransferredBytes()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                return this.transferredBytes;
+            }
+        }
+
+        /**
+         * Returns the throughput since the statistics have been reset.
+         *
+         * @return The throughput in bytes per second.
+         */
+        public double getThroughput()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                final long nanos = System.nanoTime() - this.statisticsStart;
+                if (nanos <= 0)
+                {
+                    return 0;
+                }
+                return this.transferredBytes * 1e9 / nanos;
+            }
+        }
+
+        /**
+         * Returns the average time submitted requests waited in the queue.
+         *
+         * @return The average queue delay in nanoseconds.
+         */
+        public long getAverageQueueDelay()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                if (this.dispatchedRequests == 0)
+                {
+                    return 0;
+                }
+                return this.totalQueueDelay / this.dispatchedRequests;
+            }
+        }
+
+        /**
+         * Returns the maximum time a submitted request waited in the queue.
+         *
+         * @return The maximum queue delay in nanoseconds.
+         */
+        public long getMaxQueueDelay()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                return this.maxQueueDelay;
+            }
+        }
+
+        /**
+         * Returns the time this member was starved, which means it had queued
+         * requests but none submitted to the device.
+         *
+         * @return The starved time in nanoseconds.
+         */
+        public long getStarvedTime()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                long time = this.starvedTime;
+                if (this.starved)
+                {
+                    time += System.nanoTime() - this.starvedSince;
+                }
+                return time;
+            }
+        }
+
+        /**
+         * Resets the statistics of this member.
+         */
+        public void resetStatistics()
+        {
+            synchronized (DeviceGroup.this)
+            {
+                final long now = System.nanoTime();
+                this.completedRequests = 0;
+                this.failedRequests = 0;
+                this.transferredBytes = 0;
+                this.totalQueueDelay = 0;
+                this.dispatchedRequests = 0;
+                this.maxQueueDelay = 0;
+                this.starvedTime = 0;
+                if (this.starved)
+                {
+                    this.starvedSince = now;
+                }
+                this.statisticsStart = now;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(
+                "%s (weight %d, %.0f bytes/s, max queue delay %d us)",
+                this.name, this.weight, this.getThroughput(),
+                this.getMaxQueueDelay() / 1000);
+        }
+    }
+
+    /** The maximum number of submitted requests of the whole group. */
+    private final int maxInFlight;
+
+    /** The quantum in bytes per weight unit and round. */
+    private final int quantum;
+
+    /** The members. */
+    private final List<Member> members = new ArrayList<Member>();
+
+    /** The members owning the queued and submitted requests. */
+    private final Map<IoRequest, Member> owners =
+        new IdentityHashMap<IoRequest, Member>();
+
+    /** The started event handling threads. */
+    private final List<EventHandlingThread> eventThreads =
+        new ArrayList<EventHandlingThread>();
+
+    /** Counter serializing the dispatching. */
+    private final AtomicInteger work = new AtomicInteger();
+
+    /** The callback of submitted requests. */
+    private final IoCallback completion = new IoCallback()
+    {
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            DeviceGroup.this.completed(request);
+        }
+    };
+
+    /** Index of the member to serve next. */
+    private int cursor;
+
+    /** The number of submitted requests of the whole group. */
+    private int inFlight;
+
+    /**
+     * Constructs a new device group with the default quantum.
+     *
+     * @param maxInFlight
+     *            The maximum number of requests submitted at the same time
+     *            over all devices.
+     */
+    public DeviceGroup(final int maxInFlight)
+    {
+        this(maxInFlight, DEFAULT_QUANTUM);
+    }
+
+    /**
+     * Constructs a new device group.
+     *
+     * @param maxInFlight
+     *            The maximum number of requests submitted at the same time
+     *            over all devices.
+     * @param quantum
+     *            The number of bytes per weight unit a member may transfer
+     *            per scheduling round. Smaller values give finer grained
+     *            fairness, larger values fewer scheduling rounds.
+     */
+    public DeviceGroup(final int maxInFlight, final int quantum)
+    {
+        if (maxInFlight <= 0)
+        {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        if (quantum <= 0)
+        {
+            throw new IllegalArgumentException("quantum must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+        this.quantum = quantum;
+    }
+
+    /**
+     * Adds a device.
+     *
+     * @param name
+     *            The name of the member, used for statistics output.
+     * @param backend
+     *            The backend of the device.
+     * @param weight
+     *            The weight of the member. Members with equal weights get
+     *            equal shares.
+     * @param maxInFlight
+     *            The maximum number of requests submitted to this device at
+     *            the same time.
+     * @return The new member.
+     */
+    public Member add(final String name, final IoBackend backend,
+        final int weight, final int maxInFlight)
+    {
+        if (backend == null)
+        {
+            throw new IllegalArgumentException("backend must not be null");
+        }
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        if (maxInFlight <= 0)
+        {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        final Member member = new Member(name, backend, weight, maxInFlight);
+        synchronized (this)
+        {
+            this.members.add(member);
+        }
+        return member;
+    }
+
+    /**
+     * Adds an open libusb device. Requests are carried out by a new
+     * {@link LibUsbBackend} for the device handle.
+     *
+     * @param name
+     *            The name of the member, used for statistics output.
+     * @param handle
+     *            The open device handle.
+     * @param weight
+     *            The weight of the member.
+     * @param maxInFlight
+     *            The maximum number of requests submitted to this device at
+     *            the same time.
+     * @return The new member.
+     */
+    public Member add(final String name, final DeviceHandle handle,
+        final int weight, final int maxInFlight)
+    {
+        return this.add(name, new LibUsbBackend(handle), weight, maxInFlight);
+    }
+
+    /**
+     * Removes a member. Queued requests of the member are completed with
+     * the status {@link LibUsb#TRANSFER_CANCELLED}, submitted requests are
+     * cancelled. The backend of the member is not closed.
+     *
+     * @param member
+     *            The member to remove.
+     */
+    public void remove(final Member member)
+    {
+        final List<IoRequest> queued = new ArrayList<IoRequest>();
+        final List<IoRequest> submitted;
+        synchronized (this)
+        {
+            if (member.removed || !this.members.remove(member))
+            {
+                return;
+            }
+            member.removed = true;
+            this.cursor = 0;
+            for (final Entry entry : member.queue)
+            {
+                queued.add(entry.request);
+                this.owners.remove(entry.request);
+            }
+            member.queue.clear();
+            member.updateStarvation(System.nanoTime());
+            submitted = new ArrayList<IoRequest>(member.callbacks.keySet());
+        }
+        for (final IoRequest request : queued)
+        {
+            request.complete(LibUsb.TRANSFER_CANCELLED, 0);
+        }
+        for (final IoRequest request : submitted)
+        {
+            member.backend.cancel(request);
+        }
+    }
+
+    /**
+     * Returns the members.
+     *
+     * @return The members.
+     */
+    public synchronized List<Member> getMembers()
+    {
+        return Collections.unmodifiableList(new ArrayList<Member>(
+            this.members));
+    }
+
+    /**
+     * Returns the number of requests currently submitted to the devices.
+     *
+     * @return The number of submitted requests.
+     */
+    public synchronized int getInFlight()
+    {
+        return this.inFlight;
+    }
+
+    /**
+     * Starts an event handling thread for the specified context, unless
+     * already started.
+     *
+     * @param context
+     *            The context. Null for the default context.
+     */
+    public synchronized void startEventHandling(final Context context)
+    {
+        for (final EventHandlingThread thread : this.eventThreads)
+        {
+            if (thread.getContext() == null ? context == null
+                : thread.getContext().equals(context))
+            {
+                return;
+            }
+        }
+        final EventHandlingThread thread = new EventHandlingThread(context);
+        thread.start();
+        this.eventThreads.add(thread);
+    }
+
+    /**
+     * Stops the event handling threads started by this group.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting for the threads to end.
+     */
+    public void stopEventHandling() throws InterruptedException
+    {
+        final List<EventHandlingThread> threads;
+        synchronized (this)
+        {
+            threads = new ArrayList<EventHandlingThread>(this.eventThreads);
+            this.eventThreads.clear();
+        }
+        for (final EventHandlingThread thread : threads)
+        {
+            thread.abort();
+        }
+        for (final EventHandlingThread thread : threads)
+        {
+            thread.join();
+        }
+    }
+
+    /**
+     * Selects the next request to submit. Must be called while holding the
+     * group monitor.
+     *
+     * @return The selected entry or null if no request can be submitted.
+     */
+    private Entry select()
+    {
+        final int count = this.members.size();
+        if (count == 0 || this.inFlight >= this.maxInFlight)
+        {
+            return null;
+        }
+        int skipped = 0;
+        while (skipped < count)
+        {
+            if (this.cursor >= count)
+            {
+                this.cursor = 0;
+            }
+            final Member member = this.members.get(this.cursor);
+            if (!member.isEligible())
+            {
+                // Idle members don't save up credit for later
+                if (member.queue.isEmpty())
+                {
+                    member.deficit = 0;
+                }
+                this.cursor++;
+                skipped++;
+                continue;
+            }
+            skipped = 0;
+            final Entry entry = member.queue.peek();
+            final long cost = Math.max(1, entry.request.length());
+            if (member.deficit >= cost)
+            {
+                member.deficit -= cost;
+                member.queue.poll();
+                return entry;
+            }
+            member.deficit += (long) this.quantum * member.weight;
+            this.cursor++;
+        }
+        return null;
+    }
+
+    /**
+     * Submits queued requests as long as the limits allow. Only one thread
+     * at a time does this work, calls from other threads in the meantime
+     * make this thread loop again.
+     */
+    void dispatch()
+    {
+        if (this.work.getAndIncrement() != 0)
+        {
+            return;
+        }
+        int missed = 1;
+        do
+        {
+            this.dispatchQueued();
+            missed = this.work.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    /**
+     * Submits queued requests as long as the limits allow.
+     */
+    private void dispatchQueued()
+    {
+        while (true)
+        {
+            final Member member;
+            final IoRequest request;
+            synchronized (this)
+            {
+                final Entry entry = this.select();
+                if (entry == null)
+                {
+                    return;
+                }
+                member = entry.member;
+                request = entry.request;
+                final long now = System.nanoTime();
+                final long delay = now - entry.queued;
+                member.totalQueueDelay += delay;
+                member.dispatchedRequests++;
+                if (delay > member.maxQueueDelay)
+                {
+                    member.maxQueueDelay = delay;
+                }
+                member.callbacks.put(request, request.callback());
+                member.updateStarvation(now);
+                request.setCallback(this.completion);
+                this.inFlight++;
+            }
+            final int result = member.backend.submit(request);
+            if (result != LibUsb.SUCCESS)
+            {
+                final IoCallback callback;
+                synchronized (this)
+                {
+                    this.owners.remove(request);
+                    callback = member.callbacks.remove(request);
+                    member.failedRequests++;
+                    member.updateStarvation(System.nanoTime());
+                    this.inFlight--;
+                }
+                request.setCallback(callback);
+                request.complete(result == LibUsb.ERROR_NO_DEVICE
+                    ? LibUsb.TRANSFER_NO_DEVICE : LibUsb.TRANSFER_ERROR, 0);
+            }
+        }
+    }
+
+    /**
+     * Called when a submitted request is finished.
+     *
+     * @param request
+     *            The finished request.
+     */
+    void completed(final IoRequest request)
+    {
+        IoCallback callback = null;
+        synchronized (this)
+        {
+            final Member member = this.owners.remove(request);
+            if (member != null)
+            {
+                callback = this.finish(member, request);
+            }
+        }
+        request.setCallback(callback);
+        if (callback != null)
+        {
+            callback.processRequest(request);
+        }
+        this.dispatch();
+    }
+
+    /**
+     * Records the completion of a request. Must be called while holding the
+     * group monitor.
+     *
+     * @param member
+     *            The member the request belongs to.
+     * @param request
+     *            The completed request.
+     * @return The original callback of the request.
+     */
+    private IoCallback finish(final Member member, final IoRequest request)
+    {
+        final IoCallback callback = member.callbacks.remove(request);
+        member.completedRequests++;
+        if (request.status() == LibUsb.TRANSFER_COMPLETED)
+        {
+            member.transferredBytes += request.actualLength();
+        }
+        else if (request.status() != LibUsb.TRANSFER_CANCELLED)
+        {
+            member.failedRequests++;
+        }
+        member.updateStarvation(System.nanoTime());
+        this.inFlight--;
+        return callback;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format("usb4java device group with %d members",
+            this.members.size());
+    }
+}
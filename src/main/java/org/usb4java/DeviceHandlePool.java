@@ -0,0 +1,785 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares open device handles between the users of a device.
+ *
+ * Opening a device is expensive (libusb reads sysfs and the descriptors and
+ * creates a file descriptor), so instead of opening and closing a handle
+ * per operation the users of a device {@link #acquire(Device) acquire} a
+ * {@link Lease} and release it when done. The first lease opens the device,
+ * following leases share the open handle. The pool counts the leases and
+ * keeps the handle open for the configured idle timeout after the last
+ * lease has been released, so a following operation can reuse it. Idle
+ * handles are closed by a background thread.
+ *
+ * Interfaces are claimed on demand with {@link Lease#claimInterface(int)}
+ * and stay claimed until the handle is closed, so the users of a device
+ * don't have to coordinate claiming and releasing.
+ *
+ * <pre>
+ * DeviceHandlePool.Lease lease = pool.acquire(device);
+ * try
+ * {
+ *     lease.claimInterface(0);
+ *     LibUsb.bulkTransfer(lease.getHandle(), endpoint, data, transferred,
+ *         timeout);
+ * }
+ * finally
+ * {
+ *     lease.release();
+ * }
+ * </pre>
+ *
+ * @author usb4java Team
+ */
+public final class DeviceHandlePool
+{
+    /** The default idle timeout in milliseconds. */
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+
+    /**
+     * The native operations used by the pool. Replaced in tests.
+     */
+    interface Driver
+    {
+        /**
+         * Opens a device.
+         *
+         * @param device
+         *            The device to open.
+         * @param handle
+         *            The handle to initialize.
+         * @return The error code.
+         */
+        int open(Device device, DeviceHandle handle);
+
+        /**
+         * Closes a device handle.
+         *
+         * @param handle
+         *            The handle to close.
+         */
+        void close(DeviceHandle handle);
+
+        /**
+         * Claims an interface.
+         *
+         * @param handle
+         *            The device handle.
+         * @param iface
+         *            The interface number.
+         * @return The error code.
+         */
+        int claimInterface(DeviceHandle handle, int iface);
+
+        /**
+         * Releases an interface.
+         *
+         * @param handle
+         *            The device handle.
+         * @param iface
+         *            The interface number.
+         * @return The error code.
+         */
+        int releaseInterface(DeviceHandle handle, int iface);
+    }
+
+    /** The driver using libusb. */
+    private static final Driver LIBUSB = new Driver()
+    {
+        @Override
+        public int open(final Device device, final DeviceHandle handle)
+        {
+            final int result = LibUsb.open(device, handle);
+            if (result == LibUsb.SUCCESS)
+            {
+                // The pool may outlive the device list of the device
+                LibUsb.refDevice(device);
+            }
+            return result;
+        }
+
+        @Override
+        public void close(final DeviceHandle handle)
+        {
+            final Device device = LibUsb.getDevice(handle);
+            LibUsb.close(handle);
+            LibUsb.unrefDevice(device);
+        }
+
+        @Override
+        public int claimInterface(final DeviceHandle handle, final int iface)
+        {
+            return LibUsb.claimInterface(handle, iface);
+        }
+
+        @Override
+        public int releaseInterface(final DeviceHandle handle,
+            final int iface)
+        {
+            return LibUsb.releaseInterface(handle, iface);
+        }
+    };
+
+    /**
+     * A pooled device handle. Guarded by the pool monitor.
+     */
+    private static final class Entry
+    {
+        /** The device. */
+        final Device device;
+
+        /** The handle. Null while opening. */
+        DeviceHandle handle;
+
+        /** The number of leases. */
+        int leases;
+
+        /** The claimed interfaces. */
+        final List<Integer> claimed = new ArrayList<Integer>();
+
+        /** The scheduled eviction. Null while leased. */
+        ScheduledFuture<?> eviction;
+
+        /**
+         * Constructor.
+         *
+         * @param device
+         *            The device.
+         */
+        Entry(final Device device)
+        {
+            this.device = device;
+        }
+    }
+
+    /**
+     * A lease of a pooled device handle. Must be released exactly once when
+     * the device is no longer used. The handle must not be closed by the
+     * lease holder.
+     */
+    public final class Lease
+    {
+        /** The pooled handle. */
+        private final Entry entry;
+
+        /** If lease has been released. Guarded by the pool monitor. */
+        private boolean released;
+
+        /**
+         * Constructor.
+         *
+         * @param entry
+         *            The pooled handle.
+         */
+        Lease(final Entry entry)
+        {
+            this.entry = entry;
+        }
+
+        /**
+         * Returns the device.
+         *
+         * @return The device.
+         */
+        public Device getDevice()
+        {
+            return this.entry.device;
+        }
+
+        /**
+         * Returns the open device handle.
+         *
+         * @return The device handle.
+         */
+        public DeviceHandle getHandle()
+        {
+            return this.entry.handle;
+        }
+
+        /**
+         * Claims an interface unless it is already claimed on the pooled
+         * handle. The interface stays claimed until the handle is closed.
+         *
+         * @param iface
+         *            The interface number.
+         * @throws LibUsbException
+         *             When the interface could not be claimed.
+         */
+        public void claimInterface(final int iface)
+        {
+            final DeviceHandlePool pool = DeviceHandlePool.this;
+            final Integer number = Integer.valueOf(iface);
+            synchronized (pool)
+            {
+                this.checkLeased();
+                if (this.entry.claimed.contains(number))
+                {
+                    return;
+                }
+                final int result =
+                    pool.driver.claimInterface(this.entry.handle, iface);
+                if (result != LibUsb.SUCCESS)
+                {
+                    throw new LibUsbException("Unable to claim interface "
+                        + iface, result);
+                }
+                this.entry.claimed.add(number);
+            }
+        }
+
+        /**
+         * Checks if the specified interface is claimed on the pooled handle.
+         *
+         * @param iface
+         *            The interface number.
+         * @return True if claimed.
+         */
+        public boolean isClaimed(final int iface)
+        {
+            synchronized (DeviceHandlePool.this)
+            {
+                return this.entry.claimed.contains(Integer.valueOf(iface));
+            }
+        }
+
+        /**
+         * Returns the lease to the pool. Releasing an already released lease
+         * does nothing.
+         */
+        public void release()
+        {
+            DeviceHandlePool.this.release(this);
+        }
+
+        /**
+         * Ensures that the lease has not been released. Must be called while
+         * holding the pool monitor.
+         */
+        private void checkLeased()
+        {
+            if (this.released)
+            {
+                throw new IllegalStateException("Lease has been released");
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("usb4java lease of %s", this.entry.device);
+        }
+    }
+
+    /** The native operations. */
+    final Driver driver;
+
+    /** The idle timeout in nanoseconds. */
+    private final long idleTimeout;
+
+    /** The pooled handles. */
+    private final Map<Device, Entry> entries = new HashMap<Device, Entry>();
+
+    /** The eviction timer, created when first needed. */
+    private ScheduledThreadPoolExecutor evictor;
+
+    /** If pool has been closed. */
+    private boolean closed;
+
+    /** The number of acquired leases. */
+    private long acquireCount;
+
+    /** The number of leases which reused an open handle. */
+    private long reuseCount;
+
+    /** The number of opened handles. */
+    private long openCount;
+
+    /** The number of failed opens. */
+    private long openFailures;
+
+    /** The number of closed handles. */
+    private long closeCount;
+
+    /** The summed up open latency in nanoseconds. */
+    private long totalOpenLatency;
+
+    /** The maximum open latency in nanoseconds. */
+    private long maxOpenLatency;
+
+    /**
+     * Constructs a new pool with the default idle timeout.
+     */
+    public DeviceHandlePool()
+    {
+        this(DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Constructs a new pool.
+     *
+     * @param idleTimeout
+     *            The time in milliseconds a handle stays open after its last
+     *            lease has been released. 0 to close it immediately.
+     */
+    public DeviceHandlePool(final long idleTimeout)
+    {
+        this(idleTimeout, LIBUSB);
+    }
+
+    /**
+     * Constructs a new pool with specific native operations.
+     *
+     * @param idleTimeout
+     *            The idle timeout in milliseconds.
+     * @param driver
+     *            The native operations.
+     */
+    DeviceHandlePool(final long idleTimeout, final Driver driver)
+    {
+        if (idleTimeout < 0)
+        {
+            throw new IllegalArgumentException(
+                "idleTimeout must not be negative");
+        }
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        this.driver = driver;
+    }
+
+    /**
+     * Acquires a lease of an open handle of the specified device. The
+     * device is opened if there is no pooled handle for it. If another
+     * thread is opening the device at the same time then this thread waits
+     * for it and shares the handle.
+     *
+     * @param device
+     *            The device.
+     * @return The lease. Must be released when the device is no longer
+     *         used.
+     * @throws LibUsbException
+     *             When the device could not be opened.
+     */
+    public Lease acquire(final Device device)
+    {
+        if (device == null)
+        {
+            throw new IllegalArgumentException("device must not be null");
+        }
+        final Entry entry;
+        synchronized (this)
+        {
+            final Entry pooled = this.await(device);
+            if (pooled != null)
+            {
+                pooled.leases++;
+                if (pooled.eviction != null)
+                {
+                    pooled.eviction.cancel(false);
+                    pooled.eviction = null;
+                }
+                this.acquireCount++;
+                this.reuseCount++;
+                return new Lease(pooled);
+            }
+            entry = new Entry(device);
+            entry.leases = 1;
+            this.entries.put(device, entry);
+        }
+
+        // This thread opens the device for all waiting threads
+        final DeviceHandle handle = new DeviceHandle();
+        final long start = System.nanoTime();
+        final int result = this.driver.open(device, handle);
+        final long latency = System.nanoTime() - start;
+        synchronized (this)
+        {
+            this.totalOpenLatency += latency;
+            if (latency > this.maxOpenLatency)
+            {
+                this.maxOpenLatency = latency;
+            }
+            if (result != LibUsb.SUCCESS)
+            {
+                this.openFailures++;
+                this.entries.remove(device);
+                this.notifyAll();
+            }
+            else
+            {
+                this.openCount++;
+                this.acquireCount++;
+                entry.handle = handle;
+                this.notifyAll();
+                return new Lease(entry);
+            }
+        }
+        throw new LibUsbException("Unable to open device", result);
+    }
+
+    /**
+     * Returns the open pooled handle of a device. Waits while another
+     * thread is opening the device. Must be called while holding the pool
+     * monitor.
+     *
+     * @param device
+     *            The device.
+     * @return The pooled handle or null if the device is not open.
+     */
+    private Entry await(final Device device)
+    {
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                if (this.closed)
+                {
+                    throw new IllegalStateException("Pool has been closed");
+                }
+                final Entry entry = this.entries.get(device);
+                if (entry == null || entry.handle != null)
+                {
+                    return entry;
+                }
+                try
+                {
+                    this.wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    // Opening can't be aborted, just wait for it
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns a lease. The handle is closed after the idle timeout when this
+     * was the last lease.
+     *
+     * @param lease
+     *            The lease.
+     */
+    void release(final Lease lease)
+    {
+        final Entry entry = lease.entry;
+        synchronized (this)
+        {
+            if (lease.released)
+            {
+                return;
+            }
+            lease.released = true;
+            entry.leases--;
+            if (entry.leases > 0)
+            {
+                return;
+            }
+            if (!this.closed && this.idleTimeout > 0)
+            {
+                entry.eviction = this.evictor().schedule(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        DeviceHandlePool.this.evict(entry);
+                    }
+                }, this.idleTimeout, TimeUnit.NANOSECONDS);
+                return;
+            }
+            this.entries.remove(entry.device);
+        }
+        this.closeHandle(entry);
+    }
+
+    /**
+     * Returns the eviction timer. Must be called while holding the pool
+     * monitor.
+     *
+     * @return The eviction timer.
+     */
+    private ScheduledThreadPoolExecutor evictor()
+    {
+        if (this.evictor == null)
+        {
+            this.evictor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(final Runnable runnable)
+                    {
+                        final Thread thread = new Thread(runnable,
+                            "usb4java device handle pool evictor");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        }
+        return this.evictor;
+    }
+
+    /**
+     * Closes a handle if it is still idle.
+     *
+     * @param entry
+     *            The pooled handle.
+     */
+    void evict(final Entry entry)
+    {
+        synchronized (this)
+        {
+            if (entry.leases > 0 || this.entries.get(entry.device) != entry)
+            {
+                return;
+            }
+            entry.eviction = null;
+            this.entries.remove(entry.device);
+        }
+        this.closeHandle(entry);
+    }
+
+    /**
+     * Closes all idle handles immediately.
+     *
+     * @return The number of closed handles.
+     */
+    public int evictIdle()
+    {
+        final List<Entry> idle = new ArrayList<Entry>();
+        synchronized (this)
+        {
+            for (final Entry entry : this.entries.values())
+            {
+                if (entry.leases == 0)
+                {
+                    idle.add(entry);
+                }
+            }
+            for (final Entry entry : idle)
+            {
+                if (entry.eviction != null)
+                {
+                    entry.eviction.cancel(false);
+                    entry.eviction = null;
+                }
+                this.entries.remove(entry.device);
+            }
+        }
+        for (final Entry entry : idle)
+        {
+            this.closeHandle(entry);
+        }
+        return idle.size();
+    }
+
+    /**
+     * Releases the claimed interfaces of a handle and closes it. The entry
+     * must already be removed from the pool.
+     *
+     * @param entry
+     *            The pooled handle.
+     */
+    private void closeHandle(final Entry entry)
+    {
+        for (final Integer iface : entry.claimed)
+        {
+            this.driver.releaseInterface(entry.handle, iface.intValue());
+        }
+        this.driver.close(entry.handle);
+        synchronized (this)
+        {
+            this.closeCount++;
+        }
+    }
+
+    /**
+     * Closes the pool. Idle handles are closed immediately, leased handles
+     * when their last lease is released. No more leases can be acquired.
+     */
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+            this.closed = true;
+            if (this.evictor != null)
+            {
+                this.evictor.shutdownNow();
+            }
+        }
+        this.evictIdle();
+    }
+
+    /**
+     * Returns the number of open handles, leased or idle.
+     *
+     * @return The number of open handles.
+     */
+    public synchronized int getOpenHandles()
+    {
+        int count = 0;
+        for (final Entry entry : this.entries.values())
+        {
+            if (entry.handle != null)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of open handles without leases.
+     *
+     * @return The number of idle handles.
+     */
+    public synchronized int getIdleHandles()
+    {
+        int count = 0;
+        for (final Entry entry : this.entries.values())
+        {
+            if (entry.handle != null && entry.leases == 0)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of acquired leases.
+     *
+     * @return The number of leases.
+     */
+    public synchronized long getAcquireCount()
+    {
+        return this.acquireCount;
+    }
+
+    /**
+     * Returns the number of leases which reused an open handle.
+     *
+     * @return The number of reused handles.
+     */
+    public synchronized long getReuseCount()
+    {
+        return this.reuseCount;
+    }
+
+    /**
+     * Returns the share of leases which reused an open handle.
+     *
+     * @return The reuse rate between 0 and 1.
+     */
+    public synchronized double getReuseRate()
+    {
+        if (this.acquireCount == 0)
+        {
+            return 0;
+        }
+        return (double) this.reuseCount / this.acquireCount;
+    }
+
+    /**
+     * Returns the number of opened handles.
+     *
+     * @return The number of opened handles.
+     */
+    public synchronized long getOpenCount()
+    {
+        return this.openCount;
+    }
+
+    /**
+     * Returns the number of failed attempts to open a device.
+     *
+     * @return The number of failed opens.
+     */
+    public synchronized long getOpenFailures()
+    {
+        return this.openFailures;
+    }
+
+    /**
+     * Returns the number of closed handles.
+     *
+     * @return The number of closed handles.
+     */
+    public synchronized long getCloseCount()
+    {
+        return this.closeCount;
+    }
+
+    /**
+     * Returns the average time opening a device took, including failed
+     * attempts.
+     *
+     * @return The average open latency in nanoseconds.
+     */
+    public synchronized long getAverageOpenLatency()
+    {
+        final long opens = this.openCount + this.openFailures;
+        if (opens == 0)
+        {
+            return 0;
+        }
+        return this.totalOpenLatency / opens;
+    }
+
+    /**
+     * Returns the maximum time opening a device took.
+     *
+     * @return The maximum open latency in nanoseconds.
+     */
+    public synchronized long getMaxOpenLatency()
+    {
+        return this.maxOpenLatency;
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public synchronized void resetStatistics()
+    {
+        this.acquireCount = 0;
+        this.reuseCount = 0;
+        this.openCount = 0;
+        this.openFailures = 0;
+        this.closeCount = 0;
+        this.totalOpenLatency = 0;
+        this.maxOpenLatency = 0;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format(
+            "usb4java device handle pool with %d open handles (%.0f%% reused)",
+            this.getOpenHandles(), this.getReuseRate() * 100);
+    }
+}
@@ -43,6 +43,19 @@ public final class DeviceList implements Iterable<Device>
         // Empty
     }
 
+    /**
+     * Wraps an already allocated native device list so the list can be freed by
+     * the {@link ResourceTracker} after the original object was garbage
+     * collected.
+     *
+     * @param pointer
+     *            The native pointer.
+     */
+    DeviceList(final long pointer)
+    {
+        this.deviceListPointer = pointer;
+    }
+
     /**
      * Returns the native pointer.
      *
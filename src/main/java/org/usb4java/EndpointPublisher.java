@@ -0,0 +1,534 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the data received from a bulk or interrupt IN endpoint to a
+ * single {@link Flow.Subscriber}.
+ *
+ * Backpressure reaches down to the device: The number of requests submitted
+ * to the backend never exceeds the outstanding demand of the subscriber (and
+ * the configured maximum), so a slow subscriber results in fewer requests
+ * instead of buffered data. Each received request is published as a buffer
+ * with the position set to 0 and the limit set to the received length.
+ * Subscribers should pass the buffers to {@link #release(ByteBuffer)} when
+ * they are done with them, so they can be used for the next requests.
+ *
+ * The subscriber is notified with onError when a request fails and with
+ * onComplete after the publisher has been closed. The requests never time
+ * out.
+ *
+ * Requires another thread handling the events of the backend. The
+ * subscriber methods are called by this thread or by the thread requesting
+ * more items, but never concurrently.
+ *
+ * @author usb4java Team
+ */
+public final class EndpointPublisher implements Flow.Publisher<ByteBuffer>
+{
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** The IN endpoint address. */
+    private final byte endpoint;
+
+    /** The transfer type (bulk or interrupt). */
+    private final byte type;
+
+    /** The size of a single request. */
+    private final int requestSize;
+
+    /** The maximum number of requests submitted at the same time. */
+    private final int maxInFlight;
+
+    /** The idle requests. */
+    private final Queue<IoRequest> idle = new ArrayDeque<IoRequest>();
+
+    /** The submitted requests. */
+    private final List<IoRequest> submitted = new ArrayList<IoRequest>();
+
+    /** The recycled buffers. */
+    private final Queue<ByteBuffer> buffers = new ArrayDeque<ByteBuffer>();
+
+    /** The completed requests not yet published, in completion order. */
+    private final Queue<IoRequest> completed = new ArrayDeque<IoRequest>();
+
+    /** Counter serializing the delivery to the subscriber. */
+    private final AtomicInteger work = new AtomicInteger();
+
+    /** The callback of the requests. */
+    private final IoCallback callback = new IoCallback()
+    {
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            EndpointPublisher.this.requestCompleted(request);
+        }
+    };
+
+    /** The subscriber. Null if not yet subscribed. */
+    private Flow.Subscriber<? super ByteBuffer> subscriber;
+
+    /** The outstanding demand of the subscriber. */
+    private long demand;
+
+    /** The number of submitted requests. */
+    private int inFlight;
+
+    /** The error to signal to the subscriber. */
+    private Throwable error;
+
+    /** If publisher was closed. */
+    private boolean closed;
+
+    /** If subscription was terminated (cancelled, failed or completed). */
+    private boolean terminated;
+
+    /**
+     * Constructs a new endpoint publisher.
+     *
+     * @param backend
+     *            The backend to use.
+     * @param endpoint
+     *            The address of the IN endpoint.
+     * @param type
+     *            The transfer type. Must be {@link LibUsb#TRANSFER_TYPE_BULK}
+     *            or {@link LibUsb#TRANSFER_TYPE_INTERRUPT}.
+     * @param requestSize
+     *            The size of a single request. Should be a multiple of the
+     *            maximum packet size of the endpoint.
+     * @param maxInFlight
+     *            The maximum number of requests submitted at the same time.
+     */
+    public EndpointPublisher(final IoBackend backend, final byte endpoint,
+        final byte type, final int requestSize, final int maxInFlight)
+    {
+        if ((endpoint & LibUsb.ENDPOINT_DIR_MASK) != LibUsb.ENDPOINT_IN)
+        {
+            throw new IllegalArgumentException(
+                "endpoint must be an IN endpoint");
+        }
+        if (type != LibUsb.TRANSFER_TYPE_BULK
+            && type != LibUsb.TRANSFER_TYPE_INTERRUPT)
+        {
+            throw new IllegalArgumentException(
+                "type must be bulk or interrupt");
+        }
+        if (requestSize <= 0)
+        {
+            throw new IllegalArgumentException("requestSize must be positive");
+        }
+        if (maxInFlight <= 0)
+        {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.backend = backend;
+        this.endpoint = endpoint;
+        this.type = type;
+        this.requestSize = requestSize;
+        this.maxInFlight = maxInFlight;
+        for (int i = 0; i < maxInFlight; i++)
+        {
+            this.idle.add(new IoRequest());
+        }
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber)
+    {
+        if (subscriber == null)
+        {
+            throw new NullPointerException("subscriber must not be null");
+        }
+        final boolean accepted;
+        synchronized (this)
+        {
+            accepted = this.subscriber == null && !this.closed;
+            if (accepted)
+            {
+                this.subscriber = subscriber;
+            }
+        }
+        if (!accepted)
+        {
+            subscriber.onSubscribe(new Flow.Subscription()
+            {
+                @Override
+                public void request(final long n)
+                {
+                    // Ignored
+                }
+
+                @Override
+                public void cancel()
+                {
+                    // Ignored
+                }
+            });
+            subscriber.onError(new IllegalStateException(
+                "Publisher supports only a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription()
+        {
+            @Override
+            public void request(final long n)
+            {
+                EndpointPublisher.this.request(n);
+            }
+
+            @Override
+            public void cancel()
+            {
+                EndpointPublisher.this.cancel();
+            }
+        });
+    }
+
+    /**
+     * Adds demand of the subscriber.
+     *
+     * @param n
+     *            The number of additional items.
+     */
+    void request(final long n)
+    {
+        synchronized (this)
+        {
+            if (this.terminated)
+            {
+                return;
+            }
+            if (n <= 0)
+            {
+                this.fail(new IllegalArgumentException(
+                    "Requested item count must be positive: " + n));
+            }
+            else
+            {
+                this.demand += n;
+                if (this.demand < 0)
+                {
+                    this.demand = Long.MAX_VALUE;
+                }
+            }
+        }
+        this.drain();
+    }
+
+    /**
+     * Cancels the subscription. Submitted requests are cancelled, received
+     * data which has not been published yet is discarded.
+     */
+    void cancel()
+    {
+        synchronized (this)
+        {
+            if (this.terminated)
+            {
+                return;
+            }
+            this.terminated = true;
+        }
+        this.cancelInFlight();
+        this.drain();
+    }
+
+    /**
+     * Closes the publisher. Submitted requests are cancelled, the subscriber
+     * receives the data which has already been received followed by
+     * onComplete.
+     */
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+            this.closed = true;
+        }
+        this.cancelInFlight();
+        this.drain();
+    }
+
+    /**
+     * Cancels all submitted requests.
+     */
+    private void cancelInFlight()
+    {
+        final List<IoRequest> requests;
+        synchronized (this)
+        {
+            requests = new ArrayList<IoRequest>(this.submitted);
+        }
+        for (final IoRequest request : requests)
+        {
+            this.backend.cancel(request);
+        }
+    }
+
+    /**
+     * Returns a buffer to the publisher so it can be used for the next
+     * requests. The buffer must no longer be used by the caller.
+     *
+     * @param buffer
+     *            The buffer to release. Buffers not published by this
+     *            publisher are ignored.
+     */
+    public void release(final ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect()
+            || buffer.capacity() != this.requestSize)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            if (this.buffers.size() < this.maxInFlight)
+            {
+                this.buffers.add(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of currently submitted requests.
+     *
+     * @return The number of submitted requests.
+     */
+    public synchronized int getInFlight()
+    {
+        return this.inFlight;
+    }
+
+    /**
+     * Records an error for the subscriber. Must be called while holding the
+     * publisher monitor.
+     *
+     * @param throwable
+     *            The error.
+     */
+    private void fail(final Throwable throwable)
+    {
+        if (this.error == null)
+        {
+            this.error = throwable;
+        }
+    }
+
+    /**
+     * Called when a request is finished.
+     *
+     * @param request
+     *            The finished request.
+     */
+    void requestCompleted(final IoRequest request)
+    {
+        synchronized (this)
+        {
+            this.inFlight--;
+            this.submitted.remove(request);
+            final int status = request.status();
+            if (status == LibUsb.TRANSFER_COMPLETED)
+            {
+                this.completed.add(request);
+            }
+            else
+            {
+                if (status != LibUsb.TRANSFER_CANCELLED)
+                {
+                    this.fail(new IOException("Reading from endpoint failed",
+                        LibUsbException.of(request.resultCode())));
+                }
+                this.recycle(request);
+            }
+        }
+        this.drain();
+    }
+
+    /**
+     * Returns the buffer of a request to the pool and the request to the
+     * idle requests. Must be called while holding the publisher monitor.
+     *
+     * @param request
+     *            The request to recycle.
+     */
+    private void recycle(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        if (buffer != null && this.buffers.size() < this.maxInFlight)
+        {
+            this.buffers.add(buffer);
+        }
+        this.idle.add(request);
+    }
+
+    /**
+     * Publishes completed requests and submits new requests as allowed by
+     * the demand. Only one thread at a time does this work, calls from other
+     * threads in the meantime make this thread loop again.
+     */
+    private void drain()
+    {
+        if (this.work.getAndIncrement() != 0)
+        {
+            return;
+        }
+        int missed = 1;
+        do
+        {
+            this.publish();
+            this.submit();
+            missed = this.work.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    /**
+     * Publishes completed requests and terminal signals to the subscriber.
+     * Only called by the thread draining.
+     */
+    private void publish()
+    {
+        while (true)
+        {
+            final Flow.Subscriber<? super ByteBuffer> target;
+            ByteBuffer item = null;
+            Throwable failure = null;
+            boolean complete = false;
+            synchronized (this)
+            {
+                target = this.subscriber;
+                if (target == null)
+                {
+                    return;
+                }
+                if (this.terminated)
+                {
+                    // Discard unpublished data
+                    while (!this.completed.isEmpty())
+                    {
+                        this.recycle(this.completed.poll());
+                    }
+                    return;
+                }
+                if (this.error != null)
+                {
+                    this.terminated = true;
+                    failure = this.error;
+                }
+                else if (this.demand > 0 && !this.completed.isEmpty())
+                {
+                    final IoRequest request = this.completed.poll();
+                    item = request.buffer();
+                    item.limit(request.actualLength());
+                    item.position(0);
+                    // The buffer now belongs to the subscriber
+                    request.setBuffer(null);
+                    this.idle.add(request);
+                    if (this.demand != Long.MAX_VALUE)
+                    {
+                        this.demand--;
+                    }
+                }
+                else if (this.closed && this.completed.isEmpty()
+                    && this.inFlight == 0)
+                {
+                    this.terminated = true;
+                    complete = true;
+                }
+                else
+                {
+                    return;
+                }
+            }
+            if (failure != null)
+            {
+                this.cancelInFlight();
+                target.onError(failure);
+                return;
+            }
+            if (complete)
+            {
+                target.onComplete();
+                return;
+            }
+            target.onNext(item);
+        }
+    }
+
+    /**
+     * Submits as many requests as allowed by the outstanding demand. Only
+     * called by the thread draining.
+     */
+    private void submit()
+    {
+        while (true)
+        {
+            final IoRequest request;
+            synchronized (this)
+            {
+                if (this.subscriber == null || this.terminated || this.closed
+                    || this.error != null || this.idle.isEmpty()
+                    || this.inFlight + this.completed.size() >= this.demand)
+                {
+                    return;
+                }
+                request = this.idle.poll();
+                ByteBuffer buffer = this.buffers.poll();
+                if (buffer == null)
+                {
+                    buffer = BufferUtils.allocateByteBuffer(this.requestSize);
+                }
+                buffer.clear();
+                if (this.type == LibUsb.TRANSFER_TYPE_INTERRUPT)
+                {
+                    request.fillInterrupt(this.endpoint, buffer,
+                        this.callback, null, 0);
+                }
+                else
+                {
+                    request.fillBulk(this.endpoint, buffer, this.callback,
+                        null, 0);
+                }
+                this.inFlight++;
+                this.submitted.add(request);
+            }
+            final int result = this.backend.submit(request);
+            if (result != LibUsb.SUCCESS)
+            {
+                synchronized (this)
+                {
+                    this.inFlight--;
+                    this.submitted.remove(request);
+                    this.recycle(request);
+                    this.fail(new IOException("Reading from endpoint failed",
+                        LibUsbException.of(result)));
+                }
+                this.publish();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "usb4java publisher for endpoint 0x%02x on %s", this.endpoint,
+            this.backend);
+    }
+}
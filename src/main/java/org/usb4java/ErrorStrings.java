@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Java side tables of the libusb error names and messages.
+ *
+ * {@link LibUsb#errorName(int)} and {@link LibUsb#strError(int)} create a
+ * new string in every call. This class reads all names and the messages of
+ * the current language from libusb once when it is loaded, and the messages
+ * of every other language once when it is selected with
+ * {@link #setLocale(String)}. Lookups are array accesses and never allocate
+ * memory, so they can be used on error paths which are hit often.
+ *
+ * The message tables only follow locale changes made through
+ * {@link #setLocale(String)} of this class. Calling
+ * {@link LibUsb#setLocale(String)} directly leaves the current table in
+ * place.
+ *
+ * @author usb4java Team
+ */
+public final class ErrorStrings
+{
+    /** The name slot of the first transfer status code. */
+    private static final int STATUS_SLOT = LibUsb.ERROR_COUNT;
+
+    /** The name slot of unknown codes. */
+    private static final int UNKNOWN_SLOT =
+        STATUS_SLOT + LibUsb.TRANSFER_OVERFLOW;
+
+    /** An unknown code used for reading the strings of unknown codes. */
+    private static final int UNKNOWN_CODE = 0x1234;
+
+    /**
+     * The error names by slot, followed by the names of the transfer status
+     * codes from {@link LibUsb#TRANSFER_ERROR} to
+     * {@link LibUsb#TRANSFER_OVERFLOW} and the name of unknown codes.
+     */
+    private static final String[] NAMES = new String[UNKNOWN_SLOT + 1];
+
+    /** The message tables by language. Guarded by the class. */
+    private static final Map<String, String[]> TABLES =
+        new HashMap<String, String[]>();
+
+    /** The messages of the current language by slot. */
+    private static volatile String[] messages;
+
+    static
+    {
+        for (int slot = 0; slot < LibUsb.ERROR_COUNT; slot++)
+        {
+            NAMES[slot] = LibUsb.errorName(code(slot));
+        }
+        for (int status = LibUsb.TRANSFER_ERROR;
+            status <= LibUsb.TRANSFER_OVERFLOW; status++)
+        {
+            NAMES[STATUS_SLOT + status - 1] = LibUsb.errorName(status);
+        }
+        NAMES[UNKNOWN_SLOT] = LibUsb.errorName(UNKNOWN_CODE);
+        messages = readMessages();
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ErrorStrings()
+    {
+        // Empty
+    }
+
+    /**
+     * Returns the slot of an error code. {@link LibUsb#SUCCESS} and the
+     * error codes from {@link LibUsb#ERROR_IO} to
+     * {@link LibUsb#ERROR_NOT_SUPPORTED} use their negated code as slot,
+     * {@link LibUsb#ERROR_OTHER} uses the last slot.
+     *
+     * @param errorCode
+     *            The error code.
+     * @return The slot, -1 if the code is not a libusb error code.
+     */
+    static int slot(final int errorCode)
+    {
+        if (errorCode == LibUsb.ERROR_OTHER)
+        {
+            return LibUsb.ERROR_COUNT - 1;
+        }
+        if (errorCode <= 0 && errorCode > -(LibUsb.ERROR_COUNT - 1))
+        {
+            return -errorCode;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the error code of a slot.
+     *
+     * @param slot
+     *            The slot.
+     * @return The error code.
+     */
+    private static int code(final int slot)
+    {
+        if (slot == LibUsb.ERROR_COUNT - 1)
+        {
+            return LibUsb.ERROR_OTHER;
+        }
+        return -slot;
+    }
+
+    /**
+     * Reads the messages of the current libusb language.
+     *
+     * @return The messages by slot.
+     */
+    private static String[] readMessages()
+    {
+        final String[] table = new String[LibUsb.ERROR_COUNT];
+        for (int slot = 0; slot < LibUsb.ERROR_COUNT; slot++)
+        {
+            table[slot] = LibUsb.strError(code(slot));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the ASCII name of a libusb error or transfer status code. See
+     * {@link LibUsb#errorName(int)}.
+     *
+     * @param errorCode
+     *            The libusb error or transfer status code.
+     * @return The error name, or **UNKNOWN** if the code is not known.
+     */
+    public static String getName(final int errorCode)
+    {
+        final int slot = slot(errorCode);
+        if (slot >= 0)
+        {
+            return NAMES[slot];
+        }
+        if (errorCode >= LibUsb.TRANSFER_ERROR
+            && errorCode <= LibUsb.TRANSFER_OVERFLOW)
+        {
+            return NAMES[STATUS_SLOT + errorCode - 1];
+        }
+        return NAMES[UNKNOWN_SLOT];
+    }
+
+    /**
+     * Returns the short description of a libusb error code in the language
+     * set with {@link #setLocale(String)}. See {@link LibUsb#strError(int)}.
+     * Like libusb, the description of {@link LibUsb#ERROR_OTHER} is returned
+     * for unknown codes.
+     *
+     * @param errorCode
+     *            The libusb error code.
+     * @return The description of the error code.
+     */
+    public static String getMessage(final int errorCode)
+    {
+        final int slot = slot(errorCode);
+        return messages[slot < 0 ? LibUsb.ERROR_COUNT - 1 : slot];
+    }
+
+    /**
+     * Sets the language of the libusb messages and switches to the message
+     * table of this language. The table is read from libusb when the
+     * language is selected for the first time. See
+     * {@link LibUsb#setLocale(String)}.
+     *
+     * The exceptions returned by {@link LibUsbException#of(int)} use the new
+     * messages afterwards.
+     *
+     * @param locale
+     *            locale-string in the form of lang[_country_region][.codeset]
+     *            or lang[-region], where lang is a 2 letter ISO 639-1 code.
+     * @return {@link LibUsb#SUCCESS} on success, or the error code returned
+     *         by {@link LibUsb#setLocale(String)}. The message table is not
+     *         changed on errors.
+     */
+    public static synchronized int setLocale(final String locale)
+    {
+        final int result = LibUsb.setLocale(locale);
+        if (result != LibUsb.SUCCESS)
+        {
+            return result;
+        }
+
+        // libusb only uses the 2 letter language code
+        final String language =
+            locale.substring(0, 2).toLowerCase(Locale.ENGLISH);
+        String[] table = TABLES.get(language);
+        if (table == null)
+        {
+            table = readMessages();
+            TABLES.put(language, table);
+        }
+        if (table != messages)
+        {
+            messages = table;
+            LibUsbException.clearShared();
+        }
+        return result;
+    }
+}
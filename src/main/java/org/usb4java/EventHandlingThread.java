@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Daemon thread handling the libusb events of a context. Required for
+ * asynchronous I/O, transfer callbacks are called from this thread.
+ *
+ * The thread handles events until it is aborted. The abort is noticed within
+ * the configured poll interval. A failure while handling events stops the
+ * thread, the error code can be queried with {@link #getError()}.
+ *
+ * @author usb4java Team
+ */
+public final class EventHandlingThread extends Thread
+{
+    /** The default poll interval in microseconds. */
+    public static final long DEFAULT_POLL_INTERVAL = 250000;
+
+    /** The context. Null for the default context. */
+    private final Context context;
+
+    /** The poll interval in microseconds. */
+    private final long pollInterval;
+
+    /** If thread should abort. */
+    private volatile boolean abort;
+
+    /** The error which stopped the thread. */
+    private volatile int error = LibUsb.SUCCESS;
+
+    /** The tasks to run on this thread. */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+    /**
+     * Constructs a new event handling thread with the default poll interval.
+     *
+     * @param context
+     *            The context to handle the events for. Null for the default
+     *            context.
+     */
+    public EventHandlingThread(final Context context)
+    {
+        this(context, DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * Constructs a new event handling thread.
+     *
+     * @param context
+     *            The context to handle the events for. Null for the default
+     *            context.
+     * @param pollInterval
+     *            The maximum time in microseconds to wait for events before
+     *            checking for an abort.
+     */
+    public EventHandlingThread(final Context context, final long pollInterval)
+    {
+        super("usb4java events");
+        if (pollInterval <= 0)
+        {
+            throw new IllegalArgumentException(
+                "pollInterval must be positive");
+        }
+        this.context = context;
+        this.pollInterval = pollInterval;
+        setDaemon(true);
+    }
+
+    /**
+     * Returns the context.
+     *
+     * @return The context. Null for the default context.
+     */
+    public Context getContext()
+    {
+        return this.context;
+    }
+
+    /**
+     * Returns the error which stopped the thread.
+     *
+     * @return The error code. {@link LibUsb#SUCCESS} if no error occurred.
+     */
+    public int getError()
+    {
+        return this.error;
+    }
+
+    /**
+     * Aborts the event handling thread. Returns immediately, use
+     * {@link #join()} to wait for the thread to end.
+     */
+    public void abort()
+    {
+        this.abort = true;
+    }
+
+    /**
+     * Runs a task on this thread. The task runs between two calls handling
+     * the events, so it never runs concurrently with a transfer callback of
+     * the context. A task queued by a callback or by another task runs right
+     * after the current call, a task queued by another thread may wait up to
+     * the poll interval.
+     *
+     * @param task
+     *            The task to run.
+     */
+    void execute(final Runnable task)
+    {
+        this.tasks.add(task);
+    }
+
+    @Override
+    public void run()
+    {
+        while (!this.abort)
+        {
+            Runnable task = this.tasks.poll();
+            while (task != null)
+            {
+                task.run();
+                task = this.tasks.poll();
+            }
+            final int result = LibUsb.handleEventsTimeout(this.context,
+                this.tasks.isEmpty() ? this.pollInterval : 0);
+            if (result != LibUsb.SUCCESS && result != LibUsb.ERROR_INTERRUPTED)
+            {
+                this.error = result;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+/**
+ * Interrelated interfaces for establishing flow-controlled components in
+ * which publishers produce items consumed by subscribers.
+ *
+ * These interfaces have exactly the shape and the semantics of the Reactive
+ * Streams interfaces which are available as java.util.concurrent.Flow in
+ * Java 9 and later. usb4java still runs on older Java versions so it can't
+ * use them directly, but they can be bridged with a few lines of code.
+ *
+ * @author usb4java Team
+ */
+public final class Flow
+{
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Flow()
+    {
+        // Empty
+    }
+
+    /**
+     * A producer of items received by subscribers.
+     *
+     * @param <T>
+     *            The published item type.
+     */
+    public interface Publisher<T>
+    {
+        /**
+         * Adds the given subscriber if possible. If already subscribed, or
+         * the attempt to subscribe fails, the subscriber's onError method is
+         * invoked. Otherwise the onSubscribe method is invoked with a new
+         * subscription.
+         *
+         * @param subscriber
+         *            The subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items. The methods are invoked in strict sequential
+     * order for each subscription.
+     *
+     * @param <T>
+     *            The subscribed item type.
+     */
+    public interface Subscriber<T>
+    {
+        /**
+         * Invoked prior to invoking any other subscriber methods for the
+         * given subscription.
+         *
+         * @param subscription
+         *            The new subscription.
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Invoked with a subscription's next item.
+         *
+         * @param item
+         *            The item.
+         */
+        void onNext(T item);
+
+        /**
+         * Invoked upon an unrecoverable error encountered by a publisher or
+         * subscription, after which no other subscriber methods are invoked.
+         *
+         * @param throwable
+         *            The exception.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Invoked when it is known that no additional subscriber method
+         * invocations will occur for a subscription that is not already
+         * terminated by error.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Message control linking a publisher and a subscriber.
+     */
+    public interface Subscription
+    {
+        /**
+         * Adds the given number of items to the current unfulfilled demand
+         * for this subscription.
+         *
+         * @param n
+         *            The increment of demand. Must be positive.
+         */
+        void request(long n);
+
+        /**
+         * Causes the subscriber to (eventually) stop receiving messages.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,622 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Writes a logical bulk message which is scattered over multiple buffers,
+ * like {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])}.
+ *
+ * The message is split into consecutive requests which are submitted back to
+ * back. Every request except the last one has a length which is a multiple
+ * of the maximum packet size of the endpoint, so the device sees one
+ * continuous stream of full packets which is only terminated by the final
+ * short packet (or by a zero length packet when requested via
+ * {@link LibUsb#TRANSFER_ADD_ZERO_PACKET}). Packet aligned parts of direct
+ * buffers are sent without copying them. Only the bytes which straddle a
+ * packet boundary between two buffers (Less than one packet per buffer) and
+ * the content of non-direct buffers are copied into bounce buffers. The
+ * bounce buffers are owned by the writer and reused for following messages
+ * when a message is finished. At most {@link #MAX_FREE_BOUNCE_BUFFERS} free
+ * bounce buffers are kept, so a burst of concurrent messages doesn't pin
+ * its bounce buffers forever.
+ *
+ * Messages submitted through the same writer are never interleaved with each
+ * other.
+ *
+ * @author usb4java Team
+ */
+public final class GatheringBulkWriter
+{
+    /** The maximum number of free bounce buffers kept for reuse. */
+    static final int MAX_FREE_BOUNCE_BUFFERS = 8;
+
+    /** The buffer of empty messages. */
+    private static final ByteBuffer EMPTY = BufferUtils.allocateByteBuffer(0);
+
+    /** The backend to submit the requests to. */
+    private final IoBackend backend;
+
+    /** The endpoint address. */
+    private final byte endpoint;
+
+    /** The maximum packet size of the endpoint. */
+    private final int maxPacketSize;
+
+    /** The maximum length of a single request. */
+    private final int maxRequestSize;
+
+    /** The timeout of a single request in milliseconds. */
+    private final long timeout;
+
+    /** The free bounce buffers. Guarded by itself. */
+    private final Queue<ByteBuffer> bounceBuffers =
+        new ArrayDeque<ByteBuffer>();
+
+    /**
+     * Constructs a new writer.
+     *
+     * @param backend
+     *            The backend to submit the requests to.
+     * @param endpoint
+     *            The address of the bulk OUT endpoint.
+     * @param maxPacketSize
+     *            The maximum packet size of the endpoint.
+     * @param maxRequestSize
+     *            The maximum length of a single request. Rounded down to a
+     *            multiple of the maximum packet size.
+     * @param timeout
+     *            The timeout of a single request in milliseconds. 0 for no
+     *            timeout.
+     */
+    public GatheringBulkWriter(final IoBackend backend, final byte endpoint,
+        final int maxPacketSize, final int maxRequestSize, final long timeout)
+    {
+        if (maxPacketSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxPacketSize must be positive");
+        }
+        if (maxRequestSize < maxPacketSize)
+        {
+            throw new IllegalArgumentException(
+                "maxRequestSize must not be smaller than maxPacketSize");
+        }
+        this.backend = backend;
+        this.endpoint = endpoint;
+        this.maxPacketSize = maxPacketSize;
+        this.maxRequestSize = maxRequestSize - (maxRequestSize % maxPacketSize);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the maximum packet size of the endpoint.
+     *
+     * @return The maximum packet size.
+     */
+    public int getMaxPacketSize()
+    {
+        return this.maxPacketSize;
+    }
+
+    /**
+     * Asynchronously writes a message. The remaining bytes of the specified
+     * buffers are the message. The positions of the buffers are not
+     * modified. The buffers must not be modified until the callback has been
+     * invoked.
+     *
+     * The callback is invoked once for the whole message with a request
+     * which summarizes it: Its status is the status of the first failed
+     * part (or {@link LibUsb#TRANSFER_COMPLETED}) and its actual length is the
+     * number of bytes at the start of the message which have been written.
+     * Bytes written by parts after the first failed or short part are not
+     * counted because the device did not receive the message up to them.
+     * When a part fails all following parts are cancelled.
+     *
+     * @param srcs
+     *            The buffers containing the message.
+     * @param offset
+     *            The offset of the first buffer to use.
+     * @param length
+     *            The number of buffers to use.
+     * @param zeroPacket
+     *            Whether to terminate the message with a zero length packet
+     *            if its length is a multiple of the maximum packet size.
+     * @param callback
+     *            The callback to invoke when the message is finished.
+     * @param userData
+     *            User data to pass to the callback.
+     * @return {@link LibUsb#SUCCESS} on success or the error code of the
+     *         first part which could not be submitted. The callback is not
+     *         invoked when the first part could not be submitted.
+     */
+    public int submit(final ByteBuffer[] srcs, final int offset,
+        final int length, final boolean zeroPacket, final IoCallback callback,
+        final Object userData)
+    {
+        final List<ByteBuffer> bounce = new ArrayList<ByteBuffer>(1);
+        final List<ByteBuffer> parts =
+            this.split(srcs, offset, length, bounce);
+        final IoRequest summary = new IoRequest();
+        summary.fillBulk(this.endpoint, null, callback, userData,
+            this.timeout);
+        final Message message = new Message(this, summary, parts.size(),
+            bounce);
+        final int numParts = parts.size();
+        for (int i = 0; i < numParts; i++)
+        {
+            final IoRequest request = message.requests[i];
+            request.fillBulk(this.endpoint, parts.get(i), message, message,
+                this.timeout);
+            if (zeroPacket && i == numParts - 1)
+            {
+                request.setFlags(LibUsb.TRANSFER_ADD_ZERO_PACKET);
+            }
+        }
+
+        synchronized (this)
+        {
+            return message.submit(this.backend);
+        }
+    }
+
+    /**
+     * Synchronously writes a message. Requires another thread handling the
+     * events of the backend. The positions of the buffers are advanced by
+     * the number of written bytes.
+     *
+     * @param srcs
+     *            The buffers containing the message.
+     * @param zeroPacket
+     *            Whether to terminate the message with a zero length packet
+     *            if its length is a multiple of the maximum packet size.
+     * @return The number of written bytes.
+     * @throws LibUsbException
+     *             When message could not be written completely.
+     */
+    public long write(final ByteBuffer[] srcs, final boolean zeroPacket)
+    {
+        return this.write(srcs, 0, srcs.length, zeroPacket);
+    }
+
+    /**
+     * Synchronously writes a message. Requires another thread handling the
+     * events of the backend. The positions of the buffers are advanced by
+     * the number of written bytes.
+     *
+     * @param srcs
+     *            The buffers containing the message.
+     * @param offset
+     *            The offset of the first buffer to use.
+     * @param length
+     *            The number of buffers to use.
+     * @param zeroPacket
+     *            Whether to terminate the message with a zero length packet
+     *            if its length is a multiple of the maximum packet size.
+     * @return The number of written bytes.
+     * @throws LibUsbException
+     *             When message could not be written completely.
+     */
+    public long write(final ByteBuffer[] srcs, final int offset,
+        final int length, final boolean zeroPacket)
+    {
+        final IoRequest[] done = new IoRequest[1];
+        final IoCallback callback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                synchronized (done)
+                {
+                    done[0] = request;
+                    done.notifyAll();
+                }
+            }
+        };
+        final int result = this.submit(srcs, offset, length, zeroPacket,
+            callback, null);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to submit bulk message", result);
+        }
+        boolean interrupted = false;
+        synchronized (done)
+        {
+            while (done[0] == null)
+            {
+                try
+                {
+                    done.wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        int written = done[0].actualLength();
+        for (int i = offset; i < offset + length && written > 0; i++)
+        {
+            final int consumed = Math.min(written, srcs[i].remaining());
+            srcs[i].position(srcs[i].position() + consumed);
+            written -= consumed;
+        }
+        final int code = done[0].resultCode();
+        if (code != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to write bulk message", code);
+        }
+        return done[0].actualLength();
+    }
+
+    /**
+     * Takes a free bounce buffer or allocates a new one.
+     *
+     * @return The cleared bounce buffer.
+     */
+    private ByteBuffer borrowBounceBuffer()
+    {
+        synchronized (this.bounceBuffers)
+        {
+            final ByteBuffer buffer = this.bounceBuffers.poll();
+            if (buffer != null)
+            {
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return BufferUtils.allocateByteBuffer(this.maxRequestSize);
+    }
+
+    /**
+     * Returns bounce buffers which are no longer used by a message.
+     *
+     * @param buffers
+     *            The bounce buffers.
+     */
+    void releaseBounceBuffers(final List<ByteBuffer> buffers)
+    {
+        synchronized (this.bounceBuffers)
+        {
+            for (final ByteBuffer buffer : buffers)
+            {
+                if (this.bounceBuffers.size() >= MAX_FREE_BOUNCE_BUFFERS)
+                {
+                    break;
+                }
+                this.bounceBuffers.add(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of free bounce buffers kept for reuse.
+     *
+     * @return The number of free bounce buffers.
+     */
+    int getFreeBounceBufferCount()
+    {
+        synchronized (this.bounceBuffers)
+        {
+            return this.bounceBuffers.size();
+        }
+    }
+
+    /**
+     * Splits the message into request buffers. Bytes which can't be sent
+     * directly from the specified buffers are copied into bounce buffers.
+     * Each bounce buffer is filled up to the maximum request size before the
+     * next one is used.
+     *
+     * @param srcs
+     *            The buffers containing the message.
+     * @param offset
+     *            The offset of the first buffer to use.
+     * @param length
+     *            The number of buffers to use.
+     * @param bounce
+     *            The list to add the used bounce buffers to. They must be
+     *            released with {@link #releaseBounceBuffers(List)} when the
+     *            request buffers are no longer used.
+     * @return The request buffers.
+     */
+    List<ByteBuffer> split(final ByteBuffer[] srcs, final int offset,
+        final int length, final List<ByteBuffer> bounce)
+    {
+        final int packetSize = this.maxPacketSize;
+        final List<ByteBuffer> parts = new ArrayList<ByteBuffer>(length + 1);
+        ByteBuffer carry = null;
+        for (int i = offset; i < offset + length; i++)
+        {
+            final ByteBuffer src = srcs[i].duplicate();
+            if (!src.isDirect())
+            {
+                while (src.hasRemaining())
+                {
+                    if (carry == null)
+                    {
+                        carry = this.borrowBounceBuffer();
+                        bounce.add(carry);
+                    }
+                    put(carry, src, carry.remaining());
+                    if (!carry.hasRemaining())
+                    {
+                        carry.flip();
+                        parts.add(carry);
+                        carry = null;
+                    }
+                }
+                continue;
+            }
+
+            // Complete the packet started by the previous buffers
+            if (carry != null)
+            {
+                final int partial = carry.position() % packetSize;
+                if (partial != 0)
+                {
+                    put(carry, src, packetSize - partial);
+                }
+                if (!src.hasRemaining())
+                {
+                    continue;
+                }
+                if (src.remaining() < packetSize && carry.hasRemaining())
+                {
+                    // No aligned data to send, keep collecting
+                    carry.put(src);
+                    continue;
+                }
+                carry.flip();
+                parts.add(carry);
+                carry = null;
+            }
+
+            // Send all full packets without copying
+            final int remaining = src.remaining();
+            int aligned = remaining - (remaining % packetSize);
+            while (aligned > 0)
+            {
+                final int size = Math.min(aligned, this.maxRequestSize);
+                final ByteBuffer part = src.slice();
+                part.limit(size);
+                parts.add(part);
+                src.position(src.position() + size);
+                aligned -= size;
+            }
+
+            // Keep the trailing partial packet for the next buffer
+            if (src.hasRemaining())
+            {
+                carry = this.borrowBounceBuffer();
+                bounce.add(carry);
+                carry.put(src);
+            }
+        }
+        if (carry != null)
+        {
+            carry.flip();
+            parts.add(carry);
+        }
+        if (parts.isEmpty())
+        {
+            parts.add(EMPTY.duplicate());
+        }
+        return parts;
+    }
+
+    /**
+     * Copies bytes from a buffer into a bounce buffer.
+     *
+     * @param dst
+     *            The bounce buffer.
+     * @param src
+     *            The buffer to copy from.
+     * @param max
+     *            The maximum number of bytes to copy.
+     */
+    private static void put(final ByteBuffer dst, final ByteBuffer src,
+        final int max)
+    {
+        final int count = Math.min(max, src.remaining());
+        final int limit = src.limit();
+        src.limit(src.position() + count);
+        dst.put(src);
+        src.limit(limit);
+    }
+
+    /**
+     * The state of a single message.
+     */
+    private static final class Message implements IoCallback
+    {
+        /** The writer of the message. */
+        private final GatheringBulkWriter writer;
+
+        /** The request summarizing the message. */
+        private final IoRequest summary;
+
+        /** The bounce buffers used by the parts. */
+        private final List<ByteBuffer> bounce;
+
+        /** The requests of the parts of the message. */
+        final IoRequest[] requests;
+
+        /** The backend the parts were submitted to. */
+        private IoBackend backend;
+
+        /** The number of submitted parts which are not yet finished. */
+        private int pending;
+
+        /** The number of parts which were submitted. */
+        private int submitted;
+
+        /** The status of the message. */
+        private int status = LibUsb.TRANSFER_COMPLETED;
+
+        /**
+         * Constructor.
+         *
+         * @param writer
+         *            The writer of the message.
+         * @param summary
+         *            The request summarizing the message.
+         * @param numParts
+         *            The number of parts.
+         * @param bounce
+         *            The bounce buffers used by the parts. Released when the
+         *            message is finished.
+         */
+        Message(final GatheringBulkWriter writer, final IoRequest summary,
+            final int numParts, final List<ByteBuffer> bounce)
+        {
+            this.writer = writer;
+            this.summary = summary;
+            this.bounce = bounce;
+            this.requests = new IoRequest[numParts];
+            for (int i = 0; i < numParts; i++)
+            {
+                this.requests[i] = new IoRequest();
+            }
+        }
+
+        /**
+         * Submits all parts. Stops at the first part which can't be
+         * submitted.
+         *
+         * @param ioBackend
+         *            The backend to submit the parts to.
+         * @return The result of the first part which failed or
+         *         {@link LibUsb#SUCCESS}.
+         */
+        int submit(final IoBackend ioBackend)
+        {
+            int result = LibUsb.SUCCESS;
+            synchronized (this)
+            {
+                this.backend = ioBackend;
+
+                // Guard against completion while still submitting
+                this.pending = 1;
+            }
+            for (final IoRequest request : this.requests)
+            {
+                synchronized (this)
+                {
+                    if (this.status != LibUsb.TRANSFER_COMPLETED)
+                    {
+                        break;
+                    }
+                    this.pending++;
+                    this.submitted++;
+                }
+                result = ioBackend.submit(request);
+                if (result != LibUsb.SUCCESS)
+                {
+                    synchronized (this)
+                    {
+                        this.pending--;
+                        this.submitted--;
+                        if (this.status == LibUsb.TRANSFER_COMPLETED)
+                        {
+                            this.status = LibUsb.TRANSFER_ERROR;
+                        }
+                    }
+                    break;
+                }
+            }
+            final int numSubmitted;
+            synchronized (this)
+            {
+                numSubmitted = this.submitted;
+            }
+            if (numSubmitted == 0)
+            {
+                this.writer.releaseBounceBuffers(this.bounce);
+                return result;
+            }
+            if (result != LibUsb.SUCCESS)
+            {
+                // Don't leave a truncated message on the wire
+                for (int i = 0; i < numSubmitted; i++)
+                {
+                    ioBackend.cancel(this.requests[i]);
+                }
+            }
+            this.finish();
+            return LibUsb.SUCCESS;
+        }
+
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            boolean cancelOthers = false;
+            synchronized (this)
+            {
+                if (request.status() != LibUsb.TRANSFER_COMPLETED
+                    && this.status == LibUsb.TRANSFER_COMPLETED)
+                {
+                    this.status = request.status();
+                    cancelOthers = true;
+                }
+            }
+            if (cancelOthers)
+            {
+                for (final IoRequest other : this.requests)
+                {
+                    if (other != request)
+                    {
+                        this.backend.cancel(other);
+                    }
+                }
+            }
+            this.finish();
+        }
+
+        /**
+         * Marks one part as finished and completes the message when it was
+         * the last one.
+         */
+        private void finish()
+        {
+            final int status;
+            final int numSubmitted;
+            synchronized (this)
+            {
+                if (--this.pending > 0)
+                {
+                    return;
+                }
+                status = this.status;
+                numSubmitted = this.submitted;
+            }
+
+            // Only count the parts the device received without a gap
+            int total = 0;
+            for (int i = 0; i < numSubmitted; i++)
+            {
+                final IoRequest request = this.requests[i];
+                total += request.actualLength();
+                if (request.status() != LibUsb.TRANSFER_COMPLETED
+                    || request.actualLength() < request.length())
+                {
+                    break;
+                }
+            }
+            this.writer.releaseBounceBuffers(this.bounce);
+            this.summary.complete(status, total);
+        }
+    }
+}
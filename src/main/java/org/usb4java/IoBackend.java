@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+/**
+ * Something which can carry out asynchronous {@link IoRequest}s for a single
+ * USB device.
+ *
+ * The standard implementation is {@link LibUsbBackend} which maps requests to
+ * native libusb transfers. Other implementations may talk to remote or
+ * simulated devices, which is why the higher-level I/O classes of usb4java
+ * are written against this interface and not against {@link Transfer}.
+ *
+ * @author usb4java Team
+ */
+public interface IoBackend
+{
+    /**
+     * Submits a request.
+     *
+     * This function fires off the request and then returns immediately. The
+     * callback of the request is invoked later when the request has completed,
+     * failed or was cancelled. The callback is never invoked when this
+     * method does not return {@link LibUsb#SUCCESS}.
+     *
+     * @param request
+     *            The request to submit.
+     * @return {@link LibUsb#SUCCESS} on success, {@link LibUsb#ERROR_NO_DEVICE}
+     *         if the device has been disconnected, {@link LibUsb#ERROR_BUSY}
+     *         if the request has already been submitted, another ERROR code
+     *         on failure.
+     */
+    int submit(IoRequest request);
+
+    /**
+     * Asynchronously cancels a previously submitted request.
+     *
+     * This function returns immediately, but this does not indicate
+     * cancellation is complete. The callback of the request will be invoked at
+     * some later time with a status of {@link LibUsb#TRANSFER_CANCELLED}.
+     *
+     * @param request
+     *            The request to cancel.
+     * @return {@link LibUsb#SUCCESS} on success, {@link LibUsb#ERROR_NOT_FOUND}
+     *         if the request is not in progress, another ERROR code on
+     *         failure.
+     */
+    int cancel(IoRequest request);
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+/**
+ * Asynchronous I/O request callback.
+ *
+ * When submitting {@link IoRequest}s to an {@link IoBackend}, you pass a
+ * callback of this type via the callback member of the request.
+ *
+ * @author usb4java Team
+ */
+public interface IoCallback
+{
+    /**
+     * Processes a request notification.
+     *
+     * The backend will call this function later, when the request has
+     * completed or failed. For libusb based backends this is called from the
+     * thread which is handling libusb events, so it should return quickly.
+     *
+     * @param request
+     *            The {@link IoRequest} the callback is being notified about.
+     */
+    void processRequest(IoRequest request);
+}
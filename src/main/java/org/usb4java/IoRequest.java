@@ -0,0 +1,569 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A backend independent asynchronous I/O request.
+ *
+ * This is the pure Java counterpart of {@link Transfer}. The user populates
+ * this structure and then submits it to an {@link IoBackend}. After the
+ * request has completed, the backend populates the request with the results
+ * and passes it back to the user callback. Unlike a {@link Transfer} a
+ * request owns no native memory, so it can be created freely and reused as
+ * often as needed.
+ *
+ * The data of the request are the remaining bytes of the buffer (From its
+ * position to its limit). Control requests follow the libusb convention: The
+ * first {@link LibUsb#CONTROL_SETUP_SIZE} bytes of the data are the setup
+ * packet.
+ *
+ * @author usb4java Team
+ */
+public final class IoRequest
+{
+    /** The endpoint type. */
+    private byte type;
+
+    /** The endpoint address. */
+    private byte endpoint;
+
+    /** The libusb transfer flags. */
+    private byte flags;
+
+    /** The timeout in milliseconds. */
+    private long timeout;
+
+    /** The data buffer. */
+    private ByteBuffer buffer;
+
+    /** The isochronous packet lengths. Null for non-isochronous requests. */
+    private int[] isoPacketLengths;
+
+    /** The actual lengths of the isochronous packets. */
+    private int[] isoPacketActualLengths;
+
+    /** The status of the isochronous packets. */
+    private int[] isoPacketStatus;
+
+    /** The request status. */
+    private volatile int status;
+
+    /** The actual length of the transferred data. */
+    private volatile int actualLength;
+
+    /** The callback. */
+    private IoCallback callback;
+
+    /** The user data. */
+    private Object userData;
+
+    /**
+     * Backend specific state of a submitted request. Guarded by the request
+     * monitor.
+     */
+    Object attachment;
+
+    /**
+     * Constructs a new empty request.
+     */
+    public IoRequest()
+    {
+        // Empty
+    }
+
+    /**
+     * Returns the type of the endpoint.
+     *
+     * @return The endpoint type.
+     */
+    public byte type()
+    {
+        return this.type;
+    }
+
+    /**
+     * Sets the type of the endpoint.
+     *
+     * @param type
+     *            The endpoint type to set.
+     */
+    public void setType(final byte type)
+    {
+        this.type = type;
+    }
+
+    /**
+     * Returns the address of the endpoint where this request will be sent.
+     *
+     * @return The endpoint address.
+     */
+    public byte endpoint()
+    {
+        return this.endpoint;
+    }
+
+    /**
+     * Sets the address of the endpoint where this request will be sent.
+     *
+     * @param endpoint
+     *            The endpoint address to set.
+     */
+    public void setEndpoint(final byte endpoint)
+    {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Returns the bitwise OR combination of libusb transfer flags.
+     *
+     * @return The transfer flags.
+     */
+    public byte flags()
+    {
+        return this.flags;
+    }
+
+    /**
+     * Sets the bitwise OR combination of libusb transfer flags.
+     *
+     * @param flags
+     *            The transfer flags to set.
+     */
+    public void setFlags(final byte flags)
+    {
+        this.flags = flags;
+    }
+
+    /**
+     * Returns the timeout for this request in milliseconds. A value of 0
+     * indicates no timeout.
+     *
+     * @return The timeout.
+     */
+    public long timeout()
+    {
+        return this.timeout;
+    }
+
+    /**
+     * Sets the timeout for this request in milliseconds. A value of 0
+     * indicates no timeout.
+     *
+     * @param timeout
+     *            The timeout to set.
+     */
+    public void setTimeout(final long timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the data buffer.
+     *
+     * @return The data buffer.
+     */
+    public ByteBuffer buffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * Sets the data buffer. The remaining bytes of the buffer are the data of
+     * the request.
+     *
+     * @param buffer
+     *            The data buffer to set.
+     */
+    public void setBuffer(final ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the length of the request data.
+     *
+     * @return The data length.
+     */
+    public int length()
+    {
+        return this.buffer == null ? 0 : this.buffer.remaining();
+    }
+
+    /**
+     * Returns the number of isochronous packets.
+     *
+     * @return The number of isochronous packets.
+     */
+    public int numIsoPackets()
+    {
+        return this.isoPacketLengths == null ? 0 : this.isoPacketLengths.length;
+    }
+
+    /**
+     * Returns the length of the specified isochronous packet.
+     *
+     * @param packet
+     *            The packet index.
+     * @return The packet length.
+     */
+    public int isoPacketLength(final int packet)
+    {
+        return this.isoPacketLengths[packet];
+    }
+
+    /**
+     * Sets the length of the specified isochronous packet. Used to give each
+     * packet an individual length, for example when the packet sizes follow
+     * the rate reported by an audio feedback endpoint.
+     *
+     * @param packet
+     *            The packet index.
+     * @param length
+     *            The packet length.
+     */
+    public void setIsoPacketLength(final int packet, final int length)
+    {
+        this.isoPacketLengths[packet] = length;
+    }
+
+    /**
+     * Sets the lengths of the isochronous packets. The number of packets is
+     * defined by the length of the array. Pass null for non-isochronous
+     * requests.
+     *
+     * The array is used directly, so later changes of the array contents are
+     * visible to the request. This allows adjusting individual packet lengths
+     * before each submission without any allocation.
+     *
+     * @param lengths
+     *            The packet lengths.
+     */
+    public void setIsoPacketLengths(final int[] lengths)
+    {
+        this.isoPacketLengths = lengths;
+        if (lengths == null)
+        {
+            this.isoPacketActualLengths = null;
+            this.isoPacketStatus = null;
+        }
+        else if (this.isoPacketStatus == null
+            || this.isoPacketStatus.length != lengths.length)
+        {
+            this.isoPacketActualLengths = new int[lengths.length];
+            this.isoPacketStatus = new int[lengths.length];
+        }
+    }
+
+    /**
+     * Returns the actual length of the specified isochronous packet. Only
+     * valid within the callback.
+     *
+     * @param packet
+     *            The packet index.
+     * @return The actual packet length.
+     */
+    public int isoPacketActualLength(final int packet)
+    {
+        return this.isoPacketActualLengths[packet];
+    }
+
+    /**
+     * Returns the status of the specified isochronous packet. Only valid
+     * within the callback.
+     *
+     * @param packet
+     *            The packet index.
+     * @return The packet status.
+     */
+    public int isoPacketStatus(final int packet)
+    {
+        return this.isoPacketStatus[packet];
+    }
+
+    /**
+     * Sets the result of an isochronous packet. This is called by backends
+     * before completing the request.
+     *
+     * @param packet
+     *            The packet index.
+     * @param status
+     *            The packet status.
+     * @param actualLength
+     *            The actual packet length.
+     */
+    public void setIsoPacketResult(final int packet, final int status,
+        final int actualLength)
+    {
+        this.isoPacketStatus[packet] = status;
+        this.isoPacketActualLengths[packet] = actualLength;
+    }
+
+    /**
+     * Returns the status of the request. Only valid within the callback.
+     *
+     * @return The request status. One of the TRANSFER_* status constants of
+     *         {@link LibUsb}.
+     */
+    public int status()
+    {
+        return this.status;
+    }
+
+    /**
+     * Returns the actual length of data that was transferred. Only valid
+     * within the callback. For isochronous requests this is the sum of the
+     * actual packet lengths.
+     *
+     * @return The actual length of the transferred data.
+     */
+    public int actualLength()
+    {
+        return this.actualLength;
+    }
+
+    /**
+     * Sets the result of the request without invoking the callback.
+     *
+     * @param status
+     *            The request status. One of the TRANSFER_* status constants
+     *            of {@link LibUsb}.
+     * @param actualLength
+     *            The actual length of the transferred data.
+     */
+    void setResult(final int status, final int actualLength)
+    {
+        this.status = status;
+        this.actualLength = actualLength;
+    }
+
+    /**
+     * Returns the result of the request as a libusb error code, like the
+     * synchronous libusb functions do it.
+     *
+     * @return {@link LibUsb#SUCCESS} if the request was completed,
+     *         {@link LibUsb#ERROR_TIMEOUT} if it timed out,
+     *         {@link LibUsb#ERROR_PIPE} if the endpoint stalled,
+     *         {@link LibUsb#ERROR_OVERFLOW} if the device offered more data,
+     *         {@link LibUsb#ERROR_NO_DEVICE} if the device has been
+     *         disconnected, {@link LibUsb#ERROR_INTERRUPTED} if the request
+     *         was cancelled and {@link LibUsb#ERROR_IO} on other errors.
+     */
+    public int resultCode()
+    {
+        switch (this.status)
+        {
+            case LibUsb.TRANSFER_COMPLETED:
+                return LibUsb.SUCCESS;
+            case LibUsb.TRANSFER_TIMED_OUT:
+                return LibUsb.ERROR_TIMEOUT;
+            case LibUsb.TRANSFER_STALL:
+                return LibUsb.ERROR_PIPE;
+            case LibUsb.TRANSFER_OVERFLOW:
+                return LibUsb.ERROR_OVERFLOW;
+            case LibUsb.TRANSFER_NO_DEVICE:
+                return LibUsb.ERROR_NO_DEVICE;
+            case LibUsb.TRANSFER_CANCELLED:
+                return LibUsb.ERROR_INTERRUPTED;
+            default:
+                return LibUsb.ERROR_IO;
+        }
+    }
+
+    /**
+     * Returns the current callback object.
+     *
+     * @return The current callback object.
+     */
+    public IoCallback callback()
+    {
+        return this.callback;
+    }
+
+    /**
+     * Sets the callback object.
+     *
+     * This will be invoked when the request completes, fails, or is cancelled.
+     *
+     * @param callback
+     *            The callback object to use.
+     */
+    public void setCallback(final IoCallback callback)
+    {
+        this.callback = callback;
+    }
+
+    /**
+     * Returns the current user data object.
+     *
+     * @return The current user data object.
+     */
+    public Object userData()
+    {
+        return this.userData;
+    }
+
+    /**
+     * Sets the user data object, representing user context data to pass to
+     * the callback function and that can be accessed from there.
+     *
+     * @param userData
+     *            The user data object to set.
+     */
+    public void setUserData(final Object userData)
+    {
+        this.userData = userData;
+    }
+
+    /**
+     * Populates the request for a control transfer. The first
+     * {@link LibUsb#CONTROL_SETUP_SIZE} remaining bytes of the buffer must
+     * contain the setup packet.
+     *
+     * @param buffer
+     *            The data buffer starting with the setup packet.
+     * @param callback
+     *            Callback function to be invoked on request completion.
+     * @param userData
+     *            User data to pass to callback function.
+     * @param timeout
+     *            Timeout for the request in milliseconds.
+     */
+    public void fillControl(final ByteBuffer buffer,
+        final IoCallback callback, final Object userData, final long timeout)
+    {
+        this.fill(LibUsb.TRANSFER_TYPE_CONTROL, (byte) 0, buffer, callback,
+            userData, timeout);
+    }
+
+    /**
+     * Populates the request for a bulk transfer.
+     *
+     * @param endpoint
+     *            Address of the endpoint where this request will be sent.
+     * @param buffer
+     *            Data buffer.
+     * @param callback
+     *            Callback function to be invoked on request completion.
+     * @param userData
+     *            User data to pass to callback function.
+     * @param timeout
+     *            Timeout for the request in milliseconds.
+     */
+    public void fillBulk(final byte endpoint, final ByteBuffer buffer,
+        final IoCallback callback, final Object userData, final long timeout)
+    {
+        this.fill(LibUsb.TRANSFER_TYPE_BULK, endpoint, buffer, callback,
+            userData, timeout);
+    }
+
+    /**
+     * Populates the request for an interrupt transfer.
+     *
+     * @param endpoint
+     *            Address of the endpoint where this request will be sent.
+     * @param buffer
+     *            Data buffer.
+     * @param callback
+     *            Callback function to be invoked on request completion.
+     * @param userData
+     *            User data to pass to callback function.
+     * @param timeout
+     *            Timeout for the request in milliseconds.
+     */
+    public void fillInterrupt(final byte endpoint, final ByteBuffer buffer,
+        final IoCallback callback, final Object userData, final long timeout)
+    {
+        this.fill(LibUsb.TRANSFER_TYPE_INTERRUPT, endpoint, buffer, callback,
+            userData, timeout);
+    }
+
+    /**
+     * Populates the request for an isochronous transfer.
+     *
+     * @param endpoint
+     *            Address of the endpoint where this request will be sent.
+     * @param buffer
+     *            Data buffer.
+     * @param packetLengths
+     *            The isochronous packet lengths.
+     * @param callback
+     *            Callback function to be invoked on request completion.
+     * @param userData
+     *            User data to pass to callback function.
+     * @param timeout
+     *            Timeout for the request in milliseconds.
+     */
+    public void fillIso(final byte endpoint, final ByteBuffer buffer,
+        final int[] packetLengths, final IoCallback callback,
+        final Object userData, final long timeout)
+    {
+        this.fill(LibUsb.TRANSFER_TYPE_ISOCHRONOUS, endpoint, buffer,
+            callback, userData, timeout);
+        this.setIsoPacketLengths(packetLengths);
+    }
+
+    /**
+     * Populates the common request fields.
+     *
+     * @param type
+     *            The endpoint type.
+     * @param endpoint
+     *            The endpoint address.
+     * @param buffer
+     *            Data buffer.
+     * @param callback
+     *            Callback function to be invoked on request completion.
+     * @param userData
+     *            User data to pass to callback function.
+     * @param timeout
+     *            Timeout for the request in milliseconds.
+     */
+    private void fill(final byte type, final byte endpoint,
+        final ByteBuffer buffer, final IoCallback callback,
+        final Object userData, final long timeout)
+    {
+        this.type = type;
+        this.endpoint = endpoint;
+        this.flags = 0;
+        this.buffer = buffer;
+        this.callback = callback;
+        this.userData = userData;
+        this.timeout = timeout;
+        this.isoPacketLengths = null;
+    }
+
+    /**
+     * Completes the request. This sets the result and invokes the callback.
+     * This is called by backends when the request is finished and must be
+     * called exactly once for each successful submission.
+     *
+     * @param status
+     *            The request status. One of the TRANSFER_* status constants
+     *            of {@link LibUsb}.
+     * @param actualLength
+     *            The actual length of the transferred data.
+     */
+    public void complete(final int status, final int actualLength)
+    {
+        this.status = status;
+        this.actualLength = actualLength;
+        final IoCallback callback = this.callback;
+        if (callback != null)
+        {
+            callback.processRequest(this);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "usb4java I/O request of type %d for endpoint 0x%02x with %d bytes",
+            this.type, this.endpoint & 0xff, this.length());
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+/**
+ * Listener notified by the {@link ResourceTracker} about native resources
+ * which were garbage collected without being freed.
+ *
+ * @author usb4java Team
+ */
+public interface LeakListener
+{
+    /**
+     * Called when a leaked resource has been detected. If the resource type
+     * can be freed safely (see {@link ResourceTracker}) then the native
+     * resource has already been freed when this method is called.
+     *
+     * This method is called by the tracker thread and must return quickly.
+     *
+     * @param type
+     *            The type of the leaked resource, for example
+     *            {@link ConfigDescriptor}.
+     * @param pointer
+     *            The native pointer of the leaked resource.
+     * @param allocationSite
+     *            The stack trace of the allocation. Null if the allocation
+     *            was not sampled.
+     */
+    void processLeak(Class<?> type, long pointer, Throwable allocationSite);
+}
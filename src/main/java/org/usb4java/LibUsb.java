@@ -1369,6 +1369,9 @@ public final class LibUsb
      * If {@link #setLocale(String)} is not called, all messages will be in
      * English.
      *
+     * Use {@link ErrorStrings#setLocale(String)} instead to keep the Java side
+     * message tables of {@link ErrorStrings} in sync with libusb.
+     *
      * The following functions return translatable strings: libusb_strerror().
      * Note that the libusb log messages controlled through
      * {@link #setDebug(Context, int)} are not translated, they are always in
@@ -2754,6 +2757,35 @@ public final class LibUsb
         }
     }
 
+    /**
+     * Sets individual lengths of the packets in an isochronous transfer.
+     * Unlike {@link #setIsoPacketLengths(Transfer, int)} this supports
+     * packets of different sizes, as needed for audio streams whose packet
+     * sizes follow a fractional sample rate. Use
+     * {@link #getIsoPacketBuffer(Transfer, int)} to locate the packets in
+     * the buffer.
+     *
+     * @param transfer
+     *            A transfer.
+     * @param lengths
+     *            The packet lengths. Must have
+     *            {@link Transfer#numIsoPackets()} elements.
+     */
+    public static void setIsoPacketLengths(final Transfer transfer,
+        final int[] lengths)
+    {
+        final IsoPacketDescriptor[] isoDescriptors = transfer.isoPacketDesc();
+        if (lengths.length != isoDescriptors.length)
+        {
+            throw new IllegalArgumentException(
+                "Number of lengths doesn't match number of packets");
+        }
+        for (int i = 0; i < lengths.length; i++)
+        {
+            isoDescriptors[i].setLength(lengths[i]);
+        }
+    }
+
     /**
      * Convenience function to locate the position of an isochronous packet
      * within the buffer of an isochronous transfer.
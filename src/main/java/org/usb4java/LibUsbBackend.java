@@ -0,0 +1,335 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link IoBackend} which carries out requests with native libusb transfers
+ * on an open device handle.
+ *
+ * Native transfers are pooled and reused, so after warm-up submitting a
+ * request allocates no native memory. Request buffers must be direct
+ * buffers.
+ *
+ * Request callbacks are invoked from the thread which handles the libusb
+ * events of the context the device handle belongs to, so somebody must call
+ * {@link LibUsb#handleEvents(Context)} or one of its variants while requests
+ * are pending.
+ *
+ * @author usb4java Team
+ */
+public final class LibUsbBackend implements IoBackend
+{
+    /** The device handle. */
+    private final DeviceHandle handle;
+
+    /** Idle transfers by number of isochronous packets. */
+    private final ConcurrentMap<Integer, Queue<Transfer>> idleTransfers =
+        new ConcurrentHashMap<Integer, Queue<Transfer>>();
+
+    /** The transfer callback which completes the requests. */
+    private final TransferCallback completion = new TransferCallback()
+    {
+        @Override
+        public void processTransfer(final Transfer transfer)
+        {
+            LibUsbBackend.this.complete(transfer);
+        }
+    };
+
+    /** If backend has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new backend for the specified device handle.
+     *
+     * @param handle
+     *            The open device handle. Must not be closed before this
+     *            backend is closed.
+     */
+    public LibUsbBackend(final DeviceHandle handle)
+    {
+        if (handle == null)
+        {
+            throw new IllegalArgumentException("handle must not be null");
+        }
+        this.handle = handle;
+    }
+
+    /**
+     * Returns the device handle.
+     *
+     * @return The device handle.
+     */
+    public DeviceHandle getHandle()
+    {
+        return this.handle;
+    }
+
+    @Override
+    public int submit(final IoRequest request)
+    {
+        if (this.closed)
+        {
+            return LibUsb.ERROR_NO_DEVICE;
+        }
+        ByteBuffer buffer = request.buffer();
+        if (buffer != null)
+        {
+            if (!buffer.isDirect())
+            {
+                return LibUsb.ERROR_INVALID_PARAM;
+            }
+            if (buffer.position() != 0)
+            {
+                buffer = buffer.slice();
+            }
+        }
+
+        final int numIsoPackets = request.numIsoPackets();
+        synchronized (request)
+        {
+            if (request.attachment != null)
+            {
+                return LibUsb.ERROR_BUSY;
+            }
+            final Transfer transfer = this.obtain(numIsoPackets);
+            if (transfer == null)
+            {
+                return LibUsb.ERROR_NO_MEM;
+            }
+            transfer.setEndpoint(request.endpoint());
+            transfer.setType(request.type());
+            transfer.setFlags(request.flags());
+            transfer.setTimeout(request.timeout());
+            transfer.setBuffer(buffer);
+            if (buffer != null)
+            {
+                transfer.setLength(buffer.remaining());
+            }
+            if (numIsoPackets > 0)
+            {
+                transfer.setNumIsoPackets(numIsoPackets);
+                final IsoPacketDescriptor[] packets = transfer.isoPacketDesc();
+                for (int i = 0; i < numIsoPackets; i++)
+                {
+                    packets[i].setLength(request.isoPacketLength(i));
+                }
+            }
+            transfer.setUserData(request);
+            request.attachment = transfer;
+            final int result = LibUsb.submitTransfer(transfer);
+            if (result != LibUsb.SUCCESS)
+            {
+                request.attachment = null;
+                this.recycle(transfer, numIsoPackets);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public int cancel(final IoRequest request)
+    {
+        synchronized (request)
+        {
+            final Transfer transfer = (Transfer) request.attachment;
+            if (transfer == null)
+            {
+                return LibUsb.ERROR_NOT_FOUND;
+            }
+            return LibUsb.cancelTransfer(transfer);
+        }
+    }
+
+    /**
+     * Pre-allocates native transfers so that the next submissions don't have
+     * to allocate them.
+     *
+     * @param count
+     *            The number of transfers to allocate.
+     * @param numIsoPackets
+     *            The number of isochronous packets of the transfers. 0 for
+     *            control, bulk and interrupt transfers.
+     */
+    public void preallocate(final int count, final int numIsoPackets)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final Transfer transfer = this.allocate(numIsoPackets);
+            if (transfer == null)
+            {
+                throw new LibUsbException("Unable to allocate transfer",
+                    LibUsb.ERROR_NO_MEM);
+            }
+            this.recycle(transfer, numIsoPackets);
+        }
+    }
+
+    /**
+     * Closes the backend. All idle native transfers are freed immediately.
+     * Transfers which are still in flight are freed when they complete, so
+     * pending requests should be cancelled before the device handle is
+     * closed.
+     */
+    public void close()
+    {
+        // Mark closed before draining so completing transfers are freed
+        // instead of recycled into the drained pool
+        this.closed = true;
+        for (final Queue<Transfer> queue : this.idleTransfers.values())
+        {
+            drain(queue);
+        }
+    }
+
+    /**
+     * Frees all transfers of an idle queue.
+     *
+     * @param queue
+     *            The idle queue.
+     */
+    private static void drain(final Queue<Transfer> queue)
+    {
+        Transfer transfer = queue.poll();
+        while (transfer != null)
+        {
+            LibUsb.freeTransfer(transfer);
+            transfer = queue.poll();
+        }
+    }
+
+    /**
+     * Returns an idle transfer or allocates a new one.
+     *
+     * @param numIsoPackets
+     *            The number of isochronous packets.
+     * @return The transfer or null if allocation failed.
+     */
+    private Transfer obtain(final int numIsoPackets)
+    {
+        final Queue<Transfer> queue =
+            this.idleTransfers.get(Integer.valueOf(numIsoPackets));
+        if (queue != null)
+        {
+            final Transfer transfer = queue.poll();
+            if (transfer != null)
+            {
+                return transfer;
+            }
+        }
+        return this.allocate(numIsoPackets);
+    }
+
+    /**
+     * Allocates a new transfer and populates the fields which never change.
+     *
+     * @param numIsoPackets
+     *            The number of isochronous packets.
+     * @return The transfer or null if allocation failed.
+     */
+    private Transfer allocate(final int numIsoPackets)
+    {
+        final Transfer transfer = LibUsb.allocTransfer(numIsoPackets);
+        if (transfer != null)
+        {
+            transfer.setDevHandle(this.handle);
+            transfer.setCallback(this.completion);
+        }
+        return transfer;
+    }
+
+    /**
+     * Returns a transfer to the idle pool or frees it when the backend has
+     * been closed.
+     *
+     * @param transfer
+     *            The transfer.
+     * @param numIsoPackets
+     *            The number of isochronous packets the transfer was
+     *            allocated with.
+     */
+    private void recycle(final Transfer transfer, final int numIsoPackets)
+    {
+        if (this.closed)
+        {
+            LibUsb.freeTransfer(transfer);
+            return;
+        }
+        final Integer key = Integer.valueOf(numIsoPackets);
+        Queue<Transfer> queue = this.idleTransfers.get(key);
+        if (queue == null)
+        {
+            final Queue<Transfer> newQueue =
+                new ConcurrentLinkedQueue<Transfer>();
+            queue = this.idleTransfers.putIfAbsent(key, newQueue);
+            if (queue == null)
+            {
+                queue = newQueue;
+            }
+        }
+        queue.offer(transfer);
+
+        // The backend may have been closed and drained since the check
+        // above. Each transfer is polled only once, so draining again
+        // frees it exactly once.
+        if (this.closed)
+        {
+            drain(queue);
+        }
+    }
+
+    /**
+     * Called from the event handling thread when a transfer is finished.
+     *
+     * @param transfer
+     *            The finished transfer.
+     */
+    void complete(final Transfer transfer)
+    {
+        final IoRequest request = (IoRequest) transfer.userData();
+        final int numIsoPackets = request.numIsoPackets();
+        final int status = transfer.status();
+        int actualLength;
+        if (numIsoPackets > 0)
+        {
+            actualLength = 0;
+            final IsoPacketDescriptor[] packets = transfer.isoPacketDesc();
+            for (int i = 0; i < numIsoPackets; i++)
+            {
+                final IsoPacketDescriptor packet = packets[i];
+                final int packetLength = packet.actualLength();
+                request.setIsoPacketResult(i, packet.status(), packetLength);
+                actualLength += packetLength;
+            }
+        }
+        else
+        {
+            actualLength = transfer.actualLength();
+        }
+
+        // Detach and recycle the transfer before calling back so the
+        // callback can immediately resubmit the request.
+        synchronized (request)
+        {
+            request.attachment = null;
+            transfer.setUserData(null);
+            this.recycle(transfer, numIsoPackets);
+        }
+        request.complete(status, actualLength);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("libusb backend for %s", this.handle);
+    }
+}
@@ -5,9 +5,17 @@
 
 package org.usb4java;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * A runtime exception which automatically outputs the libusb error string.
  *
+ * Filling in the stack trace is the most expensive part of creating an
+ * exception. Code which reports expected errors (like timeouts in polling
+ * loops) or which only needs the exception as cause of another exception can
+ * use the exceptions returned by {@link #of(int)} instead, which have no
+ * stack trace and reuse the message of their error code.
+ *
  * @author Klaus Reimer (k@ailis.de)
  */
 public final class LibUsbException extends RuntimeException
@@ -15,9 +23,29 @@ public final class LibUsbException extends RuntimeException
     /** Serial version UID. */
     private static final long serialVersionUID = 1L;
 
+    /** Empty stack trace of the shared exceptions. */
+    private static final StackTraceElement[] NO_STACK_TRACE =
+        new StackTraceElement[0];
+
+    /**
+     * If exceptions can get suppressed exceptions. This is the case since
+     * Java 7 and can only be disabled with a Java 7 constructor.
+     */
+    private static final boolean SUPPRESSION = hasSuppression();
+
+    /** The shared exceptions by error code slot. */
+    private static final AtomicReferenceArray<LibUsbException> SHARED =
+        new AtomicReferenceArray<LibUsbException>(LibUsb.ERROR_COUNT);
+
     /** The libusb error code. */
     private final int errorCode;
-    
+
+    /**
+     * If the exception has a stack trace. False while the Throwable
+     * constructor runs.
+     */
+    private final boolean writableStackTrace;
+
     /**
      * Constructs a libusb exception which just outputs the error code and
      * the error message from libusb.
@@ -27,9 +55,10 @@ public final class LibUsbException extends RuntimeException
      */
     public LibUsbException(final int errorCode)
     {
-        super(String.format("USB error %d: %s", -errorCode,
-            LibUsb.strError(errorCode)));
+        super(format(errorCode));
         this.errorCode = errorCode;
+        this.writableStackTrace = true;
+        super.fillInStackTrace();
     }
 
     /**
@@ -44,8 +73,130 @@ public final class LibUsbException extends RuntimeException
     public LibUsbException(final String message, final int errorCode)
     {
         super(String.format("USB error %d: %s: %s", -errorCode, message,
-            LibUsb.strError(errorCode)));
+            ErrorStrings.getMessage(errorCode)));
+        this.errorCode = errorCode;
+        this.writableStackTrace = true;
+        super.fillInStackTrace();
+    }
+
+    /**
+     * Constructs a libusb exception without stack trace and cause.
+     *
+     * @param errorCode
+     *            The error code.
+     * @param message
+     *            The complete error message.
+     */
+    private LibUsbException(final int errorCode, final String message)
+    {
+        super(message);
         this.errorCode = errorCode;
+        this.writableStackTrace = false;
+        super.setStackTrace(NO_STACK_TRACE);
+
+        // Prevents setting a cause later
+        this.initCause(null);
+    }
+
+    /**
+     * Checks if exceptions can get suppressed exceptions.
+     *
+     * @return True on Java 7 and later.
+     */
+    private static boolean hasSuppression()
+    {
+        try
+        {
+            Throwable.class.getMethod("addSuppressed", Throwable.class);
+            return true;
+        }
+        catch (final NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Returns an exception without stack trace for the specified error code.
+     * The message of libusb error codes is only formatted once, so creating
+     * these exceptions is cheap. The exceptions have no cause and must not
+     * be modified.
+     *
+     * On Java 6 the same instance is returned for every call with the same
+     * libusb error code, so throwing them allocates nothing. Since Java 7
+     * other exceptions can be added to an exception as suppressed exceptions
+     * (For example by a try-with-resources statement), which would show up
+     * in every later use of a shared instance. So a new instance sharing the
+     * message is returned in every call there. Codes which are not libusb
+     * error codes always get a new instance with a new message.
+     *
+     * @param errorCode
+     *            The error code.
+     * @return The exception.
+     */
+    public static LibUsbException of(final int errorCode)
+    {
+        final int slot = ErrorStrings.slot(errorCode);
+        if (slot < 0)
+        {
+            return new LibUsbException(errorCode, format(errorCode));
+        }
+        LibUsbException exception = SHARED.get(slot);
+        if (exception == null)
+        {
+            exception = new LibUsbException(errorCode, format(errorCode));
+            if (!SHARED.compareAndSet(slot, null, exception))
+            {
+                exception = SHARED.get(slot);
+            }
+        }
+        if (SUPPRESSION)
+        {
+            return new LibUsbException(errorCode, exception.getMessage());
+        }
+        return exception;
+    }
+
+    /**
+     * Formats the message of an exception without custom message.
+     *
+     * @param errorCode
+     *            The error code.
+     * @return The message.
+     */
+    private static String format(final int errorCode)
+    {
+        return String.format("USB error %d: %s", -errorCode,
+            ErrorStrings.getMessage(errorCode));
+    }
+
+    /**
+     * Drops the shared exceptions so they are created again with the
+     * current error messages.
+     */
+    static void clearShared()
+    {
+        for (int i = 0; i < LibUsb.ERROR_COUNT; i++)
+        {
+            SHARED.set(i, null);
+        }
+    }
+
+    /**
+     * Fills in the stack trace unless this is an exception without stack
+     * trace. The Throwable constructor calls this before the fields are
+     * set, so the public constructors fill in the stack trace themselves.
+     *
+     * @return This exception.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        if (this.writableStackTrace)
+        {
+            return super.fillInStackTrace();
+        }
+        return this;
     }
 
     /**
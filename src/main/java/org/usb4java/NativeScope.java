@@ -0,0 +1,467 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.io.Closeable;
+
+/**
+ * A scope owning native resources. All transfers, device lists, device
+ * handles and descriptors allocated through a scope are freed together when
+ * the scope is closed, so error paths can't skip a matching free or close
+ * call:
+ *
+ * <pre>
+ * final NativeScope scope = new NativeScope();
+ * try
+ * {
+ *     for (final Device device : scope.getDeviceList(null))
+ *     {
+ *         final ConfigDescriptor config =
+ *             scope.getActiveConfigDescriptor(device);
+ *         ...
+ *     }
+ * }
+ * finally
+ * {
+ *     scope.close();
+ * }
+ * </pre>
+ *
+ * On Java 7 and later the scope can be used in a try-with-resources
+ * statement because it implements {@link Closeable}.
+ *
+ * Resources are freed in reverse allocation order. Device lists are freed
+ * with their device references, so devices which are needed after the scope
+ * has been closed must be referenced with {@link LibUsb#refDevice(Device)}.
+ *
+ * When {@link ResourceTracker tracking} is enabled then the scope is tracked
+ * as a single resource instead of tracking each of its resources, so a scope
+ * costs one registration no matter how many resources it owns. A scope
+ * which is garbage collected without being closed is reported to the
+ * {@link LeakListener} with the type {@link NativeScope} and a negative
+ * pointer. Its resources are not freed automatically because devices and
+ * descriptors taken from them may still be in use.
+ *
+ * Scopes are not thread-safe.
+ *
+ * @author usb4java Team
+ */
+public final class NativeScope implements Closeable
+{
+    /**
+     * The resources of a scope.
+     */
+    private static final class Resources implements Runnable
+    {
+        /** The initial capacity. */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /** The resources in allocation order. */
+        Object[] resources = new Object[INITIAL_CAPACITY];
+
+        /**
+         * The free operations of the resources. Null entries are freed with
+         * the LibUsb free method matching the resource type.
+         */
+        Runnable[] frees = new Runnable[INITIAL_CAPACITY];
+
+        /** The number of resources. */
+        int size;
+
+        /**
+         * Adds a resource.
+         *
+         * @param resource
+         *            The resource.
+         * @param free
+         *            The free operation. Null to use the LibUsb free method
+         *            matching the resource type.
+         */
+        void add(final Object resource, final Runnable free)
+        {
+            if (this.size == this.resources.length)
+            {
+                final int capacity = this.size * 2;
+                final Object[] resources = new Object[capacity];
+                final Runnable[] frees = new Runnable[capacity];
+                System.arraycopy(this.resources, 0, resources, 0, this.size);
+                System.arraycopy(this.frees, 0, frees, 0, this.size);
+                this.resources = resources;
+                this.frees = frees;
+            }
+            this.resources[this.size] = resource;
+            this.frees[this.size] = free;
+            this.size++;
+        }
+
+        /**
+         * Frees all resources in reverse allocation order. When a free
+         * operation fails then the remaining resources are still freed and
+         * the first exception is thrown afterwards.
+         */
+        @Override
+        public void run()
+        {
+            RuntimeException failure = null;
+            for (int i = this.size - 1; i >= 0; i--)
+            {
+                try
+                {
+                    free(this.resources[i], this.frees[i]);
+                }
+                catch (final RuntimeException e)
+                {
+                    if (failure == null)
+                    {
+                        failure = e;
+                    }
+                }
+                this.resources[i] = null;
+                this.frees[i] = null;
+            }
+            this.size = 0;
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
+    }
+
+    /** The resources of this scope. */
+    private final Resources resources = new Resources();
+
+    /** The resource tracker key. 0 if the scope is not tracked. */
+    private final long key;
+
+    /** If the scope has been closed. */
+    private boolean closed;
+
+    /**
+     * Constructor.
+     */
+    public NativeScope()
+    {
+        if (ResourceTracker.isEnabled())
+        {
+            this.key = ResourceTracker.newKey();
+            ResourceTracker.register(this, this.key, null);
+        }
+        else
+        {
+            this.key = 0;
+        }
+    }
+
+    /**
+     * Adds a resource to the scope.
+     *
+     * @param <T>
+     *            The resource type.
+     * @param resource
+     *            The resource.
+     * @param free
+     *            The free operation. Null to use the LibUsb free method
+     *            matching the resource type.
+     * @return The resource.
+     */
+    <T> T add(final T resource, final Runnable free)
+    {
+        if (this.closed)
+        {
+            // The caller has allocated the resource already, so don't leak it
+            free(resource, free);
+            throw new IllegalStateException("Scope has been closed");
+        }
+        this.resources.add(resource, free);
+        return resource;
+    }
+
+    /**
+     * Frees a resource.
+     *
+     * @param resource
+     *            The resource.
+     * @param free
+     *            The free operation. Null to use the LibUsb free method
+     *            matching the resource type.
+     */
+    private static void free(final Object resource, final Runnable free)
+    {
+        if (free != null)
+        {
+            free.run();
+        }
+        else if (resource instanceof Transfer)
+        {
+            LibUsb.freeTransfer((Transfer) resource);
+        }
+        else if (resource instanceof DeviceList)
+        {
+            LibUsb.freeDeviceList((DeviceList) resource, true);
+        }
+        else if (resource instanceof DeviceHandle)
+        {
+            LibUsb.close((DeviceHandle) resource);
+        }
+        else if (resource instanceof ConfigDescriptor)
+        {
+            LibUsb.freeConfigDescriptor((ConfigDescriptor) resource);
+        }
+        else if (resource instanceof BosDescriptor)
+        {
+            LibUsb.freeBosDescriptor((BosDescriptor) resource);
+        }
+    }
+
+    /**
+     * Checks that the scope has not been closed.
+     */
+    private void checkOpen()
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("Scope has been closed");
+        }
+    }
+
+    /**
+     * Allocates a transfer owned by this scope. See
+     * {@link LibUsb#allocTransfer(int)}.
+     *
+     * @param isoPackets
+     *            Number of isochronous packet descriptors to allocate.
+     * @return The transfer.
+     * @throws LibUsbException
+     *             When the transfer could not be allocated.
+     */
+    public Transfer allocTransfer(final int isoPackets)
+    {
+        this.checkOpen();
+        final Transfer transfer = LibUsb.allocTransfer(isoPackets);
+        if (transfer == null)
+        {
+            throw new LibUsbException("Unable to allocate transfer",
+                LibUsb.ERROR_NO_MEM);
+        }
+        return this.add(transfer, null);
+    }
+
+    /**
+     * Returns a list of the attached USB devices owned by this scope. See
+     * {@link LibUsb#getDeviceList(Context, DeviceList)}.
+     *
+     * @param context
+     *            The context to operate on, or NULL for the default context.
+     * @return The device list.
+     * @throws LibUsbException
+     *             When the device list could not be read.
+     */
+    public DeviceList getDeviceList(final Context context)
+    {
+        this.checkOpen();
+        final DeviceList list = new DeviceList();
+        final int result = LibUsb.getDeviceList(context, list);
+        if (result < 0)
+        {
+            throw new LibUsbException("Unable to get device list", result);
+        }
+        return this.add(list, null);
+    }
+
+    /**
+     * Opens a device. The handle is closed with the scope. See
+     * {@link LibUsb#open(Device, DeviceHandle)}.
+     *
+     * @param device
+     *            The device to open.
+     * @return The device handle.
+     * @throws LibUsbException
+     *             When the device could not be opened.
+     */
+    public DeviceHandle open(final Device device)
+    {
+        this.checkOpen();
+        final DeviceHandle handle = new DeviceHandle();
+        final int result = LibUsb.open(device, handle);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to open device", result);
+        }
+        return this.add(handle, null);
+    }
+
+    /**
+     * Reads the configuration descriptor of the active configuration. See
+     * {@link LibUsb#getActiveConfigDescriptor(Device, ConfigDescriptor)}.
+     *
+     * @param device
+     *            A device.
+     * @return The configuration descriptor.
+     * @throws LibUsbException
+     *             When the descriptor could not be read.
+     */
+    public ConfigDescriptor getActiveConfigDescriptor(final Device device)
+    {
+        this.checkOpen();
+        final ConfigDescriptor descriptor = new ConfigDescriptor();
+        return this.addConfig(LibUsb.getActiveConfigDescriptor(
+            device, descriptor), descriptor);
+    }
+
+    /**
+     * Reads a configuration descriptor based on its index. See
+     * {@link LibUsb#getConfigDescriptor(Device, byte, ConfigDescriptor)}.
+     *
+     * @param device
+     *            A device.
+     * @param index
+     *            The index of the configuration.
+     * @return The configuration descriptor.
+     * @throws LibUsbException
+     *             When the descriptor could not be read.
+     */
+    public ConfigDescriptor getConfigDescriptor(final Device device,
+        final byte index)
+    {
+        this.checkOpen();
+        final ConfigDescriptor descriptor = new ConfigDescriptor();
+        return this.addConfig(LibUsb.getConfigDescriptor(device,
+            index, descriptor), descriptor);
+    }
+
+    /**
+     * Reads a configuration descriptor with a specific bConfigurationValue.
+     * See
+     * {@link LibUsb#getConfigDescriptorByValue(Device, byte, ConfigDescriptor)}.
+     *
+     * @param device
+     *            A device.
+     * @param value
+     *            The bConfigurationValue of the configuration.
+     * @return The configuration descriptor.
+     * @throws LibUsbException
+     *             When the descriptor could not be read.
+     */
+    public ConfigDescriptor getConfigDescriptorByValue(final Device device,
+        final byte value)
+    {
+        this.checkOpen();
+        final ConfigDescriptor descriptor = new ConfigDescriptor();
+        return this.addConfig(LibUsb.getConfigDescriptorByValue(
+            device, value, descriptor), descriptor);
+    }
+
+    /**
+     * Adds a configuration descriptor if it has been read successfully.
+     *
+     * @param result
+     *            The result of reading the descriptor.
+     * @param descriptor
+     *            The descriptor.
+     * @return The descriptor.
+     * @throws LibUsbException
+     *             When the descriptor could not be read.
+     */
+    private ConfigDescriptor addConfig(final int result,
+        final ConfigDescriptor descriptor)
+    {
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to read config descriptor",
+                result);
+        }
+        return this.add(descriptor, null);
+    }
+
+    /**
+     * Reads the Binary Object Store (BOS) descriptor of a device. See
+     * {@link LibUsb#getBosDescriptor(DeviceHandle, BosDescriptor)}.
+     *
+     * @param handle
+     *            The handle of an open device.
+     * @return The BOS descriptor.
+     * @throws LibUsbException
+     *             When the descriptor could not be read.
+     */
+    public BosDescriptor getBosDescriptor(final DeviceHandle handle)
+    {
+        this.checkOpen();
+        final BosDescriptor descriptor = new BosDescriptor();
+        final int result = LibUsb.getBosDescriptor(handle, descriptor);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to read BOS descriptor",
+                result);
+        }
+        return this.add(descriptor, null);
+    }
+
+    /**
+     * Registers a cleanup operation which is run when the scope is closed,
+     * in reverse registration order together with the resources of the
+     * scope. If the scope has already been closed then the operation is run
+     * immediately and an exception is thrown.
+     *
+     * @param cleanup
+     *            The cleanup operation.
+     */
+    public void defer(final Runnable cleanup)
+    {
+        if (cleanup == null)
+        {
+            throw new IllegalArgumentException("cleanup must not be null");
+        }
+        this.add(cleanup, cleanup);
+    }
+
+    /**
+     * Returns the number of resources owned by this scope.
+     *
+     * @return The number of resources.
+     */
+    public int size()
+    {
+        return this.resources.size;
+    }
+
+    /**
+     * Checks if the scope has been closed.
+     *
+     * @return True if closed.
+     */
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    /**
+     * Frees all resources of this scope in reverse allocation order. Does
+     * nothing if the scope has already been closed. When a free operation
+     * fails then the remaining resources are still freed and the first
+     * exception is thrown afterwards.
+     */
+    @Override
+    public void close()
+    {
+        if (this.closed)
+        {
+            return;
+        }
+        this.closed = true;
+        if (this.key != 0)
+        {
+            ResourceTracker.unregister(this.key);
+        }
+        this.resources.run();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("NativeScope[size=%d, closed=%b]",
+            this.resources.size, this.closed);
+    }
+}
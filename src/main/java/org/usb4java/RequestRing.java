@@ -0,0 +1,287 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+/**
+ * A ring of requests which are kept in flight on an endpoint. Each finished
+ * request is handed to the {@link Handler} on the event thread and
+ * resubmitted right away until the ring is stopped. This is the common
+ * request lifecycle of the streaming classes.
+ *
+ * The ring is the callback of its requests, so the requests must be filled
+ * with the ring as callback before the ring is started. {@link #stop()}
+ * waits until no request is in flight anymore, so the requests can be
+ * started again afterwards without submitting a request twice.
+ *
+ * The ring stops by itself when the device is gone or when
+ * {@link #MAX_CONSECUTIVE_ERRORS} requests in a row failed, so a broken
+ * endpoint doesn't keep the event thread busy with failing requests
+ * forever. The remaining requests are cancelled then and the ring must be
+ * stopped before it can be started again.
+ *
+ * @author usb4java Team
+ */
+public final class RequestRing implements IoCallback
+{
+    /**
+     * Processes the requests of a ring.
+     */
+    public interface Handler
+    {
+        /**
+         * Prepares a request before it is submitted or resubmitted.
+         *
+         * @param request
+         *            The request.
+         */
+        void prepare(IoRequest request);
+
+        /**
+         * Processes a successfully completed request while the ring is
+         * running.
+         *
+         * @param request
+         *            The request.
+         */
+        void completed(IoRequest request);
+
+        /**
+         * Called when a request is not processed: It finished with an error,
+         * was cancelled, finished after the ring has been stopped or could
+         * not be submitted.
+         *
+         * @param request
+         *            The request.
+         * @param result
+         *            The error code. {@link LibUsb#ERROR_INTERRUPTED} if the
+         *            request was cancelled, {@link LibUsb#SUCCESS} if it
+         *            completed after the ring has been stopped.
+         */
+        void failed(IoRequest request, int result);
+    }
+
+    /**
+     * The number of requests in a row which may fail before the ring stops
+     * by itself.
+     */
+    public static final int MAX_CONSECUTIVE_ERRORS = 64;
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** The handler. */
+    private final Handler handler;
+
+    /** The requests. Null when not started. Guarded by this ring. */
+    private IoRequest[] requests;
+
+    /** If finished requests are resubmitted. */
+    private volatile boolean running;
+
+    /** The number of requests which are in flight. Guarded by this ring. */
+    private int inFlight;
+
+    /**
+     * The number of requests which failed since the last completed request.
+     * Guarded by this ring.
+     */
+    private int consecutiveErrors;
+
+    /**
+     * Constructs a ring.
+     *
+     * @param backend
+     *            The backend to submit the requests to.
+     * @param handler
+     *            The handler processing the requests.
+     */
+    public RequestRing(final IoBackend backend, final Handler handler)
+    {
+        this.backend = backend;
+        this.handler = handler;
+    }
+
+    /**
+     * Prepares and submits the requests.
+     *
+     * @param requests
+     *            The requests. Their callback must be this ring.
+     * @return {@link LibUsb#SUCCESS} or the error code of the first request
+     *         which could not be submitted. Already submitted requests are
+     *         cancelled and have finished when this method returns.
+     * @throws IllegalStateException
+     *             When the ring has already been started and not stopped.
+     */
+    public synchronized int start(final IoRequest[] requests)
+    {
+        if (this.requests != null)
+        {
+            throw new IllegalStateException("Stream is already running");
+        }
+        this.requests = requests;
+        this.running = true;
+        this.consecutiveErrors = 0;
+        for (final IoRequest request : requests)
+        {
+            this.handler.prepare(request);
+            this.inFlight++;
+            final int result = this.backend.submit(request);
+            if (result != LibUsb.SUCCESS)
+            {
+                this.inFlight--;
+                this.handler.failed(request, result);
+                this.cancelAll();
+                boolean interrupted = false;
+                while (this.inFlight > 0)
+                {
+                    try
+                    {
+                        this.wait();
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                this.requests = null;
+                return result;
+            }
+        }
+        return LibUsb.SUCCESS;
+    }
+
+    /**
+     * Stops resubmitting finished requests and cancels all requests. Must be
+     * called while holding the monitor of this ring.
+     */
+    private void cancelAll()
+    {
+        this.running = false;
+        for (final IoRequest request : this.requests)
+        {
+            this.backend.cancel(request);
+        }
+    }
+
+    /**
+     * Stops the ring and waits until all requests have finished. Does
+     * nothing if the ring has not been started. Must not be called by a
+     * callback of the backend.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting. The ring is stopped but
+     *             may still have requests in flight then, so it can't be
+     *             started again before stop has been called again.
+     */
+    public synchronized void stop() throws InterruptedException
+    {
+        if (this.requests == null)
+        {
+            return;
+        }
+        this.cancelAll();
+        while (this.inFlight > 0)
+        {
+            this.wait();
+        }
+        this.requests = null;
+    }
+
+    /**
+     * Checks if the ring has been started and not stopped yet. The ring may
+     * no longer be {@link #isRunning() running} when it stopped by itself.
+     *
+     * @return True if started.
+     */
+    public synchronized boolean isStarted()
+    {
+        return this.requests != null;
+    }
+
+    /**
+     * Checks if finished requests are resubmitted.
+     *
+     * @return True if running.
+     */
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+
+    @Override
+    public void processRequest(final IoRequest request)
+    {
+        final int status = request.status();
+        if (status == LibUsb.TRANSFER_COMPLETED && this.running)
+        {
+            this.handler.completed(request);
+        }
+        else
+        {
+            this.handler.failed(request, status == LibUsb.TRANSFER_COMPLETED
+                ? LibUsb.SUCCESS : request.resultCode());
+        }
+        this.resubmit(request, status);
+    }
+
+    /**
+     * Resubmits a finished request unless the ring has been stopped in the
+     * meantime. Synchronized with {@link #stop()} so a request can't be
+     * resubmitted after the requests have been cancelled.
+     *
+     * @param request
+     *            The finished request.
+     * @param status
+     *            The status of the finished request.
+     */
+    private synchronized void resubmit(final IoRequest request,
+        final int status)
+    {
+        if (status == LibUsb.TRANSFER_COMPLETED)
+        {
+            this.consecutiveErrors = 0;
+        }
+        else if (status == LibUsb.TRANSFER_NO_DEVICE)
+        {
+            this.running = false;
+        }
+        else if (this.running && status != LibUsb.TRANSFER_CANCELLED)
+        {
+            this.countError();
+        }
+        if (this.running)
+        {
+            this.handler.prepare(request);
+            final int result = this.backend.submit(request);
+            if (result == LibUsb.SUCCESS)
+            {
+                return;
+            }
+            this.handler.failed(request, result);
+            this.countError();
+        }
+        this.inFlight--;
+        this.notifyAll();
+    }
+
+    /**
+     * Counts a failed request and stops the ring when too many requests
+     * failed in a row. Must be called while holding the monitor of this
+     * ring.
+     */
+    private void countError()
+    {
+        this.consecutiveErrors++;
+        if (this.consecutiveErrors >= MAX_CONSECUTIVE_ERRORS)
+        {
+            this.cancelAll();
+        }
+    }
+}
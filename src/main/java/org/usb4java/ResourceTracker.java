@@ -0,0 +1,764 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in tracking of native allocations.
+ *
+ * Transfers, device lists and the dynamically allocated descriptors must be
+ * freed with the matching LibUsb free method, otherwise the native memory is
+ * lost. When tracking is {@link #enable(int) enabled} then the allocation
+ * methods of this class register the allocated resources, and the free
+ * methods unregister them again. They have the same signatures as the
+ * LibUsb methods, so tracking is added by calling them on this class
+ * instead of {@link LibUsb}. Resources which are garbage collected without
+ * being freed are reported to the {@link LeakListener}. Resources which no
+ * other object can still point into are also freed by a background thread,
+ * so these leaks don't accumulate in long running processes. These are
+ * device lists (without dropping the references to their devices, which
+ * may still be in use) and the SuperSpeed endpoint companion, USB 2.0
+ * extension and SuperSpeed USB device capability descriptors. The other
+ * resources are only reported because their child objects (like the
+ * interfaces of a config descriptor) may still be used after the resource
+ * object has been collected, so freeing them automatically could crash the
+ * JVM.
+ *
+ * Transfers are never freed by the tracker. A transfer whose wrapper has
+ * been collected may still be submitted, and libusb frees transfers with
+ * the {@link LibUsb#TRANSFER_FREE_TRANSFER} flag by itself after their
+ * callback. Such transfers, and transfers freed with
+ * {@link LibUsb#freeTransfer(Transfer)} instead of
+ * {@link #freeTransfer(Transfer)}, stay registered and are reported as
+ * leaks when their wrapper is collected, so they should not be allocated
+ * through this class.
+ *
+ * Capturing the allocation site of every resource is expensive, so only
+ * every n-th allocation records a stack trace. The numbers of live resources
+ * per type are available at any time.
+ *
+ * Resources allocated through this class must also be freed through this
+ * class. Freeing a tracked device list or descriptor with LibUsb directly
+ * frees it twice when it is garbage collected.
+ *
+ * @author usb4java Team
+ */
+public final class ResourceTracker
+{
+    /**
+     * A tracked resource. Enqueued when the resource object has been
+     * garbage collected.
+     */
+    private static final class Record extends PhantomReference<Object>
+    {
+        /** The type of the resource. */
+        final Class<?> type;
+
+        /** The native pointer. */
+        final long pointer;
+
+        /** The native free operation. Null to only report a leak. */
+        final Runnable free;
+
+        /** The allocation site. Null if not sampled. */
+        final Throwable allocationSite;
+
+        /**
+         * Constructor.
+         *
+         * @param resource
+         *            The resource object.
+         * @param pointer
+         *            The native pointer.
+         * @param free
+         *            The native free operation. Must not reference the
+         *            resource object. Null to only report a leak.
+         * @param allocationSite
+         *            The allocation site. Null if not sampled.
+         */
+        Record(final Object resource, final long pointer, final Runnable free,
+            final Throwable allocationSite)
+        {
+            super(resource, QUEUE);
+            this.type = resource.getClass();
+            this.pointer = pointer;
+            this.free = free;
+            this.allocationSite = allocationSite;
+        }
+    }
+
+    /** The queue receiving the records of collected resources. */
+    static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<Object>();
+
+    /** The tracked resources by native pointer. Guarded by the class. */
+    private static final Map<Long, Record> RECORDS =
+        new HashMap<Long, Record>();
+
+    /** The last key of resources without a native pointer. */
+    private static final AtomicLong KEYS = new AtomicLong();
+
+    /** The number of tracked allocations, for sampling. */
+    private static final AtomicLong ALLOCATIONS = new AtomicLong();
+
+    /** If new allocations are tracked. */
+    private static volatile boolean enabled;
+
+    /** Every n-th allocation records its allocation site. 0 for none. */
+    private static volatile int sampleInterval;
+
+    /** The leak listener. Null for none. */
+    private static volatile LeakListener listener;
+
+    /** The number of detected leaks. Guarded by the class. */
+    private static long leaks;
+
+    /** The thread freeing leaked resources. Guarded by the class. */
+    private static Thread reaper;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ResourceTracker()
+    {
+        // Empty
+    }
+
+    /**
+     * Enables the tracking of new allocations.
+     *
+     * @param sampleInterval
+     *            Every n-th allocation records its allocation site. 1 to
+     *            record all allocation sites, 0 for none.
+     */
+    public static void enable(final int sampleInterval)
+    {
+        if (sampleInterval < 0)
+        {
+            throw new IllegalArgumentException(
+                "sampleInterval must not be negative");
+        }
+        ResourceTracker.sampleInterval = sampleInterval;
+        enabled = true;
+    }
+
+    /**
+     * Disables the tracking of new allocations. Resources which are already
+     * tracked stay tracked.
+     */
+    public static void disable()
+    {
+        enabled = false;
+    }
+
+    /**
+     * Checks if new allocations are tracked.
+     *
+     * @return True if tracking is enabled.
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Sets the listener notified about leaked resources.
+     *
+     * @param listener
+     *            The listener. Null for none.
+     */
+    public static void setLeakListener(final LeakListener listener)
+    {
+        ResourceTracker.listener = listener;
+    }
+
+    /**
+     * Returns a new key for registering a resource which has no native
+     * pointer of its own. The keys are negative, so they never collide with
+     * native pointers.
+     *
+     * @return The new key.
+     */
+    static long newKey()
+    {
+        return KEYS.decrementAndGet();
+    }
+
+    /**
+     * Registers a resource if tracking is enabled.
+     *
+     * @param resource
+     *            The resource object.
+     * @param pointer
+     *            The native pointer.
+     * @param free
+     *            The native free operation. Must not reference the resource
+     *            object. Null to only report a leak.
+     */
+    static void register(final Object resource, final long pointer,
+        final Runnable free)
+    {
+        if (!enabled || pointer == 0)
+        {
+            return;
+        }
+        final int interval = sampleInterval;
+        Throwable site = null;
+        if (interval > 0 && ALLOCATIONS.getAndIncrement() % interval == 0)
+        {
+            site = new Throwable("Allocation of " + resource.getClass()
+                .getSimpleName() + String.format(" 0x%x", pointer));
+        }
+        final Record record = new Record(resource, pointer, free, site);
+        synchronized (ResourceTracker.class)
+        {
+            RECORDS.put(Long.valueOf(pointer), record);
+            if (reaper == null)
+            {
+                reaper = new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        reap();
+                    }
+                }, "usb4java resource tracker");
+                reaper.setDaemon(true);
+                reaper.start();
+            }
+        }
+    }
+
+    /**
+     * Unregisters a resource which is going to be freed.
+     *
+     * @param pointer
+     *            The native pointer.
+     */
+    static void unregister(final long pointer)
+    {
+        synchronized (ResourceTracker.class)
+        {
+            if (RECORDS.isEmpty())
+            {
+                return;
+            }
+            final Record record = RECORDS.remove(Long.valueOf(pointer));
+            if (record != null)
+            {
+                record.clear();
+            }
+        }
+    }
+
+    /**
+     * Frees the resources of collected objects. Runs forever in the tracker
+     * thread.
+     */
+    static void reap()
+    {
+        while (true)
+        {
+            final Record record;
+            try
+            {
+                record = (Record) QUEUE.remove();
+            }
+            catch (final InterruptedException e)
+            {
+                continue;
+            }
+            synchronized (ResourceTracker.class)
+            {
+                if (RECORDS.get(Long.valueOf(record.pointer)) != record)
+                {
+                    continue;
+                }
+                RECORDS.remove(Long.valueOf(record.pointer));
+                leaks++;
+            }
+            try
+            {
+                if (record.free != null)
+                {
+                    record.free.run();
+                }
+                final LeakListener listener = ResourceTracker.listener;
+                if (listener != null)
+                {
+                    listener.processLeak(record.type, record.pointer,
+                        record.allocationSite);
+                }
+            }
+            catch (final RuntimeException e)
+            {
+                // Report the exception but keep the tracker running
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(
+                    thread, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tracked resources of the specified type which
+     * have not been freed yet.
+     *
+     * @param type
+     *            The resource type, for example {@link Transfer}.
+     * @return The number of live resources.
+     */
+    public static synchronized int getLiveCount(final Class<?> type)
+    {
+        int count = 0;
+        for (final Record record : RECORDS.values())
+        {
+            if (record.type == type)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the numbers of tracked resources which have not been freed
+     * yet.
+     *
+     * @return The numbers of live resources by type.
+     */
+    public static synchronized Map<Class<?>, Integer> getLiveCounts()
+    {
+        final Map<Class<?>, Integer> counts =
+            new LinkedHashMap<Class<?>, Integer>();
+        for (final Record record : RECORDS.values())
+        {
+            final Integer count = counts.get(record.type);
+            counts.put(record.type, Integer.valueOf(count == null ? 1
+                : count.intValue() + 1));
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of resources which were garbage collected without
+     * being freed.
+     *
+     * @return The number of leaks.
+     */
+    public static synchronized long getLeakCount()
+    {
+        return leaks;
+    }
+
+    /**
+     * Allocates a transfer. See {@link LibUsb#allocTransfer(int)}.
+     *
+     * @param isoPackets
+     *            Number of isochronous packet descriptors to allocate.
+     * @return A newly allocated transfer.
+     */
+    public static Transfer allocTransfer(final int isoPackets)
+    {
+        final Transfer transfer = LibUsb.allocTransfer(isoPackets);
+        if (transfer != null)
+        {
+            // libusb may have freed the transfer already or may still be
+            // processing it, so leaked transfers are only reported
+            register(transfer, transfer.getPointer(), null);
+        }
+        return transfer;
+    }
+
+    /**
+     * Frees a transfer. See {@link LibUsb#freeTransfer(Transfer)}.
+     *
+     * @param transfer
+     *            The transfer to free.
+     */
+    public static void freeTransfer(final Transfer transfer)
+    {
+        unregister(transfer.getPointer());
+        LibUsb.freeTransfer(transfer);
+    }
+
+    /**
+     * Returns a list of USB devices currently attached to the system. See
+     * {@link LibUsb#getDeviceList(Context, DeviceList)}.
+     *
+     * @param context
+     *            The context to operate on, or NULL for the default context.
+     * @param list
+     *            Output location for a list of devices.
+     * @return The number of devices in the outputted list, or any ERROR code
+     *         according to errors encountered by the backend.
+     */
+    public static int getDeviceList(final Context context,
+        final DeviceList list)
+    {
+        final int result = LibUsb.getDeviceList(context, list);
+        if (result >= 0)
+        {
+            final long pointer = list.getPointer();
+            register(list, pointer, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    // Devices taken from the list may still be in use
+                    LibUsb.freeDeviceList(new DeviceList(pointer), false);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Frees a list of devices. See
+     * {@link LibUsb#freeDeviceList(DeviceList, boolean)}.
+     *
+     * @param list
+     *            The list to free.
+     * @param unrefDevices
+     *            Whether to unref the devices in the list.
+     */
+    public static void freeDeviceList(final DeviceList list,
+        final boolean unrefDevices)
+    {
+        unregister(list.getPointer());
+        LibUsb.freeDeviceList(list, unrefDevices);
+    }
+
+    /**
+     * Registers a config descriptor if it has been read successfully.
+     *
+     * @param result
+     *            The result of reading the descriptor.
+     * @param descriptor
+     *            The descriptor.
+     * @return The result.
+     */
+    private static int registerConfig(final int result,
+        final ConfigDescriptor descriptor)
+    {
+        if (result == LibUsb.SUCCESS)
+        {
+            // Interface and endpoint descriptors point into the descriptor
+            register(descriptor, descriptor.getPointer(), null);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the USB configuration descriptor for the currently active
+     * configuration. See
+     * {@link LibUsb#getActiveConfigDescriptor(Device, ConfigDescriptor)}.
+     *
+     * @param device
+     *            A device.
+     * @param descriptor
+     *            Output location for the USB configuration descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getActiveConfigDescriptor(final Device device,
+        final ConfigDescriptor descriptor)
+    {
+        return registerConfig(
+            LibUsb.getActiveConfigDescriptor(device, descriptor), descriptor);
+    }
+
+    /**
+     * Gets a USB configuration descriptor based on its index. See
+     * {@link LibUsb#getConfigDescriptor(Device, byte, ConfigDescriptor)}.
+     *
+     * @param device
+     *            A device.
+     * @param index
+     *            The index of the configuration you wish to retrieve.
+     * @param descriptor
+     *            Output location for the USB configuration descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getConfigDescriptor(final Device device,
+        final byte index, final ConfigDescriptor descriptor)
+    {
+        return registerConfig(
+            LibUsb.getConfigDescriptor(device, index, descriptor), descriptor);
+    }
+
+    /**
+     * Gets a USB configuration descriptor with a specific bConfigurationValue.
+     * See
+     * {@link LibUsb#getConfigDescriptorByValue(Device, byte, ConfigDescriptor)}.
+     *
+     * @param device
+     *            A device.
+     * @param value
+     *            The bConfigurationValue of the configuration you wish to
+     *            retrieve.
+     * @param descriptor
+     *            Output location for the USB configuration descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getConfigDescriptorByValue(final Device device,
+        final byte value, final ConfigDescriptor descriptor)
+    {
+        return registerConfig(LibUsb.getConfigDescriptorByValue(device, value,
+            descriptor), descriptor);
+    }
+
+    /**
+     * Frees a configuration descriptor. See
+     * {@link LibUsb#freeConfigDescriptor(ConfigDescriptor)}.
+     *
+     * @param descriptor
+     *            The configuration descriptor to free.
+     */
+    public static void freeConfigDescriptor(final ConfigDescriptor descriptor)
+    {
+        unregister(descriptor.getPointer());
+        LibUsb.freeConfigDescriptor(descriptor);
+    }
+
+    /**
+     * Gets a SuperSpeed endpoint companion descriptor. See
+     * {@link LibUsb#getSsEndpointCompanionDescriptor(Context,
+     * EndpointDescriptor, SsEndpointCompanionDescriptor)}.
+     *
+     * @param context
+     *            The context to operate on, or NULL for the default context.
+     * @param endpointDescriptor
+     *            Endpoint descriptor from which to get the SuperSpeed
+     *            endpoint companion descriptor.
+     * @param companionDescriptor
+     *            Output location for the SuperSpeed endpoint companion
+     *            descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getSsEndpointCompanionDescriptor(
+        final Context context, final EndpointDescriptor endpointDescriptor,
+        final SsEndpointCompanionDescriptor companionDescriptor)
+    {
+        final int result = LibUsb.getSsEndpointCompanionDescriptor(context,
+            endpointDescriptor, companionDescriptor);
+        if (result == LibUsb.SUCCESS)
+        {
+            final long pointer = companionDescriptor.getPointer();
+            register(companionDescriptor, pointer, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LibUsb.freeSsEndpointCompanionDescriptor(
+                        new SsEndpointCompanionDescriptor(pointer));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Frees a SuperSpeed endpoint companion descriptor. See
+     * {@link LibUsb#freeSsEndpointCompanionDescriptor(
+     * SsEndpointCompanionDescriptor)}.
+     *
+     * @param companionDescriptor
+     *            The SuperSpeed endpoint companion descriptor to free.
+     */
+    public static void freeSsEndpointCompanionDescriptor(
+        final SsEndpointCompanionDescriptor companionDescriptor)
+    {
+        unregister(companionDescriptor.getPointer());
+        LibUsb.freeSsEndpointCompanionDescriptor(companionDescriptor);
+    }
+
+    /**
+     * Gets a Binary Object Store (BOS) descriptor. See
+     * {@link LibUsb#getBosDescriptor(DeviceHandle, BosDescriptor)}.
+     *
+     * @param handle
+     *            The handle of an open libusb device.
+     * @param descriptor
+     *            Output location for the BOS descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getBosDescriptor(final DeviceHandle handle,
+        final BosDescriptor descriptor)
+    {
+        final int result = LibUsb.getBosDescriptor(handle, descriptor);
+        if (result == LibUsb.SUCCESS)
+        {
+            // Capability descriptors point into the descriptor
+            register(descriptor, descriptor.getPointer(), null);
+        }
+        return result;
+    }
+
+    /**
+     * Frees a BOS descriptor. See
+     * {@link LibUsb#freeBosDescriptor(BosDescriptor)}.
+     *
+     * @param descriptor
+     *            The BOS descriptor to free.
+     */
+    public static void freeBosDescriptor(final BosDescriptor descriptor)
+    {
+        unregister(descriptor.getPointer());
+        LibUsb.freeBosDescriptor(descriptor);
+    }
+
+    /**
+     * Gets an USB 2.0 Extension descriptor. See
+     * {@link LibUsb#getUsb20ExtensionDescriptor(Context,
+     * BosDevCapabilityDescriptor, Usb20ExtensionDescriptor)}.
+     *
+     * @param context
+     *            The context to operate on, or NULL for the default context.
+     * @param devCapDescriptor
+     *            Device Capability descriptor with a bDevCapabilityType of
+     *            {@link LibUsb#BT_USB_2_0_EXTENSION}.
+     * @param extensionDescriptor
+     *            Output location for the USB 2.0 Extension descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getUsb20ExtensionDescriptor(final Context context,
+        final BosDevCapabilityDescriptor devCapDescriptor,
+        final Usb20ExtensionDescriptor extensionDescriptor)
+    {
+        final int result = LibUsb.getUsb20ExtensionDescriptor(context,
+            devCapDescriptor, extensionDescriptor);
+        if (result == LibUsb.SUCCESS)
+        {
+            final long pointer = extensionDescriptor.getPointer();
+            register(extensionDescriptor, pointer, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LibUsb.freeUsb20ExtensionDescriptor(
+                        new Usb20ExtensionDescriptor(pointer));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Frees a USB 2.0 Extension descriptor. See
+     * {@link LibUsb#freeUsb20ExtensionDescriptor(Usb20ExtensionDescriptor)}.
+     *
+     * @param extensionDescriptor
+     *            The USB 2.0 Extension descriptor to free.
+     */
+    public static void freeUsb20ExtensionDescriptor(
+        final Usb20ExtensionDescriptor extensionDescriptor)
+    {
+        unregister(extensionDescriptor.getPointer());
+        LibUsb.freeUsb20ExtensionDescriptor(extensionDescriptor);
+    }
+
+    /**
+     * Gets a SuperSpeed USB Device Capability descriptor. See
+     * {@link LibUsb#getSsUsbDeviceCapabilityDescriptor(Context,
+     * BosDevCapabilityDescriptor, SsUsbDeviceCapabilityDescriptor)}.
+     *
+     * @param context
+     *            The context to operate on, or NULL for the default context.
+     * @param devCapDescriptor
+     *            Device Capability descriptor with a bDevCapabilityType of
+     *            {@link LibUsb#BT_SS_USB_DEVICE_CAPABILITY}.
+     * @param ssUsbDeviceCapabilityDescriptor
+     *            Output location for the SuperSpeed USB Device Capability
+     *            descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getSsUsbDeviceCapabilityDescriptor(
+        final Context context,
+        final BosDevCapabilityDescriptor devCapDescriptor,
+        final SsUsbDeviceCapabilityDescriptor ssUsbDeviceCapabilityDescriptor)
+    {
+        final int result = LibUsb.getSsUsbDeviceCapabilityDescriptor(context,
+            devCapDescriptor, ssUsbDeviceCapabilityDescriptor);
+        if (result == LibUsb.SUCCESS)
+        {
+            final long pointer = ssUsbDeviceCapabilityDescriptor.getPointer();
+            register(ssUsbDeviceCapabilityDescriptor, pointer, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    LibUsb.freeSsUsbDeviceCapabilityDescriptor(
+                        new SsUsbDeviceCapabilityDescriptor(pointer));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Frees a SuperSpeed USB Device Capability descriptor. See
+     * {@link LibUsb#freeSsUsbDeviceCapabilityDescriptor(
+     * SsUsbDeviceCapabilityDescriptor)}.
+     *
+     * @param ssUsbDeviceCapabilityDescriptor
+     *            The descriptor to free.
+     */
+    public static void freeSsUsbDeviceCapabilityDescriptor(
+        final SsUsbDeviceCapabilityDescriptor ssUsbDeviceCapabilityDescriptor)
+    {
+        unregister(ssUsbDeviceCapabilityDescriptor.getPointer());
+        LibUsb.freeSsUsbDeviceCapabilityDescriptor(
+            ssUsbDeviceCapabilityDescriptor);
+    }
+
+    /**
+     * Gets a Container ID descriptor. See
+     * {@link LibUsb#getContainerIdDescriptor(Context,
+     * BosDevCapabilityDescriptor, ContainerIdDescriptor)}.
+     *
+     * @param context
+     *            The context to operate on, or NULL for the default context.
+     * @param devCapDescriptor
+     *            Device Capability descriptor with a bDevCapabilityType of
+     *            {@link LibUsb#BT_CONTAINER_ID}.
+     * @param containerIdDescriptor
+     *            Output location for the Container ID descriptor.
+     * @return 0 on success, an ERROR code on failure.
+     */
+    public static int getContainerIdDescriptor(final Context context,
+        final BosDevCapabilityDescriptor devCapDescriptor,
+        final ContainerIdDescriptor containerIdDescriptor)
+    {
+        final int result = LibUsb.getContainerIdDescriptor(context,
+            devCapDescriptor, containerIdDescriptor);
+        if (result == LibUsb.SUCCESS)
+        {
+            // The container ID buffer points into the descriptor
+            register(containerIdDescriptor,
+                containerIdDescriptor.getPointer(), null);
+        }
+        return result;
+    }
+
+    /**
+     * Frees a Container ID descriptor. See
+     * {@link LibUsb#freeContainerIdDescriptor(ContainerIdDescriptor)}.
+     *
+     * @param containerIdDescriptor
+     *            The Container ID descriptor to free.
+     */
+    public static void freeContainerIdDescriptor(
+        final ContainerIdDescriptor containerIdDescriptor)
+    {
+        unregister(containerIdDescriptor.getPointer());
+        LibUsb.freeContainerIdDescriptor(containerIdDescriptor);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns keys (devices) to a fixed number of shards. A new key is assigned
+ * to the shard with the fewest keys. The assignment is sticky: All
+ * acquisitions of a key return the same shard until the key has been
+ * released as often as it was acquired.
+ *
+ * @author usb4java Team
+ */
+final class ShardRouter
+{
+    /**
+     * The assignment of a key.
+     */
+    private static final class Assignment
+    {
+        /** The shard index. */
+        final int shard;
+
+        /** The number of acquisitions. */
+        int references;
+
+        /**
+         * Constructor.
+         *
+         * @param shard
+         *            The shard index.
+         */
+        Assignment(final int shard)
+        {
+            this.shard = shard;
+        }
+    }
+
+    /** The number of keys per shard. */
+    private final int[] loads;
+
+    /** The assignments by key. */
+    private final Map<Object, Assignment> assignments =
+        new HashMap<Object, Assignment>();
+
+    /**
+     * Constructs a new router.
+     *
+     * @param shards
+     *            The number of shards.
+     */
+    ShardRouter(final int shards)
+    {
+        if (shards <= 0)
+        {
+            throw new IllegalArgumentException("shards must be positive");
+        }
+        this.loads = new int[shards];
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The number of shards.
+     */
+    int getShardCount()
+    {
+        return this.loads.length;
+    }
+
+    /**
+     * Acquires the shard of a key. Assigns the key to the least loaded shard
+     * if it isn't assigned yet.
+     *
+     * @param key
+     *            The key.
+     * @return The shard index.
+     */
+    synchronized int acquire(final Object key)
+    {
+        Assignment assignment = this.assignments.get(key);
+        if (assignment == null)
+        {
+            int shard = 0;
+            for (int i = 1; i < this.loads.length; i++)
+            {
+                if (this.loads[i] < this.loads[shard])
+                {
+                    shard = i;
+                }
+            }
+            assignment = new Assignment(shard);
+            this.assignments.put(key, assignment);
+            this.loads[shard]++;
+        }
+        assignment.references++;
+        return assignment.shard;
+    }
+
+    /**
+     * Releases a key acquired with {@link #acquire(Object)}. The key is
+     * unassigned when released as often as acquired.
+     *
+     * @param key
+     *            The key.
+     */
+    synchronized void release(final Object key)
+    {
+        final Assignment assignment = this.assignments.get(key);
+        if (assignment == null)
+        {
+            return;
+        }
+        assignment.references--;
+        if (assignment.references == 0)
+        {
+            this.assignments.remove(key);
+            this.loads[assignment.shard]--;
+        }
+    }
+
+    /**
+     * Returns the shard of a key.
+     *
+     * @param key
+     *            The key.
+     * @return The shard index or -1 if the key is not assigned.
+     */
+    synchronized int getShard(final Object key)
+    {
+        final Assignment assignment = this.assignments.get(key);
+        return assignment == null ? -1 : assignment.shard;
+    }
+
+    /**
+     * Returns the number of keys assigned to a shard.
+     *
+     * @param shard
+     *            The shard index.
+     * @return The number of assigned keys.
+     */
+    synchronized int getLoad(final int shard)
+    {
+        return this.loads[shard];
+    }
+}
@@ -45,6 +45,19 @@ public final class SsEndpointCompanionDescriptor
         // Empty
     }
 
+    /**
+     * Wraps an already allocated native SuperSpeed endpoint companion
+     * descriptor so the descriptor can be freed by the {@link ResourceTracker}
+     * after the original object was garbage collected.
+     *
+     * @param pointer
+     *            The native pointer.
+     */
+    SsEndpointCompanionDescriptor(final long pointer)
+    {
+        this.ssEndpointCompanionDescriptorPointer = pointer;
+    }
+
     /**
      * Returns the native pointer.
      *
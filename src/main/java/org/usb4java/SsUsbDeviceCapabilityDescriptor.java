@@ -47,6 +47,19 @@ public final class SsUsbDeviceCapabilityDescriptor
         // Empty
     }
 
+    /**
+     * Wraps an already allocated native SuperSpeed USB device capability
+     * descriptor so the descriptor can be freed by the {@link ResourceTracker}
+     * after the original object was garbage collected.
+     *
+     * @param pointer
+     *            The native pointer.
+     */
+    SsUsbDeviceCapabilityDescriptor(final long pointer)
+    {
+        this.ssUsbDeviceCapabilityDescriptorPointer = pointer;
+    }
+
     /**
      * Returns the native pointer.
      *
@@ -45,6 +45,19 @@ public final class Usb20ExtensionDescriptor
         // Empty
     }
 
+    /**
+     * Wraps an already allocated native USB 2.0 extension descriptor so the
+     * descriptor can be freed by the {@link ResourceTracker} after the original
+     * object was garbage collected.
+     *
+     * @param pointer
+     *            The native pointer.
+     */
+    Usb20ExtensionDescriptor(final long pointer)
+    {
+        this.usb20ExtensionDescriptorPointer = pointer;
+    }
+
     /**
      * Returns the native pointer.
      *
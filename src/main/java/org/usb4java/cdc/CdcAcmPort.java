@@ -0,0 +1,773 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.cdc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+
+import org.usb4java.BlockingIo;
+import org.usb4java.BufferUtils;
+import org.usb4java.IoBackend;
+import org.usb4java.IoCallback;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+
+/**
+ * Serial port on a USB CDC Abstract Control Model function.
+ *
+ * Received data flows continuously into a receive ring: One direct buffer
+ * divided into slots, each slot being the buffer of a bulk IN request. All
+ * free slots are queued at the device, so data is received while the
+ * application is busy, and the device writes directly into the ring without
+ * an intermediate copy. A slot is queued again as soon as the application
+ * has consumed it. When the application doesn't keep up all slots fill up
+ * and the device is throttled by the USB flow control (NAK) instead of
+ * losing data.
+ *
+ * Sent data is copied into the slots of a transmit ring and submitted
+ * immediately. A write only blocks when all transmit slots are in flight,
+ * {@link #flush()} waits until all of them have been sent.
+ *
+ * The port is a {@link ByteChannel} and provides {@link InputStream} and
+ * {@link OutputStream} views. Requires another thread handling the events
+ * of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class CdcAcmPort implements ByteChannel
+{
+    /** SEND_BREAK request. */
+    public static final byte SEND_BREAK = 0x23;
+
+    /** SET_LINE_CODING request. */
+    public static final byte SET_LINE_CODING = 0x20;
+
+    /** GET_LINE_CODING request. */
+    public static final byte GET_LINE_CODING = 0x21;
+
+    /** SET_CONTROL_LINE_STATE request. */
+    public static final byte SET_CONTROL_LINE_STATE = 0x22;
+
+    /** Control line state bit: Data Terminal Ready. */
+    public static final int CONTROL_DTR = 0x01;
+
+    /** Control line state bit: Request To Send (carrier activation). */
+    public static final int CONTROL_RTS = 0x02;
+
+    /** Class specific interface OUT request type. */
+    private static final byte CLASS_OUT = (byte) (LibUsb.ENDPOINT_OUT
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** Class specific interface IN request type. */
+    private static final byte CLASS_IN = (byte) (LibUsb.ENDPOINT_IN
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** Blocking I/O for the control requests. */
+    private final BlockingIo io;
+
+    /** The number of the communications class interface. */
+    private final short interfaceNumber;
+
+    /** The maximum packet size of the bulk endpoints. */
+    private final int maxPacketSize;
+
+    /** The timeout of control and write requests in milliseconds. */
+    private final long timeout;
+
+    /** The read timeout in milliseconds. 0 for no timeout. */
+    private volatile long readTimeout;
+
+    /** The receive ring. Guarded by its own monitor. */
+    private final Ring rx;
+
+    /** The transmit ring. Guarded by its own monitor. */
+    private final Ring tx;
+
+    /** The control request buffer. */
+    private final ByteBuffer control = BufferUtils.allocateByteBuffer(
+        LineCoding.SIZE);
+
+    /** The input stream view. */
+    private final InputStream inputStream = Channels.newInputStream(this);
+
+    /** The output stream view. */
+    private final OutputStream outputStream = new OutputStream()
+    {
+        @Override
+        public void write(final int b) throws IOException
+        {
+            CdcAcmPort.this.write(ByteBuffer.wrap(new byte[] { (byte) b }));
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+            throws IOException
+        {
+            CdcAcmPort.this.write(ByteBuffer.wrap(b, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            CdcAcmPort.this.flush();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            CdcAcmPort.this.close();
+        }
+    };
+
+    /** If port is open. */
+    private volatile boolean open = true;
+
+    /** If the receive requests have been submitted. */
+    private boolean receiving;
+
+    /**
+     * A ring of equally sized slots in one direct buffer. Each slot is the
+     * buffer of one request. Slots are used strictly in ring order.
+     */
+    private static final class Ring implements IoCallback
+    {
+        /** The requests. */
+        final IoRequest[] requests;
+
+        /** Which requests are in flight. */
+        final boolean[] busy;
+
+        /** Whether failed requests are recorded as ring error. */
+        private final boolean recordErrors;
+
+        /** The slot which is consumed (RX) or filled (TX) next. */
+        int head;
+
+        /** The error code of the first failed request. */
+        int error = LibUsb.SUCCESS;
+
+        /** The number of transferred bytes. */
+        long bytes;
+
+        /**
+         * Constructs a ring.
+         *
+         * @param endpoint
+         *            The endpoint of the requests.
+         * @param slots
+         *            The number of slots.
+         * @param slotSize
+         *            The size of a slot.
+         * @param timeout
+         *            The timeout of the requests.
+         * @param recordErrors
+         *            Whether failed requests are recorded as ring error.
+         */
+        Ring(final byte endpoint, final int slots, final int slotSize,
+            final long timeout, final boolean recordErrors)
+        {
+            this.recordErrors = recordErrors;
+            final ByteBuffer ring = BufferUtils.allocateByteBuffer(slots
+                * slotSize);
+            this.requests = new IoRequest[slots];
+            this.busy = new boolean[slots];
+            for (int i = 0; i < slots; i++)
+            {
+                final IoRequest request = new IoRequest();
+                request.fillBulk(endpoint, BufferUtils.slice(ring,
+                    i * slotSize, slotSize), this, Integer.valueOf(i),
+                    timeout);
+                this.requests[i] = request;
+            }
+        }
+
+        @Override
+        public synchronized void processRequest(final IoRequest request)
+        {
+            this.busy[(Integer) request.userData()] = false;
+            if (this.recordErrors && this.error == LibUsb.SUCCESS
+                && request.status() != LibUsb.TRANSFER_COMPLETED)
+            {
+                this.error = request.resultCode();
+            }
+            this.notifyAll();
+        }
+
+        /**
+         * Submits a slot.
+         *
+         * @param backend
+         *            The backend.
+         * @param slot
+         *            The slot.
+         * @return The error code.
+         */
+        int submit(final IoBackend backend, final int slot)
+        {
+            this.busy[slot] = true;
+            final int result = backend.submit(this.requests[slot]);
+            if (result != LibUsb.SUCCESS)
+            {
+                this.busy[slot] = false;
+            }
+            return result;
+        }
+
+        /**
+         * Waits until a slot is no longer in flight.
+         *
+         * @param slot
+         *            The slot.
+         * @param timeout
+         *            The timeout in milliseconds. 0 for no timeout.
+         * @param port
+         *            The port, for checking if it is still open.
+         * @return True if slot is idle, false on timeout.
+         * @throws IOException
+         *             When port was closed or the thread was interrupted.
+         */
+        boolean await(final int slot, final long timeout,
+            final CdcAcmPort port) throws IOException
+        {
+            final long deadline = System.currentTimeMillis() + timeout;
+            while (this.busy[slot])
+            {
+                if (!port.open)
+                {
+                    throw new ClosedChannelException();
+                }
+                long wait = 0;
+                if (timeout > 0)
+                {
+                    wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0)
+                    {
+                        return false;
+                    }
+                }
+                try
+                {
+                    this.wait(wait);
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Wait interrupted");
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Constructs a new port.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param interfaceNumber
+     *            The number of the communications class interface. The
+     *            communications and the data interface must be claimed.
+     * @param inEndpoint
+     *            The bulk IN endpoint of the data interface.
+     * @param outEndpoint
+     *            The bulk OUT endpoint of the data interface.
+     * @param maxPacketSize
+     *            The maximum packet size of the bulk endpoints.
+     * @param slotSize
+     *            The size of a ring slot (the size of a single request).
+     *            Rounded up to a multiple of the maximum packet size.
+     * @param slots
+     *            The number of slots of each ring.
+     * @param timeout
+     *            The timeout of control and write requests in milliseconds.
+     *            0 for no timeout.
+     */
+    public CdcAcmPort(final IoBackend backend, final int interfaceNumber,
+        final byte inEndpoint, final byte outEndpoint,
+        final int maxPacketSize, final int slotSize, final int slots,
+        final long timeout)
+    {
+        if (maxPacketSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxPacketSize must be positive");
+        }
+        if (slots <= 0)
+        {
+            throw new IllegalArgumentException("slots must be positive");
+        }
+        this.backend = backend;
+        this.io = new BlockingIo(backend);
+        this.interfaceNumber = (short) interfaceNumber;
+        this.maxPacketSize = maxPacketSize;
+        this.timeout = timeout;
+        final int size = ((Math.max(slotSize, 1) + maxPacketSize - 1)
+            / maxPacketSize) * maxPacketSize;
+
+        // Receive requests never time out, the read timeout is applied
+        // while waiting for them.
+        this.rx = new Ring(inEndpoint, slots, size, 0, false);
+        this.tx = new Ring(outEndpoint, slots, size, timeout, true);
+    }
+
+    /**
+     * Sets the read timeout. A read which receives no data within this time
+     * throws an {@link InterruptedIOException}.
+     *
+     * @param readTimeout
+     *            The read timeout in milliseconds. 0 for no timeout.
+     */
+    public void setReadTimeout(final long readTimeout)
+    {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Sends a control request without data stage or with the line coding
+     * buffer as data stage.
+     *
+     * @param request
+     *            The request.
+     * @param value
+     *            The value.
+     * @param data
+     *            The data or null.
+     * @param message
+     *            The error message.
+     * @return The number of transferred bytes.
+     */
+    private int control(final byte request, final int value,
+        final ByteBuffer data, final String message)
+    {
+        final byte type = request == GET_LINE_CODING ? CLASS_IN : CLASS_OUT;
+        final int result = this.io.controlTransfer(type, request,
+            (short) value, this.interfaceNumber, data, this.timeout);
+        if (result < 0)
+        {
+            throw new LibUsbException(message, result);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the line coding (SET_LINE_CODING).
+     *
+     * @param coding
+     *            The line coding.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public synchronized void setLineCoding(final LineCoding coding)
+    {
+        this.control.clear();
+        coding.write(this.control);
+        this.control(SET_LINE_CODING, 0, this.control,
+            "Unable to set line coding");
+    }
+
+    /**
+     * Returns the line coding (GET_LINE_CODING).
+     *
+     * @return The line coding.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public synchronized LineCoding getLineCoding()
+    {
+        this.control.clear();
+        final int length = this.control(GET_LINE_CODING, 0, this.control,
+            "Unable to get line coding");
+        this.control.limit(length);
+        return new LineCoding(this.control);
+    }
+
+    /**
+     * Sets the control line state (SET_CONTROL_LINE_STATE).
+     *
+     * @param dtr
+     *            Whether to assert DTR.
+     * @param rts
+     *            Whether to assert RTS.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public synchronized void setControlLineState(final boolean dtr,
+        final boolean rts)
+    {
+        this.control(SET_CONTROL_LINE_STATE, (dtr ? CONTROL_DTR : 0)
+            | (rts ? CONTROL_RTS : 0), null,
+            "Unable to set control line state");
+    }
+
+    /**
+     * Sends a break (SEND_BREAK).
+     *
+     * @param duration
+     *            The duration in milliseconds. 0xFFFF to start a break which
+     *            lasts until a break with duration 0 is sent.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public synchronized void sendBreak(final int duration)
+    {
+        this.control(SEND_BREAK, duration, null, "Unable to send break");
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return this.open;
+    }
+
+    /**
+     * Closes the port. Pending receive and transmit requests are cancelled,
+     * call {@link #flush()} before to make sure all data has been sent.
+     */
+    @Override
+    public void close()
+    {
+        if (!this.open)
+        {
+            return;
+        }
+        this.open = false;
+        for (final Ring ring : new Ring[] { this.rx, this.tx })
+        {
+            synchronized (ring)
+            {
+                for (int i = 0; i < ring.requests.length; i++)
+                {
+                    if (ring.busy[i])
+                    {
+                        this.backend.cancel(ring.requests[i]);
+                    }
+                }
+                ring.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Starts receiving data into the ring. Called automatically by the
+     * first read. Calling it earlier starts buffering incoming data before
+     * the application reads it.
+     *
+     * @throws IOException
+     *             When the receive requests could not be submitted.
+     */
+    public void start() throws IOException
+    {
+        final Ring ring = this.rx;
+        synchronized (ring)
+        {
+            if (this.receiving)
+            {
+                return;
+            }
+            if (!this.open)
+            {
+                throw new ClosedChannelException();
+            }
+            this.receiving = true;
+            for (int i = 0; i < ring.requests.length; i++)
+            {
+                this.receive(i);
+            }
+            checkError(ring, "Receive failed");
+        }
+    }
+
+    /**
+     * Queues a receive slot. Must be called while holding the RX ring
+     * monitor.
+     *
+     * @param slot
+     *            The slot.
+     */
+    private void receive(final int slot)
+    {
+        final Ring ring = this.rx;
+        if (!this.open)
+        {
+            return;
+        }
+        ring.requests[slot].buffer().clear();
+        final int result = ring.submit(this.backend, slot);
+        if (result != LibUsb.SUCCESS && ring.error == LibUsb.SUCCESS)
+        {
+            ring.error = result;
+        }
+    }
+
+    /**
+     * Throws the recorded error of a ring and clears it. Must be called
+     * while holding the ring monitor.
+     *
+     * @param ring
+     *            The ring.
+     * @param message
+     *            The error message.
+     * @throws IOException
+     *             When an error has been recorded.
+     */
+    private static void checkError(final Ring ring, final String message)
+        throws IOException
+    {
+        final int error = ring.error;
+        if (error != LibUsb.SUCCESS)
+        {
+            ring.error = LibUsb.SUCCESS;
+            throw new IOException(message, new LibUsbException(error));
+        }
+    }
+
+    /**
+     * Reads received data. Blocks until at least one byte is available.
+     *
+     * @param dst
+     *            The buffer to read into.
+     * @return The number of read bytes.
+     * @throws IOException
+     *             When receiving failed, the port was closed or the read
+     *             timed out.
+     */
+    @Override
+    public int read(final ByteBuffer dst) throws IOException
+    {
+        if (!dst.hasRemaining())
+        {
+            return 0;
+        }
+        this.start();
+        final Ring ring = this.rx;
+        int read = 0;
+        synchronized (ring)
+        {
+            while (dst.hasRemaining())
+            {
+                final int slot = ring.head;
+                if (ring.busy[slot])
+                {
+                    if (read > 0)
+                    {
+                        break;
+                    }
+                    if (!ring.await(slot, this.readTimeout, this))
+                    {
+                        throw new InterruptedIOException("Read timed out");
+                    }
+                }
+                final IoRequest request = ring.requests[slot];
+                if (request.status() != LibUsb.TRANSFER_COMPLETED)
+                {
+                    if (!this.open)
+                    {
+                        throw new ClosedChannelException();
+                    }
+                    ring.error = request.resultCode();
+                    ring.head = (slot + 1) % ring.requests.length;
+                    this.receive(slot);
+                    if (read > 0)
+                    {
+                        break;
+                    }
+                    checkError(ring, "Receive failed");
+                    continue;
+                }
+                final ByteBuffer src = request.buffer();
+                if (src.position() == 0)
+                {
+                    src.limit(request.actualLength());
+                }
+                final int n = Math.min(src.remaining(), dst.remaining());
+                final int limit = src.limit();
+                src.limit(src.position() + n);
+                dst.put(src);
+                src.limit(limit);
+                read += n;
+                if (!src.hasRemaining())
+                {
+                    ring.head = (slot + 1) % ring.requests.length;
+                    this.receive(slot);
+                }
+            }
+            ring.bytes += read;
+        }
+        return read;
+    }
+
+    /**
+     * Returns the number of bytes which can be read without blocking.
+     *
+     * @return The number of available bytes.
+     */
+    public int available()
+    {
+        final Ring ring = this.rx;
+        synchronized (ring)
+        {
+            if (!this.receiving)
+            {
+                return 0;
+            }
+            int available = 0;
+            final int slots = ring.requests.length;
+            for (int i = 0; i < slots; i++)
+            {
+                final int slot = (ring.head + i) % slots;
+                final IoRequest request = ring.requests[slot];
+                if (ring.busy[slot]
+                    || request.status() != LibUsb.TRANSFER_COMPLETED)
+                {
+                    break;
+                }
+                final ByteBuffer buffer = request.buffer();
+                available += buffer.position() == 0
+                    ? request.actualLength() : buffer.remaining();
+            }
+            return available;
+        }
+    }
+
+    /**
+     * Queues data for sending. Blocks only while all transmit slots are in
+     * flight.
+     *
+     * @param src
+     *            The data to send.
+     * @return The number of queued bytes (all remaining bytes).
+     * @throws IOException
+     *             When sending failed or the port was closed.
+     */
+    @Override
+    public int write(final ByteBuffer src) throws IOException
+    {
+        if (!this.open)
+        {
+            throw new ClosedChannelException();
+        }
+        final Ring ring = this.tx;
+        int written = 0;
+        synchronized (ring)
+        {
+            while (src.hasRemaining())
+            {
+                final int slot = ring.head;
+                ring.await(slot, 0, this);
+                checkError(ring, "Send failed");
+                final IoRequest request = ring.requests[slot];
+                final ByteBuffer buffer = request.buffer();
+                buffer.clear();
+                final int n = Math.min(buffer.remaining(), src.remaining());
+                final int limit = src.limit();
+                src.limit(src.position() + n);
+                buffer.put(src);
+                src.limit(limit);
+                buffer.flip();
+
+                // Terminate packet aligned writes so the device doesn't
+                // wait for more data. Only the last chunk ends the write,
+                // the slots before it are full and always packet aligned.
+                request.setFlags(!src.hasRemaining()
+                    && n % this.maxPacketSize == 0
+                    ? LibUsb.TRANSFER_ADD_ZERO_PACKET : 0);
+                final int result = ring.submit(this.backend, slot);
+                if (result != LibUsb.SUCCESS)
+                {
+                    throw new IOException("Send failed",
+                        new LibUsbException(result));
+                }
+                ring.head = (slot + 1) % ring.requests.length;
+                written += n;
+            }
+            ring.bytes += written;
+        }
+        return written;
+    }
+
+    /**
+     * Waits until all queued data has been sent.
+     *
+     * @throws IOException
+     *             When sending failed or the port was closed.
+     */
+    public void flush() throws IOException
+    {
+        final Ring ring = this.tx;
+        synchronized (ring)
+        {
+            for (int i = 0; i < ring.requests.length; i++)
+            {
+                ring.await(i, 0, this);
+            }
+            checkError(ring, "Send failed");
+        }
+    }
+
+    /**
+     * Returns an input stream reading from this port.
+     *
+     * @return The input stream.
+     */
+    public InputStream getInputStream()
+    {
+        return this.inputStream;
+    }
+
+    /**
+     * Returns an output stream writing to this port. Flushing the stream
+     * waits until all data has been sent.
+     *
+     * @return The output stream.
+     */
+    public OutputStream getOutputStream()
+    {
+        return this.outputStream;
+    }
+
+    /**
+     * Returns the number of bytes read by the application.
+     *
+     * @return The number of read bytes.
+     */
+    public long getReadBytes()
+    {
+        synchronized (this.rx)
+        {
+            return this.rx.bytes;
+        }
+    }
+
+    /**
+     * Returns the number of bytes queued for sending.
+     *
+     * @return The number of written bytes.
+     */
+    public long getWrittenBytes()
+    {
+        synchronized (this.tx)
+        {
+            return this.tx.bytes;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java CDC-ACM port on interface %d",
+            this.interfaceNumber);
+    }
+}
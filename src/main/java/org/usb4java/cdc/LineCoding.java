@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.cdc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The line coding of a CDC-ACM port (Data rate, character format, parity
+ * and data bits).
+ *
+ * @author usb4java Team
+ */
+public final class LineCoding
+{
+    /** 1 stop bit. */
+    public static final int STOP_BITS_1 = 0;
+
+    /** 1.5 stop bits. */
+    public static final int STOP_BITS_1_5 = 1;
+
+    /** 2 stop bits. */
+    public static final int STOP_BITS_2 = 2;
+
+    /** No parity. */
+    public static final int PARITY_NONE = 0;
+
+    /** Odd parity. */
+    public static final int PARITY_ODD = 1;
+
+    /** Even parity. */
+    public static final int PARITY_EVEN = 2;
+
+    /** Mark parity. */
+    public static final int PARITY_MARK = 3;
+
+    /** Space parity. */
+    public static final int PARITY_SPACE = 4;
+
+    /** The size of the line coding structure. */
+    public static final int SIZE = 7;
+
+    /** The data rate in bits per second. */
+    private final int baudRate;
+
+    /** The stop bits. */
+    private final int stopBits;
+
+    /** The parity. */
+    private final int parity;
+
+    /** The number of data bits. */
+    private final int dataBits;
+
+    /**
+     * Constructs a line coding.
+     *
+     * @param baudRate
+     *            The data rate in bits per second.
+     * @param dataBits
+     *            The number of data bits (5, 6, 7, 8 or 16).
+     * @param parity
+     *            The parity. One of the PARITY_* constants.
+     * @param stopBits
+     *            The stop bits. One of the STOP_BITS_* constants.
+     */
+    public LineCoding(final int baudRate, final int dataBits,
+        final int parity, final int stopBits)
+    {
+        this.baudRate = baudRate;
+        this.dataBits = dataBits;
+        this.parity = parity;
+        this.stopBits = stopBits;
+    }
+
+    /**
+     * Constructs a line coding from the response of a GET_LINE_CODING
+     * request.
+     *
+     * @param buffer
+     *            The response. Read from position 0.
+     */
+    public LineCoding(final ByteBuffer buffer)
+    {
+        if (buffer.limit() < SIZE)
+        {
+            throw new IllegalArgumentException(
+                "Line coding response too short: " + buffer.limit());
+        }
+        final ByteBuffer data = buffer.duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        this.baudRate = data.getInt(0);
+        this.stopBits = data.get(4) & 0xff;
+        this.parity = data.get(5) & 0xff;
+        this.dataBits = data.get(6) & 0xff;
+    }
+
+    /**
+     * Writes the line coding structure for a SET_LINE_CODING request.
+     *
+     * @param buffer
+     *            The buffer to write to. Written from position 0.
+     */
+    void write(final ByteBuffer buffer)
+    {
+        final ByteBuffer data = buffer.duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(0, this.baudRate);
+        data.put(4, (byte) this.stopBits);
+        data.put(5, (byte) this.parity);
+        data.put(6, (byte) this.dataBits);
+    }
+
+    /**
+     * Returns the data rate.
+     *
+     * @return The data rate in bits per second.
+     */
+    public int getBaudRate()
+    {
+        return this.baudRate;
+    }
+
+    /**
+     * Returns the number of data bits.
+     *
+     * @return The number of data bits.
+     */
+    public int getDataBits()
+    {
+        return this.dataBits;
+    }
+
+    /**
+     * Returns the parity.
+     *
+     * @return The parity. One of the PARITY_* constants.
+     */
+    public int getParity()
+    {
+        return this.parity;
+    }
+
+    /**
+     * Returns the stop bits.
+     *
+     * @return The stop bits. One of the STOP_BITS_* constants.
+     */
+    public int getStopBits()
+    {
+        return this.stopBits;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d baud, %d data bits, parity %d, stop bits %d",
+            this.baudRate, this.dataBits, this.parity, this.stopBits);
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB Communications Device Class (CDC-ACM) serial port support.
+ */
+package org.usb4java.cdc;
@@ -0,0 +1,630 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.dfu;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.usb4java.ControlCallback;
+import org.usb4java.ControlChannel;
+import org.usb4java.IoBackend;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+
+/**
+ * Client for devices implementing the USB Device Firmware Upgrade
+ * specification 1.1.
+ *
+ * The client uses a {@link ControlChannel} for the DFU requests. During a
+ * download each DFU_DNLOAD request is queued back to back with the
+ * following DFU_GETSTATUS request, so the device can answer the status
+ * request as soon as it has accepted the block without another round trip
+ * through the host. While the device processes the block the host prepares
+ * the next one (reading it from the source stream). When the device reports
+ * that it is busy, the next DFU_GETSTATUS request is sent exactly
+ * bwPollTimeout milliseconds after the previous status response arrived,
+ * not earlier (which the device may reject) and not later (which wastes
+ * time).
+ *
+ * Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class DfuClient
+{
+    /** DFU_DETACH request. */
+    public static final byte DFU_DETACH = 0;
+
+    /** DFU_DNLOAD request. */
+    public static final byte DFU_DNLOAD = 1;
+
+    /** DFU_UPLOAD request. */
+    public static final byte DFU_UPLOAD = 2;
+
+    /** DFU_GETSTATUS request. */
+    public static final byte DFU_GETSTATUS = 3;
+
+    /** DFU_CLRSTATUS request. */
+    public static final byte DFU_CLRSTATUS = 4;
+
+    /** DFU_GETSTATE request. */
+    public static final byte DFU_GETSTATE = 5;
+
+    /** DFU_ABORT request. */
+    public static final byte DFU_ABORT = 6;
+
+    /** Class specific interface OUT request type. */
+    private static final byte CLASS_OUT = (byte) (LibUsb.ENDPOINT_OUT
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** Class specific interface IN request type. */
+    private static final byte CLASS_IN = (byte) (LibUsb.ENDPOINT_IN
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** The control channel. */
+    private final ControlChannel channel;
+
+    /** The interface number. */
+    private final short interfaceNumber;
+
+    /** The functional descriptor. */
+    private final DfuFunctionalDescriptor descriptor;
+
+    /** The timeout of a single request in milliseconds. */
+    private final long timeout;
+
+    /** The last received status. */
+    volatile DfuStatus lastStatus;
+
+    /** The time when the last status was received. */
+    volatile long lastStatusTime;
+
+    /** The last received state or upload data length. */
+    volatile int lastResult;
+
+    /** The callback receiving status responses. */
+    private final ControlCallback statusCallback = new ControlCallback()
+    {
+        @Override
+        public void processControl(final int result, final ByteBuffer data,
+            final Object userData)
+        {
+            final DfuClient client = DfuClient.this;
+            client.lastStatusTime = System.nanoTime();
+            client.lastStatus = result >= DfuStatus.SIZE ? new DfuStatus(data)
+                : null;
+        }
+    };
+
+    /** The callback receiving state and upload responses. */
+    private final ControlCallback dataCallback = new ControlCallback()
+    {
+        @Override
+        public void processControl(final int result, final ByteBuffer data,
+            final Object userData)
+        {
+            DfuClient.this.lastResult = result;
+            if (result > 0 && userData instanceof byte[])
+            {
+                data.get((byte[]) userData, 0, result);
+            }
+        }
+    };
+
+    /** Scratch buffer receiving the state. */
+    private final byte[] state = new byte[1];
+
+    /** The number of downloaded bytes. */
+    private long downloadedBytes;
+
+    /** The number of downloaded blocks. */
+    private int downloadedBlocks;
+
+    /** The duration of the last download in nanoseconds. */
+    private long downloadTime;
+
+    /** The time spent waiting for poll timeouts in nanoseconds. */
+    private long pollWaitTime;
+
+    /**
+     * Constructs a new DFU client.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param interfaceNumber
+     *            The number of the DFU interface. The interface must be
+     *            claimed.
+     * @param descriptor
+     *            The DFU functional descriptor of the interface.
+     * @param timeout
+     *            The timeout of a single request in milliseconds. 0 for no
+     *            timeout.
+     */
+    public DfuClient(final IoBackend backend, final int interfaceNumber,
+        final DfuFunctionalDescriptor descriptor, final long timeout)
+    {
+        if (descriptor == null)
+        {
+            throw new IllegalArgumentException("descriptor must not be null");
+        }
+        this.channel = new ControlChannel(backend, 2,
+            Math.max(descriptor.getTransferSize(), DfuStatus.SIZE));
+        this.interfaceNumber = (short) interfaceNumber;
+        this.descriptor = descriptor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the functional descriptor.
+     *
+     * @return The functional descriptor.
+     */
+    public DfuFunctionalDescriptor getDescriptor()
+    {
+        return this.descriptor;
+    }
+
+    /**
+     * Checks the result of queuing a request.
+     *
+     * @param result
+     *            The result.
+     */
+    private static void check(final int result)
+    {
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to queue DFU request", result);
+        }
+    }
+
+    /**
+     * Waits for all queued requests.
+     *
+     * @param message
+     *            The error message.
+     */
+    private void flush(final String message)
+    {
+        final int result = this.channel.flush();
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException(message, result);
+        }
+    }
+
+    /**
+     * Queues a DFU_GETSTATUS request.
+     */
+    private void queueStatus()
+    {
+        check(this.channel.read(CLASS_IN, DFU_GETSTATUS, (short) 0,
+            this.interfaceNumber, DfuStatus.SIZE, this.timeout,
+            this.statusCallback, null));
+    }
+
+    /**
+     * Returns the result of the last queued DFU_GETSTATUS request.
+     *
+     * @return The status.
+     */
+    private DfuStatus receiveStatus()
+    {
+        this.flush("Unable to get DFU status");
+        final DfuStatus status = this.lastStatus;
+        if (status == null)
+        {
+            throw new LibUsbException("Short DFU status response",
+                LibUsb.ERROR_IO);
+        }
+        return status;
+    }
+
+    /**
+     * Sends DFU_GETSTATUS.
+     *
+     * @return The status.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public DfuStatus getStatus()
+    {
+        this.queueStatus();
+        return this.receiveStatus();
+    }
+
+    /**
+     * Waits until the poll timeout of the last status has elapsed and then
+     * sends DFU_GETSTATUS.
+     *
+     * @return The status.
+     */
+    private DfuStatus pollStatus()
+    {
+        final long deadline = this.lastStatusTime + TimeUnit.MILLISECONDS
+            .toNanos(this.lastStatus.getPollTimeout());
+        final long start = System.nanoTime();
+        long remaining = deadline - start;
+        while (remaining > 0)
+        {
+            LockSupport.parkNanos(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        this.pollWaitTime += System.nanoTime() - start;
+        return this.getStatus();
+    }
+
+    /**
+     * Sends DFU_GETSTATE.
+     *
+     * @return The state. One of the STATE_* constants of {@link DfuStatus}.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public int getState()
+    {
+        check(this.channel.read(CLASS_IN, DFU_GETSTATE, (short) 0,
+            this.interfaceNumber, 1, this.timeout, this.dataCallback,
+            this.state));
+        this.flush("Unable to get DFU state");
+        if (this.lastResult < 1)
+        {
+            throw new LibUsbException("Short DFU state response",
+                LibUsb.ERROR_IO);
+        }
+        return this.state[0] & 0xff;
+    }
+
+    /**
+     * Sends a request without data stage.
+     *
+     * @param request
+     *            The request.
+     * @param value
+     *            The value.
+     * @param message
+     *            The error message.
+     */
+    private void send(final byte request, final int value,
+        final String message)
+    {
+        check(this.channel.write(CLASS_OUT, request, (short) value,
+            this.interfaceNumber, null, this.timeout, null, null));
+        this.flush(message);
+    }
+
+    /**
+     * Sends DFU_CLRSTATUS.
+     *
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public void clearStatus()
+    {
+        this.send(DFU_CLRSTATUS, 0, "Unable to clear DFU status");
+    }
+
+    /**
+     * Sends DFU_ABORT.
+     *
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public void abort()
+    {
+        this.send(DFU_ABORT, 0, "Unable to abort DFU operation");
+    }
+
+    /**
+     * Sends DFU_DETACH with the detach timeout of the functional
+     * descriptor. The device switches to DFU mode on the next USB reset (or
+     * by itself if it {@link DfuFunctionalDescriptor#willDetach()}).
+     *
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public void detach()
+    {
+        this.send(DFU_DETACH, Math.min(this.descriptor.getDetachTimeout(),
+            0xffff), "Unable to detach");
+    }
+
+    /**
+     * Brings the device into the dfuIDLE state, clearing a previous error
+     * or aborting a previous operation.
+     *
+     * @throws DfuException
+     *             When the device does not reach the dfuIDLE state.
+     */
+    private void makeIdle() throws DfuException
+    {
+        DfuStatus status = this.getStatus();
+        if (status.getState() == DfuStatus.STATE_DFU_ERROR)
+        {
+            this.clearStatus();
+            status = this.getStatus();
+        }
+        if (status.getState() != DfuStatus.STATE_DFU_IDLE)
+        {
+            this.abort();
+            status = this.getStatus();
+        }
+        if (status.getState() != DfuStatus.STATE_DFU_IDLE)
+        {
+            throw new DfuException("Device is not idle", status);
+        }
+    }
+
+    /**
+     * Downloads firmware to the device.
+     *
+     * @param firmware
+     *            The firmware.
+     * @throws DfuException
+     *             When the device reported an error.
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    public void download(final byte[] firmware) throws DfuException
+    {
+        try
+        {
+            this.download(new ByteArrayInputStream(firmware));
+        }
+        catch (final DfuException e)
+        {
+            throw e;
+        }
+        catch (final IOException e)
+        {
+            // Can't happen with a byte array stream
+            throw new IllegalStateException(e.toString(), e);
+        }
+    }
+
+    /**
+     * Downloads firmware to the device. Reading the next block from the
+     * stream overlaps with the device processing the previous block.
+     *
+     * @param firmware
+     *            The stream to read the firmware from. Not closed.
+     * @throws IOException
+     *             When reading the stream failed or the device reported an
+     *             error ({@link DfuException}).
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    public void download(final InputStream firmware) throws IOException
+    {
+        if (!this.descriptor.canDownload())
+        {
+            throw new IllegalStateException("Device can't download");
+        }
+        final long start = System.nanoTime();
+        this.downloadedBytes = 0;
+        this.downloadedBlocks = 0;
+        this.pollWaitTime = 0;
+        this.makeIdle();
+
+        final int size = this.descriptor.getTransferSize();
+        ByteBuffer block = ByteBuffer.allocate(size);
+        ByteBuffer next = ByteBuffer.allocate(size);
+        readBlock(firmware, block);
+        int blockNumber = 0;
+        while (true)
+        {
+            // The final block has no data and starts the manifestation
+            final boolean last = !block.hasRemaining();
+            final int length = block.remaining();
+            check(this.channel.write(CLASS_OUT, DFU_DNLOAD,
+                (short) blockNumber, this.interfaceNumber, block,
+                this.timeout, null, null));
+            this.queueStatus();
+            if (!last)
+            {
+                readBlock(firmware, next);
+            }
+            DfuStatus status = this.receiveStatus();
+            if (last)
+            {
+                this.manifest(status);
+                break;
+            }
+            while (status.getState() == DfuStatus.STATE_DFU_DNBUSY
+                || status.getState() == DfuStatus.STATE_DFU_DNLOAD_SYNC)
+            {
+                status = this.pollStatus();
+            }
+            if (status.getStatus() != DfuStatus.OK
+                || status.getState() != DfuStatus.STATE_DFU_DNLOAD_IDLE)
+            {
+                throw new DfuException("Download of block " + blockNumber
+                    + " failed", status);
+            }
+            this.downloadedBytes += length;
+            this.downloadedBlocks++;
+            blockNumber = (blockNumber + 1) & 0xffff;
+            final ByteBuffer swap = block;
+            block = next;
+            next = swap;
+        }
+        this.downloadTime = System.nanoTime() - start;
+    }
+
+    /**
+     * Waits for the manifestation phase to finish.
+     *
+     * @param initial
+     *            The status received after the final DFU_DNLOAD.
+     * @throws DfuException
+     *             When the device reported an error.
+     */
+    private void manifest(final DfuStatus initial) throws DfuException
+    {
+        DfuStatus status = initial;
+        while (status.getStatus() == DfuStatus.OK
+            && (status.getState() == DfuStatus.STATE_DFU_MANIFEST_SYNC
+                || status.getState() == DfuStatus.STATE_DFU_MANIFEST))
+        {
+            if (status.getState() == DfuStatus.STATE_DFU_MANIFEST
+                && !this.descriptor.isManifestationTolerant())
+            {
+                // The device won't answer anymore until it is reset
+                return;
+            }
+            status = this.pollStatus();
+        }
+        if (status.getStatus() != DfuStatus.OK)
+        {
+            throw new DfuException("Manifestation failed", status);
+        }
+        final int state = status.getState();
+        if (state != DfuStatus.STATE_DFU_IDLE
+            && state != DfuStatus.STATE_DFU_MANIFEST_WAIT_RESET)
+        {
+            throw new DfuException("Unexpected state after manifestation",
+                status);
+        }
+    }
+
+    /**
+     * Reads the next block from a stream.
+     *
+     * @param stream
+     *            The stream.
+     * @param block
+     *            The block buffer. Flipped after reading.
+     * @throws IOException
+     *             When reading failed.
+     */
+    private static void readBlock(final InputStream stream,
+        final ByteBuffer block) throws IOException
+    {
+        block.clear();
+        final byte[] array = block.array();
+        int length = 0;
+        while (length < array.length)
+        {
+            final int read = stream.read(array, length, array.length - length);
+            if (read < 0)
+            {
+                break;
+            }
+            length += read;
+        }
+        block.limit(length);
+    }
+
+    /**
+     * Uploads the firmware from the device.
+     *
+     * @param out
+     *            The stream to write the firmware to. Not closed.
+     * @return The number of uploaded bytes.
+     * @throws IOException
+     *             When writing the stream failed or the device reported an
+     *             error ({@link DfuException}).
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    public long upload(final OutputStream out) throws IOException
+    {
+        if (!this.descriptor.canUpload())
+        {
+            throw new IllegalStateException("Device can't upload");
+        }
+        this.makeIdle();
+        final int size = this.descriptor.getTransferSize();
+        final byte[] block = new byte[size];
+        long total = 0;
+        int blockNumber = 0;
+        while (true)
+        {
+            check(this.channel.read(CLASS_IN, DFU_UPLOAD, (short) blockNumber,
+                this.interfaceNumber, size, this.timeout, this.dataCallback,
+                block));
+            this.flush("Unable to upload block " + blockNumber);
+            final int length = this.lastResult;
+            out.write(block, 0, length);
+            total += length;
+            blockNumber = (blockNumber + 1) & 0xffff;
+
+            // A short block ends the upload and returns to dfuIDLE
+            if (length < size)
+            {
+                break;
+            }
+        }
+        final DfuStatus status = this.getStatus();
+        if (status.getStatus() != DfuStatus.OK)
+        {
+            throw new DfuException("Upload failed", status);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of bytes downloaded by the last download.
+     *
+     * @return The number of downloaded bytes.
+     */
+    public long getDownloadedBytes()
+    {
+        return this.downloadedBytes;
+    }
+
+    /**
+     * Returns the number of blocks downloaded by the last download.
+     *
+     * @return The number of downloaded blocks.
+     */
+    public int getDownloadedBlocks()
+    {
+        return this.downloadedBlocks;
+    }
+
+    /**
+     * Returns the throughput of the last download.
+     *
+     * @return The downloaded bytes per second.
+     */
+    public double getDownloadRate()
+    {
+        return this.downloadTime <= 0 ? 0
+            : this.downloadedBytes * 1000000000.0 / this.downloadTime;
+    }
+
+    /**
+     * Returns the time the last download spent waiting for the poll
+     * timeouts requested by the device.
+     *
+     * @return The poll wait time in nanoseconds.
+     */
+    public long getPollWaitTime()
+    {
+        return this.pollWaitTime;
+    }
+
+    /**
+     * Closes the client and its control channel.
+     */
+    public void close()
+    {
+        this.channel.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java DFU client on interface %d",
+            this.interfaceNumber);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.dfu;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a DFU device reports an error status or an unexpected state.
+ *
+ * @author usb4java Team
+ */
+public final class DfuException extends IOException
+{
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The status reported by the device. */
+    private final int status;
+
+    /** The state reported by the device. */
+    private final int state;
+
+    /**
+     * Constructs a new exception.
+     *
+     * @param message
+     *            The error message.
+     * @param status
+     *            The status reported by the device.
+     */
+    public DfuException(final String message, final DfuStatus status)
+    {
+        super(String.format("%s: status %d, state %d", message,
+            status.getStatus(), status.getState()));
+        this.status = status.getStatus();
+        this.state = status.getState();
+    }
+
+    /**
+     * Returns the status reported by the device.
+     *
+     * @return The status code. One of the constants of {@link DfuStatus}.
+     */
+    public int getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * Returns the state reported by the device.
+     *
+     * @return The state. One of the STATE_* constants of {@link DfuStatus}.
+     */
+    public int getState()
+    {
+        return this.state;
+    }
+}
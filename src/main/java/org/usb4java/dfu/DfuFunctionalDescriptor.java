@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.dfu;
+
+import java.nio.ByteBuffer;
+
+import org.usb4java.InterfaceDescriptor;
+
+/**
+ * The DFU functional descriptor. It is found in the extra descriptors of
+ * the DFU interface.
+ *
+ * @author usb4java Team
+ */
+public final class DfuFunctionalDescriptor
+{
+    /** The descriptor type of the DFU functional descriptor. */
+    public static final byte DESCRIPTOR_TYPE = 0x21;
+
+    /** The interface class of DFU interfaces (Application specific). */
+    public static final byte INTERFACE_CLASS = (byte) 0xFE;
+
+    /** The interface sub class of DFU interfaces. */
+    public static final byte INTERFACE_SUBCLASS = 0x01;
+
+    /** The interface protocol of DFU interfaces in run-time mode. */
+    public static final byte PROTOCOL_RUNTIME = 0x01;
+
+    /** The interface protocol of DFU interfaces in DFU mode. */
+    public static final byte PROTOCOL_DFU = 0x02;
+
+    /** Attribute bit: Device can download. */
+    public static final int ATTR_CAN_DNLOAD = 0x01;
+
+    /** Attribute bit: Device can upload. */
+    public static final int ATTR_CAN_UPLOAD = 0x02;
+
+    /** Attribute bit: Device can communicate after manifestation. */
+    public static final int ATTR_MANIFESTATION_TOLERANT = 0x04;
+
+    /** Attribute bit: Device detaches itself on DFU_DETACH. */
+    public static final int ATTR_WILL_DETACH = 0x08;
+
+    /** The size of a DFU 1.0 descriptor without bcdDFUVersion. */
+    private static final int MIN_LENGTH = 7;
+
+    /** The attributes. */
+    private final int attributes;
+
+    /** The detach timeout in milliseconds. */
+    private final int detachTimeout;
+
+    /** The maximum number of bytes per control write. */
+    private final int transferSize;
+
+    /** The DFU version in BCD. 0 if not specified. */
+    private final int dfuVersion;
+
+    /**
+     * Constructs a descriptor.
+     *
+     * @param attributes
+     *            The attributes.
+     * @param detachTimeout
+     *            The detach timeout in milliseconds.
+     * @param transferSize
+     *            The maximum number of bytes per control write.
+     * @param dfuVersion
+     *            The DFU version in BCD.
+     */
+    public DfuFunctionalDescriptor(final int attributes,
+        final int detachTimeout, final int transferSize, final int dfuVersion)
+    {
+        if (transferSize <= 0 || transferSize > 0xffff)
+        {
+            throw new IllegalArgumentException("Invalid transfer size: "
+                + transferSize);
+        }
+        this.attributes = attributes;
+        this.detachTimeout = detachTimeout;
+        this.transferSize = transferSize;
+        this.dfuVersion = dfuVersion;
+    }
+
+    /**
+     * Searches the DFU functional descriptor in the extra descriptors of an
+     * interface.
+     *
+     * @param descriptor
+     *            The interface descriptor.
+     * @return The DFU functional descriptor or null if not found or if it
+     *         is invalid (A transfer size of 0).
+     */
+    public static DfuFunctionalDescriptor find(
+        final InterfaceDescriptor descriptor)
+    {
+        return find(descriptor.extra());
+    }
+
+    /**
+     * Searches the DFU functional descriptor in a buffer of concatenated
+     * descriptors.
+     *
+     * @param extra
+     *            The descriptors. Read from position to limit.
+     * @return The DFU functional descriptor or null if not found or if it
+     *         is invalid (A transfer size of 0).
+     */
+    public static DfuFunctionalDescriptor find(final ByteBuffer extra)
+    {
+        if (extra == null)
+        {
+            return null;
+        }
+        int offset = extra.position();
+        while (offset + 2 <= extra.limit())
+        {
+            final int length = extra.get(offset) & 0xff;
+            if (length < 2 || offset + length > extra.limit())
+            {
+                return null;
+            }
+            if (extra.get(offset + 1) == DESCRIPTOR_TYPE
+                && length >= MIN_LENGTH)
+            {
+                final int transferSize = word(extra, offset + 5);
+                if (transferSize == 0)
+                {
+                    return null;
+                }
+                int version = 0;
+                if (length >= MIN_LENGTH + 2)
+                {
+                    version = word(extra, offset + 7);
+                }
+                return new DfuFunctionalDescriptor(
+                    extra.get(offset + 2) & 0xff, word(extra, offset + 3),
+                    transferSize, version);
+            }
+            offset += length;
+        }
+        return null;
+    }
+
+    /**
+     * Reads a 16 bit little endian value.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param offset
+     *            The offset of the value.
+     * @return The value.
+     */
+    private static int word(final ByteBuffer buffer, final int offset)
+    {
+        return (buffer.get(offset) & 0xff)
+            | ((buffer.get(offset + 1) & 0xff) << 8);
+    }
+
+    /**
+     * Returns the attributes (bmAttributes).
+     *
+     * @return The attributes.
+     */
+    public int getAttributes()
+    {
+        return this.attributes;
+    }
+
+    /**
+     * Checks if the device can download.
+     *
+     * @return True if download is supported.
+     */
+    public boolean canDownload()
+    {
+        return (this.attributes & ATTR_CAN_DNLOAD) != 0;
+    }
+
+    /**
+     * Checks if the device can upload.
+     *
+     * @return True if upload is supported.
+     */
+    public boolean canUpload()
+    {
+        return (this.attributes & ATTR_CAN_UPLOAD) != 0;
+    }
+
+    /**
+     * Checks if the device is able to communicate via USB after the
+     * manifestation phase.
+     *
+     * @return True if device is manifestation tolerant.
+     */
+    public boolean isManifestationTolerant()
+    {
+        return (this.attributes & ATTR_MANIFESTATION_TOLERANT) != 0;
+    }
+
+    /**
+     * Checks if the device performs a bus detach-attach sequence itself
+     * when it receives a DFU_DETACH request.
+     *
+     * @return True if device detaches itself.
+     */
+    public boolean willDetach()
+    {
+        return (this.attributes & ATTR_WILL_DETACH) != 0;
+    }
+
+    /**
+     * Returns the time the device waits for a USB reset after DFU_DETACH
+     * (wDetachTimeOut).
+     *
+     * @return The detach timeout in milliseconds.
+     */
+    public int getDetachTimeout()
+    {
+        return this.detachTimeout;
+    }
+
+    /**
+     * Returns the maximum number of bytes the device can accept per control
+     * write transaction (wTransferSize).
+     *
+     * @return The transfer size.
+     */
+    public int getTransferSize()
+    {
+        return this.transferSize;
+    }
+
+    /**
+     * Returns the DFU version (bcdDFUVersion).
+     *
+     * @return The DFU version in BCD. 0 for DFU 1.0 descriptors which don't
+     *         specify it.
+     */
+    public int getDfuVersion()
+    {
+        return this.dfuVersion;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "DFU functional descriptor (attributes 0x%02x, detach timeout "
+            + "%d ms, transfer size %d, version %x.%02x)", this.attributes,
+            this.detachTimeout, this.transferSize, this.dfuVersion >> 8,
+            this.dfuVersion & 0xff);
+    }
+}
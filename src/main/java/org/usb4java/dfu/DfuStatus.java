@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.dfu;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The result of a DFU_GETSTATUS request.
+ *
+ * @author usb4java Team
+ */
+public final class DfuStatus
+{
+    /** Device is running its normal application. */
+    public static final int STATE_APP_IDLE = 0;
+
+    /** Device received DFU_DETACH and waits for a USB reset. */
+    public static final int STATE_APP_DETACH = 1;
+
+    /** Device is in DFU mode, waiting for requests. */
+    public static final int STATE_DFU_IDLE = 2;
+
+    /** Device received a block and waits for DFU_GETSTATUS. */
+    public static final int STATE_DFU_DNLOAD_SYNC = 3;
+
+    /** Device is programming a block. */
+    public static final int STATE_DFU_DNBUSY = 4;
+
+    /** Device is waiting for the next block. */
+    public static final int STATE_DFU_DNLOAD_IDLE = 5;
+
+    /** Device received the final block and waits for DFU_GETSTATUS. */
+    public static final int STATE_DFU_MANIFEST_SYNC = 6;
+
+    /** Device is in the manifestation phase. */
+    public static final int STATE_DFU_MANIFEST = 7;
+
+    /** Device has been programmed and waits for a USB reset. */
+    public static final int STATE_DFU_MANIFEST_WAIT_RESET = 8;
+
+    /** Device is processing an upload. */
+    public static final int STATE_DFU_UPLOAD_IDLE = 9;
+
+    /** An error has occurred. Awaiting DFU_CLRSTATUS. */
+    public static final int STATE_DFU_ERROR = 10;
+
+    /** No error condition is present. */
+    public static final int OK = 0x00;
+
+    /** File is not targeted for use by this device. */
+    public static final int ERR_TARGET = 0x01;
+
+    /** File is for this device but fails a verification test. */
+    public static final int ERR_FILE = 0x02;
+
+    /** Device is unable to write memory. */
+    public static final int ERR_WRITE = 0x03;
+
+    /** Memory erase function failed. */
+    public static final int ERR_ERASE = 0x04;
+
+    /** Memory erase check failed. */
+    public static final int ERR_CHECK_ERASED = 0x05;
+
+    /** Program memory function failed. */
+    public static final int ERR_PROG = 0x06;
+
+    /** Programmed memory failed verification. */
+    public static final int ERR_VERIFY = 0x07;
+
+    /** Cannot program memory due to received address out of range. */
+    public static final int ERR_ADDRESS = 0x08;
+
+    /** Received DFU_DNLOAD with wLength 0, but data is incomplete. */
+    public static final int ERR_NOTDONE = 0x09;
+
+    /** Device firmware is corrupt. */
+    public static final int ERR_FIRMWARE = 0x0A;
+
+    /** iString indicates a vendor-specific error. */
+    public static final int ERR_VENDOR = 0x0B;
+
+    /** Device detected unexpected USB reset signaling. */
+    public static final int ERR_USBR = 0x0C;
+
+    /** Device detected unexpected power on reset. */
+    public static final int ERR_POR = 0x0D;
+
+    /** Something went wrong, but the device does not know what. */
+    public static final int ERR_UNKNOWN = 0x0E;
+
+    /** Device stalled an unexpected request. */
+    public static final int ERR_STALLEDPKT = 0x0F;
+
+    /** The size of the status response. */
+    public static final int SIZE = 6;
+
+    /** The status code. */
+    private final int status;
+
+    /** The poll timeout in milliseconds. */
+    private final int pollTimeout;
+
+    /** The state. */
+    private final int state;
+
+    /** The index of the status description string. */
+    private final int iString;
+
+    /**
+     * Constructs a status from the response of a DFU_GETSTATUS request.
+     *
+     * @param buffer
+     *            The response. Read from position 0.
+     */
+    public DfuStatus(final ByteBuffer buffer)
+    {
+        if (buffer.limit() < SIZE)
+        {
+            throw new IllegalArgumentException("Status response too short: "
+                + buffer.limit());
+        }
+        this.status = buffer.get(0) & 0xff;
+        this.pollTimeout = (buffer.get(1) & 0xff)
+            | ((buffer.get(2) & 0xff) << 8) | ((buffer.get(3) & 0xff) << 16);
+        this.state = buffer.get(4) & 0xff;
+        this.iString = buffer.get(5) & 0xff;
+    }
+
+    /**
+     * Returns the status code.
+     *
+     * @return The status code. One of {@link #OK} or the ERR_* constants.
+     */
+    public int getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * Returns the minimum time the host should wait before sending the next
+     * DFU_GETSTATUS request (bwPollTimeout).
+     *
+     * @return The poll timeout in milliseconds.
+     */
+    public int getPollTimeout()
+    {
+        return this.pollTimeout;
+    }
+
+    /**
+     * Returns the state the device will be in immediately following the
+     * transmission of this response.
+     *
+     * @return The state. One of the STATE_* constants.
+     */
+    public int getState()
+    {
+        return this.state;
+    }
+
+    /**
+     * Returns the index of the status description string.
+     *
+     * @return The string index.
+     */
+    public int getIString()
+    {
+        return this.iString;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("DFU status %d, state %d, poll timeout %d ms",
+            this.status, this.state, this.pollTimeout);
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB Device Firmware Upgrade (DFU 1.1) class support.
+ */
+package org.usb4java.dfu;
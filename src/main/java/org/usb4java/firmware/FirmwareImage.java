@@ -0,0 +1,473 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.firmware;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A firmware image consisting of segments of contiguous data at specific
+ * addresses.
+ *
+ * Images are read from Intel HEX files or from raw binary data. The data
+ * records of a HEX file are merged into as few segments as possible, so
+ * adjacent records end up in a single segment which can be written with
+ * large transfers.
+ *
+ * @author usb4java Team
+ */
+public final class FirmwareImage
+{
+    /** Intel HEX data record. */
+    private static final int RECORD_DATA = 0x00;
+
+    /** Intel HEX end of file record. */
+    private static final int RECORD_EOF = 0x01;
+
+    /** Intel HEX extended segment address record. */
+    private static final int RECORD_EXTENDED_SEGMENT = 0x02;
+
+    /** Intel HEX start segment address record. */
+    private static final int RECORD_START_SEGMENT = 0x03;
+
+    /** Intel HEX extended linear address record. */
+    private static final int RECORD_EXTENDED_LINEAR = 0x04;
+
+    /** Intel HEX start linear address record. */
+    private static final int RECORD_START_LINEAR = 0x05;
+
+    /**
+     * A segment of contiguous data.
+     */
+    public static final class Segment
+    {
+        /** The start address. */
+        private final long address;
+
+        /** The data. */
+        private final byte[] data;
+
+        /**
+         * Constructor.
+         *
+         * @param address
+         *            The start address.
+         * @param data
+         *            The data.
+         */
+        Segment(final long address, final byte[] data)
+        {
+            this.address = address;
+            this.data = data;
+        }
+
+        /**
+         * Returns the start address.
+         *
+         * @return The start address.
+         */
+        public long getAddress()
+        {
+            return this.address;
+        }
+
+        /**
+         * Returns the number of bytes in this segment.
+         *
+         * @return The segment length.
+         */
+        public int getLength()
+        {
+            return this.data.length;
+        }
+
+        /**
+         * Returns the data of this segment.
+         *
+         * @return The data as read-only buffer.
+         */
+        public ByteBuffer getData()
+        {
+            return ByteBuffer.wrap(this.data).asReadOnlyBuffer();
+        }
+
+        /**
+         * Returns a single byte of this segment.
+         *
+         * @param offset
+         *            The offset within the segment.
+         * @return The byte.
+         */
+        public byte get(final int offset)
+        {
+            return this.data[offset];
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("segment 0x%08x-0x%08x", this.address,
+                this.address + this.data.length - 1);
+        }
+    }
+
+    /** The segments in address order. */
+    private final List<Segment> segments;
+
+    /** The start address. -1 if not specified. */
+    private final long startAddress;
+
+    /**
+     * Constructor.
+     *
+     * @param segments
+     *            The segments in address order.
+     * @param startAddress
+     *            The start address. -1 if not specified.
+     */
+    private FirmwareImage(final List<Segment> segments,
+        final long startAddress)
+    {
+        this.segments = Collections.unmodifiableList(segments);
+        this.startAddress = startAddress;
+    }
+
+    /**
+     * Creates an image from binary data.
+     *
+     * @param data
+     *            The binary data. Copied.
+     * @param address
+     *            The address of the first byte.
+     * @return The image.
+     */
+    public static FirmwareImage fromBinary(final byte[] data,
+        final long address)
+    {
+        if (address < 0)
+        {
+            throw new IllegalArgumentException("address must not be negative");
+        }
+        final List<Segment> segments = new ArrayList<Segment>(1);
+        if (data.length > 0)
+        {
+            segments.add(new Segment(address, data.clone()));
+        }
+        return new FirmwareImage(segments, -1);
+    }
+
+    /**
+     * Reads binary data from a stream.
+     *
+     * @param stream
+     *            The stream to read. Not closed.
+     * @param address
+     *            The address of the first byte.
+     * @return The image.
+     * @throws IOException
+     *             When reading fails.
+     */
+    public static FirmwareImage readBinary(final InputStream stream,
+        final long address) throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read = stream.read(buffer);
+        while (read >= 0)
+        {
+            out.write(buffer, 0, read);
+            read = stream.read(buffer);
+        }
+        return fromBinary(out.toByteArray(), address);
+    }
+
+    /**
+     * Reads an image from a file. Files with the extension ".hex" or ".ihx"
+     * are read as Intel HEX, all others as binary data starting at address
+     * 0.
+     *
+     * @param file
+     *            The file to read.
+     * @return The image.
+     * @throws IOException
+     *             When reading fails or the file is not a valid HEX file.
+     */
+    public static FirmwareImage read(final File file) throws IOException
+    {
+        final String name = file.getName().toLowerCase();
+        final InputStream stream = new FileInputStream(file);
+        try
+        {
+            if (name.endsWith(".hex") || name.endsWith(".ihx"))
+            {
+                return readHex(stream);
+            }
+            return readBinary(stream, 0);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Reads an Intel HEX image from a stream.
+     *
+     * @param stream
+     *            The stream to read. Not closed.
+     * @return The image.
+     * @throws IOException
+     *             When reading fails or the stream does not contain a valid
+     *             HEX file.
+     */
+    public static FirmwareImage readHex(final InputStream stream)
+        throws IOException
+    {
+        final BufferedReader reader = new BufferedReader(
+            new InputStreamReader(stream, "US-ASCII"));
+        final TreeMap<Long, byte[]> records = new TreeMap<Long, byte[]>();
+        long base = 0;
+        long start = -1;
+        int lineNumber = 0;
+        String line = reader.readLine();
+        while (line != null)
+        {
+            lineNumber++;
+            line = line.trim();
+            if (line.length() == 0)
+            {
+                line = reader.readLine();
+                continue;
+            }
+            final byte[] record = parseRecord(line, lineNumber);
+            final int length = record[0] & 0xff;
+            final int offset = ((record[1] & 0xff) << 8) | (record[2] & 0xff);
+            final int type = record[3] & 0xff;
+            switch (type)
+            {
+                case RECORD_DATA:
+                    final byte[] data = new byte[length];
+                    System.arraycopy(record, 4, data, 0, length);
+                    if (records.put(Long.valueOf(base + offset), data)
+                        != null)
+                    {
+                        throw new IOException(String.format(
+                            "Duplicate address 0x%08x in line %d",
+                            base + offset, lineNumber));
+                    }
+                    break;
+
+                case RECORD_EOF:
+                    return new FirmwareImage(merge(records), start);
+
+                case RECORD_EXTENDED_SEGMENT:
+                    base = readWord(record, length, lineNumber) << 4;
+                    break;
+
+                case RECORD_EXTENDED_LINEAR:
+                    base = readWord(record, length, lineNumber) << 16;
+                    break;
+
+                case RECORD_START_SEGMENT:
+                case RECORD_START_LINEAR:
+                    if (length != 4)
+                    {
+                        throw new IOException("Invalid start address in line "
+                            + lineNumber);
+                    }
+                    final long value = ((record[4] & 0xffL) << 24)
+                        | ((record[5] & 0xff) << 16) | ((record[6] & 0xff) << 8)
+                        | (record[7] & 0xff);
+                    if (type == RECORD_START_LINEAR)
+                    {
+                        start = value;
+                    }
+                    else
+                    {
+                        start = ((value >>> 16) << 4) + (value & 0xffff);
+                    }
+                    break;
+
+                default:
+                    throw new IOException(String.format(
+                        "Unknown record type %02x in line %d", type,
+                        lineNumber));
+            }
+            line = reader.readLine();
+        }
+        throw new IOException("Missing end of file record");
+    }
+
+    /**
+     * Parses a single HEX record line into its bytes and checks the
+     * checksum.
+     *
+     * @param line
+     *            The line to parse.
+     * @param lineNumber
+     *            The line number for error messages.
+     * @return The bytes of the record without the checksum.
+     * @throws IOException
+     *             When the record is invalid.
+     */
+    private static byte[] parseRecord(final String line, final int lineNumber)
+        throws IOException
+    {
+        if (line.charAt(0) != ':' || line.length() < 11
+            || (line.length() & 1) == 0)
+        {
+            throw new IOException("Invalid record in line " + lineNumber);
+        }
+        final int count = (line.length() - 1) / 2;
+        final byte[] bytes = new byte[count];
+        int sum = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final int high = Character.digit(line.charAt(1 + i * 2), 16);
+            final int low = Character.digit(line.charAt(2 + i * 2), 16);
+            if (high < 0 || low < 0)
+            {
+                throw new IOException("Invalid hex digit in line "
+                    + lineNumber);
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+            sum += bytes[i];
+        }
+        if ((bytes[0] & 0xff) != count - 5)
+        {
+            throw new IOException("Invalid record length in line "
+                + lineNumber);
+        }
+        if ((sum & 0xff) != 0)
+        {
+            throw new IOException("Checksum error in line " + lineNumber);
+        }
+        final byte[] record = new byte[count - 1];
+        System.arraycopy(bytes, 0, record, 0, record.length);
+        return record;
+    }
+
+    /**
+     * Reads the 16 bit big endian value of an address record.
+     *
+     * @param record
+     *            The record.
+     * @param length
+     *            The data length of the record.
+     * @param lineNumber
+     *            The line number for error messages.
+     * @return The value.
+     * @throws IOException
+     *             When the record has not exactly two data bytes.
+     */
+    private static long readWord(final byte[] record, final int length,
+        final int lineNumber) throws IOException
+    {
+        if (length != 2)
+        {
+            throw new IOException("Invalid address record in line "
+                + lineNumber);
+        }
+        return ((record[4] & 0xff) << 8) | (record[5] & 0xff);
+    }
+
+    /**
+     * Merges adjacent records into segments.
+     *
+     * @param records
+     *            The records by address.
+     * @return The segments.
+     * @throws IOException
+     *             When records overlap.
+     */
+    private static List<Segment> merge(final TreeMap<Long, byte[]> records)
+        throws IOException
+    {
+        final List<Segment> segments = new ArrayList<Segment>();
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        long segmentStart = -1;
+        long end = -1;
+        for (final Map.Entry<Long, byte[]> entry : records.entrySet())
+        {
+            final long address = entry.getKey().longValue();
+            final byte[] bytes = entry.getValue();
+            if (address < end)
+            {
+                throw new IOException(String.format(
+                    "Overlapping records at address 0x%08x", address));
+            }
+            if (address != end && data.size() > 0)
+            {
+                segments.add(new Segment(segmentStart, data.toByteArray()));
+                data.reset();
+            }
+            if (data.size() == 0)
+            {
+                segmentStart = address;
+            }
+            data.write(bytes, 0, bytes.length);
+            end = address + bytes.length;
+        }
+        if (data.size() > 0)
+        {
+            segments.add(new Segment(segmentStart, data.toByteArray()));
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the segments in address order.
+     *
+     * @return The segments.
+     */
+    public List<Segment> getSegments()
+    {
+        return this.segments;
+    }
+
+    /**
+     * Returns the total number of data bytes.
+     *
+     * @return The image size.
+     */
+    public long getSize()
+    {
+        long size = 0;
+        for (final Segment segment : this.segments)
+        {
+            size += segment.getLength();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the start address specified by the HEX file.
+     *
+     * @return The start address or -1 if not specified.
+     */
+    public long getStartAddress()
+    {
+        return this.startAddress;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("firmware image (%d bytes in %d segments)",
+            this.getSize(), this.segments.size());
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.firmware;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.usb4java.ControlCallback;
+import org.usb4java.ControlChannel;
+import org.usb4java.GatheringBulkWriter;
+import org.usb4java.IoBackend;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+
+/**
+ * Downloads firmware images with pipelined transfers.
+ *
+ * By default every segment of the image is written in blocks with vendor
+ * specific control requests which carry the address of the block in the
+ * value (low 16 bits) and index (high 16 bits) fields of the setup packet,
+ * like the Cypress EZ-USB (FX2/FX3) boot loaders do with
+ * {@link #FX2_FIRMWARE_LOAD}. Several blocks are kept in flight through a
+ * {@link ControlChannel}, so the device never waits for the host between
+ * blocks.
+ *
+ * Alternatively {@link #setBulkWrite(byte, int)} writes the segments to a
+ * bulk endpoint instead. Each segment is then sent as one bulk message,
+ * split into back to back requests of the block size. If configured, a
+ * control request announcing address and length of the segment precedes
+ * each segment.
+ *
+ * Verification reads the image back with device-to-host vendor control
+ * requests using the same address convention and compares it with the
+ * image.
+ *
+ * Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class FirmwareLoader
+{
+    /** The Cypress EZ-USB firmware load request. */
+    public static final byte FX2_FIRMWARE_LOAD = (byte) 0xA0;
+
+    /** The default number of requests in flight. */
+    public static final int DEFAULT_DEPTH = 8;
+
+    /** The default block size. */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    /** The vendor OUT request type. */
+    private static final byte VENDOR_OUT = (byte) (LibUsb.ENDPOINT_OUT
+        | LibUsb.REQUEST_TYPE_VENDOR | LibUsb.RECIPIENT_DEVICE);
+
+    /** The vendor IN request type. */
+    private static final byte VENDOR_IN = (byte) (LibUsb.ENDPOINT_IN
+        | LibUsb.REQUEST_TYPE_VENDOR | LibUsb.RECIPIENT_DEVICE);
+
+    /**
+     * A block which is read back for verification.
+     */
+    private static final class Block
+    {
+        /** The segment of the block. */
+        final FirmwareImage.Segment segment;
+
+        /** The offset of the block within the segment. */
+        final int offset;
+
+        /**
+         * Constructor.
+         *
+         * @param segment
+         *            The segment of the block.
+         * @param offset
+         *            The offset of the block within the segment.
+         */
+        Block(final FirmwareImage.Segment segment, final int offset)
+        {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** The control channel. */
+    private final ControlChannel channel;
+
+    /** The block size. */
+    private final int blockSize;
+
+    /** The timeout of a single request in milliseconds. */
+    private final long timeout;
+
+    /** The request used for control writes. */
+    private byte writeRequest = FX2_FIRMWARE_LOAD;
+
+    /** The request used for verification. 0 to not verify. */
+    private byte verifyRequest = FX2_FIRMWARE_LOAD;
+
+    /** The bulk writer. Null if control writes are used. */
+    private GatheringBulkWriter bulkWriter;
+
+    /** The request announcing bulk segments. 0 for none. */
+    private byte announceRequest;
+
+    /** The address of the first mismatch. -1 if none. */
+    volatile long mismatch = -1;
+
+    /** The callback comparing read back data with the image. */
+    private final ControlCallback verifier = new ControlCallback()
+    {
+        @Override
+        public void processControl(final int result, final ByteBuffer data,
+            final Object userData)
+        {
+            FirmwareLoader.this.compare((Block) userData, result, data);
+        }
+    };
+
+    /** The number of bytes written by the last load. */
+    private long writtenBytes;
+
+    /** The time spent writing in nanoseconds. */
+    private long writeTime;
+
+    /** The number of bytes verified by the last load. */
+    private long verifiedBytes;
+
+    /** The time spent verifying in nanoseconds. */
+    private long verifyTime;
+
+    /**
+     * Constructs a new firmware loader with default depth and block size
+     * and no timeout.
+     *
+     * @param backend
+     *            The backend of the device.
+     */
+    public FirmwareLoader(final IoBackend backend)
+    {
+        this(backend, DEFAULT_DEPTH, DEFAULT_BLOCK_SIZE, 0);
+    }
+
+    /**
+     * Constructs a new firmware loader.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param depth
+     *            The maximum number of control requests in flight.
+     * @param blockSize
+     *            The number of bytes written or read with a single request.
+     * @param timeout
+     *            The timeout of a single request in milliseconds. 0 for no
+     *            timeout.
+     */
+    public FirmwareLoader(final IoBackend backend, final int depth,
+        final int blockSize, final long timeout)
+    {
+        if (blockSize <= 0 || blockSize > 0xffff)
+        {
+            throw new IllegalArgumentException("Invalid block size: "
+                + blockSize);
+        }
+        this.backend = backend;
+        this.channel = new ControlChannel(backend, depth, blockSize);
+        this.blockSize = blockSize;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets the vendor request used to write blocks with control transfers.
+     * Switches back from bulk writes.
+     *
+     * @param request
+     *            The vendor request.
+     */
+    public void setControlWrite(final byte request)
+    {
+        this.writeRequest = request;
+        this.bulkWriter = null;
+    }
+
+    /**
+     * Writes the segments to a bulk endpoint instead of using control
+     * transfers.
+     *
+     * @param endpoint
+     *            The bulk OUT endpoint.
+     * @param maxPacketSize
+     *            The maximum packet size of the endpoint. The block size is
+     *            rounded down to a multiple of it.
+     */
+    public void setBulkWrite(final byte endpoint, final int maxPacketSize)
+    {
+        this.bulkWriter = new GatheringBulkWriter(this.backend, endpoint,
+            maxPacketSize, Math.max(this.blockSize, maxPacketSize),
+            this.timeout);
+    }
+
+    /**
+     * Sets the vendor request announcing a bulk segment. The request carries
+     * the segment address in the value and index fields and the segment
+     * length as 32 bit little endian data.
+     *
+     * @param request
+     *            The vendor request. 0 to send no announcement.
+     */
+    public void setAnnounceRequest(final byte request)
+    {
+        this.announceRequest = request;
+    }
+
+    /**
+     * Sets the vendor request used to read back blocks for verification.
+     *
+     * @param request
+     *            The vendor request. 0 to skip verification.
+     */
+    public void setVerifyRequest(final byte request)
+    {
+        this.verifyRequest = request;
+    }
+
+    /**
+     * Writes an image and verifies it if a verify request is set.
+     *
+     * @param image
+     *            The image to load.
+     * @throws IOException
+     *             When verification failed.
+     * @throws LibUsbException
+     *             When a transfer failed.
+     */
+    public void load(final FirmwareImage image) throws IOException
+    {
+        this.write(image);
+        if (this.verifyRequest != 0)
+        {
+            final long address = this.verify(image);
+            if (address >= 0)
+            {
+                throw new IOException(String.format(
+                    "Verification failed at address 0x%08x", address));
+            }
+        }
+    }
+
+    /**
+     * Writes an image.
+     *
+     * @param image
+     *            The image to write.
+     * @throws LibUsbException
+     *             When a transfer failed.
+     */
+    public void write(final FirmwareImage image)
+    {
+        final long start = System.nanoTime();
+        this.writtenBytes = 0;
+        final ByteBuffer length = ByteBuffer.allocateDirect(4);
+        for (final FirmwareImage.Segment segment : image.getSegments())
+        {
+            if (this.bulkWriter == null)
+            {
+                this.writeControl(segment);
+                continue;
+            }
+            if (this.announceRequest != 0)
+            {
+                final int size = segment.getLength();
+                length.put(0, (byte) size).put(1, (byte) (size >> 8))
+                    .put(2, (byte) (size >> 16)).put(3, (byte) (size >> 24));
+                this.queue(this.channel.write(VENDOR_OUT, this.announceRequest,
+                    (short) segment.getAddress(),
+                    (short) (segment.getAddress() >>> 16), length,
+                    this.timeout, null, null));
+                this.flush("Unable to announce segment");
+            }
+            this.bulkWriter.write(new ByteBuffer[] { segment.getData() },
+                false);
+            this.writtenBytes += segment.getLength();
+        }
+        this.flush("Unable to write firmware");
+        this.writeTime = System.nanoTime() - start;
+    }
+
+    /**
+     * Writes a segment with pipelined control requests.
+     *
+     * @param segment
+     *            The segment to write.
+     */
+    private void writeControl(final FirmwareImage.Segment segment)
+    {
+        final ByteBuffer data = segment.getData();
+        for (int offset = 0; offset < segment.getLength();
+            offset += this.blockSize)
+        {
+            final int size = Math.min(this.blockSize,
+                segment.getLength() - offset);
+            final long address = segment.getAddress() + offset;
+            data.limit(offset + size).position(offset);
+            this.queue(this.channel.write(VENDOR_OUT, this.writeRequest,
+                (short) address, (short) (address >>> 16), data,
+                this.timeout, null, null));
+            this.writtenBytes += size;
+        }
+    }
+
+    /**
+     * Reads back an image and compares it.
+     *
+     * @param image
+     *            The image to compare with.
+     * @return The address of the first mismatch or -1 if the device content
+     *         matches the image.
+     * @throws LibUsbException
+     *             When a transfer failed.
+     */
+    public long verify(final FirmwareImage image)
+    {
+        if (this.verifyRequest == 0)
+        {
+            throw new IllegalStateException("No verify request set");
+        }
+        final long start = System.nanoTime();
+        this.verifiedBytes = 0;
+        this.mismatch = -1;
+        for (final FirmwareImage.Segment segment : image.getSegments())
+        {
+            for (int offset = 0; offset < segment.getLength();
+                offset += this.blockSize)
+            {
+                final int size = Math.min(this.blockSize,
+                    segment.getLength() - offset);
+                final long address = segment.getAddress() + offset;
+                this.queue(this.channel.read(VENDOR_IN, this.verifyRequest,
+                    (short) address, (short) (address >>> 16), size,
+                    this.timeout, this.verifier, new Block(segment, offset)));
+                this.verifiedBytes += size;
+            }
+        }
+        this.flush("Unable to read back firmware");
+        this.verifyTime = System.nanoTime() - start;
+        return this.mismatch;
+    }
+
+    /**
+     * Compares a read back block with the image.
+     *
+     * @param block
+     *            The block.
+     * @param result
+     *            The number of read bytes or an error code.
+     * @param data
+     *            The read data.
+     */
+    void compare(final Block block, final int result, final ByteBuffer data)
+    {
+        if (result < 0 || this.mismatch >= 0)
+        {
+            return;
+        }
+        final int size = Math.min(this.blockSize,
+            block.segment.getLength() - block.offset);
+        for (int i = 0; i < size; i++)
+        {
+            if (i >= result
+                || data.get(i) != block.segment.get(block.offset + i))
+            {
+                this.mismatch = block.segment.getAddress() + block.offset + i;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks the result of queuing a request.
+     *
+     * @param result
+     *            The result.
+     * @throws LibUsbException
+     *             When the request could not be queued.
+     */
+    private void queue(final int result)
+    {
+        if (result != LibUsb.SUCCESS)
+        {
+            this.channel.flush();
+            throw new LibUsbException("Unable to queue request", result);
+        }
+    }
+
+    /**
+     * Waits for all queued requests.
+     *
+     * @param message
+     *            The error message.
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    private void flush(final String message)
+    {
+        final int result = this.channel.flush();
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException(message, result);
+        }
+    }
+
+    /**
+     * Returns the number of bytes written by the last write.
+     *
+     * @return The number of written bytes.
+     */
+    public long getWrittenBytes()
+    {
+        return this.writtenBytes;
+    }
+
+    /**
+     * Returns the write throughput of the last write.
+     *
+     * @return The written bytes per second.
+     */
+    public double getWriteRate()
+    {
+        return rate(this.writtenBytes, this.writeTime);
+    }
+
+    /**
+     * Returns the number of bytes read back by the last verification.
+     *
+     * @return The number of verified bytes.
+     */
+    public long getVerifiedBytes()
+    {
+        return this.verifiedBytes;
+    }
+
+    /**
+     * Returns the read back throughput of the last verification.
+     *
+     * @return The verified bytes per second.
+     */
+    public double getVerifyRate()
+    {
+        return rate(this.verifiedBytes, this.verifyTime);
+    }
+
+    /**
+     * Calculates a rate in bytes per second.
+     *
+     * @param bytes
+     *            The number of bytes.
+     * @param nanos
+     *            The time in nanoseconds.
+     * @return The bytes per second.
+     */
+    private static double rate(final long bytes, final long nanos)
+    {
+        return nanos <= 0 ? 0 : bytes * 1000000000.0 / nanos;
+    }
+
+    /**
+     * Closes the loader and its control channel.
+     */
+    public void close()
+    {
+        this.channel.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java firmware loader on %s", this.backend);
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * Firmware images and pipelined firmware download.
+ */
+package org.usb4java.firmware;
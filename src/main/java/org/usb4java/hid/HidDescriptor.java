@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import java.nio.ByteBuffer;
+
+import org.usb4java.InterfaceDescriptor;
+
+/**
+ * The HID class descriptor. It is found in the extra descriptors of a HID
+ * interface and announces the length of the report descriptor.
+ *
+ * @author usb4java Team
+ */
+public final class HidDescriptor
+{
+    /** The descriptor type of the HID descriptor. */
+    public static final byte DESCRIPTOR_TYPE = 0x21;
+
+    /** The descriptor type of the report descriptor. */
+    public static final byte REPORT_DESCRIPTOR_TYPE = 0x22;
+
+    /** The interface class of HID interfaces. */
+    public static final byte INTERFACE_CLASS = 0x03;
+
+    /** The minimum size of a HID descriptor with one class descriptor. */
+    private static final int MIN_LENGTH = 9;
+
+    /** The HID version in BCD. */
+    private final int hidVersion;
+
+    /** The country code. */
+    private final int countryCode;
+
+    /** The length of the report descriptor. */
+    private final int reportDescriptorLength;
+
+    /**
+     * Constructs a descriptor.
+     *
+     * @param hidVersion
+     *            The HID version in BCD.
+     * @param countryCode
+     *            The country code.
+     * @param reportDescriptorLength
+     *            The length of the report descriptor.
+     */
+    public HidDescriptor(final int hidVersion, final int countryCode,
+        final int reportDescriptorLength)
+    {
+        this.hidVersion = hidVersion;
+        this.countryCode = countryCode;
+        this.reportDescriptorLength = reportDescriptorLength;
+    }
+
+    /**
+     * Searches the HID descriptor in the extra descriptors of an interface.
+     *
+     * @param descriptor
+     *            The interface descriptor.
+     * @return The HID descriptor or null if not found.
+     */
+    public static HidDescriptor find(final InterfaceDescriptor descriptor)
+    {
+        return find(descriptor.extra());
+    }
+
+    /**
+     * Searches the HID descriptor in a buffer of concatenated descriptors.
+     *
+     * @param extra
+     *            The descriptors. Read from position to limit.
+     * @return The HID descriptor or null if not found.
+     */
+    public static HidDescriptor find(final ByteBuffer extra)
+    {
+        if (extra == null)
+        {
+            return null;
+        }
+        int offset = extra.position();
+        while (offset + 2 <= extra.limit())
+        {
+            final int length = extra.get(offset) & 0xff;
+            if (length < 2 || offset + length > extra.limit())
+            {
+                return null;
+            }
+            if (extra.get(offset + 1) == DESCRIPTOR_TYPE
+                && length >= MIN_LENGTH)
+            {
+                // Search the report descriptor in the class descriptor list
+                final int count = extra.get(offset + 5) & 0xff;
+                for (int i = 0; i < count && 9 + i * 3 <= length; i++)
+                {
+                    final int entry = offset + 6 + i * 3;
+                    if (extra.get(entry) == REPORT_DESCRIPTOR_TYPE)
+                    {
+                        return new HidDescriptor(word(extra, offset + 2),
+                            extra.get(offset + 4) & 0xff,
+                            word(extra, entry + 1));
+                    }
+                }
+                return null;
+            }
+            offset += length;
+        }
+        return null;
+    }
+
+    /**
+     * Reads a 16 bit little endian value.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param offset
+     *            The offset of the value.
+     * @return The value.
+     */
+    private static int word(final ByteBuffer buffer, final int offset)
+    {
+        return (buffer.get(offset) & 0xff)
+            | ((buffer.get(offset + 1) & 0xff) << 8);
+    }
+
+    /**
+     * Returns the HID version (bcdHID).
+     *
+     * @return The HID version in BCD.
+     */
+    public int getHidVersion()
+    {
+        return this.hidVersion;
+    }
+
+    /**
+     * Returns the country code (bCountryCode).
+     *
+     * @return The country code.
+     */
+    public int getCountryCode()
+    {
+        return this.countryCode;
+    }
+
+    /**
+     * Returns the length of the report descriptor.
+     *
+     * @return The report descriptor length.
+     */
+    public int getReportDescriptorLength()
+    {
+        return this.reportDescriptorLength;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "HID descriptor (version %x.%02x, country %d, report descriptor "
+            + "length %d)", this.hidVersion >> 8, this.hidVersion & 0xff,
+            this.countryCode, this.reportDescriptorLength);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+/**
+ * A field of a HID report, created from one Input, Output or Feature main
+ * item of the report descriptor.
+ *
+ * @author usb4java Team
+ */
+public final class HidField
+{
+    /** Input report. */
+    public static final int TYPE_INPUT = 0;
+
+    /** Output report. */
+    public static final int TYPE_OUTPUT = 1;
+
+    /** Feature report. */
+    public static final int TYPE_FEATURE = 2;
+
+    /** Main item flag: Constant (padding) instead of data. */
+    public static final int FLAG_CONSTANT = 0x01;
+
+    /** Main item flag: Variable instead of array. */
+    public static final int FLAG_VARIABLE = 0x02;
+
+    /** Main item flag: Relative instead of absolute. */
+    public static final int FLAG_RELATIVE = 0x04;
+
+    /** The report type. */
+    private final int type;
+
+    /** The report ID. 0 if the device doesn't use report IDs. */
+    private final int reportId;
+
+    /** The bit offset of the first value in the report (after the ID). */
+    private final int bitOffset;
+
+    /** The size of a single value in bits. */
+    private final int size;
+
+    /** The number of values. */
+    private final int count;
+
+    /** The main item flags. */
+    private final int flags;
+
+    /** The usage page. */
+    private final int usagePage;
+
+    /** The usages. */
+    private final int[] usages;
+
+    /** The logical minimum. */
+    private final int logicalMinimum;
+
+    /** The logical maximum. */
+    private final int logicalMaximum;
+
+    /**
+     * Constructs a field.
+     *
+     * @param type
+     *            The report type.
+     * @param reportId
+     *            The report ID.
+     * @param bitOffset
+     *            The bit offset of the first value.
+     * @param size
+     *            The size of a single value in bits.
+     * @param count
+     *            The number of values.
+     * @param flags
+     *            The main item flags.
+     * @param usagePage
+     *            The usage page.
+     * @param usages
+     *            The usages. For variable fields the usage of each value, for
+     *            array fields the usages selectable by the values.
+     * @param logicalMinimum
+     *            The logical minimum.
+     * @param logicalMaximum
+     *            The logical maximum.
+     */
+    HidField(final int type, final int reportId, final int bitOffset,
+        final int size, final int count, final int flags,
+        final int usagePage, final int[] usages, final int logicalMinimum,
+        final int logicalMaximum)
+    {
+        this.type = type;
+        this.reportId = reportId;
+        this.bitOffset = bitOffset;
+        this.size = size;
+        this.count = count;
+        this.flags = flags;
+        this.usagePage = usagePage;
+        this.usages = usages;
+        this.logicalMinimum = logicalMinimum;
+        this.logicalMaximum = logicalMaximum;
+    }
+
+    /**
+     * Returns the report type.
+     *
+     * @return The report type. One of the TYPE_* constants.
+     */
+    public int getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Returns the report ID.
+     *
+     * @return The report ID. 0 if the device doesn't use report IDs.
+     */
+    public int getReportId()
+    {
+        return this.reportId;
+    }
+
+    /**
+     * Returns the bit offset of the first value in the report data
+     * following the report ID.
+     *
+     * @return The bit offset.
+     */
+    public int getBitOffset()
+    {
+        return this.bitOffset;
+    }
+
+    /**
+     * Returns the size of a single value.
+     *
+     * @return The size in bits.
+     */
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return The number of values.
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Returns the main item flags.
+     *
+     * @return The flags.
+     */
+    public int getFlags()
+    {
+        return this.flags;
+    }
+
+    /**
+     * Checks if this field contains one value per usage.
+     *
+     * @return True for variable fields, false for array fields.
+     */
+    public boolean isVariable()
+    {
+        return (this.flags & FLAG_VARIABLE) != 0;
+    }
+
+    /**
+     * Checks if the values of this field are signed.
+     *
+     * @return True if the logical minimum is negative.
+     */
+    public boolean isSigned()
+    {
+        return this.logicalMinimum < 0;
+    }
+
+    /**
+     * Returns the usage page.
+     *
+     * @return The usage page.
+     */
+    public int getUsagePage()
+    {
+        return this.usagePage;
+    }
+
+    /**
+     * Returns the usage of a value of a variable field.
+     *
+     * @param index
+     *            The index of the value.
+     * @return The usage. The last usage for values without their own usage.
+     *         0 if the field has no usages.
+     */
+    public int getUsage(final int index)
+    {
+        if (this.usages.length == 0)
+        {
+            return 0;
+        }
+        return this.usages[Math.min(index, this.usages.length - 1)];
+    }
+
+    /**
+     * Returns the number of usages.
+     *
+     * @return The number of usages.
+     */
+    public int getUsageCount()
+    {
+        return this.usages.length;
+    }
+
+    /**
+     * Returns the logical minimum.
+     *
+     * @return The logical minimum.
+     */
+    public int getLogicalMinimum()
+    {
+        return this.logicalMinimum;
+    }
+
+    /**
+     * Returns the logical maximum.
+     *
+     * @return The logical maximum.
+     */
+    public int getLogicalMaximum()
+    {
+        return this.logicalMaximum;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "HID field (type %d, report %d, offset %d, %d x %d bits, usage "
+            + "page 0x%04x, flags 0x%02x)", this.type, this.reportId,
+            this.bitOffset, this.count, this.size, this.usagePage,
+            this.flags);
+    }
+}
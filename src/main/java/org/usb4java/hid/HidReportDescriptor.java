@@ -0,0 +1,441 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.usb4java.BlockingIo;
+import org.usb4java.BufferUtils;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+
+/**
+ * A parsed HID report descriptor.
+ *
+ * The descriptor is parsed once into {@link HidField}s which are grouped
+ * into precompiled {@link HidReportLayout}s, one per report type and report
+ * ID.
+ *
+ * @author usb4java Team
+ */
+public final class HidReportDescriptor
+{
+    /** Item type: Main. */
+    private static final int TYPE_MAIN = 0;
+
+    /** Item type: Global. */
+    private static final int TYPE_GLOBAL = 1;
+
+    /** Item type: Local. */
+    private static final int TYPE_LOCAL = 2;
+
+    /** Main item tag: Input. */
+    private static final int MAIN_INPUT = 0x8;
+
+    /** Main item tag: Output. */
+    private static final int MAIN_OUTPUT = 0x9;
+
+    /** Main item tag: Feature. */
+    private static final int MAIN_FEATURE = 0xB;
+
+    /** Global item tag: Usage Page. */
+    private static final int GLOBAL_USAGE_PAGE = 0x0;
+
+    /** Global item tag: Logical Minimum. */
+    private static final int GLOBAL_LOGICAL_MINIMUM = 0x1;
+
+    /** Global item tag: Logical Maximum. */
+    private static final int GLOBAL_LOGICAL_MAXIMUM = 0x2;
+
+    /** Global item tag: Report Size. */
+    private static final int GLOBAL_REPORT_SIZE = 0x7;
+
+    /** Global item tag: Report ID. */
+    private static final int GLOBAL_REPORT_ID = 0x8;
+
+    /** Global item tag: Report Count. */
+    private static final int GLOBAL_REPORT_COUNT = 0x9;
+
+    /** Global item tag: Push. */
+    private static final int GLOBAL_PUSH = 0xA;
+
+    /** Global item tag: Pop. */
+    private static final int GLOBAL_POP = 0xB;
+
+    /** Local item tag: Usage. */
+    private static final int LOCAL_USAGE = 0x0;
+
+    /** Local item tag: Usage Minimum. */
+    private static final int LOCAL_USAGE_MINIMUM = 0x1;
+
+    /** Local item tag: Usage Maximum. */
+    private static final int LOCAL_USAGE_MAXIMUM = 0x2;
+
+    /** The highest usage ID within a usage page. */
+    private static final int MAX_USAGE = 0xffff;
+
+    /** The prefix of a long item. */
+    private static final int LONG_ITEM = 0xFE;
+
+    /** The maximum supported size of a value in bits. */
+    private static final int MAX_VALUE_SIZE = 32;
+
+    /**
+     * The maximum supported length of a report in bits. Reports are
+     * transferred with a 16 bit length.
+     */
+    private static final long MAX_REPORT_BITS = 8L * 0xffff;
+
+    /** The fields. */
+    private final List<HidField> fields;
+
+    /** The layouts of the input reports by report ID. */
+    private final HidReportLayout[] inputReports = new HidReportLayout[256];
+
+    /** All layouts. */
+    private final List<HidReportLayout> layouts;
+
+    /** Whether the device uses report IDs. */
+    private final boolean reportIds;
+
+    /**
+     * The global item state.
+     */
+    private static final class Globals implements Cloneable
+    {
+        /** The usage page. */
+        int usagePage;
+
+        /** The logical minimum. */
+        int logicalMinimum;
+
+        /** The logical maximum. */
+        int logicalMaximum;
+
+        /** The logical maximum interpreted as unsigned value. */
+        int unsignedLogicalMaximum;
+
+        /** The report size. */
+        int reportSize;
+
+        /** The report ID. */
+        int reportId;
+
+        /** The report count. */
+        int reportCount;
+
+        @Override
+        protected Globals clone()
+        {
+            try
+            {
+                return (Globals) super.clone();
+            }
+            catch (final CloneNotSupportedException e)
+            {
+                throw new IllegalStateException(e.toString(), e);
+            }
+        }
+    }
+
+    /**
+     * Parses a report descriptor.
+     *
+     * @param descriptor
+     *            The report descriptor. Read from position to limit. The
+     *            position is not modified.
+     * @throws IllegalArgumentException
+     *             When the descriptor is malformed, contains values larger
+     *             than 32 bits or reports longer than 65535 bytes.
+     */
+    public HidReportDescriptor(final ByteBuffer descriptor)
+    {
+        final List<HidField> fields = new ArrayList<HidField>();
+        final Map<Long, List<HidField>> reports =
+            new LinkedHashMap<Long, List<HidField>>();
+        final Map<Long, Integer> bitLengths =
+            new LinkedHashMap<Long, Integer>();
+        final Deque<Globals> stack = new ArrayDeque<Globals>();
+        Globals globals = new Globals();
+        final List<Integer> usages = new ArrayList<Integer>();
+        int usageMinimum = -1;
+        boolean anyReportId = false;
+
+        int offset = descriptor.position();
+        final int end = descriptor.limit();
+        while (offset < end)
+        {
+            final int prefix = descriptor.get(offset) & 0xff;
+            if (prefix == LONG_ITEM)
+            {
+                if (offset + 1 >= end)
+                {
+                    throw new IllegalArgumentException("Truncated long item");
+                }
+                offset += 3 + (descriptor.get(offset + 1) & 0xff);
+                continue;
+            }
+            final int size = (prefix & 3) == 3 ? 4 : prefix & 3;
+            if (offset + 1 + size > end)
+            {
+                throw new IllegalArgumentException("Truncated item at offset "
+                    + (offset - descriptor.position()));
+            }
+            int data = 0;
+            for (int i = 0; i < size; i++)
+            {
+                data |= (descriptor.get(offset + 1 + i) & 0xff) << (i * 8);
+            }
+            final int signedData = size == 0 || size == 4 ? data
+                : (data << (32 - size * 8)) >> (32 - size * 8);
+            final int type = (prefix >> 2) & 3;
+            final int tag = prefix >> 4;
+            offset += 1 + size;
+
+            if (type == TYPE_GLOBAL)
+            {
+                switch (tag)
+                {
+                    case GLOBAL_USAGE_PAGE:
+                        globals.usagePage = data;
+                        break;
+                    case GLOBAL_LOGICAL_MINIMUM:
+                        globals.logicalMinimum = signedData;
+                        break;
+                    case GLOBAL_LOGICAL_MAXIMUM:
+                        globals.logicalMaximum = signedData;
+                        globals.unsignedLogicalMaximum = data;
+                        break;
+                    case GLOBAL_REPORT_SIZE:
+                        globals.reportSize = data;
+                        break;
+                    case GLOBAL_REPORT_ID:
+                        if (data <= 0 || data > 255)
+                        {
+                            throw new IllegalArgumentException(
+                                "Invalid report ID: " + data);
+                        }
+                        globals.reportId = data;
+                        anyReportId = true;
+                        break;
+                    case GLOBAL_REPORT_COUNT:
+                        globals.reportCount = data;
+                        break;
+                    case GLOBAL_PUSH:
+                        stack.push(globals.clone());
+                        break;
+                    case GLOBAL_POP:
+                        if (stack.isEmpty())
+                        {
+                            throw new IllegalArgumentException(
+                                "Pop without push");
+                        }
+                        globals = stack.pop();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            else if (type == TYPE_LOCAL)
+            {
+                switch (tag)
+                {
+                    case LOCAL_USAGE:
+                        usages.add(data);
+                        break;
+                    case LOCAL_USAGE_MINIMUM:
+                        usageMinimum = data;
+                        break;
+                    case LOCAL_USAGE_MAXIMUM:
+                        // Usages have 16 bits, so a longer range can only
+                        // come from a broken descriptor
+                        final long first = Math.max(usageMinimum, 0);
+                        final long last = Math.min(data & 0xffffffffL,
+                            first + MAX_USAGE);
+                        for (long usage = first; usage <= last; usage++)
+                        {
+                            usages.add((int) usage);
+                        }
+                        usageMinimum = -1;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            else if (type == TYPE_MAIN)
+            {
+                final int reportType;
+                if (tag == MAIN_INPUT)
+                {
+                    reportType = HidField.TYPE_INPUT;
+                }
+                else if (tag == MAIN_OUTPUT)
+                {
+                    reportType = HidField.TYPE_OUTPUT;
+                }
+                else if (tag == MAIN_FEATURE)
+                {
+                    reportType = HidField.TYPE_FEATURE;
+                }
+                else
+                {
+                    // Collections don't affect the layout
+                    usages.clear();
+                    continue;
+                }
+                final long key = ((long) reportType << 8) | globals.reportId;
+                final Integer bitLength = bitLengths.get(key);
+                final int bitOffset = bitLength == null ? 0 : bitLength;
+                final long length = bitOffset
+                    + (globals.reportSize & 0xffffffffL)
+                    * (globals.reportCount & 0xffffffffL);
+                if (length > MAX_REPORT_BITS)
+                {
+                    throw new IllegalArgumentException(
+                        "Report too long: " + length + " bits");
+                }
+                final int bits = (int) length - bitOffset;
+                bitLengths.put(key, (int) length);
+                List<HidField> report = reports.get(key);
+                if (report == null)
+                {
+                    report = new ArrayList<HidField>();
+                    reports.put(key, report);
+                }
+                if ((data & HidField.FLAG_CONSTANT) == 0 && bits > 0)
+                {
+                    if (globals.reportSize > MAX_VALUE_SIZE)
+                    {
+                        throw new IllegalArgumentException(
+                            "Unsupported report size: " + globals.reportSize);
+                    }
+                    final int[] fieldUsages = new int[usages.size()];
+                    for (int i = 0; i < fieldUsages.length; i++)
+                    {
+                        fieldUsages[i] = usages.get(i) & 0xffff;
+                    }
+                    final HidField field = new HidField(reportType,
+                        globals.reportId, bitOffset, globals.reportSize,
+                        globals.reportCount, data, globals.usagePage,
+                        fieldUsages, globals.logicalMinimum,
+                        globals.logicalMinimum < 0 ? globals.logicalMaximum
+                            : globals.unsignedLogicalMaximum);
+                    fields.add(field);
+                    report.add(field);
+                }
+                usages.clear();
+            }
+        }
+
+        this.fields = Collections.unmodifiableList(fields);
+        this.reportIds = anyReportId;
+        final List<HidReportLayout> layouts = new ArrayList<HidReportLayout>();
+        for (final Map.Entry<Long, List<HidField>> entry : reports.entrySet())
+        {
+            final long key = entry.getKey();
+            final HidReportLayout layout = new HidReportLayout(
+                (int) (key >> 8), (int) (key & 0xff), entry.getValue(),
+                bitLengths.get(key));
+            layouts.add(layout);
+            if (layout.getType() == HidField.TYPE_INPUT)
+            {
+                this.inputReports[layout.getReportId()] = layout;
+            }
+        }
+        this.layouts = Collections.unmodifiableList(layouts);
+    }
+
+    /**
+     * Reads and parses the report descriptor of a HID interface with a
+     * GET_DESCRIPTOR request.
+     *
+     * @param io
+     *            The blocking I/O of the device.
+     * @param interfaceNumber
+     *            The number of the HID interface.
+     * @param length
+     *            The length of the report descriptor. See
+     *            {@link HidDescriptor#getReportDescriptorLength()}.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
+     * @return The parsed report descriptor.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public static HidReportDescriptor read(final BlockingIo io,
+        final int interfaceNumber, final int length, final long timeout)
+    {
+        final ByteBuffer buffer = BufferUtils.allocateByteBuffer(length);
+        final int result = io.controlTransfer((byte) (LibUsb.ENDPOINT_IN
+            | LibUsb.REQUEST_TYPE_STANDARD | LibUsb.RECIPIENT_INTERFACE),
+            LibUsb.REQUEST_GET_DESCRIPTOR,
+            (short) (HidDescriptor.REPORT_DESCRIPTOR_TYPE << 8),
+            (short) interfaceNumber, buffer, timeout);
+        if (result < 0)
+        {
+            throw new LibUsbException("Unable to read report descriptor",
+                result);
+        }
+        buffer.limit(result);
+        return new HidReportDescriptor(buffer);
+    }
+
+    /**
+     * Returns all data fields.
+     *
+     * @return The fields.
+     */
+    public List<HidField> getFields()
+    {
+        return this.fields;
+    }
+
+    /**
+     * Returns the layouts of all reports.
+     *
+     * @return The report layouts.
+     */
+    public List<HidReportLayout> getLayouts()
+    {
+        return this.layouts;
+    }
+
+    /**
+     * Returns the layout of an input report.
+     *
+     * @param reportId
+     *            The report ID. 0 if the device doesn't use report IDs.
+     * @return The layout or null if there is no such input report.
+     */
+    public HidReportLayout getInputReport(final int reportId)
+    {
+        return this.inputReports[reportId & 0xff];
+    }
+
+    /**
+     * Checks if the reports are prefixed by a report ID.
+     *
+     * @return True if the device uses report IDs.
+     */
+    public boolean usesReportIds()
+    {
+        return this.reportIds;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("HID report descriptor (%d fields, %d reports)",
+            this.fields.size(), this.layouts.size());
+    }
+}
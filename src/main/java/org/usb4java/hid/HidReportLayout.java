@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The precompiled layout of one HID report.
+ *
+ * All values of all fields of the report are flattened into tables of bit
+ * offsets, bit sizes and signedness, so decoding a report is a single loop
+ * over these tables which writes into a caller supplied array and allocates
+ * nothing.
+ *
+ * @author usb4java Team
+ */
+public final class HidReportLayout
+{
+    /** The report type. */
+    private final int type;
+
+    /** The report ID. 0 if the device doesn't use report IDs. */
+    private final int reportId;
+
+    /** The fields of the report. */
+    private final List<HidField> fields;
+
+    /** The length of the report in bytes, including the report ID. */
+    private final int length;
+
+    /** The offset of the report data (1 when prefixed by a report ID). */
+    private final int dataOffset;
+
+    /** The bit offset of each value. */
+    private final int[] offsets;
+
+    /** The bit size of each value. */
+    private final int[] sizes;
+
+    /** The signedness of each value. */
+    private final boolean[] signed;
+
+    /** The usage of each value (usage page in the upper 16 bits). */
+    private final int[] usages;
+
+    /** The index of the first value of each field. */
+    private final int[] fieldStart;
+
+    /**
+     * Compiles the layout of a report.
+     *
+     * @param type
+     *            The report type.
+     * @param reportId
+     *            The report ID. 0 if the device doesn't use report IDs.
+     * @param fields
+     *            The fields of the report.
+     * @param bitLength
+     *            The length of the report data in bits.
+     */
+    HidReportLayout(final int type, final int reportId,
+        final List<HidField> fields, final int bitLength)
+    {
+        this.type = type;
+        this.reportId = reportId;
+        this.fields = Collections.unmodifiableList(fields);
+        this.dataOffset = reportId == 0 ? 0 : 1;
+        this.length = this.dataOffset + (bitLength + 7) / 8;
+        int count = 0;
+        this.fieldStart = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++)
+        {
+            this.fieldStart[i] = count;
+            count += fields.get(i).getCount();
+        }
+        this.offsets = new int[count];
+        this.sizes = new int[count];
+        this.signed = new boolean[count];
+        this.usages = new int[count];
+        int index = 0;
+        for (final HidField field : fields)
+        {
+            for (int i = 0; i < field.getCount(); i++)
+            {
+                this.offsets[index] = field.getBitOffset()
+                    + i * field.getSize();
+                this.sizes[index] = field.getSize();
+                this.signed[index] = field.isSigned();
+                if (field.isVariable())
+                {
+                    this.usages[index] = (field.getUsagePage() << 16)
+                        | field.getUsage(i);
+                }
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Extracts a value from a report.
+     *
+     * @param report
+     *            The report buffer.
+     * @param base
+     *            The absolute index of the first data byte in the buffer.
+     * @param bitOffset
+     *            The bit offset of the value.
+     * @param size
+     *            The size of the value in bits. 1 to 32.
+     * @param signed
+     *            Whether the value is a two's complement number.
+     * @return The value.
+     */
+    public static int extract(final ByteBuffer report, final int base,
+        final int bitOffset, final int size, final boolean signed)
+    {
+        final int first = base + (bitOffset >>> 3);
+        final int shift = bitOffset & 7;
+        final int bytes = (shift + size + 7) >>> 3;
+        long bits = 0;
+        for (int i = 0; i < bytes; i++)
+        {
+            bits |= (report.get(first + i) & 0xffL) << (i << 3);
+        }
+        long value = (bits >>> shift) & ((1L << size) - 1);
+        if (signed && (value & (1L << (size - 1))) != 0)
+        {
+            value -= 1L << size;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Decodes a report.
+     *
+     * @param report
+     *            The report. Read from position to limit, including the
+     *            report ID if the device uses report IDs. The position is
+     *            not modified.
+     * @param values
+     *            The array receiving the values. Must have at least
+     *            {@link #getValueCount()} elements.
+     * @return The number of decoded values or -1 if the report is too
+     *         short.
+     */
+    public int decode(final ByteBuffer report, final int[] values)
+    {
+        final int position = report.position();
+        if (report.limit() - position < this.length)
+        {
+            return -1;
+        }
+        final int base = position + this.dataOffset;
+        final int[] offsets = this.offsets;
+        final int[] sizes = this.sizes;
+        final boolean[] signed = this.signed;
+        final int count = offsets.length;
+        for (int i = 0; i < count; i++)
+        {
+            values[i] = extract(report, base, offsets[i], sizes[i],
+                signed[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the value with the specified usage.
+     *
+     * @param usagePage
+     *            The usage page.
+     * @param usage
+     *            The usage.
+     * @return The index of the value or -1 if the report has no variable
+     *         value with this usage.
+     */
+    public int indexOf(final int usagePage, final int usage)
+    {
+        final int key = (usagePage << 16) | usage;
+        for (int i = 0; i < this.usages.length; i++)
+        {
+            if (this.usages[i] == key)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first value of a field.
+     *
+     * @param field
+     *            The index of the field.
+     * @return The index of the first value.
+     */
+    public int getFieldStart(final int field)
+    {
+        return this.fieldStart[field];
+    }
+
+    /**
+     * Returns the report type.
+     *
+     * @return The report type. One of the TYPE_* constants of
+     *         {@link HidField}.
+     */
+    public int getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Returns the report ID.
+     *
+     * @return The report ID. 0 if the device doesn't use report IDs.
+     */
+    public int getReportId()
+    {
+        return this.reportId;
+    }
+
+    /**
+     * Returns the fields of the report.
+     *
+     * @return The fields.
+     */
+    public List<HidField> getFields()
+    {
+        return this.fields;
+    }
+
+    /**
+     * Returns the length of the report, including the report ID.
+     *
+     * @return The length in bytes.
+     */
+    public int getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Returns the number of values of the report.
+     *
+     * @return The number of values.
+     */
+    public int getValueCount()
+    {
+        return this.offsets.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "HID report layout (type %d, report %d, %d bytes, %d values)",
+            this.type, this.reportId, this.length, this.offsets.length);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the decoded input reports of a {@link HidReportReader}.
+ *
+ * @author usb4java Team
+ */
+public interface HidReportListener
+{
+    /**
+     * Processes a received input report.
+     *
+     * Called from the thread which is handling the events of the backend,
+     * so it should return quickly. The report buffer and the value array
+     * are reused for the following reports, so they must be copied if they
+     * are needed later.
+     *
+     * @param layout
+     *            The layout of the report.
+     * @param values
+     *            The decoded values. Indexed like the values of the layout.
+     * @param report
+     *            The raw report (From position 0 to the received length).
+     */
+    void reportReceived(HidReportLayout layout, int[] values,
+        ByteBuffer report);
+
+    /**
+     * Processes a failed interrupt request. The reader keeps reading unless
+     * the device is gone or too many requests in a row failed.
+     *
+     * @param result
+     *            The ERROR code of the failed request.
+     */
+    void readFailed(int result);
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import java.nio.ByteBuffer;
+
+import org.usb4java.BufferUtils;
+import org.usb4java.IoBackend;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.RequestRing;
+
+/**
+ * Continuously reads and decodes the input reports of a HID interrupt IN
+ * endpoint.
+ *
+ * A configurable number of interrupt requests is kept queued at all times,
+ * so the host controller has a request ready for every polling interval
+ * even while the previous report is being decoded. Each request is
+ * resubmitted right after its report has been passed to the listener.
+ * Decoding uses the precompiled {@link HidReportLayout} of the report and a
+ * value array per report which is allocated once, so receiving reports
+ * allocates nothing.
+ *
+ * The requests never time out. Reading stops by itself when the device is
+ * gone or when {@link RequestRing#MAX_CONSECUTIVE_ERRORS} requests in a row
+ * failed. Requires another thread handling the events of the backend.
+ *
+ * @author usb4java Team
+ */
+public final class HidReportReader
+{
+    /** The interrupt IN endpoint. */
+    private final byte endpoint;
+
+    /** The report descriptor. */
+    private final HidReportDescriptor descriptor;
+
+    /** The listener. */
+    private final HidReportListener listener;
+
+    /** The requests. */
+    private final IoRequest[] requests;
+
+    /** The value arrays by report ID. */
+    private final int[][] values = new int[256][];
+
+    /** The ring keeping the requests in flight. */
+    private final RequestRing ring;
+
+    /** The number of decoded reports. Only written by the event thread. */
+    private volatile long reports;
+
+    /** The number of reports with unknown ID or too short. */
+    private volatile long invalidReports;
+
+    /** The number of failed requests. */
+    private volatile long errors;
+
+    /**
+     * Constructs a new reader.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param endpoint
+     *            The address of the interrupt IN endpoint.
+     * @param maxReportSize
+     *            The size of a single request. Should be the maximum packet
+     *            size of the endpoint.
+     * @param depth
+     *            The number of requests to keep queued.
+     * @param descriptor
+     *            The report descriptor of the interface.
+     * @param listener
+     *            The listener receiving the reports.
+     */
+    public HidReportReader(final IoBackend backend, final byte endpoint,
+        final int maxReportSize, final int depth,
+        final HidReportDescriptor descriptor,
+        final HidReportListener listener)
+    {
+        if (depth <= 0)
+        {
+            throw new IllegalArgumentException("depth must be positive");
+        }
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        this.endpoint = endpoint;
+        this.descriptor = descriptor;
+        this.listener = listener;
+        for (final HidReportLayout layout : descriptor.getLayouts())
+        {
+            if (layout.getType() == HidField.TYPE_INPUT)
+            {
+                this.values[layout.getReportId()] =
+                    new int[layout.getValueCount()];
+            }
+        }
+        this.ring = new RequestRing(backend, new RequestRing.Handler()
+        {
+            @Override
+            public void prepare(final IoRequest request)
+            {
+                request.buffer().clear();
+            }
+
+            @Override
+            public void completed(final IoRequest request)
+            {
+                HidReportReader.this.processReport(request);
+            }
+
+            @Override
+            public void failed(final IoRequest request, final int result)
+            {
+                HidReportReader.this.readFailed(result);
+            }
+        });
+        this.requests = new IoRequest[depth];
+        for (int i = 0; i < depth; i++)
+        {
+            final IoRequest request = new IoRequest();
+            request.fillInterrupt(endpoint,
+                BufferUtils.allocateByteBuffer(maxReportSize), this.ring,
+                null, 0);
+            this.requests[i] = request;
+        }
+    }
+
+    /**
+     * Starts reading. Does nothing if the reader has already been started.
+     *
+     * @return {@link LibUsb#SUCCESS} or the error code of the first request
+     *         which could not be submitted. Already submitted requests are
+     *         cancelled in this case.
+     */
+    public synchronized int start()
+    {
+        if (this.ring.isStarted())
+        {
+            return LibUsb.SUCCESS;
+        }
+        return this.ring.start(this.requests);
+    }
+
+    /**
+     * Stops reading and waits until all pending requests have been
+     * cancelled. Must be called after reading stopped by itself before it
+     * can be started again. Must not be called by the listener.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting.
+     */
+    public synchronized void stop() throws InterruptedException
+    {
+        this.ring.stop();
+    }
+
+    /**
+     * Checks if the reader is running.
+     *
+     * @return True if running.
+     */
+    public boolean isRunning()
+    {
+        return this.ring.isRunning();
+    }
+
+    /**
+     * Processes a completed request.
+     *
+     * @param request
+     *            The completed request.
+     */
+    void processReport(final IoRequest request)
+    {
+        final ByteBuffer report = request.buffer();
+        report.position(0);
+        report.limit(request.actualLength());
+        if (report.hasRemaining())
+        {
+            this.decode(report);
+        }
+    }
+
+    /**
+     * Counts a failed request and passes the error to the listener. Cancelled
+     * requests and requests completed after stopping are ignored.
+     *
+     * @param result
+     *            The error code.
+     */
+    void readFailed(final int result)
+    {
+        if (result == LibUsb.SUCCESS || result == LibUsb.ERROR_INTERRUPTED)
+        {
+            return;
+        }
+        this.errors++;
+        this.listener.readFailed(result);
+    }
+
+    /**
+     * Decodes a report and passes it to the listener.
+     *
+     * @param report
+     *            The report.
+     */
+    private void decode(final ByteBuffer report)
+    {
+        final int reportId = this.descriptor.usesReportIds()
+            ? report.get(0) & 0xff : 0;
+        final HidReportLayout layout =
+            this.descriptor.getInputReport(reportId);
+        final int[] values = this.values[reportId];
+        if (layout == null || layout.decode(report, values) < 0)
+        {
+            this.invalidReports++;
+            return;
+        }
+        this.reports++;
+        this.listener.reportReceived(layout, values, report);
+    }
+
+    /**
+     * Returns the number of decoded reports.
+     *
+     * @return The number of reports.
+     */
+    public long getReportCount()
+    {
+        return this.reports;
+    }
+
+    /**
+     * Returns the number of reports which were dropped because their ID is
+     * unknown or they are too short.
+     *
+     * @return The number of invalid reports.
+     */
+    public long getInvalidReportCount()
+    {
+        return this.invalidReports;
+    }
+
+    /**
+     * Returns the number of failed requests.
+     *
+     * @return The number of errors.
+     */
+    public long getErrorCount()
+    {
+        return this.errors;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java HID report reader on endpoint 0x%02x",
+            this.endpoint & 0xff);
+    }
+}
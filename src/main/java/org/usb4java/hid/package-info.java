@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB Human Interface Device (HID) report parsing and streaming.
+ */
+package org.usb4java.hid;
@@ -0,0 +1,690 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.msc;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import org.usb4java.BlockingIo;
+import org.usb4java.BufferUtils;
+import org.usb4java.IoBackend;
+import org.usb4java.IoCallback;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+
+/**
+ * The USB Mass Storage Bulk-Only Transport.
+ *
+ * Executes commands wrapped into a Command Block Wrapper (CBW) and checks
+ * the Command Status Wrapper (CSW) returned by the device. The data phase of
+ * a command is split into requests of a configurable size and several of
+ * these requests are kept in flight at the same time, so the device can
+ * stream a large command without waiting for the host between two requests.
+ * Parts of direct buffers are transferred without copying them. Non-direct
+ * buffers are copied through a set of bounce buffers.
+ *
+ * Stalled endpoints are cleared and invalid or phase error status wrappers
+ * trigger a reset recovery as described in the Bulk-Only Transport
+ * specification.
+ *
+ * Requires another thread handling the events of the backend. Commands
+ * executed through the same transport are never interleaved with each
+ * other.
+ *
+ * @author usb4java Team
+ */
+public final class BulkOnlyTransport
+{
+    /** Command passed. */
+    public static final int STATUS_PASSED = 0;
+
+    /** Command failed. */
+    public static final int STATUS_FAILED = 1;
+
+    /** Phase error. */
+    public static final int STATUS_PHASE_ERROR = 2;
+
+    /** Bulk-Only Mass Storage Reset request. */
+    public static final byte REQUEST_RESET = (byte) 0xFF;
+
+    /** Get Max LUN request. */
+    public static final byte REQUEST_GET_MAX_LUN = (byte) 0xFE;
+
+    /** The signature of a command block wrapper. */
+    public static final int CBW_SIGNATURE = 0x43425355;
+
+    /** The signature of a command status wrapper. */
+    public static final int CSW_SIGNATURE = 0x53425355;
+
+    /** The size of a command block wrapper. */
+    public static final int CBW_SIZE = 31;
+
+    /** The size of a command status wrapper. */
+    public static final int CSW_SIZE = 13;
+
+    /** The maximum length of a command block. */
+    public static final int MAX_COMMAND_LENGTH = 16;
+
+    /** Class specific interface OUT request type. */
+    private static final byte CLASS_OUT = (byte) (LibUsb.ENDPOINT_OUT
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** Class specific interface IN request type. */
+    private static final byte CLASS_IN = (byte) (LibUsb.ENDPOINT_IN
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** Standard endpoint OUT request type. */
+    private static final byte ENDPOINT_OUT = (byte) (LibUsb.ENDPOINT_OUT
+        | LibUsb.REQUEST_TYPE_STANDARD | LibUsb.RECIPIENT_ENDPOINT);
+
+    /** The ENDPOINT_HALT feature selector. */
+    private static final short ENDPOINT_HALT = 0;
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** Blocking I/O for the command and status phases. */
+    private final BlockingIo io;
+
+    /** The interface number. */
+    private final short interfaceNumber;
+
+    /** The bulk IN endpoint. */
+    private final byte inEndpoint;
+
+    /** The bulk OUT endpoint. */
+    private final byte outEndpoint;
+
+    /** The maximum length of a single data request. */
+    private final int maxRequestSize;
+
+    /** The timeout of a single request in milliseconds. */
+    private final long timeout;
+
+    /** The command block wrapper. */
+    private final ByteBuffer cbw = BufferUtils.allocateByteBuffer(CBW_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    /** The command status wrapper. */
+    private final ByteBuffer csw = BufferUtils.allocateByteBuffer(CSW_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    /** Receives the number of transferred bytes of blocking transfers. */
+    private final IntBuffer transferred = BufferUtils.allocateIntBuffer();
+
+    /** The data requests. */
+    private final IoRequest[] requests;
+
+    /** The bounce buffers of the data requests. Allocated on demand. */
+    private final ByteBuffer[] bounce;
+
+    /** Which data requests are finished. Guarded by the array monitor. */
+    private final boolean[] finished;
+
+    /** The callback of the data requests. */
+    private final IoCallback callback = new IoCallback()
+    {
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            final boolean[] finished = BulkOnlyTransport.this.finished;
+            synchronized (finished)
+            {
+                finished[(Integer) request.userData()] = true;
+                finished.notifyAll();
+            }
+        }
+    };
+
+    /** The tag of the last command. */
+    private int tag;
+
+    /** Set when the status wrapper was received by a data request. */
+    private boolean statusReceived;
+
+    /** The number of executed commands. */
+    private long commands;
+
+    /** The highest number of data requests which were in flight. */
+    private int maxInFlight;
+
+    /**
+     * Constructs a new transport.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param interfaceNumber
+     *            The number of the mass storage interface. The interface
+     *            must be claimed.
+     * @param inEndpoint
+     *            The address of the bulk IN endpoint.
+     * @param outEndpoint
+     *            The address of the bulk OUT endpoint.
+     * @param maxRequestSize
+     *            The maximum length of a single data request. Should be a
+     *            multiple of the maximum packet size.
+     * @param depth
+     *            The maximum number of data requests in flight.
+     * @param timeout
+     *            The timeout of a single request in milliseconds. 0 for no
+     *            timeout.
+     */
+    public BulkOnlyTransport(final IoBackend backend,
+        final int interfaceNumber, final byte inEndpoint,
+        final byte outEndpoint, final int maxRequestSize, final int depth,
+        final long timeout)
+    {
+        if (maxRequestSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxRequestSize must be positive");
+        }
+        if (depth <= 0)
+        {
+            throw new IllegalArgumentException("depth must be positive");
+        }
+        this.backend = backend;
+        this.io = new BlockingIo(backend);
+        this.interfaceNumber = (short) interfaceNumber;
+        this.inEndpoint = inEndpoint;
+        this.outEndpoint = outEndpoint;
+        this.maxRequestSize = maxRequestSize;
+        this.timeout = timeout;
+        this.requests = new IoRequest[depth];
+        this.bounce = new ByteBuffer[depth];
+        this.finished = new boolean[depth];
+        for (int i = 0; i < depth; i++)
+        {
+            this.requests[i] = new IoRequest();
+        }
+    }
+
+    /**
+     * Returns the maximum length of a single data request.
+     *
+     * @return The maximum request size.
+     */
+    public int getMaxRequestSize()
+    {
+        return this.maxRequestSize;
+    }
+
+    /**
+     * Returns the maximum number of data requests in flight.
+     *
+     * @return The depth.
+     */
+    public int getDepth()
+    {
+        return this.requests.length;
+    }
+
+    /**
+     * Sends the Get Max LUN request.
+     *
+     * @return The highest logical unit number. 0 when the device stalls the
+     *         request (which devices with a single LUN may do).
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public synchronized int getMaxLun()
+    {
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(1);
+        final int result = this.io.controlTransfer(CLASS_IN,
+            REQUEST_GET_MAX_LUN, (short) 0, this.interfaceNumber, data,
+            this.timeout);
+        if (result == LibUsb.ERROR_PIPE)
+        {
+            return 0;
+        }
+        if (result < 0)
+        {
+            throw new LibUsbException("Unable to get max LUN", result);
+        }
+        return result == 0 ? 0 : data.get(0) & 0xff;
+    }
+
+    /**
+     * Performs the reset recovery: Sends the Bulk-Only Mass Storage Reset
+     * request and clears the halt condition of both bulk endpoints.
+     *
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    public synchronized void reset()
+    {
+        int result = this.io.controlTransfer(CLASS_OUT, REQUEST_RESET,
+            (short) 0, this.interfaceNumber, null, this.timeout);
+        if (result < 0)
+        {
+            throw new LibUsbException("Unable to reset mass storage device",
+                result);
+        }
+        result = this.clearHalt(this.inEndpoint);
+        if (result == LibUsb.SUCCESS)
+        {
+            result = this.clearHalt(this.outEndpoint);
+        }
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to clear halt", result);
+        }
+    }
+
+    /**
+     * Clears the halt condition of an endpoint.
+     *
+     * @param endpoint
+     *            The endpoint address.
+     * @return The error code.
+     */
+    private int clearHalt(final byte endpoint)
+    {
+        final int result = this.io.controlTransfer(ENDPOINT_OUT,
+            LibUsb.REQUEST_CLEAR_FEATURE, ENDPOINT_HALT, endpoint, null,
+            this.timeout);
+        return result < 0 ? result : LibUsb.SUCCESS;
+    }
+
+    /**
+     * Performs the reset recovery after a transport error and returns an
+     * exception describing the error.
+     *
+     * @param message
+     *            The error message.
+     * @param result
+     *            The error code. {@link LibUsb#SUCCESS} when the error is a
+     *            protocol error.
+     * @return The exception to throw.
+     */
+    private IOException recover(final String message, final int result)
+    {
+        try
+        {
+            this.reset();
+        }
+        catch (final LibUsbException e)
+        {
+            // Reported below, the device is probably gone anyway
+        }
+        if (result == LibUsb.SUCCESS)
+        {
+            return new IOException(message);
+        }
+        return new IOException(message, LibUsbException.of(result));
+    }
+
+    /**
+     * Executes a command.
+     *
+     * @param lun
+     *            The logical unit number.
+     * @param command
+     *            The command block. 1 to 16 bytes.
+     * @param in
+     *            True if data is transferred from the device to the host.
+     * @param data
+     *            The data buffer. The remaining bytes are transferred. The
+     *            position is advanced by the number of actually transferred
+     *            bytes. May be null when the command has no data phase.
+     * @return The status of the command. {@link #STATUS_PASSED} or
+     *         {@link #STATUS_FAILED}.
+     * @throws IOException
+     *             When a transfer failed, the device reported a phase error
+     *             or the thread was interrupted during the data phase. The
+     *             reset recovery has been performed in this case.
+     */
+    public synchronized int execute(final int lun, final byte[] command,
+        final boolean in, final ByteBuffer data) throws IOException
+    {
+        if (command.length == 0 || command.length > MAX_COMMAND_LENGTH)
+        {
+            throw new IllegalArgumentException("Invalid command length: "
+                + command.length);
+        }
+        final int length = data == null ? 0 : data.remaining();
+        this.tag++;
+        this.commands++;
+        this.cbw.clear();
+        this.cbw.putInt(CBW_SIGNATURE);
+        this.cbw.putInt(this.tag);
+        this.cbw.putInt(length);
+        this.cbw.put(in ? LibUsb.ENDPOINT_IN : 0);
+        this.cbw.put((byte) lun);
+        this.cbw.put((byte) command.length);
+        this.cbw.put(command);
+        while (this.cbw.hasRemaining())
+        {
+            this.cbw.put((byte) 0);
+        }
+        this.cbw.flip();
+        int result = this.io.bulkTransfer(this.outEndpoint, this.cbw,
+            this.transferred, this.timeout);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw this.recover("Unable to send command", result);
+        }
+
+        this.statusReceived = false;
+        if (length > 0)
+        {
+            result = this.transferData(in, data);
+            if (result == LibUsb.ERROR_PIPE)
+            {
+                result = this.clearHalt(in ? this.inEndpoint
+                    : this.outEndpoint);
+            }
+            if (result != LibUsb.SUCCESS)
+            {
+                throw this.recover("Data transfer failed", result);
+            }
+        }
+        if (!this.statusReceived)
+        {
+            this.receiveStatus();
+        }
+        return this.checkStatus();
+    }
+
+    /**
+     * Receives the command status wrapper. A stalled status request is
+     * retried once after clearing the halt condition.
+     *
+     * @throws IOException
+     *             When the status could not be received.
+     */
+    private void receiveStatus() throws IOException
+    {
+        this.csw.clear();
+        int result = this.io.bulkTransfer(this.inEndpoint, this.csw,
+            this.transferred, this.timeout);
+        if (result == LibUsb.ERROR_PIPE)
+        {
+            result = this.clearHalt(this.inEndpoint);
+            if (result == LibUsb.SUCCESS)
+            {
+                result = this.io.bulkTransfer(this.inEndpoint, this.csw,
+                    this.transferred, this.timeout);
+            }
+        }
+        if (result != LibUsb.SUCCESS)
+        {
+            throw this.recover("Unable to receive status", result);
+        }
+        this.csw.limit(this.transferred.get(0));
+    }
+
+    /**
+     * Checks the received command status wrapper.
+     *
+     * @return The command status.
+     * @throws IOException
+     *             When the status is invalid or reports a phase error.
+     */
+    private int checkStatus() throws IOException
+    {
+        final ByteBuffer status = this.csw;
+        if (status.limit() != CSW_SIZE || status.getInt(0) != CSW_SIGNATURE
+            || status.getInt(4) != this.tag)
+        {
+            throw this.recover("Invalid command status", LibUsb.SUCCESS);
+        }
+        final int code = status.get(12) & 0xff;
+        if (code == STATUS_PASSED || code == STATUS_FAILED)
+        {
+            return code;
+        }
+        throw this.recover("Phase error", LibUsb.SUCCESS);
+    }
+
+    /**
+     * Transfers the data phase of a command, keeping up to depth requests
+     * in flight.
+     *
+     * @param in
+     *            The direction of the data phase.
+     * @param data
+     *            The data buffer.
+     * @return The error code.
+     * @throws InterruptedIOException
+     *             When the thread was interrupted. The reset recovery has
+     *             been performed in this case.
+     */
+    private int transferData(final boolean in, final ByteBuffer data)
+        throws InterruptedIOException
+    {
+        final byte endpoint = in ? this.inEndpoint : this.outEndpoint;
+        final boolean direct = data.isDirect();
+        final int start = data.position();
+        final int length = data.remaining();
+        final int numParts = (length + this.maxRequestSize - 1)
+            / this.maxRequestSize;
+        final int depth = this.requests.length;
+        int next = 0;
+        int done = 0;
+        int total = 0;
+        int result = LibUsb.SUCCESS;
+        boolean stopped = false;
+        boolean interrupted = false;
+        while (done < numParts && (done < next || !stopped))
+        {
+            // Keep the pipeline filled
+            while (!stopped && next < numParts && next - done < depth)
+            {
+                final int offset = next * this.maxRequestSize;
+                final int size = Math.min(this.maxRequestSize,
+                    length - offset);
+                final int slot = next % depth;
+                final ByteBuffer buffer;
+                if (direct)
+                {
+                    buffer = BufferUtils.slice(data, start + offset, size);
+                }
+                else
+                {
+                    buffer = this.bounce(slot, size);
+                    if (!in)
+                    {
+                        final ByteBuffer src = data.duplicate();
+                        src.position(start + offset);
+                        src.limit(start + offset + size);
+                        buffer.put(src);
+                        buffer.flip();
+                    }
+                }
+                final IoRequest request = this.requests[slot];
+                request.fillBulk(endpoint, buffer, this.callback,
+                    Integer.valueOf(slot), this.timeout);
+                synchronized (this.finished)
+                {
+                    this.finished[slot] = false;
+                }
+                result = this.backend.submit(request);
+                if (result != LibUsb.SUCCESS)
+                {
+                    stopped = true;
+                    break;
+                }
+                next++;
+                this.maxInFlight = Math.max(this.maxInFlight, next - done);
+            }
+            if (done == next)
+            {
+                break;
+            }
+
+            // Wait for the oldest request
+            final int slot = done % depth;
+            synchronized (this.finished)
+            {
+                while (!this.finished[slot])
+                {
+                    try
+                    {
+                        this.finished.wait();
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        if (!interrupted)
+                        {
+                            interrupted = true;
+                            stopped = true;
+                            this.cancel(done, next);
+                        }
+                    }
+                }
+            }
+            final IoRequest request = this.requests[slot];
+            done++;
+            if (stopped)
+            {
+                // After a short transfer the status may arrive in one of
+                // the following IN requests
+                if (in && !this.statusReceived && isStatus(request))
+                {
+                    final ByteBuffer src = request.buffer().duplicate();
+                    src.limit(src.position() + CSW_SIZE);
+                    this.csw.clear();
+                    this.csw.put(src);
+                    this.csw.flip();
+                    this.statusReceived = true;
+                }
+                continue;
+            }
+            final int status = request.status();
+            if (status != LibUsb.TRANSFER_COMPLETED)
+            {
+                result = request.resultCode();
+                stopped = true;
+                this.cancel(done, next);
+                continue;
+            }
+            final int actual = request.actualLength();
+            if (in && !direct)
+            {
+                final ByteBuffer dst = data.duplicate();
+                dst.position(start + total);
+                final ByteBuffer src = request.buffer().duplicate();
+                src.limit(src.position() + actual);
+                dst.put(src);
+            }
+            total += actual;
+            if (actual < request.length())
+            {
+                stopped = true;
+                this.cancel(done, next);
+            }
+        }
+        data.position(start + total);
+        if (interrupted)
+        {
+            // The device is still in the data phase or waits for the status
+            // to be read, so the next command would fail without recovery
+            try
+            {
+                this.reset();
+            }
+            catch (final LibUsbException e)
+            {
+                // Ignored, the interruption is reported anyway
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Data transfer interrupted");
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a data request received a command status wrapper.
+     *
+     * @param request
+     *            The finished data request.
+     * @return True if request received the status.
+     */
+    private static boolean isStatus(final IoRequest request)
+    {
+        if (request.status() != LibUsb.TRANSFER_COMPLETED
+            || request.actualLength() != CSW_SIZE)
+        {
+            return false;
+        }
+        final ByteBuffer buffer = request.buffer();
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+            .getInt(buffer.position()) == CSW_SIGNATURE;
+    }
+
+    /**
+     * Cancels the data requests which are still in flight.
+     *
+     * @param from
+     *            The index of the first request to cancel.
+     * @param to
+     *            The index after the last request to cancel.
+     */
+    private void cancel(final int from, final int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            this.backend.cancel(this.requests[i % this.requests.length]);
+        }
+    }
+
+    /**
+     * Returns a cleared bounce buffer.
+     *
+     * @param slot
+     *            The slot of the data request.
+     * @param size
+     *            The required size.
+     * @return The bounce buffer with its limit set to the size.
+     */
+    private ByteBuffer bounce(final int slot, final int size)
+    {
+        ByteBuffer buffer = this.bounce[slot];
+        if (buffer == null)
+        {
+            buffer = BufferUtils.allocateByteBuffer(this.maxRequestSize);
+            this.bounce[slot] = buffer;
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Returns the number of executed commands.
+     *
+     * @return The number of commands.
+     */
+    public synchronized long getCommandCount()
+    {
+        return this.commands;
+    }
+
+    /**
+     * Returns the highest number of data requests which were in flight at
+     * the same time.
+     *
+     * @return The maximum number of data requests in flight.
+     */
+    public synchronized int getMaxInFlight()
+    {
+        return this.maxInFlight;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "usb4java bulk-only transport on interface %d (endpoints 0x%02x "
+            + "and 0x%02x)", this.interfaceNumber, this.inEndpoint & 0xff,
+            this.outEndpoint & 0xff);
+    }
+}
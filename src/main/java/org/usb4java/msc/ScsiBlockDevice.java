@@ -0,0 +1,548 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.msc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.usb4java.BufferUtils;
+
+/**
+ * Block device on a logical unit of a SCSI transparent command set mass
+ * storage device.
+ *
+ * The device is accessed with positional reads and writes like
+ * {@link java.nio.channels.FileChannel#read(ByteBuffer, long)} and
+ * {@link java.nio.channels.FileChannel#write(ByteBuffer, long)}. Large
+ * accesses are split into READ/WRITE commands of up to the configured
+ * maximum transfer size and the data phase of each command is pipelined by
+ * the {@link BulkOnlyTransport}. READ(10)/WRITE(10) are used while the
+ * addressed blocks fit into them, READ(16)/WRITE(16) otherwise.
+ *
+ * Reads may start and end anywhere. Partial blocks are read through a
+ * scratch buffer. Writes must be aligned to the block size.
+ *
+ * @author usb4java Team
+ */
+public final class ScsiBlockDevice
+{
+    /** No sense data. */
+    public static final int SENSE_NO_SENSE = 0x0;
+
+    /** The logical unit is not ready. */
+    public static final int SENSE_NOT_READY = 0x2;
+
+    /** Unrecovered medium error. */
+    public static final int SENSE_MEDIUM_ERROR = 0x3;
+
+    /** Illegal request. */
+    public static final int SENSE_ILLEGAL_REQUEST = 0x5;
+
+    /** The medium may have changed or the device has been reset. */
+    public static final int SENSE_UNIT_ATTENTION = 0x6;
+
+    /** The medium is write protected. */
+    public static final int SENSE_DATA_PROTECT = 0x7;
+
+    /** TEST UNIT READY command. */
+    public static final byte TEST_UNIT_READY = 0x00;
+
+    /** REQUEST SENSE command. */
+    public static final byte REQUEST_SENSE = 0x03;
+
+    /** READ CAPACITY(10) command. */
+    public static final byte READ_CAPACITY_10 = 0x25;
+
+    /** READ(10) command. */
+    public static final byte READ_10 = 0x28;
+
+    /** WRITE(10) command. */
+    public static final byte WRITE_10 = 0x2A;
+
+    /** SYNCHRONIZE CACHE(10) command. */
+    public static final byte SYNCHRONIZE_CACHE_10 = 0x35;
+
+    /** READ(16) command. */
+    public static final byte READ_16 = (byte) 0x88;
+
+    /** WRITE(16) command. */
+    public static final byte WRITE_16 = (byte) 0x8A;
+
+    /** SERVICE ACTION IN(16) command (READ CAPACITY(16)). */
+    public static final byte SERVICE_ACTION_IN_16 = (byte) 0x9E;
+
+    /** The READ CAPACITY(16) service action. */
+    private static final byte READ_CAPACITY_16 = 0x10;
+
+    /** The length of the requested sense data. */
+    private static final int SENSE_LENGTH = 18;
+
+    /** The length of the READ CAPACITY(16) response. */
+    private static final int CAPACITY_16_LENGTH = 32;
+
+    /** How often TEST UNIT READY is retried after a unit attention. */
+    private static final int UNIT_ATTENTION_RETRIES = 3;
+
+    /** The transport. */
+    private final BulkOnlyTransport transport;
+
+    /** The logical unit number. */
+    private final int lun;
+
+    /** The maximum number of bytes per command. */
+    private final int maxTransferSize;
+
+    /** The buffer for small responses. */
+    private final ByteBuffer response = BufferUtils.allocateByteBuffer(
+        CAPACITY_16_LENGTH);
+
+    /** The block size. 0 until opened. */
+    private int blockSize;
+
+    /** The number of blocks. */
+    private long blockCount;
+
+    /** The scratch buffer for partial blocks. */
+    private ByteBuffer scratch;
+
+    /** The number of read bytes. */
+    private long readBytes;
+
+    /** The time spent reading in nanoseconds. */
+    private long readTime;
+
+    /** The number of written bytes. */
+    private long writtenBytes;
+
+    /** The time spent writing in nanoseconds. */
+    private long writeTime;
+
+    /**
+     * Constructs a new block device.
+     *
+     * @param transport
+     *            The transport of the device.
+     * @param lun
+     *            The logical unit number.
+     * @param maxTransferSize
+     *            The maximum number of bytes transferred by a single READ or
+     *            WRITE command.
+     */
+    public ScsiBlockDevice(final BulkOnlyTransport transport, final int lun,
+        final int maxTransferSize)
+    {
+        if (transport == null)
+        {
+            throw new IllegalArgumentException("transport must not be null");
+        }
+        if (maxTransferSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "maxTransferSize must be positive");
+        }
+        this.transport = transport;
+        this.lun = lun;
+        this.maxTransferSize = maxTransferSize;
+    }
+
+    /**
+     * Waits until the unit is ready and reads its capacity. Must be called
+     * before reading or writing.
+     *
+     * @throws IOException
+     *             When the unit is not ready or a command failed.
+     */
+    public synchronized void open() throws IOException
+    {
+        int retries = 0;
+        while (true)
+        {
+            try
+            {
+                this.execute(new byte[6], false, null);
+                break;
+            }
+            catch (final ScsiException e)
+            {
+                if (e.getSenseKey() != SENSE_UNIT_ATTENTION
+                    || ++retries > UNIT_ATTENTION_RETRIES)
+                {
+                    throw e;
+                }
+            }
+        }
+        this.readCapacity();
+        if (this.blockSize <= 0)
+        {
+            throw new IOException("Invalid block size: " + this.blockSize);
+        }
+        this.scratch = BufferUtils.allocateByteBuffer(this.blockSize);
+    }
+
+    /**
+     * Reads the block size and the number of blocks.
+     *
+     * @throws IOException
+     *             When reading the capacity failed.
+     */
+    private void readCapacity() throws IOException
+    {
+        final byte[] command = new byte[10];
+        command[0] = READ_CAPACITY_10;
+        final ByteBuffer data = this.response(8);
+        this.execute(command, true, data);
+        long lastBlock = data.getInt(0) & 0xffffffffL;
+        int length = data.getInt(4);
+        if (lastBlock == 0xffffffffL)
+        {
+            final byte[] command16 = new byte[16];
+            command16[0] = SERVICE_ACTION_IN_16;
+            command16[1] = READ_CAPACITY_16;
+            putInt(command16, 10, CAPACITY_16_LENGTH);
+            final ByteBuffer data16 = this.response(CAPACITY_16_LENGTH);
+            this.execute(command16, true, data16);
+            lastBlock = data16.getLong(0);
+            length = data16.getInt(8);
+        }
+        this.blockCount = lastBlock + 1;
+        this.blockSize = length;
+    }
+
+    /**
+     * Returns the cleared response buffer.
+     *
+     * @param length
+     *            The expected response length.
+     * @return The response buffer.
+     */
+    private ByteBuffer response(final int length)
+    {
+        this.response.clear();
+        this.response.limit(length);
+        return this.response;
+    }
+
+    /**
+     * Executes a command and reports a failed command with its sense data.
+     *
+     * @param command
+     *            The command block.
+     * @param in
+     *            True if data is transferred from the device.
+     * @param data
+     *            The data buffer or null.
+     * @throws IOException
+     *             When the command failed.
+     */
+    private void execute(final byte[] command, final boolean in,
+        final ByteBuffer data) throws IOException
+    {
+        if (this.transport.execute(this.lun, command, in, data)
+            == BulkOnlyTransport.STATUS_PASSED)
+        {
+            return;
+        }
+        final byte[] sense = new byte[6];
+        sense[0] = REQUEST_SENSE;
+        sense[4] = SENSE_LENGTH;
+        final ByteBuffer senseData = this.response(SENSE_LENGTH);
+        if (this.transport.execute(this.lun, sense, true, senseData)
+            != BulkOnlyTransport.STATUS_PASSED || senseData.position() < 14)
+        {
+            throw new ScsiException("Command 0x"
+                + Integer.toHexString(command[0] & 0xff)
+                + " failed without sense data", SENSE_NO_SENSE, 0, 0);
+        }
+        throw new ScsiException("Command 0x"
+            + Integer.toHexString(command[0] & 0xff) + " failed",
+            senseData.get(2) & 0x0f, senseData.get(12) & 0xff,
+            senseData.get(13) & 0xff);
+    }
+
+    /**
+     * Writes a 32 bit big endian value into a command block.
+     *
+     * @param command
+     *            The command block.
+     * @param offset
+     *            The offset.
+     * @param value
+     *            The value.
+     */
+    private static void putInt(final byte[] command, final int offset,
+        final int value)
+    {
+        command[offset] = (byte) (value >> 24);
+        command[offset + 1] = (byte) (value >> 16);
+        command[offset + 2] = (byte) (value >> 8);
+        command[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Reads or writes consecutive blocks with a single command.
+     *
+     * @param write
+     *            True to write, false to read.
+     * @param lba
+     *            The first logical block address.
+     * @param blocks
+     *            The number of blocks.
+     * @param data
+     *            The data buffer. Its remaining bytes must be the size of
+     *            the blocks.
+     * @throws IOException
+     *             When the command failed or transferred less data.
+     */
+    private void transferBlocks(final boolean write, final long lba,
+        final int blocks, final ByteBuffer data) throws IOException
+    {
+        final byte[] command;
+        if (lba + blocks > 0xffffffffL || blocks > 0xffff)
+        {
+            command = new byte[16];
+            command[0] = write ? WRITE_16 : READ_16;
+            putInt(command, 2, (int) (lba >>> 32));
+            putInt(command, 6, (int) lba);
+            putInt(command, 10, blocks);
+        }
+        else
+        {
+            command = new byte[10];
+            command[0] = write ? WRITE_10 : READ_10;
+            putInt(command, 2, (int) lba);
+            command[7] = (byte) (blocks >> 8);
+            command[8] = (byte) blocks;
+        }
+        this.execute(command, !write, data);
+        if (data.hasRemaining())
+        {
+            throw new IOException(String.format(
+                "Short %s at block %d: %d bytes missing",
+                write ? "write" : "read", lba, data.remaining()));
+        }
+    }
+
+    /**
+     * Ensures that the device has been opened.
+     */
+    private void checkOpen()
+    {
+        if (this.blockSize == 0)
+        {
+            throw new IllegalStateException("Block device is not open");
+        }
+    }
+
+    /**
+     * Reads bytes from the device starting at the specified position. The
+     * position of the buffer is advanced by the number of read bytes.
+     *
+     * @param dst
+     *            The buffer into which bytes are to be transferred. Direct
+     *            buffers are filled without copying.
+     * @param position
+     *            The device position at which the transfer is to begin.
+     * @return The number of bytes read, possibly zero, or -1 if the
+     *         position is greater than or equal to the device size.
+     * @throws IOException
+     *             When a command failed.
+     */
+    public synchronized int read(final ByteBuffer dst, final long position)
+        throws IOException
+    {
+        this.checkOpen();
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("Negative position");
+        }
+        final long size = this.size();
+        if (position >= size)
+        {
+            return -1;
+        }
+        final int blockSize = this.blockSize;
+        final int maxBlocks = Math.max(1, this.maxTransferSize / blockSize);
+        final long start = System.nanoTime();
+        int remaining = (int) Math.min(dst.remaining(), size - position);
+        long pos = position;
+        int total = 0;
+        while (remaining > 0)
+        {
+            final long lba = pos / blockSize;
+            final int offset = (int) (pos % blockSize);
+            final int n;
+            if (offset != 0 || remaining < blockSize)
+            {
+                this.scratch.clear();
+                this.transferBlocks(false, lba, 1, this.scratch);
+                n = Math.min(blockSize - offset, remaining);
+                this.scratch.limit(offset + n);
+                this.scratch.position(offset);
+                dst.put(this.scratch);
+            }
+            else
+            {
+                final int blocks = Math.min(remaining / blockSize, maxBlocks);
+                n = blocks * blockSize;
+                final ByteBuffer part = dst.duplicate();
+                part.limit(part.position() + n);
+                this.transferBlocks(false, lba, blocks, part);
+                dst.position(dst.position() + n);
+            }
+            pos += n;
+            remaining -= n;
+            total += n;
+        }
+        this.readBytes += total;
+        this.readTime += System.nanoTime() - start;
+        return total;
+    }
+
+    /**
+     * Writes bytes to the device starting at the specified position. The
+     * position of the buffer is advanced by the number of written bytes.
+     *
+     * @param src
+     *            The buffer from which bytes are to be transferred. The
+     *            number of remaining bytes must be a multiple of the block
+     *            size. Direct buffers are sent without copying.
+     * @param position
+     *            The device position at which the transfer is to begin. Must
+     *            be a multiple of the block size.
+     * @return The number of bytes written.
+     * @throws IOException
+     *             When a command failed.
+     */
+    public synchronized int write(final ByteBuffer src, final long position)
+        throws IOException
+    {
+        this.checkOpen();
+        final int blockSize = this.blockSize;
+        final int length = src.remaining();
+        if (position < 0 || position % blockSize != 0
+            || length % blockSize != 0)
+        {
+            throw new IllegalArgumentException(
+                "Writes must be aligned to the block size " + blockSize);
+        }
+        if (position + length > this.size())
+        {
+            throw new IllegalArgumentException("Write beyond end of device");
+        }
+        final int maxBlocks = Math.max(1, this.maxTransferSize / blockSize);
+        final long start = System.nanoTime();
+        long lba = position / blockSize;
+        int remaining = length / blockSize;
+        while (remaining > 0)
+        {
+            final int blocks = Math.min(remaining, maxBlocks);
+            final int n = blocks * blockSize;
+            final ByteBuffer part = src.duplicate();
+            part.limit(part.position() + n);
+            this.transferBlocks(true, lba, blocks, part);
+            src.position(src.position() + n);
+            lba += blocks;
+            remaining -= blocks;
+        }
+        this.writtenBytes += length;
+        this.writeTime += System.nanoTime() - start;
+        return length;
+    }
+
+    /**
+     * Forces the device to write cached data to the medium (SYNCHRONIZE
+     * CACHE).
+     *
+     * @throws IOException
+     *             When the command failed.
+     */
+    public synchronized void force() throws IOException
+    {
+        this.checkOpen();
+        final byte[] command = new byte[10];
+        command[0] = SYNCHRONIZE_CACHE_10;
+        this.execute(command, false, null);
+    }
+
+    /**
+     * Returns the block size.
+     *
+     * @return The block size in bytes.
+     */
+    public synchronized int getBlockSize()
+    {
+        return this.blockSize;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return The number of blocks.
+     */
+    public synchronized long getBlockCount()
+    {
+        return this.blockCount;
+    }
+
+    /**
+     * Returns the size of the device.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long size()
+    {
+        return this.blockCount * this.blockSize;
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     *
+     * @return The number of read bytes.
+     */
+    public synchronized long getReadBytes()
+    {
+        return this.readBytes;
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return The number of written bytes.
+     */
+    public synchronized long getWrittenBytes()
+    {
+        return this.writtenBytes;
+    }
+
+    /**
+     * Returns the read throughput.
+     *
+     * @return The read bytes per second spent reading.
+     */
+    public synchronized double getReadRate()
+    {
+        return this.readTime <= 0 ? 0
+            : this.readBytes * 1000000000.0 / this.readTime;
+    }
+
+    /**
+     * Returns the write throughput.
+     *
+     * @return The written bytes per second spent writing.
+     */
+    public synchronized double getWriteRate()
+    {
+        return this.writeTime <= 0 ? 0
+            : this.writtenBytes * 1000000000.0 / this.writeTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java SCSI block device (LUN %d) on %s",
+            this.lun, this.transport);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.msc;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a SCSI command failed. Carries the sense data reported by the
+ * device.
+ *
+ * @author usb4java Team
+ */
+public final class ScsiException extends IOException
+{
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The sense key. */
+    private final int senseKey;
+
+    /** The additional sense code. */
+    private final int asc;
+
+    /** The additional sense code qualifier. */
+    private final int ascq;
+
+    /**
+     * Constructs a new exception.
+     *
+     * @param message
+     *            The error message.
+     * @param senseKey
+     *            The sense key.
+     * @param asc
+     *            The additional sense code.
+     * @param ascq
+     *            The additional sense code qualifier.
+     */
+    public ScsiException(final String message, final int senseKey,
+        final int asc, final int ascq)
+    {
+        super(String.format("%s: sense key 0x%x, ASC 0x%02x, ASCQ 0x%02x",
+            message, senseKey, asc, ascq));
+        this.senseKey = senseKey;
+        this.asc = asc;
+        this.ascq = ascq;
+    }
+
+    /**
+     * Returns the sense key.
+     *
+     * @return The sense key. One of the SENSE_* constants of
+     *         {@link ScsiBlockDevice}.
+     */
+    public int getSenseKey()
+    {
+        return this.senseKey;
+    }
+
+    /**
+     * Returns the additional sense code.
+     *
+     * @return The additional sense code.
+     */
+    public int getAsc()
+    {
+        return this.asc;
+    }
+
+    /**
+     * Returns the additional sense code qualifier.
+     *
+     * @return The additional sense code qualifier.
+     */
+    public int getAscq()
+    {
+        return this.ascq;
+    }
+}
@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB Mass Storage Class (Bulk-Only Transport) block device support.
+ */
+package org.usb4java.msc;
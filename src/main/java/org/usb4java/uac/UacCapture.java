@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+import java.nio.ByteBuffer;
+
+import org.usb4java.IoBackend;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+
+/**
+ * Isochronous audio capture.
+ *
+ * The received packets are copied into the audio ring as soon as their
+ * request completes and the request is resubmitted right away. The
+ * application reads the PCM data from the ring. When the application
+ * doesn't keep up and the ring is full, the excess data is dropped and
+ * counted as buffer overrun.
+ *
+ * @author usb4java Team
+ */
+public final class UacCapture extends UacStream
+{
+    /** The data endpoint. */
+    private final byte endpoint;
+
+    /** The maximum packet size of the data endpoint. */
+    private final int maxPacketSize;
+
+    /** The number of packets per request. */
+    private final int packetsPerRequest;
+
+    /** The number of queued requests. */
+    private final int depth;
+
+    /** The number of packets which didn't fit completely into the ring. */
+    private volatile long overruns;
+
+    /** The number of dropped bytes because of overruns. */
+    private volatile long droppedBytes;
+
+    /** The number of received bytes. */
+    private volatile long receivedBytes;
+
+    /**
+     * Constructs a capture stream.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param format
+     *            The audio format.
+     * @param packetRate
+     *            The number of isochronous packets per second. 1000 for full
+     *            speed endpoints, 8000 / 2^(bInterval - 1) for high speed
+     *            endpoints.
+     * @param endpoint
+     *            The isochronous IN data endpoint.
+     * @param maxPacketSize
+     *            The maximum packet size of the data endpoint.
+     * @param packetsPerRequest
+     *            The number of packets per request. Received data is
+     *            available to the application after the whole request
+     *            completed, so fewer packets mean lower latency.
+     * @param depth
+     *            The number of requests to keep queued.
+     * @param bufferTime
+     *            The capacity of the audio ring in microseconds.
+     */
+    public UacCapture(final IoBackend backend, final UacFormat format,
+        final int packetRate, final byte endpoint, final int maxPacketSize,
+        final int packetsPerRequest, final int depth, final int bufferTime)
+    {
+        super(backend, format, packetRate, bufferTime);
+        this.endpoint = endpoint;
+        this.maxPacketSize = maxPacketSize;
+        this.packetsPerRequest = packetsPerRequest;
+        this.depth = depth;
+    }
+
+    @Override
+    IoRequest[] createRequests()
+    {
+        return this.createRequests(this.endpoint, this.depth,
+            this.packetsPerRequest, this.maxPacketSize, null);
+    }
+
+    @Override
+    void prepare(final IoRequest request)
+    {
+        request.buffer().clear();
+    }
+
+    @Override
+    void completed(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        int offset = 0;
+        for (int i = 0; i < request.numIsoPackets(); i++)
+        {
+            if (request.isoPacketStatus(i) == LibUsb.TRANSFER_COMPLETED)
+            {
+                final int length = request.isoPacketActualLength(i);
+                buffer.limit(offset + length).position(offset);
+                final int copied = this.ring.offer(buffer);
+                this.receivedBytes += length;
+                if (copied < length)
+                {
+                    this.overruns++;
+                    this.droppedBytes += length - copied;
+                }
+            }
+            else
+            {
+                this.errors++;
+            }
+            offset += request.isoPacketLength(i);
+            buffer.clear();
+        }
+    }
+
+    @Override
+    void failed(final IoRequest request)
+    {
+        // Nothing to clean up
+    }
+
+    /**
+     * Reads captured audio data. Blocks until at least one byte is
+     * available.
+     *
+     * @param target
+     *            The target buffer. Written from position to limit, the
+     *            position is advanced.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
+     * @return The number of read bytes. 0 on timeout.
+     * @throws InterruptedException
+     *             When interrupted while waiting for data.
+     */
+    public int read(final ByteBuffer target, final long timeout)
+        throws InterruptedException
+    {
+        if (!target.hasRemaining() || !this.ring.await(false, 1, timeout))
+        {
+            return 0;
+        }
+        final int count = this.ring.poll(target, target.position(),
+            target.remaining());
+        target.position(target.position() + count);
+        return count;
+    }
+
+    @Override
+    public long getLatency()
+    {
+        return this.format.toMicros(this.ring.size());
+    }
+
+    /**
+     * Returns the number of packets which didn't fit completely into the
+     * ring.
+     *
+     * @return The number of overruns.
+     */
+    public long getOverrunCount()
+    {
+        return this.overruns;
+    }
+
+    /**
+     * Returns the number of bytes dropped because of overruns.
+     *
+     * @return The number of dropped bytes.
+     */
+    public long getDroppedBytes()
+    {
+        return this.droppedBytes;
+    }
+
+    /**
+     * Returns the number of received bytes, including dropped bytes.
+     *
+     * @return The number of received bytes.
+     */
+    public long getReceivedBytes()
+    {
+        return this.receivedBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java UAC capture on endpoint 0x%02x (%s)",
+            this.endpoint & 0xff, this.format);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+/**
+ * The PCM format of an audio stream.
+ *
+ * @author usb4java Team
+ */
+public final class UacFormat
+{
+    /** The sample rate in Hz. */
+    private final int sampleRate;
+
+    /** The number of channels. */
+    private final int channels;
+
+    /** The number of bytes per sample (bSubslotSize). */
+    private final int subslotSize;
+
+    /**
+     * Constructs a format.
+     *
+     * @param sampleRate
+     *            The sample rate in Hz.
+     * @param channels
+     *            The number of channels.
+     * @param subslotSize
+     *            The number of bytes per sample (bSubframeSize in UAC1,
+     *            bSubslotSize in UAC2).
+     */
+    public UacFormat(final int sampleRate, final int channels,
+        final int subslotSize)
+    {
+        if (sampleRate <= 0 || channels <= 0 || subslotSize <= 0)
+        {
+            throw new IllegalArgumentException("Invalid audio format");
+        }
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.subslotSize = subslotSize;
+    }
+
+    /**
+     * Returns the sample rate.
+     *
+     * @return The sample rate in Hz.
+     */
+    public int getSampleRate()
+    {
+        return this.sampleRate;
+    }
+
+    /**
+     * Returns the number of channels.
+     *
+     * @return The number of channels.
+     */
+    public int getChannels()
+    {
+        return this.channels;
+    }
+
+    /**
+     * Returns the number of bytes per sample.
+     *
+     * @return The subslot size.
+     */
+    public int getSubslotSize()
+    {
+        return this.subslotSize;
+    }
+
+    /**
+     * Returns the size of an audio frame (one sample of each channel).
+     *
+     * @return The frame size in bytes.
+     */
+    public int getFrameSize()
+    {
+        return this.channels * this.subslotSize;
+    }
+
+    /**
+     * Converts a number of bytes into play time.
+     *
+     * @param bytes
+     *            The number of bytes.
+     * @return The play time in microseconds.
+     */
+    public long toMicros(final long bytes)
+    {
+        return bytes / this.getFrameSize() * 1000000L / this.sampleRate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d Hz, %d channels, %d bytes per sample",
+            this.sampleRate, this.channels, this.subslotSize);
+    }
+}
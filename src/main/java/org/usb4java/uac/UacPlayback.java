@@ -0,0 +1,447 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.usb4java.EndpointDescriptor;
+import org.usb4java.IoBackend;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+
+/**
+ * Isochronous audio playback.
+ *
+ * The application writes PCM data into the audio ring, from which each
+ * isochronous request is filled right before it is submitted. The size of
+ * every packet is computed individually from the current rate with a
+ * fractional accumulator, so 44.1 kHz on a full speed endpoint yields the
+ * expected pattern of 44 and 45 frame packets.
+ *
+ * Asynchronous devices report their actual clock through a feedback
+ * endpoint (the bSynchAddress of the data endpoint). When a feedback
+ * endpoint is configured with {@link #setFeedback(byte, int)}, its value
+ * replaces the nominal rate, so the host sends exactly as many frames as
+ * the device consumes and the device buffer neither over- nor underflows.
+ * Feedback requests span 2^bRefresh packets because the device updates the
+ * value only once per refresh period.
+ *
+ * When the ring doesn't hold enough data for a packet, the missing part is
+ * filled with silence and counted as buffer underrun.
+ *
+ * @author usb4java Team
+ */
+public final class UacPlayback extends UacStream
+{
+    /** User data marking the feedback requests. */
+    private static final Object FEEDBACK = new Object();
+
+    /** The number of queued feedback requests. */
+    private static final int FEEDBACK_REQUESTS = 2;
+
+    /** The maximum size of a feedback packet. */
+    private static final int FEEDBACK_SIZE = 4;
+
+    /** The maximum feedback refresh exponent. */
+    private static final int MAX_REFRESH = 9;
+
+    /** The data endpoint. */
+    private final byte endpoint;
+
+    /** The maximum packet size of the data endpoint. */
+    private final int maxPacketSize;
+
+    /** The number of packets per request. */
+    private final int packetsPerRequest;
+
+    /** The number of queued data requests. */
+    private final int depth;
+
+    /** The nominal rate in frames per packet, 16.16 fixed point. */
+    private final long nominalRate;
+
+    /** The feedback endpoint. 0 for none. */
+    private byte feedbackEndpoint;
+
+    /** The feedback refresh exponent. */
+    private int feedbackRefresh;
+
+    /** The current rate in frames per packet, 16.16 fixed point. */
+    private volatile long rate;
+
+    /** The fractional frames carried over to the next packet. */
+    private long accumulator;
+
+    /** The number of bytes in submitted data requests. */
+    private final AtomicLong queuedBytes = new AtomicLong();
+
+    /** The number of packets which were not completely filled. */
+    private volatile long underruns;
+
+    /** The number of silence bytes inserted because of underruns. */
+    private volatile long silenceBytes;
+
+    /** The number of accepted feedback values. */
+    private volatile long feedbackCount;
+
+    /** The number of rejected feedback values. */
+    private volatile long invalidFeedbackCount;
+
+    /**
+     * Constructs a playback stream.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param format
+     *            The audio format.
+     * @param packetRate
+     *            The number of isochronous packets per second. 1000 for full
+     *            speed endpoints, 8000 / 2^(bInterval - 1) for high speed
+     *            endpoints.
+     * @param endpoint
+     *            The isochronous OUT data endpoint.
+     * @param maxPacketSize
+     *            The maximum packet size of the data endpoint.
+     * @param packetsPerRequest
+     *            The number of packets per request.
+     * @param depth
+     *            The number of requests to keep queued. The latency added
+     *            by the queued requests is depth * packetsPerRequest
+     *            packets.
+     * @param bufferTime
+     *            The capacity of the audio ring in microseconds.
+     */
+    public UacPlayback(final IoBackend backend, final UacFormat format,
+        final int packetRate, final byte endpoint, final int maxPacketSize,
+        final int packetsPerRequest, final int depth, final int bufferTime)
+    {
+        super(backend, format, packetRate, bufferTime);
+        this.endpoint = endpoint;
+        this.maxPacketSize = maxPacketSize;
+        this.packetsPerRequest = packetsPerRequest;
+        this.depth = depth;
+        this.nominalRate = ((long) format.getSampleRate() << 16) / packetRate;
+        this.rate = this.nominalRate;
+        if (this.maxFrames() < (this.nominalRate >> 16) + 1)
+        {
+            throw new IllegalArgumentException(
+                "maxPacketSize is too small for the audio format");
+        }
+    }
+
+    /**
+     * Configures the feedback endpoint. Must be called before the stream is
+     * started.
+     *
+     * @param feedbackEndpoint
+     *            The isochronous IN feedback endpoint. 0 for none.
+     * @param refresh
+     *            The feedback refresh exponent (bRefresh). The device
+     *            updates the feedback value every 2^refresh packets.
+     */
+    public synchronized void setFeedback(final byte feedbackEndpoint,
+        final int refresh)
+    {
+        if (this.isRunning())
+        {
+            throw new IllegalStateException("Stream is running");
+        }
+        this.feedbackEndpoint = feedbackEndpoint;
+        this.feedbackRefresh = Math.max(0, Math.min(refresh, MAX_REFRESH));
+    }
+
+    /**
+     * Configures the feedback endpoint from the endpoint descriptors. The
+     * feedback endpoint is the bSynchAddress of the data endpoint, the
+     * refresh exponent is the bRefresh of the feedback endpoint. UAC2
+     * feedback endpoints have no bRefresh field, they are polled at their
+     * bInterval.
+     *
+     * @param data
+     *            The descriptor of the data endpoint.
+     * @param feedback
+     *            The descriptor of the feedback endpoint. Null for none.
+     */
+    public void setFeedback(final EndpointDescriptor data,
+        final EndpointDescriptor feedback)
+    {
+        if (feedback == null)
+        {
+            this.setFeedback((byte) 0, 0);
+            return;
+        }
+        final byte address = data.bSynchAddress() != 0
+            ? data.bSynchAddress() : feedback.bEndpointAddress();
+        this.setFeedback(address, feedback.bLength()
+            >= LibUsb.DT_ENDPOINT_AUDIO_SIZE ? feedback.bRefresh() : 0);
+    }
+
+    /**
+     * Returns the maximum number of frames fitting into a packet.
+     *
+     * @return The maximum number of frames.
+     */
+    private int maxFrames()
+    {
+        return this.maxPacketSize / this.format.getFrameSize();
+    }
+
+    @Override
+    IoRequest[] createRequests()
+    {
+        final IoRequest[] data = this.createRequests(this.endpoint,
+            this.depth, this.packetsPerRequest, this.maxPacketSize, null);
+        if (this.feedbackEndpoint == 0)
+        {
+            return data;
+        }
+        final IoRequest[] feedback = this.createRequests(
+            this.feedbackEndpoint, FEEDBACK_REQUESTS,
+            1 << this.feedbackRefresh, FEEDBACK_SIZE, FEEDBACK);
+        final IoRequest[] requests = new IoRequest[data.length
+            + feedback.length];
+        System.arraycopy(feedback, 0, requests, 0, feedback.length);
+        System.arraycopy(data, 0, requests, feedback.length, data.length);
+        return requests;
+    }
+
+    @Override
+    void prepare(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        if (request.userData() == FEEDBACK)
+        {
+            buffer.clear();
+            return;
+        }
+        final int frameSize = this.format.getFrameSize();
+        final int maxFrames = this.maxFrames();
+        final long rate = this.rate;
+        final int packets = request.numIsoPackets();
+        int total = 0;
+        for (int i = 0; i < packets; i++)
+        {
+            this.accumulator += rate;
+            final int frames = (int) Math.min(this.accumulator >> 16,
+                maxFrames);
+            this.accumulator -= (long) frames << 16;
+            final int length = frames * frameSize;
+            request.setIsoPacketLength(i, length);
+            total += length;
+        }
+        buffer.clear();
+        final int filled = this.ring.poll(buffer, 0, total);
+        if (filled < total)
+        {
+            for (int i = filled; i < total; i++)
+            {
+                buffer.put(i, (byte) 0);
+            }
+            this.underruns++;
+            this.silenceBytes += total - filled;
+        }
+        buffer.limit(total);
+        this.queuedBytes.addAndGet(total);
+    }
+
+    @Override
+    void completed(final IoRequest request)
+    {
+        if (request.userData() == FEEDBACK)
+        {
+            this.processFeedback(request);
+            return;
+        }
+        this.queuedBytes.addAndGet(-request.buffer().limit());
+        for (int i = 0; i < request.numIsoPackets(); i++)
+        {
+            if (request.isoPacketStatus(i) != LibUsb.TRANSFER_COMPLETED)
+            {
+                this.errors++;
+            }
+        }
+    }
+
+    @Override
+    void failed(final IoRequest request)
+    {
+        if (request.userData() != FEEDBACK)
+        {
+            this.queuedBytes.addAndGet(-request.buffer().limit());
+        }
+    }
+
+    /**
+     * Processes a completed feedback request. The last valid packet wins.
+     *
+     * @param request
+     *            The feedback request.
+     */
+    private void processFeedback(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        int offset = 0;
+        long value = -1;
+        for (int i = 0; i < request.numIsoPackets(); i++)
+        {
+            if (request.isoPacketStatus(i) == LibUsb.TRANSFER_COMPLETED)
+            {
+                final long packetValue = parseFeedback(buffer, offset,
+                    request.isoPacketActualLength(i));
+                if (packetValue >= 0)
+                {
+                    value = packetValue;
+                }
+            }
+            offset += request.isoPacketLength(i);
+        }
+        if (value < 0)
+        {
+            return;
+        }
+        // Reject values deviating more than 1/8 from the nominal rate
+        final long nominal = this.nominalRate;
+        if (Math.abs(value - nominal) > nominal >> 3)
+        {
+            this.invalidFeedbackCount++;
+            return;
+        }
+        this.rate = value;
+        this.feedbackCount++;
+    }
+
+    /**
+     * Parses a feedback value.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param offset
+     *            The absolute offset of the value.
+     * @param length
+     *            The length of the value. 3 bytes for the 10.14 full speed
+     *            format, 4 bytes for the 16.16 high speed format.
+     * @return The rate in frames per packet as 16.16 fixed point number or
+     *         -1 if the length is invalid.
+     */
+    static long parseFeedback(final ByteBuffer buffer, final int offset,
+        final int length)
+    {
+        if (length < 3 || length > FEEDBACK_SIZE)
+        {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            value |= (buffer.get(offset + i) & 0xffL) << (i * 8);
+        }
+        return length == 3 ? value << 2 : value;
+    }
+
+    /**
+     * Writes audio data into the ring. Blocks until all data is written.
+     *
+     * @param source
+     *            The PCM data. Read from position to limit, the position is
+     *            advanced.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
+     * @return The number of written bytes. Less than requested on timeout.
+     * @throws InterruptedException
+     *             When interrupted while waiting for free space.
+     */
+    public int write(final ByteBuffer source, final long timeout)
+        throws InterruptedException
+    {
+        int written = 0;
+        while (source.hasRemaining())
+        {
+            written += this.ring.offer(source);
+            if (source.hasRemaining()
+                && !this.ring.await(true, 1, timeout))
+            {
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Discards the audio data in the ring.
+     */
+    public void flush()
+    {
+        this.ring.clear();
+    }
+
+    @Override
+    public long getLatency()
+    {
+        return this.format.toMicros(this.ring.size()
+            + this.queuedBytes.get());
+    }
+
+    /**
+     * Returns the current rate.
+     *
+     * @return The rate in frames per second. Either the nominal sample rate
+     *         or the rate reported by the feedback endpoint.
+     */
+    public double getRate()
+    {
+        return this.rate * (double) this.packetRate / 65536;
+    }
+
+    /**
+     * Returns the number of packets which could not be filled completely
+     * because the ring ran empty.
+     *
+     * @return The number of underruns.
+     */
+    public long getUnderrunCount()
+    {
+        return this.underruns;
+    }
+
+    /**
+     * Returns the number of silence bytes inserted because of underruns.
+     *
+     * @return The number of silence bytes.
+     */
+    public long getSilenceBytes()
+    {
+        return this.silenceBytes;
+    }
+
+    /**
+     * Returns the number of accepted feedback values.
+     *
+     * @return The number of feedback values.
+     */
+    public long getFeedbackCount()
+    {
+        return this.feedbackCount;
+    }
+
+    /**
+     * Returns the number of feedback values which were rejected because
+     * they deviated too much from the nominal rate.
+     *
+     * @return The number of invalid feedback values.
+     */
+    public long getInvalidFeedbackCount()
+    {
+        return this.invalidFeedbackCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java UAC playback on endpoint 0x%02x (%s)",
+            this.endpoint & 0xff, this.format);
+    }
+}
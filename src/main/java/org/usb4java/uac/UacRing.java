@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+import java.nio.ByteBuffer;
+
+import org.usb4java.BufferUtils;
+
+/**
+ * A byte FIFO in a direct buffer between the application and the
+ * isochronous requests. Copies never allocate.
+ *
+ * @author usb4java Team
+ */
+final class UacRing
+{
+    /** The ring buffer. Its position and limit are used as copy window. */
+    private final ByteBuffer data;
+
+    /** The capacity in bytes. */
+    private final int capacity;
+
+    /** The index of the oldest byte. */
+    private int head;
+
+    /** The number of bytes in the ring. */
+    private int size;
+
+    /**
+     * Constructs a ring.
+     *
+     * @param capacity
+     *            The capacity in bytes.
+     */
+    UacRing(final int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.data = BufferUtils.allocateByteBuffer(capacity);
+    }
+
+    /**
+     * Copies bytes from the source buffer into the ring, as many as fit.
+     *
+     * @param source
+     *            The source buffer. Read from position to limit, the
+     *            position is advanced.
+     * @return The number of copied bytes.
+     */
+    synchronized int offer(final ByteBuffer source)
+    {
+        final int count = Math.min(source.remaining(),
+            this.capacity - this.size);
+        int tail = (this.head + this.size) % this.capacity;
+        int remaining = count;
+        final int limit = source.limit();
+        while (remaining > 0)
+        {
+            final int chunk = Math.min(remaining, this.capacity - tail);
+            this.data.limit(tail + chunk).position(tail);
+            source.limit(source.position() + chunk);
+            this.data.put(source);
+            tail = (tail + chunk) % this.capacity;
+            remaining -= chunk;
+        }
+        source.limit(limit);
+        this.size += count;
+        if (count > 0)
+        {
+            this.notifyAll();
+        }
+        return count;
+    }
+
+    /**
+     * Copies bytes from the ring into the target buffer.
+     *
+     * @param target
+     *            The target buffer. Its position and limit are not modified.
+     * @param offset
+     *            The absolute offset in the target buffer.
+     * @param length
+     *            The maximum number of bytes to copy.
+     * @return The number of copied bytes.
+     */
+    synchronized int poll(final ByteBuffer target, final int offset,
+        final int length)
+    {
+        final int count = Math.min(length, this.size);
+        final int position = target.position();
+        final int limit = target.limit();
+        target.limit(offset + count).position(offset);
+        int remaining = count;
+        while (remaining > 0)
+        {
+            final int chunk = Math.min(remaining, this.capacity - this.head);
+            this.data.limit(this.head + chunk).position(this.head);
+            target.put(this.data);
+            this.head = (this.head + chunk) % this.capacity;
+            remaining -= chunk;
+        }
+        target.limit(limit).position(position);
+        this.size -= count;
+        if (count > 0)
+        {
+            this.notifyAll();
+        }
+        return count;
+    }
+
+    /**
+     * Waits until the ring has enough free space or enough data.
+     *
+     * @param free
+     *            True to wait for free space, false to wait for data.
+     * @param bytes
+     *            The number of bytes to wait for.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
+     * @return True if the condition is met, false on timeout.
+     * @throws InterruptedException
+     *             When interrupted while waiting.
+     */
+    synchronized boolean await(final boolean free, final int bytes,
+        final long timeout) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + timeout;
+        while ((free ? this.capacity - this.size : this.size) < bytes)
+        {
+            if (timeout == 0)
+            {
+                this.wait();
+            }
+            else
+            {
+                final long left = deadline - System.currentTimeMillis();
+                if (left <= 0)
+                {
+                    return false;
+                }
+                this.wait(left);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Discards all bytes.
+     */
+    synchronized void clear()
+    {
+        this.head = 0;
+        this.size = 0;
+        this.notifyAll();
+    }
+
+    /**
+     * Returns the number of bytes in the ring.
+     *
+     * @return The number of bytes.
+     */
+    synchronized int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the capacity of the ring.
+     *
+     * @return The capacity in bytes.
+     */
+    int capacity()
+    {
+        return this.capacity;
+    }
+}
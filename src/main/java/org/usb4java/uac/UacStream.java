@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.usb4java.BufferUtils;
+import org.usb4java.IoBackend;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.RequestRing;
+
+/**
+ * Base class of the isochronous audio streams. Keeps a {@link RequestRing}
+ * of isochronous requests queued and resubmits each request right after it
+ * has been processed.
+ *
+ * @author usb4java Team
+ */
+public abstract class UacStream
+{
+    /** The backend. */
+    final IoBackend backend;
+
+    /** The audio format. */
+    final UacFormat format;
+
+    /** The number of isochronous packets per second. */
+    final int packetRate;
+
+    /** The audio data ring between application and requests. */
+    final UacRing ring;
+
+    /** The ring of isochronous requests. */
+    private final RequestRing requestRing;
+
+    /** The number of failed requests and isochronous packets. */
+    volatile long errors;
+
+    /** The result code of the last failure. */
+    private volatile int lastError = LibUsb.SUCCESS;
+
+    /**
+     * Constructs a stream.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param format
+     *            The audio format.
+     * @param packetRate
+     *            The number of isochronous packets per second. 1000 for full
+     *            speed endpoints, 8000 / 2^(bInterval - 1) for high speed
+     *            endpoints.
+     * @param bufferTime
+     *            The capacity of the audio ring in microseconds.
+     */
+    UacStream(final IoBackend backend, final UacFormat format,
+        final int packetRate, final int bufferTime)
+    {
+        if (packetRate <= 0)
+        {
+            throw new IllegalArgumentException("packetRate must be positive");
+        }
+        this.backend = backend;
+        this.format = format;
+        this.packetRate = packetRate;
+        this.ring = new UacRing((int) Math.max(1, (long) bufferTime
+            * format.getSampleRate() / 1000000L) * format.getFrameSize());
+        this.requestRing = new RequestRing(backend, new RequestRing.Handler()
+        {
+            @Override
+            public void prepare(final IoRequest request)
+            {
+                UacStream.this.prepare(request);
+            }
+
+            @Override
+            public void completed(final IoRequest request)
+            {
+                UacStream.this.completed(request);
+            }
+
+            @Override
+            public void failed(final IoRequest request, final int result)
+            {
+                UacStream.this.recordFailure(request, result);
+            }
+        });
+    }
+
+    /**
+     * Creates isochronous requests with buffers sliced from a single direct
+     * buffer.
+     *
+     * @param endpoint
+     *            The endpoint.
+     * @param count
+     *            The number of requests.
+     * @param packets
+     *            The number of packets per request.
+     * @param packetSize
+     *            The maximum packet size.
+     * @param userData
+     *            The user data of the requests.
+     * @return The requests.
+     */
+    final IoRequest[] createRequests(final byte endpoint, final int count,
+        final int packets, final int packetSize, final Object userData)
+    {
+        if (count <= 0 || packets <= 0)
+        {
+            throw new IllegalArgumentException(
+                "Number of requests and packets must be positive");
+        }
+        final ByteBuffer buffer = BufferUtils.allocateByteBuffer(count
+            * packets * packetSize);
+        final IoRequest[] requests = new IoRequest[count];
+        for (int i = 0; i < count; i++)
+        {
+            final int[] lengths = new int[packets];
+            Arrays.fill(lengths, packetSize);
+            requests[i] = new IoRequest();
+            requests[i].fillIso(endpoint, BufferUtils.slice(buffer,
+                i * packets * packetSize, packets * packetSize), lengths,
+                this.requestRing, userData, 0);
+        }
+        return requests;
+    }
+
+    /**
+     * Creates all requests of the stream.
+     *
+     * @return The requests.
+     */
+    abstract IoRequest[] createRequests();
+
+    /**
+     * Prepares a request before it is submitted.
+     *
+     * @param request
+     *            The request.
+     */
+    abstract void prepare(IoRequest request);
+
+    /**
+     * Processes a successfully completed request.
+     *
+     * @param request
+     *            The request.
+     */
+    abstract void completed(IoRequest request);
+
+    /**
+     * Called when a request finished with an error or was cancelled.
+     *
+     * @param request
+     *            The request.
+     */
+    abstract void failed(IoRequest request);
+
+    /**
+     * Records a request which was not processed and lets the stream clean up
+     * after it.
+     *
+     * @param request
+     *            The request.
+     * @param result
+     *            The error code, {@link LibUsb#ERROR_INTERRUPTED} if
+     *            cancelled or {@link LibUsb#SUCCESS} if stopped.
+     */
+    private void recordFailure(final IoRequest request, final int result)
+    {
+        this.failed(request);
+        if (result != LibUsb.SUCCESS && result != LibUsb.ERROR_INTERRUPTED)
+        {
+            this.errors++;
+            this.lastError = result;
+        }
+    }
+
+    /**
+     * Starts streaming.
+     *
+     * @return {@link LibUsb#SUCCESS} or the error code of the first request
+     *         which could not be submitted. Already submitted requests are
+     *         cancelled in this case.
+     */
+    public final synchronized int start()
+    {
+        if (this.requestRing.isStarted())
+        {
+            throw new IllegalStateException("Stream is already running");
+        }
+        return this.requestRing.start(this.createRequests());
+    }
+
+    /**
+     * Stops streaming and waits until all requests are finished.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting.
+     */
+    public final synchronized void stop() throws InterruptedException
+    {
+        this.requestRing.stop();
+    }
+
+    /**
+     * Checks if the stream is running.
+     *
+     * @return True if running.
+     */
+    public final boolean isRunning()
+    {
+        return this.requestRing.isRunning();
+    }
+
+    /**
+     * Returns the audio format.
+     *
+     * @return The audio format.
+     */
+    public final UacFormat getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Returns the number of failed requests and isochronous packets.
+     *
+     * @return The number of errors.
+     */
+    public final long getErrorCount()
+    {
+        return this.errors;
+    }
+
+    /**
+     * Returns the result code of the last failed request.
+     *
+     * @return The error code or {@link LibUsb#SUCCESS} if no request failed.
+     */
+    public final int getLastError()
+    {
+        return this.lastError;
+    }
+
+    /**
+     * Returns the number of bytes in the audio ring.
+     *
+     * @return The number of buffered bytes.
+     */
+    public final int getBufferedBytes()
+    {
+        return this.ring.size();
+    }
+
+    /**
+     * Returns the current latency of the stream: The play time of the audio
+     * data which is buffered between the application and the device.
+     *
+     * @return The latency in microseconds.
+     */
+    public abstract long getLatency();
+}
@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB Audio Class (UAC1 and UAC2) isochronous playback and capture.
+ */
+package org.usb4java.uac;
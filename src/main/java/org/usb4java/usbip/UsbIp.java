@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import org.usb4java.LibUsb;
+
+/**
+ * Constants and conversions of the USB/IP protocol. All protocol fields are
+ * big endian.
+ *
+ * @author usb4java Team
+ */
+public final class UsbIp
+{
+    /** The default TCP port. */
+    public static final int DEFAULT_PORT = 3240;
+
+    /** The protocol version. */
+    public static final int VERSION = 0x0111;
+
+    /** Operation: Request the list of exported devices. */
+    public static final int OP_REQ_DEVLIST = 0x8005;
+
+    /** Operation: Reply with the list of exported devices. */
+    public static final int OP_REP_DEVLIST = 0x0005;
+
+    /** Operation: Request to import a device. */
+    public static final int OP_REQ_IMPORT = 0x8003;
+
+    /** Operation: Reply to an import request. */
+    public static final int OP_REP_IMPORT = 0x0003;
+
+    /** The size of an operation header. */
+    public static final int OP_HEADER_SIZE = 8;
+
+    /** Command: Submit an URB. */
+    public static final int CMD_SUBMIT = 1;
+
+    /** Command: Unlink (cancel) an URB. */
+    public static final int CMD_UNLINK = 2;
+
+    /** Reply: Result of a submitted URB. */
+    public static final int RET_SUBMIT = 3;
+
+    /** Reply: Result of an unlink command. */
+    public static final int RET_UNLINK = 4;
+
+    /** The size of a command or reply header. */
+    public static final int HEADER_SIZE = 48;
+
+    /** The size of an isochronous packet descriptor. */
+    public static final int ISO_DESCRIPTOR_SIZE = 16;
+
+    /** Direction: Host to device. */
+    public static final int DIR_OUT = 0;
+
+    /** Direction: Device to host. */
+    public static final int DIR_IN = 1;
+
+    /** Transfer flag: Short IN transfers are an error. */
+    public static final int URB_SHORT_NOT_OK = 0x0001;
+
+    /** Transfer flag: Terminate OUT transfers with a zero length packet. */
+    public static final int URB_ZERO_PACKET = 0x0040;
+
+    /** The size of the bus ID field. */
+    public static final int BUS_ID_SIZE = 32;
+
+    /** Linux errno: No such file or directory. */
+    public static final int ENOENT = 2;
+
+    /** Linux errno: Broken pipe (endpoint stalled). */
+    public static final int EPIPE = 32;
+
+    /** Linux errno: Protocol error. */
+    public static final int EPROTO = 71;
+
+    /** Linux errno: Value too large (babble). */
+    public static final int EOVERFLOW = 75;
+
+    /** Linux errno: Connection reset (URB unlinked). */
+    public static final int ECONNRESET = 104;
+
+    /** Linux errno: Cannot send after shutdown (device gone). */
+    public static final int ESHUTDOWN = 108;
+
+    /** Linux errno: Connection timed out. */
+    public static final int ETIMEDOUT = 110;
+
+    /** Linux USB speed: Unknown. */
+    public static final int SPEED_UNKNOWN = 0;
+
+    /** Linux USB speed: Low speed. */
+    public static final int SPEED_LOW = 1;
+
+    /** Linux USB speed: Full speed. */
+    public static final int SPEED_FULL = 2;
+
+    /** Linux USB speed: High speed. */
+    public static final int SPEED_HIGH = 3;
+
+    /** Linux USB speed: Super speed. */
+    public static final int SPEED_SUPER = 5;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private UsbIp()
+    {
+        // Empty
+    }
+
+    /**
+     * Converts a libusb transfer status into a USB/IP URB status.
+     *
+     * @param status
+     *            One of the TRANSFER_* status constants of {@link LibUsb}.
+     * @return The URB status (0 or a negative Linux errno).
+     */
+    public static int toUrbStatus(final int status)
+    {
+        switch (status)
+        {
+            case LibUsb.TRANSFER_COMPLETED:
+                return 0;
+            case LibUsb.TRANSFER_TIMED_OUT:
+                return -ETIMEDOUT;
+            case LibUsb.TRANSFER_CANCELLED:
+                return -ECONNRESET;
+            case LibUsb.TRANSFER_STALL:
+                return -EPIPE;
+            case LibUsb.TRANSFER_NO_DEVICE:
+                return -ESHUTDOWN;
+            case LibUsb.TRANSFER_OVERFLOW:
+                return -EOVERFLOW;
+            default:
+                return -EPROTO;
+        }
+    }
+
+    /**
+     * Converts a USB/IP URB status into a libusb transfer status.
+     *
+     * @param status
+     *            The URB status (0 or a negative Linux errno).
+     * @return One of the TRANSFER_* status constants of {@link LibUsb}.
+     */
+    public static int toTransferStatus(final int status)
+    {
+        switch (-status)
+        {
+            case 0:
+                return LibUsb.TRANSFER_COMPLETED;
+            case ETIMEDOUT:
+                return LibUsb.TRANSFER_TIMED_OUT;
+            case ECONNRESET:
+            case ENOENT:
+                return LibUsb.TRANSFER_CANCELLED;
+            case EPIPE:
+                return LibUsb.TRANSFER_STALL;
+            case ESHUTDOWN:
+                return LibUsb.TRANSFER_NO_DEVICE;
+            case EOVERFLOW:
+                return LibUsb.TRANSFER_OVERFLOW;
+            default:
+                return LibUsb.TRANSFER_ERROR;
+        }
+    }
+
+    /**
+     * Converts a libusb device speed into a Linux USB speed.
+     *
+     * @param speed
+     *            One of the SPEED_* constants of {@link LibUsb}.
+     * @return One of the SPEED_* constants of this class.
+     */
+    public static int toLinuxSpeed(final int speed)
+    {
+        switch (speed)
+        {
+            case LibUsb.SPEED_LOW:
+                return SPEED_LOW;
+            case LibUsb.SPEED_FULL:
+                return SPEED_FULL;
+            case LibUsb.SPEED_HIGH:
+                return SPEED_HIGH;
+            case LibUsb.SPEED_SUPER:
+                return SPEED_SUPER;
+            default:
+                return SPEED_UNKNOWN;
+        }
+    }
+}
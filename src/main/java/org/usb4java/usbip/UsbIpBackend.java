@@ -0,0 +1,1318 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.usb4java.BlockingIo;
+import org.usb4java.BufferUtils;
+import org.usb4java.IoBackend;
+import org.usb4java.IoCallback;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+
+/**
+ * I/O backend for a device attached from a remote host with
+ * {@link UsbIpClient#attach(java.net.InetSocketAddress, String)}.
+ *
+ * Requests are sent as USB/IP URBs without waiting for earlier URBs to
+ * complete, so the remote device sees the same queue depth as a local one.
+ * A writer thread sends all URBs submitted since its last write with a
+ * single gathering write, so bursts of small requests share TCP segments.
+ * A reader thread receives the replies and completes the requests, so
+ * callbacks are called on the reader thread.
+ *
+ * Bulk IN endpoints with stream semantics can hide the network round trip
+ * with {@link #enableReadAhead(byte, int, int)}.
+ *
+ * @author usb4java Team
+ */
+public final class UsbIpBackend implements IoBackend, Closeable
+{
+    /** The size of the receive buffer. */
+    private static final int INPUT_SIZE = 65536;
+
+    /** Data of at least this size is read directly into request buffers. */
+    private static final int DIRECT_READ_SIZE = 4096;
+
+    /** An empty buffer. */
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /** The socket channel. */
+    private final SocketChannel channel;
+
+    /** The attached device. */
+    private final UsbIpDevice device;
+
+    /** The last used sequence number. */
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /** The URBs and unlink commands waiting for a reply by sequence number. */
+    private final Map<Integer, Urb> pending =
+        new ConcurrentHashMap<Integer, Urb>();
+
+    /** The URBs of the submitted requests. */
+    private final ConcurrentMap<IoRequest, Urb> requests =
+        new ConcurrentHashMap<IoRequest, Urb>();
+
+    /** The unused URBs. */
+    private final Queue<Urb> free = new ConcurrentLinkedQueue<Urb>();
+
+    /** The read-ahead of bulk IN endpoints by endpoint address. */
+    private final ConcurrentMap<Byte, ReadAhead> readAheads =
+        new ConcurrentHashMap<Byte, ReadAhead>();
+
+    /** Guards submissions against the shutdown. */
+    private final Object lifecycle = new Object();
+
+    /** Guards the send queue. */
+    private final Object sendLock = new Object();
+
+    /** The URBs waiting to be sent. Guarded by the send lock. */
+    private List<Urb> sendQueue = new ArrayList<Urb>();
+
+    /** The URBs being sent. Writer thread only. */
+    private List<Urb> sending = new ArrayList<Urb>();
+
+    /** The buffers of a gathering write. Writer thread only. */
+    private ByteBuffer[] gather = new ByteBuffer[64];
+
+    /** The receive buffer. Reader thread only. */
+    private final ByteBuffer input =
+        BufferUtils.allocateByteBuffer(INPUT_SIZE);
+
+    /** The reply header. Reader thread only. */
+    private final ByteBuffer header = ByteBuffer.allocate(UsbIp.HEADER_SIZE);
+
+    /** The received isochronous packet descriptors. Reader thread only. */
+    private ByteBuffer iso = ByteBuffer.allocate(0);
+
+    /** Thread scheduling timeouts and delivering read-ahead data. */
+    private final ScheduledExecutorService dispatcher;
+
+    /** The reader thread. */
+    private final Thread reader;
+
+    /** The writer thread. */
+    private final Thread writer;
+
+    /** Whether the backend is closed. */
+    private volatile boolean closed;
+
+    /** The number of submitted URBs. */
+    private final AtomicLong submittedUrbs = new AtomicLong();
+
+    /** The number of completed URBs. */
+    private final AtomicLong completedUrbs = new AtomicLong();
+
+    /** The number of gathering writes. */
+    private volatile long writes;
+
+    /**
+     * Constructs a backend and starts its threads.
+     *
+     * @param channel
+     *            The connected blocking channel after a successful import.
+     * @param device
+     *            The attached device.
+     */
+    UsbIpBackend(final SocketChannel channel, final UsbIpDevice device)
+    {
+        this.channel = channel;
+        this.device = device;
+        this.input.flip();
+        final String name = "usb4java USB/IP " + device.getBusId();
+        final ScheduledThreadPoolExecutor executor =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable,
+                        name + " dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.dispatcher = executor;
+        this.reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                UsbIpBackend.this.receive();
+            }
+        }, name + " reader");
+        this.writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                UsbIpBackend.this.send();
+            }
+        }, name + " writer");
+        this.reader.setDaemon(true);
+        this.writer.setDaemon(true);
+        this.reader.start();
+        this.writer.start();
+    }
+
+    /**
+     * Returns the attached device.
+     *
+     * @return The device description.
+     */
+    public UsbIpDevice getDevice()
+    {
+        return this.device;
+    }
+
+    /**
+     * Reads a descriptor of the remote device with a GET_DESCRIPTOR
+     * request. Blocks until the descriptor is received.
+     *
+     * @param type
+     *            The descriptor type, for example {@link LibUsb#DT_CONFIG}.
+     * @param index
+     *            The descriptor index.
+     * @param data
+     *            The buffer receiving the descriptor. Its remaining bytes
+     *            determine the requested length.
+     * @param timeout
+     *            The timeout in milliseconds. 0 for no timeout.
+     * @return The number of received bytes or an ERROR code on failure.
+     */
+    public int getDescriptor(final byte type, final byte index,
+        final ByteBuffer data, final long timeout)
+    {
+        return new BlockingIo(this).controlTransfer(LibUsb.ENDPOINT_IN,
+            LibUsb.REQUEST_GET_DESCRIPTOR,
+            (short) ((type & 0xff) << 8 | (index & 0xff)), (short) 0, data,
+            timeout);
+    }
+
+    /**
+     * Keeps bulk IN URBs outstanding on an endpoint, so data is transferred
+     * before the application asks for it. Requests submitted for the
+     * endpoint afterwards are served from the received data. A request
+     * never receives data of two URBs, so short transfers still end a
+     * request, but a request smaller than the received data gets the rest
+     * in the next request. Use it only for endpoints with stream semantics
+     * like serial data, where data is not lost when the application stops
+     * reading.
+     *
+     * @param endpoint
+     *            The bulk IN endpoint address.
+     * @param depth
+     *            The number of URBs kept outstanding.
+     * @param size
+     *            The transfer buffer length of the URBs.
+     * @return {@link LibUsb#SUCCESS} or an ERROR code if the URBs could not
+     *         be submitted.
+     */
+    public int enableReadAhead(final byte endpoint, final int depth,
+        final int size)
+    {
+        if ((endpoint & LibUsb.ENDPOINT_IN) == 0 || depth < 1 || size < 1)
+        {
+            return LibUsb.ERROR_INVALID_PARAM;
+        }
+        final ReadAhead readAhead = new ReadAhead();
+        if (this.readAheads.putIfAbsent(endpoint, readAhead) != null)
+        {
+            return LibUsb.ERROR_BUSY;
+        }
+        final List<IoRequest> submitted = new ArrayList<IoRequest>(depth);
+        for (int i = 0; i < depth; i++)
+        {
+            final IoRequest request = new IoRequest();
+            request.fillBulk(endpoint, BufferUtils.allocateByteBuffer(size),
+                readAhead, null, 0);
+            final int result = this.submitUrb(request);
+            if (result != LibUsb.SUCCESS)
+            {
+                // Roll back, the cancelled URBs are ignored when closed
+                this.readAheads.remove(endpoint, readAhead);
+                readAhead.close();
+                for (final IoRequest urb : submitted)
+                {
+                    this.cancel(urb);
+                }
+                return result;
+            }
+            submitted.add(request);
+        }
+        return LibUsb.SUCCESS;
+    }
+
+    @Override
+    public int submit(final IoRequest request)
+    {
+        if (!this.readAheads.isEmpty()
+            && request.type() == LibUsb.TRANSFER_TYPE_BULK)
+        {
+            final ReadAhead readAhead =
+                this.readAheads.get(request.endpoint());
+            if (readAhead != null)
+            {
+                return readAhead.submit(request);
+            }
+        }
+        return this.submitUrb(request);
+    }
+
+    /**
+     * Sends a request as URB.
+     *
+     * @param request
+     *            The request.
+     * @return The error code.
+     */
+    private int submitUrb(final IoRequest request)
+    {
+        final Urb urb = this.acquire();
+        if (!urb.prepare(request, this.nextSeqnum(),
+            this.device.getDevId()))
+        {
+            this.release(urb);
+            return LibUsb.ERROR_INVALID_PARAM;
+        }
+        synchronized (this.lifecycle)
+        {
+            if (this.closed)
+            {
+                this.release(urb);
+                return LibUsb.ERROR_NO_DEVICE;
+            }
+            if (this.requests.putIfAbsent(request, urb) != null)
+            {
+                this.release(urb);
+                return LibUsb.ERROR_BUSY;
+            }
+            this.pending.put(urb.seqnum, urb);
+            if (request.timeout() > 0)
+            {
+                urb.timeout = this.dispatcher.schedule(new Timeout(urb.seqnum),
+                    request.timeout(), TimeUnit.MILLISECONDS);
+            }
+        }
+        this.submittedUrbs.incrementAndGet();
+        this.queue(urb);
+        return LibUsb.SUCCESS;
+    }
+
+    @Override
+    public int cancel(final IoRequest request)
+    {
+        final ReadAhead readAhead = this.readAheads.get(request.endpoint());
+        if (readAhead != null && readAhead.cancel(request))
+        {
+            return LibUsb.SUCCESS;
+        }
+        final Urb urb = this.requests.get(request);
+        if (urb == null)
+        {
+            return LibUsb.ERROR_NOT_FOUND;
+        }
+        final int seqnum;
+        synchronized (urb)
+        {
+            // The URB may have been completed and reused meanwhile
+            if (urb.request != request)
+            {
+                return LibUsb.ERROR_NOT_FOUND;
+            }
+            seqnum = urb.seqnum;
+        }
+        this.unlink(seqnum, LibUsb.TRANSFER_CANCELLED);
+        return LibUsb.SUCCESS;
+    }
+
+    /**
+     * Sends an unlink command for an URB. Does nothing if the URB has
+     * already been completed or unlinked.
+     *
+     * @param seqnum
+     *            The sequence number of the URB to unlink.
+     * @param status
+     *            The status of the request if the URB is unlinked.
+     */
+    void unlink(final int seqnum, final int status)
+    {
+        final Urb urb = this.pending.get(seqnum);
+        if (urb == null)
+        {
+            return;
+        }
+        synchronized (urb)
+        {
+            // The URB may have been completed and reused meanwhile
+            if (urb.seqnum != seqnum || urb.request == null
+                || urb.unlinkStatus != 0)
+            {
+                return;
+            }
+            urb.unlinkStatus = status;
+        }
+        final Urb command = this.acquire();
+        command.prepareUnlink(this.nextSeqnum(), this.device.getDevId(),
+            seqnum);
+        this.pending.put(command.seqnum, command);
+        this.queue(command);
+    }
+
+    /**
+     * Returns the next sequence number. 0 is skipped because it marks
+     * requests without sequence number.
+     *
+     * @return The sequence number.
+     */
+    private int nextSeqnum()
+    {
+        int seqnum = this.sequence.incrementAndGet();
+        while (seqnum == 0)
+        {
+            seqnum = this.sequence.incrementAndGet();
+        }
+        return seqnum;
+    }
+
+    /**
+     * Queues an URB or command for the writer thread.
+     *
+     * @param urb
+     *            The URB or command.
+     */
+    private void queue(final Urb urb)
+    {
+        synchronized (this.sendLock)
+        {
+            this.sendQueue.add(urb);
+            if (this.sendQueue.size() == 1)
+            {
+                this.sendLock.notify();
+            }
+        }
+    }
+
+    /**
+     * The writer thread. Waits for queued URBs and sends all of them with
+     * one gathering write.
+     */
+    void send()
+    {
+        try
+        {
+            while (!this.closed)
+            {
+                final List<Urb> queue;
+                synchronized (this.sendLock)
+                {
+                    while (this.sendQueue.isEmpty() && !this.closed)
+                    {
+                        this.sendLock.wait();
+                    }
+                    // Swap the lists, so submitters never wait for writes
+                    queue = this.sendQueue;
+                    this.sendQueue = this.sending;
+                    this.sending = queue;
+                }
+                this.write(queue);
+                queue.clear();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            // Closed
+        }
+        catch (final IOException e)
+        {
+            this.shutdown();
+        }
+    }
+
+    /**
+     * Writes URBs.
+     *
+     * @param urbs
+     *            The URBs to write.
+     * @throws IOException
+     *             When writing failed.
+     */
+    private void write(final List<Urb> urbs) throws IOException
+    {
+        int count = 0;
+        for (final Urb urb : urbs)
+        {
+            if (count + 3 > this.gather.length)
+            {
+                this.gather = Arrays.copyOf(this.gather,
+                    this.gather.length * 2);
+            }
+            count = urb.segments(this.gather, count);
+        }
+        int first = 0;
+        while (first < count)
+        {
+            this.channel.write(this.gather, first, count - first);
+            while (first < count && !this.gather[first].hasRemaining())
+            {
+                this.gather[first++] = null;
+            }
+        }
+        this.writes++;
+    }
+
+    /**
+     * The reader thread. Receives replies until the connection is closed,
+     * then fails all outstanding requests.
+     */
+    void receive()
+    {
+        try
+        {
+            while (true)
+            {
+                this.header.clear();
+                this.read(this.header);
+                final int command = this.header.getInt(0);
+                final int seqnum = this.header.getInt(4);
+                final Urb urb = this.pending.remove(seqnum);
+                if (urb == null)
+                {
+                    throw new IOException("Reply for unknown URB " + seqnum);
+                }
+                if (command == UsbIp.RET_SUBMIT && urb.request != null)
+                {
+                    this.submitted(urb);
+                }
+                else if (command == UsbIp.RET_UNLINK && urb.request == null)
+                {
+                    this.unlinked(urb);
+                }
+                else
+                {
+                    throw new IOException("Unexpected reply " + command);
+                }
+            }
+        }
+        catch (final IOException e)
+        {
+            // Connection closed
+        }
+        finally
+        {
+            this.shutdown();
+            final List<Urb> failed;
+            synchronized (this.lifecycle)
+            {
+                failed = new ArrayList<Urb>(this.pending.values());
+                this.pending.clear();
+            }
+            for (final ReadAhead readAhead : this.readAheads.values())
+            {
+                readAhead.close();
+            }
+            for (final Urb urb : failed)
+            {
+                if (urb.request != null)
+                {
+                    this.complete(urb, LibUsb.TRANSFER_NO_DEVICE, 0);
+                }
+            }
+            this.dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * Reads bytes from the connection.
+     *
+     * @param target
+     *            The buffer to fill completely.
+     * @throws IOException
+     *             When reading failed.
+     */
+    private void read(final ByteBuffer target) throws IOException
+    {
+        while (target.hasRemaining())
+        {
+            if (this.input.hasRemaining())
+            {
+                final int count = Math.min(this.input.remaining(),
+                    target.remaining());
+                final int limit = this.input.limit();
+                this.input.limit(this.input.position() + count);
+                target.put(this.input);
+                this.input.limit(limit);
+            }
+            else if (target.remaining() >= DIRECT_READ_SIZE)
+            {
+                if (this.channel.read(target) < 0)
+                {
+                    throw new EOFException();
+                }
+            }
+            else
+            {
+                this.input.clear();
+                final int count = this.channel.read(this.input);
+                this.input.flip();
+                if (count < 0)
+                {
+                    throw new EOFException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles a RET_SUBMIT reply.
+     *
+     * @param urb
+     *            The URB.
+     * @throws IOException
+     *             When reading failed or the reply is invalid.
+     */
+    private void submitted(final Urb urb) throws IOException
+    {
+        final IoRequest request = urb.request;
+        final int status = this.header.getInt(20);
+        final int actualLength = this.header.getInt(24);
+        final int packets = request.numIsoPackets();
+        if (actualLength < 0 || actualLength > urb.length)
+        {
+            throw new IOException("Invalid actual length " + actualLength);
+        }
+        if (urb.in && actualLength > 0)
+        {
+            final ByteBuffer data = request.buffer().duplicate();
+            data.position(data.position() + urb.offset);
+            data.limit(data.position() + actualLength);
+            this.read(data);
+        }
+        if (packets > 0)
+        {
+            this.receiveIso(request, actualLength);
+        }
+        this.complete(urb, UsbIp.toTransferStatus(status), actualLength);
+    }
+
+    /**
+     * Receives the isochronous packet descriptors and moves the received
+     * data, which the server sends back to back, to the packet offsets.
+     *
+     * @param request
+     *            The isochronous request.
+     * @param actualLength
+     *            The number of received bytes.
+     * @throws IOException
+     *             When reading failed or the descriptors are invalid.
+     */
+    private void receiveIso(final IoRequest request, final int actualLength)
+        throws IOException
+    {
+        final int packets = request.numIsoPackets();
+        final int size = packets * UsbIp.ISO_DESCRIPTOR_SIZE;
+        if (this.iso.capacity() < size)
+        {
+            this.iso = ByteBuffer.allocate(size);
+        }
+        this.iso.clear();
+        this.iso.limit(size);
+        this.read(this.iso);
+        int packed = 0;
+        int offset = 0;
+        for (int i = 0; i < packets; i++)
+        {
+            final int actual = this.iso.getInt(i
+                * UsbIp.ISO_DESCRIPTOR_SIZE + 8);
+            if (actual < 0 || actual > request.isoPacketLength(i))
+            {
+                throw new IOException("Invalid packet length " + actual);
+            }
+            request.setIsoPacketResult(i, UsbIp.toTransferStatus(this.iso
+                .getInt(i * UsbIp.ISO_DESCRIPTOR_SIZE + 12)), actual);
+            packed += actual;
+            offset += request.isoPacketLength(i);
+        }
+        if (packed != actualLength)
+        {
+            throw new IOException("Packet lengths don't match data");
+        }
+        final ByteBuffer buffer = request.buffer();
+        final int base = buffer.position();
+        for (int i = packets - 1; i >= 0; i--)
+        {
+            final int actual = request.isoPacketActualLength(i);
+            offset -= request.isoPacketLength(i);
+            packed -= actual;
+            // Move backwards, the target never lies before the source
+            for (int j = actual - 1; j >= 0 && offset != packed; j--)
+            {
+                buffer.put(base + offset + j, buffer.get(base + packed + j));
+            }
+        }
+    }
+
+    /**
+     * Handles a RET_UNLINK reply. The URB is finished if no RET_SUBMIT was
+     * received for it.
+     *
+     * @param command
+     *            The unlink command.
+     */
+    private void unlinked(final Urb command)
+    {
+        final int target = command.unlinkSeqnum;
+        this.release(command);
+        final Urb urb = this.pending.remove(target);
+        if (urb != null)
+        {
+            final int status;
+            synchronized (urb)
+            {
+                status = urb.unlinkStatus;
+            }
+            this.complete(urb, status, 0);
+        }
+    }
+
+    /**
+     * Finishes an URB and completes its request.
+     *
+     * @param urb
+     *            The URB.
+     * @param status
+     *            The transfer status.
+     * @param actualLength
+     *            The actual length.
+     */
+    private void complete(final Urb urb, final int status,
+        final int actualLength)
+    {
+        final IoRequest request = urb.request;
+        final ScheduledFuture<?> timeout = urb.timeout;
+        if (timeout != null)
+        {
+            timeout.cancel(false);
+        }
+        this.requests.remove(request);
+        this.release(urb);
+        this.completedUrbs.incrementAndGet();
+        request.complete(status, actualLength);
+    }
+
+    /**
+     * Takes an URB from the pool.
+     *
+     * @return The URB.
+     */
+    private Urb acquire()
+    {
+        final Urb urb = this.free.poll();
+        return urb == null ? new Urb() : urb;
+    }
+
+    /**
+     * Returns an URB to the pool.
+     *
+     * @param urb
+     *            The URB.
+     */
+    private void release(final Urb urb)
+    {
+        urb.reset();
+        this.free.add(urb);
+    }
+
+    /**
+     * Closes the connection and stops the threads.
+     */
+    private void shutdown()
+    {
+        this.closed = true;
+        try
+        {
+            this.channel.close();
+        }
+        catch (final IOException e)
+        {
+            // Closing anyway
+        }
+        synchronized (this.sendLock)
+        {
+            this.sendLock.notifyAll();
+        }
+    }
+
+    /**
+     * Detaches the device. Outstanding requests are completed with
+     * {@link LibUsb#TRANSFER_NO_DEVICE} before this method returns, unless
+     * it is called by a callback.
+     *
+     * @throws IOException
+     *             When interrupted while waiting for the reader thread.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.shutdown();
+        if (Thread.currentThread() != this.reader)
+        {
+            try
+            {
+                this.reader.join();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while closing");
+            }
+        }
+    }
+
+    /**
+     * Checks if the backend is closed, either by {@link #close()} or
+     * because the connection failed.
+     *
+     * @return True if closed.
+     */
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    /**
+     * Returns the number of URBs sent to the server.
+     *
+     * @return The number of URBs.
+     */
+    public long getSubmittedUrbs()
+    {
+        return this.submittedUrbs.get();
+    }
+
+    /**
+     * Returns the number of completed URBs.
+     *
+     * @return The number of URBs.
+     */
+    public long getCompletedUrbs()
+    {
+        return this.completedUrbs.get();
+    }
+
+    /**
+     * Returns the number of writes to the connection. Compared to the
+     * number of URBs it shows how well small requests are batched.
+     *
+     * @return The number of writes.
+     */
+    public long getWriteCount()
+    {
+        return this.writes;
+    }
+
+    /**
+     * Returns the number of requests on read-ahead endpoints which were
+     * served from already received data.
+     *
+     * @return The number of read-ahead hits.
+     */
+    public long getReadAheadHits()
+    {
+        long hits = 0;
+        for (final ReadAhead readAhead : this.readAheads.values())
+        {
+            hits += readAhead.hits;
+        }
+        return hits;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "USB/IP backend of " + this.device;
+    }
+
+    /**
+     * An URB or unlink command with its wire representation.
+     */
+    private static final class Urb
+    {
+        /** The command header. */
+        final ByteBuffer header = ByteBuffer.allocate(UsbIp.HEADER_SIZE);
+
+        /** The isochronous packet descriptors. */
+        ByteBuffer iso = EMPTY;
+
+        /** The OUT data. Null if none. */
+        ByteBuffer data;
+
+        /** The request. Null for unlink commands. */
+        IoRequest request;
+
+        /** The sequence number. */
+        int seqnum;
+
+        /** Whether this is an IN URB. */
+        boolean in;
+
+        /** The offset of the data in the request buffer. */
+        int offset;
+
+        /** The transfer buffer length. */
+        int length;
+
+        /** The sequence number of the URB to unlink. */
+        int unlinkSeqnum;
+
+        /** The status of the request when unlinked. 0 if not unlinked. */
+        int unlinkStatus;
+
+        /** The scheduled timeout. Null if none. */
+        volatile ScheduledFuture<?> timeout;
+
+        /**
+         * Writes the CMD_SUBMIT for a request.
+         *
+         * @param request
+         *            The request.
+         * @param seqnum
+         *            The sequence number.
+         * @param devId
+         *            The device ID.
+         * @return False if the request is invalid.
+         */
+        synchronized boolean prepare(final IoRequest request,
+            final int seqnum, final int devId)
+        {
+            final ByteBuffer buffer = request.buffer();
+            final int position = buffer == null ? 0 : buffer.position();
+            final boolean control =
+                request.type() == LibUsb.TRANSFER_TYPE_CONTROL;
+            if (control)
+            {
+                if (request.length() < LibUsb.CONTROL_SETUP_SIZE)
+                {
+                    return false;
+                }
+                this.in = (buffer.get(position) & LibUsb.ENDPOINT_IN) != 0;
+                this.offset = LibUsb.CONTROL_SETUP_SIZE;
+            }
+            else
+            {
+                this.in = (request.endpoint() & LibUsb.ENDPOINT_IN) != 0;
+                this.offset = 0;
+            }
+            this.request = request;
+            this.seqnum = seqnum;
+            this.length = request.length() - this.offset;
+            int flags = 0;
+            if ((request.flags() & LibUsb.TRANSFER_SHORT_NOT_OK) != 0)
+            {
+                flags |= UsbIp.URB_SHORT_NOT_OK;
+            }
+            if ((request.flags() & LibUsb.TRANSFER_ADD_ZERO_PACKET) != 0)
+            {
+                flags |= UsbIp.URB_ZERO_PACKET;
+            }
+            final int packets = request.numIsoPackets();
+            final ByteBuffer header = this.header;
+            header.clear();
+            header.putInt(UsbIp.CMD_SUBMIT);
+            header.putInt(seqnum);
+            header.putInt(devId);
+            header.putInt(this.in ? UsbIp.DIR_IN : UsbIp.DIR_OUT);
+            header.putInt(control ? 0 : request.endpoint() & 0x0f);
+            header.putInt(flags);
+            header.putInt(this.length);
+            header.putInt(0);
+            header.putInt(packets);
+            header.putInt(0);
+            for (int i = 0; i < LibUsb.CONTROL_SETUP_SIZE; i++)
+            {
+                header.put(control ? buffer.get(position + i) : 0);
+            }
+            header.flip();
+            if (!this.in && this.length > 0)
+            {
+                this.data = buffer.duplicate();
+                this.data.position(position + this.offset);
+            }
+            if (packets > 0)
+            {
+                final int size = packets * UsbIp.ISO_DESCRIPTOR_SIZE;
+                if (this.iso.capacity() < size)
+                {
+                    this.iso = ByteBuffer.allocate(size);
+                }
+                this.iso.clear();
+                int packetOffset = 0;
+                for (int i = 0; i < packets; i++)
+                {
+                    final int packetLength = request.isoPacketLength(i);
+                    this.iso.putInt(packetOffset);
+                    this.iso.putInt(packetLength);
+                    this.iso.putInt(0);
+                    this.iso.putInt(0);
+                    packetOffset += packetLength;
+                }
+                this.iso.flip();
+            }
+            return true;
+        }
+
+        /**
+         * Writes a CMD_UNLINK.
+         *
+         * @param seqnum
+         *            The sequence number of the command.
+         * @param devId
+         *            The device ID.
+         * @param unlinkSeqnum
+         *            The sequence number of the URB to unlink.
+         */
+        void prepareUnlink(final int seqnum, final int devId,
+            final int unlinkSeqnum)
+        {
+            this.seqnum = seqnum;
+            this.unlinkSeqnum = unlinkSeqnum;
+            final ByteBuffer header = this.header;
+            header.clear();
+            header.putInt(UsbIp.CMD_UNLINK);
+            header.putInt(seqnum);
+            header.putInt(devId);
+            header.putInt(UsbIp.DIR_OUT);
+            header.putInt(0);
+            header.putInt(unlinkSeqnum);
+            while (header.hasRemaining())
+            {
+                header.put((byte) 0);
+            }
+            header.flip();
+        }
+
+        /**
+         * Adds the buffers to send to a gathering write.
+         *
+         * @param gather
+         *            The buffers of the write. Must have room for three
+         *            more buffers.
+         * @param count
+         *            The number of buffers already added.
+         * @return The new number of buffers.
+         */
+        int segments(final ByteBuffer[] gather, final int count)
+        {
+            int index = count;
+            gather[index++] = this.header;
+            if (this.data != null)
+            {
+                gather[index++] = this.data;
+            }
+            if (this.request != null && this.request.numIsoPackets() > 0)
+            {
+                gather[index++] = this.iso;
+            }
+            return index;
+        }
+
+        /**
+         * Resets the URB for reuse.
+         */
+        synchronized void reset()
+        {
+            this.request = null;
+            this.data = null;
+            this.timeout = null;
+            this.unlinkStatus = 0;
+        }
+    }
+
+    /**
+     * Unlinks an URB when its timeout expires.
+     */
+    private final class Timeout implements Runnable
+    {
+        /** The sequence number of the URB. */
+        private final int seqnum;
+
+        /**
+         * Constructs a timeout.
+         *
+         * @param seqnum
+         *            The sequence number of the URB.
+         */
+        Timeout(final int seqnum)
+        {
+            this.seqnum = seqnum;
+        }
+
+        @Override
+        public void run()
+        {
+            UsbIpBackend.this.unlink(this.seqnum, LibUsb.TRANSFER_TIMED_OUT);
+        }
+    }
+
+    /**
+     * The read-ahead of a bulk IN endpoint. Received URBs are queued as
+     * chunks and handed out to the requests of the application on the
+     * dispatcher thread, in submission order.
+     */
+    private final class ReadAhead implements IoCallback, Runnable
+    {
+        /** The received read-ahead requests. */
+        private final ArrayDeque<IoRequest> chunks =
+            new ArrayDeque<IoRequest>();
+
+        /** The requests of the application waiting for data. */
+        private final ArrayDeque<IoRequest> waiting =
+            new ArrayDeque<IoRequest>();
+
+        /** The cancelled requests of the application. */
+        private final ArrayDeque<IoRequest> cancelled =
+            new ArrayDeque<IoRequest>();
+
+        /** The timeouts of the waiting requests of the application. */
+        private final Map<IoRequest, ScheduledFuture<?>> timeouts =
+            new HashMap<IoRequest, ScheduledFuture<?>>();
+
+        /** The number of bytes consumed from the first chunk. */
+        private int consumed;
+
+        /** Whether delivery is scheduled on the dispatcher. */
+        private boolean scheduled;
+
+        /** Whether the backend is closed. */
+        private boolean closed;
+
+        /** The number of requests served from received data. */
+        volatile long hits;
+
+        @Override
+        public synchronized void processRequest(final IoRequest request)
+        {
+            if (!this.closed)
+            {
+                this.chunks.add(request);
+                this.schedule();
+            }
+        }
+
+        /**
+         * Submits a request of the application.
+         *
+         * @param request
+         *            The request.
+         * @return The error code.
+         */
+        synchronized int submit(final IoRequest request)
+        {
+            if (this.closed)
+            {
+                return LibUsb.ERROR_NO_DEVICE;
+            }
+            if (this.waiting.contains(request))
+            {
+                return LibUsb.ERROR_BUSY;
+            }
+            if (this.waiting.isEmpty() && !this.chunks.isEmpty())
+            {
+                this.hits++;
+            }
+            this.waiting.add(request);
+            if (request.timeout() > 0)
+            {
+                this.timeouts.put(request, UsbIpBackend.this.dispatcher
+                    .schedule(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            ReadAhead.this.expire(request);
+                        }
+                    }, request.timeout(), TimeUnit.MILLISECONDS));
+            }
+            this.schedule();
+            return LibUsb.SUCCESS;
+        }
+
+        /**
+         * Completes a waiting request of the application whose timeout
+         * expired.
+         *
+         * @param request
+         *            The request.
+         */
+        void expire(final IoRequest request)
+        {
+            synchronized (this)
+            {
+                this.timeouts.remove(request);
+                if (!this.waiting.remove(request))
+                {
+                    return;
+                }
+            }
+            request.complete(LibUsb.TRANSFER_TIMED_OUT, 0);
+        }
+
+        /**
+         * Cancels the timeout of a request which is no longer waiting. Must
+         * be called while holding the monitor.
+         *
+         * @param request
+         *            The request.
+         */
+        private void clearTimeout(final IoRequest request)
+        {
+            final ScheduledFuture<?> timeout = this.timeouts.remove(request);
+            if (timeout != null)
+            {
+                timeout.cancel(false);
+            }
+        }
+
+        /**
+         * Cancels a waiting request of the application.
+         *
+         * @param request
+         *            The request.
+         * @return True if the request was waiting.
+         */
+        synchronized boolean cancel(final IoRequest request)
+        {
+            if (!this.waiting.remove(request))
+            {
+                return false;
+            }
+            this.clearTimeout(request);
+            this.cancelled.add(request);
+            this.schedule();
+            return true;
+        }
+
+        /**
+         * Schedules the delivery if there is something to deliver.
+         */
+        private void schedule()
+        {
+            if (!this.closed && !this.scheduled
+                && (!this.cancelled.isEmpty()
+                    || !this.waiting.isEmpty() && !this.chunks.isEmpty()))
+            {
+                this.scheduled = true;
+                UsbIpBackend.this.dispatcher.execute(this);
+            }
+        }
+
+        /**
+         * Delivers received data to waiting requests and resubmits consumed
+         * chunks.
+         */
+        @Override
+        public void run()
+        {
+            while (true)
+            {
+                final IoRequest request;
+                IoRequest consumedChunk = null;
+                int status = LibUsb.TRANSFER_COMPLETED;
+                int length = 0;
+                synchronized (this)
+                {
+                    if (!this.cancelled.isEmpty())
+                    {
+                        request = this.cancelled.poll();
+                        status = LibUsb.TRANSFER_CANCELLED;
+                    }
+                    else if (this.waiting.isEmpty() || this.chunks.isEmpty())
+                    {
+                        this.scheduled = false;
+                        return;
+                    }
+                    else
+                    {
+                        request = this.waiting.poll();
+                        this.clearTimeout(request);
+                        final IoRequest chunk = this.chunks.peek();
+                        status = chunk.status();
+                        if (status == LibUsb.TRANSFER_COMPLETED)
+                        {
+                            length = Math.min(chunk.actualLength()
+                                - this.consumed, request.length());
+                            final ByteBuffer data =
+                                chunk.buffer().duplicate();
+                            data.position(this.consumed);
+                            data.limit(this.consumed + length);
+                            request.buffer().duplicate().put(data);
+                            this.consumed += length;
+                        }
+                        if (status != LibUsb.TRANSFER_COMPLETED
+                            || this.consumed == chunk.actualLength())
+                        {
+                            consumedChunk = this.chunks.poll();
+                            this.consumed = 0;
+                        }
+                    }
+                }
+                if (consumedChunk != null)
+                {
+                    UsbIpBackend.this.submitUrb(consumedChunk);
+                }
+                request.complete(status, length);
+            }
+        }
+
+        /**
+         * Fails the waiting requests after the connection was closed.
+         */
+        void close()
+        {
+            final List<IoRequest> failed;
+            synchronized (this)
+            {
+                this.closed = true;
+                failed = new ArrayList<IoRequest>(this.waiting);
+                failed.addAll(this.cancelled);
+                for (final IoRequest request : this.waiting)
+                {
+                    this.clearTimeout(request);
+                }
+                this.waiting.clear();
+                this.cancelled.clear();
+            }
+            for (final IoRequest request : failed)
+            {
+                request.complete(LibUsb.TRANSFER_NO_DEVICE, 0);
+            }
+        }
+    }
+}
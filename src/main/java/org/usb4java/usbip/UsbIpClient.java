@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+
+/**
+ * USB/IP client operations: Listing the devices exported by a remote host
+ * and attaching one of them.
+ *
+ * <pre>
+ * UsbIpBackend backend = UsbIpClient.attach(address, "1-2");
+ * BlockingIo io = new BlockingIo(backend);
+ * io.bulkTransfer(endpoint, data, transferred, 1000);
+ * </pre>
+ *
+ * @author usb4java Team
+ */
+public final class UsbIpClient
+{
+    /** The import status of a successful import. */
+    private static final int ST_OK = 0;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private UsbIpClient()
+    {
+        // Empty
+    }
+
+    /**
+     * Lists the devices a remote host exports and which are not attached
+     * by another client.
+     *
+     * @param address
+     *            The address of the USB/IP server.
+     * @return The device descriptions.
+     * @throws IOException
+     *             When the communication failed.
+     */
+    public static UsbIpDevice[] listDevices(final InetSocketAddress address)
+        throws IOException
+    {
+        final SocketChannel channel = connect(address);
+        try
+        {
+            writeOperation(channel, UsbIp.OP_REQ_DEVLIST, null);
+            final ByteBuffer reply = readFully(channel,
+                UsbIp.OP_HEADER_SIZE + 4);
+            checkReply(reply, UsbIp.OP_REP_DEVLIST);
+            final UsbIpDevice[] devices = new UsbIpDevice[reply.getInt(8)];
+            for (int i = 0; i < devices.length; i++)
+            {
+                final ByteBuffer device =
+                    readFully(channel, UsbIpDevice.SIZE);
+                final int interfaces = device.get(UsbIpDevice.SIZE - 1) & 0xff;
+                final ByteBuffer full = ByteBuffer.allocate(UsbIpDevice.SIZE
+                    + interfaces * UsbIpDevice.INTERFACE_SIZE);
+                full.put(device);
+                full.put(readFully(channel,
+                    interfaces * UsbIpDevice.INTERFACE_SIZE));
+                full.flip();
+                devices[i] = UsbIpDevice.read(full, true);
+            }
+            return devices;
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Attaches a remote device.
+     *
+     * @param address
+     *            The address of the USB/IP server.
+     * @param busId
+     *            The bus ID of the device.
+     * @return The backend to communicate with the device. Must be closed
+     *         to detach the device.
+     * @throws IOException
+     *             When the communication failed or the device is not
+     *             available.
+     */
+    public static UsbIpBackend attach(final InetSocketAddress address,
+        final String busId) throws IOException
+    {
+        final SocketChannel channel = connect(address);
+        try
+        {
+            final ByteBuffer id = ByteBuffer.allocate(UsbIp.BUS_ID_SIZE);
+            id.put(busId.getBytes(Charset.forName("US-ASCII")));
+            id.clear();
+            writeOperation(channel, UsbIp.OP_REQ_IMPORT, id);
+            final ByteBuffer reply =
+                readFully(channel, UsbIp.OP_HEADER_SIZE);
+            checkReply(reply, UsbIp.OP_REP_IMPORT);
+            if (reply.getInt(4) != ST_OK)
+            {
+                throw new IOException("Device " + busId
+                    + " is not available on " + address);
+            }
+            final UsbIpDevice device = UsbIpDevice.read(
+                readFully(channel, UsbIpDevice.SIZE), false);
+            return new UsbIpBackend(channel, device);
+        }
+        catch (final IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Connects to a server.
+     *
+     * @param address
+     *            The server address.
+     * @return The connected blocking channel.
+     * @throws IOException
+     *             When connecting failed.
+     */
+    private static SocketChannel connect(final InetSocketAddress address)
+        throws IOException
+    {
+        final SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        return channel;
+    }
+
+    /**
+     * Writes an operation request.
+     *
+     * @param channel
+     *            The channel.
+     * @param code
+     *            The operation code.
+     * @param body
+     *            The request body. Null for none.
+     * @throws IOException
+     *             When writing failed.
+     */
+    private static void writeOperation(final SocketChannel channel,
+        final int code, final ByteBuffer body) throws IOException
+    {
+        final ByteBuffer request = ByteBuffer.allocate(UsbIp.OP_HEADER_SIZE
+            + (body == null ? 0 : body.remaining()));
+        request.putShort((short) UsbIp.VERSION);
+        request.putShort((short) code);
+        request.putInt(0);
+        if (body != null)
+        {
+            request.put(body);
+        }
+        request.flip();
+        while (request.hasRemaining())
+        {
+            channel.write(request);
+        }
+    }
+
+    /**
+     * Reads a number of bytes.
+     *
+     * @param channel
+     *            The channel.
+     * @param size
+     *            The number of bytes.
+     * @return The buffer with the bytes, ready to be read.
+     * @throws IOException
+     *             When reading failed or the connection was closed.
+     */
+    private static ByteBuffer readFully(final SocketChannel channel,
+        final int size) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+            {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Checks the header of an operation reply.
+     *
+     * @param reply
+     *            The reply.
+     * @param code
+     *            The expected operation code.
+     * @throws IOException
+     *             When the reply is invalid.
+     */
+    private static void checkReply(final ByteBuffer reply, final int code)
+        throws IOException
+    {
+        final int version = reply.getShort(0) & 0xffff;
+        final int replyCode = reply.getShort(2) & 0xffff;
+        if (version != UsbIp.VERSION || replyCode != code)
+        {
+            throw new IOException(String.format(
+                "Unexpected reply %04x (version %04x)", replyCode, version));
+        }
+    }
+}
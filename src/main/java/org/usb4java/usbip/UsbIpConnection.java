@@ -0,0 +1,1022 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.usb4java.BufferUtils;
+import org.usb4java.IoCallback;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+
+/**
+ * A client connection of a {@link UsbIpServer}. All methods are called on
+ * the network thread of the server, except {@link #processRequest(IoRequest)}
+ * which hands completed requests over to it.
+ *
+ * Commands are parsed from a receive buffer without blocking, so a client
+ * can pipeline any number of URBs. Each URB is carried out by a pooled
+ * {@link IoRequest} and stays in use until its reply is written. When the
+ * configured number of URBs is in use the connection stops reading until
+ * replies have been sent.
+ *
+ * @author usb4java Team
+ */
+final class UsbIpConnection implements IoCallback
+{
+    /** Stage: Receiving an operation header. */
+    private static final int STAGE_OP_HEADER = 0;
+
+    /** Stage: Receiving the bus ID of an import request. */
+    private static final int STAGE_IMPORT = 1;
+
+    /** Stage: Receiving a command header. */
+    private static final int STAGE_HEADER = 2;
+
+    /** Stage: Receiving the OUT data of a submit command. */
+    private static final int STAGE_DATA = 3;
+
+    /** Stage: Receiving the isochronous packet descriptors. */
+    private static final int STAGE_ISO = 4;
+
+    /** The size of the receive buffer. */
+    private static final int INPUT_SIZE = 65536;
+
+    /** The maximum number of isochronous packets per URB. */
+    private static final int MAX_ISO_PACKETS = 1024;
+
+    /** The import status for unavailable devices. */
+    private static final int ST_NA = 1;
+
+    /** An empty buffer. */
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /** The server. */
+    private final UsbIpServer server;
+
+    /** The socket channel. */
+    private final SocketChannel channel;
+
+    /** The selection key of the channel. */
+    private final SelectionKey key;
+
+    /** The maximum number of URBs in use. */
+    private final int maxOutstanding;
+
+    /** The receive buffer. */
+    private final ByteBuffer input =
+        BufferUtils.allocateByteBuffer(INPUT_SIZE);
+
+    /** The buffer receiving operation and command headers. */
+    private final ByteBuffer header = ByteBuffer.allocate(UsbIp.HEADER_SIZE);
+
+    /** The buffer currently being filled from the receive buffer. */
+    private ByteBuffer target;
+
+    /** The current receive stage. */
+    private int stage;
+
+    /** The URB currently being received. */
+    private Urb current;
+
+    /** The submitted URBs by sequence number. */
+    private final Map<Integer, Urb> pending = new HashMap<Integer, Urb>();
+
+    /** The URBs with queued replies. */
+    private final ArrayDeque<Urb> outgoing = new ArrayDeque<Urb>();
+
+    /** The unused URBs. */
+    private final ArrayDeque<Urb> free = new ArrayDeque<Urb>();
+
+    /** The number of URBs in use. */
+    private int inUse;
+
+    /** The buffers of a gathering write. */
+    private ByteBuffer[] gather = new ByteBuffer[64];
+
+    /** The imported device. Null before import. */
+    private UsbIpExport export;
+
+    /** Whether reading is paused because too many URBs are in use. */
+    private boolean paused;
+
+    /** Whether the connection is closed when all replies are sent. */
+    private boolean closing;
+
+    /** Whether the connection is closed. */
+    private boolean closed;
+
+    /** Whether a flush after completions is scheduled. */
+    private boolean flushScheduled;
+
+    /**
+     * Constructs a connection and registers it with the selector.
+     *
+     * @param server
+     *            The server.
+     * @param channel
+     *            The non-blocking socket channel.
+     * @param maxOutstanding
+     *            The maximum number of URBs in use.
+     * @throws IOException
+     *             When the channel could not be registered.
+     */
+    UsbIpConnection(final UsbIpServer server, final SocketChannel channel,
+        final int maxOutstanding) throws IOException
+    {
+        this.server = server;
+        this.channel = channel;
+        this.maxOutstanding = maxOutstanding;
+        this.key = server.register(channel, this);
+        this.expect(STAGE_OP_HEADER, UsbIp.OP_HEADER_SIZE);
+    }
+
+    /**
+     * Called by the backend when a request is finished. Hands the request
+     * over to the network thread.
+     *
+     * @param request
+     *            The finished request.
+     */
+    @Override
+    public void processRequest(final IoRequest request)
+    {
+        this.server.completed(request);
+    }
+
+    /**
+     * Handles the readiness of the channel.
+     */
+    void ready()
+    {
+        try
+        {
+            if (this.key.isReadable())
+            {
+                this.read();
+            }
+            if (!this.closed)
+            {
+                this.flush();
+            }
+        }
+        catch (final IOException e)
+        {
+            this.close();
+        }
+    }
+
+    /**
+     * Reads from the channel and processes the received commands.
+     *
+     * @throws IOException
+     *             When reading failed.
+     */
+    private void read() throws IOException
+    {
+        final int count = this.channel.read(this.input);
+        if (count < 0)
+        {
+            this.close();
+            return;
+        }
+        this.server.receivedBytes += count;
+        this.process();
+    }
+
+    /**
+     * Processes the received data until it is exhausted, reading is paused
+     * or the connection is closing.
+     */
+    private void process()
+    {
+        this.input.flip();
+        try
+        {
+            while (!this.closed && !this.closing)
+            {
+                if (this.stage == STAGE_HEADER
+                    && this.header.position() == 0
+                    && this.inUse >= this.maxOutstanding)
+                {
+                    this.paused = true;
+                    break;
+                }
+                final int count = Math.min(this.input.remaining(),
+                    this.target.remaining());
+                final int limit = this.input.limit();
+                this.input.limit(this.input.position() + count);
+                this.target.put(this.input);
+                this.input.limit(limit);
+                if (this.target.hasRemaining())
+                {
+                    break;
+                }
+                this.advance();
+            }
+        }
+        finally
+        {
+            this.input.compact();
+        }
+        this.updateInterest();
+    }
+
+    /**
+     * Continues with the next stage after the current target buffer has been
+     * filled.
+     */
+    private void advance()
+    {
+        switch (this.stage)
+        {
+            case STAGE_OP_HEADER:
+                this.operation();
+                break;
+            case STAGE_IMPORT:
+                this.importDevice();
+                break;
+            case STAGE_HEADER:
+                this.command();
+                break;
+            case STAGE_DATA:
+                if (this.current.packets > 0)
+                {
+                    this.stage = STAGE_ISO;
+                    this.target = this.current.iso;
+                }
+                else
+                {
+                    this.submit();
+                }
+                break;
+            default:
+                this.submit();
+        }
+    }
+
+    /**
+     * Starts receiving into the header buffer.
+     *
+     * @param stage
+     *            The receive stage.
+     * @param size
+     *            The number of bytes to receive.
+     */
+    private void expect(final int stage, final int size)
+    {
+        this.header.clear();
+        this.header.limit(size);
+        this.stage = stage;
+        this.target = this.header;
+    }
+
+    /**
+     * Handles a received operation header.
+     */
+    private void operation()
+    {
+        final int code = this.header.getShort(2) & 0xffff;
+        if (code == UsbIp.OP_REQ_DEVLIST)
+        {
+            this.listDevices();
+        }
+        else if (code == UsbIp.OP_REQ_IMPORT)
+        {
+            this.expect(STAGE_IMPORT, UsbIp.BUS_ID_SIZE);
+        }
+        else
+        {
+            this.protocolError();
+        }
+    }
+
+    /**
+     * Replies with the list of available devices and closes the connection.
+     */
+    private void listDevices()
+    {
+        final UsbIpDevice[] devices = this.server.getAvailableDevices();
+        int size = UsbIp.OP_HEADER_SIZE + 4;
+        for (final UsbIpDevice device : devices)
+        {
+            size += device.size(true);
+        }
+        final ByteBuffer reply = ByteBuffer.allocate(size);
+        reply.putShort((short) UsbIp.VERSION);
+        reply.putShort((short) UsbIp.OP_REP_DEVLIST);
+        reply.putInt(0);
+        reply.putInt(devices.length);
+        for (final UsbIpDevice device : devices)
+        {
+            device.write(reply, true);
+        }
+        reply.flip();
+        this.queue(this.acquire().reply(reply));
+        this.closing = true;
+    }
+
+    /**
+     * Handles a received import request.
+     */
+    private void importDevice()
+    {
+        this.header.flip();
+        final String busId =
+            UsbIpDevice.readString(this.header, UsbIp.BUS_ID_SIZE);
+        final UsbIpExport export = this.server.getExport(busId);
+        final boolean imported = export != null && export.acquire(this);
+        final ByteBuffer reply = ByteBuffer.allocate(UsbIp.OP_HEADER_SIZE
+            + (imported ? UsbIpDevice.SIZE : 0));
+        reply.putShort((short) UsbIp.VERSION);
+        reply.putShort((short) UsbIp.OP_REP_IMPORT);
+        reply.putInt(imported ? 0 : ST_NA);
+        if (imported)
+        {
+            export.getDevice().write(reply, false);
+            this.export = export;
+            this.expect(STAGE_HEADER, UsbIp.HEADER_SIZE);
+        }
+        else
+        {
+            this.closing = true;
+        }
+        reply.flip();
+        this.queue(this.acquire().reply(reply));
+    }
+
+    /**
+     * Handles a received command header.
+     */
+    private void command()
+    {
+        final ByteBuffer header = this.header;
+        final int command = header.getInt(0);
+        final int seqnum = header.getInt(4);
+        if (command == UsbIp.CMD_SUBMIT)
+        {
+            this.receive(seqnum, header.getInt(12), header.getInt(16),
+                header.getInt(20), header.getInt(24), header.getInt(28),
+                header.getInt(32));
+        }
+        else if (command == UsbIp.CMD_UNLINK)
+        {
+            this.unlink(seqnum, header.getInt(20));
+            this.expect(STAGE_HEADER, UsbIp.HEADER_SIZE);
+        }
+        else
+        {
+            this.protocolError();
+        }
+    }
+
+    /**
+     * Prepares an URB for a submit command and starts receiving its data.
+     *
+     * @param seqnum
+     *            The sequence number.
+     * @param direction
+     *            The direction.
+     * @param endpoint
+     *            The endpoint number.
+     * @param flags
+     *            The transfer flags.
+     * @param length
+     *            The transfer buffer length.
+     * @param startFrame
+     *            The start frame of isochronous transfers.
+     * @param packets
+     *            The number of isochronous packets. 0 or -1 for other
+     *            transfers.
+     */
+    private void receive(final int seqnum, final int direction,
+        final int endpoint, final int flags, final int length,
+        final int startFrame, final int packets)
+    {
+        if (endpoint < 0 || endpoint > 15 || length < 0
+            || length > this.server.getMaxTransferSize()
+            || packets > MAX_ISO_PACKETS)
+        {
+            this.protocolError();
+            return;
+        }
+        final Urb urb = this.acquire();
+        final boolean in = direction == UsbIp.DIR_IN;
+        urb.seqnum = seqnum;
+        urb.in = in;
+        urb.endpoint = (byte) (endpoint | (in ? 0x80 : 0));
+        urb.flags = flags;
+        urb.startFrame = startFrame;
+        urb.packets = Math.max(packets, 0);
+        urb.offset = endpoint == 0 ? LibUsb.CONTROL_SETUP_SIZE : 0;
+        final ByteBuffer buffer = urb.allocate(urb.offset + length);
+        for (int i = 0; i < urb.offset; i++)
+        {
+            buffer.put(i, this.header.get(40 + i));
+        }
+        if (urb.packets > 0)
+        {
+            urb.iso.clear();
+            urb.iso.limit(urb.packets * UsbIp.ISO_DESCRIPTOR_SIZE);
+        }
+        if (in)
+        {
+            this.target = EMPTY;
+        }
+        else
+        {
+            buffer.position(urb.offset);
+            this.target = buffer;
+        }
+        this.current = urb;
+        this.stage = STAGE_DATA;
+    }
+
+    /**
+     * Submits the completely received URB.
+     */
+    private void submit()
+    {
+        final Urb urb = this.current;
+        this.current = null;
+        this.expect(STAGE_HEADER, UsbIp.HEADER_SIZE);
+        final IoRequest request = urb.request;
+        final ByteBuffer buffer = urb.buffer;
+        buffer.rewind();
+        if (urb.packets > 0)
+        {
+            final int[] lengths = urb.isoLengths();
+            int total = 0;
+            for (int i = 0; i < lengths.length; i++)
+            {
+                lengths[i] = urb.iso.getInt(i * UsbIp.ISO_DESCRIPTOR_SIZE
+                    + 4);
+                total += lengths[i];
+            }
+            if (total > buffer.limit() || total < 0)
+            {
+                this.release(urb);
+                this.protocolError();
+                return;
+            }
+            request.fillIso(urb.endpoint, buffer, lengths, this, urb, 0);
+        }
+        else if (urb.offset > 0)
+        {
+            final int status = this.export.intercept(buffer);
+            if (status != UsbIpExport.NOT_INTERCEPTED)
+            {
+                this.queue(urb.submitted(status, 0));
+                return;
+            }
+            request.fillControl(buffer, this, urb, 0);
+        }
+        else if (this.export.getEndpointType(urb.endpoint)
+            == LibUsb.TRANSFER_TYPE_INTERRUPT)
+        {
+            request.fillInterrupt(urb.endpoint, buffer, this, urb, 0);
+        }
+        else
+        {
+            request.fillBulk(urb.endpoint, buffer, this, urb, 0);
+        }
+        int flags = 0;
+        if (urb.in && (urb.flags & UsbIp.URB_SHORT_NOT_OK) != 0)
+        {
+            flags |= LibUsb.TRANSFER_SHORT_NOT_OK;
+        }
+        if (!urb.in && (urb.flags & UsbIp.URB_ZERO_PACKET) != 0)
+        {
+            flags |= LibUsb.TRANSFER_ADD_ZERO_PACKET;
+        }
+        request.setFlags((byte) flags);
+        this.pending.put(urb.seqnum, urb);
+        this.server.submitted(this.pending.size());
+        final int result = this.export.getBackend().submit(request);
+        if (result != LibUsb.SUCCESS)
+        {
+            this.pending.remove(urb.seqnum);
+            this.queue(urb.submitted(result == LibUsb.ERROR_NO_DEVICE
+                ? -UsbIp.ESHUTDOWN : -UsbIp.EPROTO, 0));
+        }
+    }
+
+    /**
+     * Handles an unlink command. The reply is sent when the URB has been
+     * cancelled. The URB itself is not replied to.
+     *
+     * @param seqnum
+     *            The sequence number of the unlink command.
+     * @param unlinkSeqnum
+     *            The sequence number of the URB to unlink.
+     */
+    private void unlink(final int seqnum, final int unlinkSeqnum)
+    {
+        this.server.unlinkedUrbs++;
+        final Urb urb = this.pending.get(unlinkSeqnum);
+        if (urb == null)
+        {
+            // Already completed, the reply is on its way
+            this.queue(this.acquire().unlinked(seqnum, 0));
+        }
+        else if (urb.unlinkSeqnum == 0)
+        {
+            urb.unlinkSeqnum = seqnum;
+            this.export.getBackend().cancel(urb.request);
+        }
+    }
+
+    /**
+     * Called on the network thread when a submitted request is finished.
+     *
+     * @param request
+     *            The finished request.
+     */
+    void completed(final IoRequest request)
+    {
+        if (this.closed)
+        {
+            return;
+        }
+        final Urb urb = (Urb) request.userData();
+        this.pending.remove(urb.seqnum);
+        this.server.completedUrbs++;
+        final int status = UsbIp.toUrbStatus(request.status());
+        if (urb.unlinkSeqnum != 0)
+        {
+            this.queue(urb.unlinked(urb.unlinkSeqnum, status));
+        }
+        else if (urb.packets > 0)
+        {
+            this.queue(urb.submittedIso(status));
+        }
+        else
+        {
+            this.queue(urb.submitted(status, request.actualLength()));
+        }
+        if (!this.flushScheduled)
+        {
+            this.flushScheduled = true;
+            this.server.scheduleFlush(this);
+        }
+    }
+
+    /**
+     * Sends the replies of completed requests. Called once after a batch of
+     * completions has been processed, so the replies are written with as
+     * few system calls as possible.
+     */
+    void flushCompleted()
+    {
+        this.flushScheduled = false;
+        if (this.closed)
+        {
+            return;
+        }
+        try
+        {
+            this.flush();
+        }
+        catch (final IOException e)
+        {
+            this.close();
+        }
+    }
+
+    /**
+     * Writes queued replies until all are sent or the socket buffer is full.
+     *
+     * @throws IOException
+     *             When writing failed.
+     */
+    private void flush() throws IOException
+    {
+        while (!this.outgoing.isEmpty() && !this.closed)
+        {
+            int count = 0;
+            long total = 0;
+            for (final Urb urb : this.outgoing)
+            {
+                if (count + urb.segmentCount > this.gather.length)
+                {
+                    if (count > 0)
+                    {
+                        break;
+                    }
+                    this.gather = new ByteBuffer[urb.segmentCount];
+                }
+                for (int i = 0; i < urb.segmentCount; i++)
+                {
+                    total += urb.segments[i].remaining();
+                    this.gather[count++] = urb.segments[i];
+                }
+            }
+            final long written = this.channel.write(this.gather, 0, count);
+            this.server.sentBytes += written;
+            Arrays.fill(this.gather, 0, count, null);
+            while (!this.outgoing.isEmpty() && this.outgoing.peek().isSent())
+            {
+                this.release(this.outgoing.poll());
+            }
+            if (this.paused && this.inUse < this.maxOutstanding)
+            {
+                this.paused = false;
+                this.process();
+            }
+            if (written < total)
+            {
+                break;
+            }
+        }
+        if (this.outgoing.isEmpty() && this.closing)
+        {
+            this.close();
+            return;
+        }
+        this.updateInterest();
+    }
+
+    /**
+     * Queues the reply of an URB.
+     *
+     * @param urb
+     *            The URB with a prepared reply.
+     */
+    private void queue(final Urb urb)
+    {
+        this.outgoing.add(urb);
+    }
+
+    /**
+     * Updates the operations the selector waits for.
+     */
+    private void updateInterest()
+    {
+        if (this.closed)
+        {
+            return;
+        }
+        int ops = 0;
+        if (!this.paused && !this.closing)
+        {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (!this.outgoing.isEmpty())
+        {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (this.key.interestOps() != ops)
+        {
+            this.key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Takes an URB from the pool.
+     *
+     * @return The URB.
+     */
+    private Urb acquire()
+    {
+        Urb urb = this.free.poll();
+        if (urb == null)
+        {
+            urb = new Urb();
+        }
+        this.inUse++;
+        return urb;
+    }
+
+    /**
+     * Returns an URB to the pool.
+     *
+     * @param urb
+     *            The URB.
+     */
+    private void release(final Urb urb)
+    {
+        urb.unlinkSeqnum = 0;
+        urb.segmentCount = 0;
+        this.inUse--;
+        this.free.push(urb);
+    }
+
+    /**
+     * Closes the connection because the client violated the protocol.
+     */
+    private void protocolError()
+    {
+        this.server.protocolErrors++;
+        this.close();
+    }
+
+    /**
+     * Closes the connection, cancels all submitted URBs and makes the
+     * imported device available again. Completions of cancelled URBs are
+     * ignored.
+     */
+    void close()
+    {
+        if (this.closed)
+        {
+            return;
+        }
+        this.closed = true;
+        this.key.cancel();
+        try
+        {
+            this.channel.close();
+        }
+        catch (final IOException e)
+        {
+            // Nothing left to do with a broken channel
+        }
+        if (this.export != null)
+        {
+            for (final Urb urb : this.pending.values())
+            {
+                this.export.getBackend().cancel(urb.request);
+            }
+            this.export.release(this);
+        }
+        this.pending.clear();
+        this.outgoing.clear();
+        this.server.closed(this);
+    }
+
+    /**
+     * An URB with its request, buffers and reply.
+     */
+    private static final class Urb
+    {
+        /** The request carrying out the URB. */
+        final IoRequest request = new IoRequest();
+
+        /** The reply header. */
+        final ByteBuffer header = ByteBuffer.allocate(UsbIp.HEADER_SIZE);
+
+        /** The isochronous packet descriptors. */
+        ByteBuffer iso = EMPTY;
+
+        /** The transfer buffer (setup packet and data for control URBs). */
+        ByteBuffer buffer = EMPTY;
+
+        /** The isochronous packet lengths. */
+        private int[] isoLengths = new int[0];
+
+        /** The buffers of the reply. */
+        ByteBuffer[] segments = new ByteBuffer[3];
+
+        /** The number of reply buffers. */
+        int segmentCount;
+
+        /** The sequence number. */
+        int seqnum;
+
+        /** Whether this is an IN URB. */
+        boolean in;
+
+        /** The endpoint address. */
+        byte endpoint;
+
+        /** The USB/IP transfer flags. */
+        int flags;
+
+        /** The start frame. */
+        int startFrame;
+
+        /** The number of isochronous packets. */
+        int packets;
+
+        /** The offset of the data in the transfer buffer. */
+        int offset;
+
+        /** The sequence number of the unlink command. 0 if not unlinked. */
+        int unlinkSeqnum;
+
+        /**
+         * Prepares the transfer buffer. The buffer is reused if it is large
+         * enough.
+         *
+         * @param size
+         *            The required size.
+         * @return The buffer with position 0 and limit set to the size.
+         */
+        ByteBuffer allocate(final int size)
+        {
+            if (this.buffer.capacity() < size)
+            {
+                this.buffer = BufferUtils.allocateByteBuffer(
+                    Math.max(size, 512));
+            }
+            this.buffer.clear();
+            this.buffer.limit(size);
+            if (this.packets * UsbIp.ISO_DESCRIPTOR_SIZE
+                > this.iso.capacity())
+            {
+                this.iso = ByteBuffer.allocate(this.packets
+                    * UsbIp.ISO_DESCRIPTOR_SIZE);
+            }
+            return this.buffer;
+        }
+
+        /**
+         * Returns the isochronous packet length array.
+         *
+         * @return The array with one element per packet.
+         */
+        int[] isoLengths()
+        {
+            if (this.isoLengths.length != this.packets)
+            {
+                this.isoLengths = new int[this.packets];
+            }
+            return this.isoLengths;
+        }
+
+        /**
+         * Adds a reply buffer.
+         *
+         * @param segment
+         *            The buffer.
+         */
+        private void add(final ByteBuffer segment)
+        {
+            if (this.segmentCount == this.segments.length)
+            {
+                this.segments = Arrays.copyOf(this.segments,
+                    this.segmentCount * 2);
+            }
+            this.segments[this.segmentCount++] = segment;
+        }
+
+        /**
+         * Uses this URB to send an operation reply.
+         *
+         * @param reply
+         *            The reply.
+         * @return This URB.
+         */
+        Urb reply(final ByteBuffer reply)
+        {
+            this.add(reply);
+            return this;
+        }
+
+        /**
+         * Writes the basic header of a reply.
+         *
+         * @param command
+         *            The reply command.
+         * @param seqnum
+         *            The sequence number.
+         * @param status
+         *            The status.
+         */
+        private void header(final int command, final int seqnum,
+            final int status)
+        {
+            this.header.clear();
+            this.header.putInt(command);
+            this.header.putInt(seqnum);
+            this.header.putInt(0);
+            this.header.putInt(0);
+            this.header.putInt(0);
+            this.header.putInt(status);
+        }
+
+        /**
+         * Prepares a RET_SUBMIT reply for a non-isochronous URB or an URB
+         * which could not be submitted.
+         *
+         * @param status
+         *            The URB status.
+         * @param actualLength
+         *            The actual length of the transferred data.
+         * @return This URB.
+         */
+        Urb submitted(final int status, final int actualLength)
+        {
+            this.header(UsbIp.RET_SUBMIT, this.seqnum, status);
+            this.header.putInt(actualLength);
+            this.header.putInt(this.startFrame);
+            this.header.putInt(this.packets);
+            // Every packet of an unsubmitted isochronous URB failed
+            this.header.putInt(this.packets);
+            this.header.putLong(0);
+            this.header.flip();
+            this.add(this.header);
+            if (this.in && actualLength > 0)
+            {
+                this.buffer.limit(this.offset + actualLength);
+                this.buffer.position(this.offset);
+                this.add(this.buffer);
+            }
+            if (this.packets > 0)
+            {
+                // Never submitted, report the error for every packet
+                this.iso.clear();
+                int offset = 0;
+                for (final int length : this.isoLengths)
+                {
+                    this.iso.putInt(offset);
+                    this.iso.putInt(length);
+                    this.iso.putInt(0);
+                    this.iso.putInt(status);
+                    offset += length;
+                }
+                this.iso.flip();
+                this.add(this.iso);
+            }
+            return this;
+        }
+
+        /**
+         * Prepares a RET_SUBMIT reply for a completed isochronous URB. The
+         * received data of all packets is sent back to back.
+         *
+         * @param status
+         *            The URB status.
+         * @return This URB.
+         */
+        Urb submittedIso(final int status)
+        {
+            this.add(this.header);
+            this.iso.clear();
+            int offset = 0;
+            int actualLength = 0;
+            int errors = 0;
+            for (int i = 0; i < this.packets; i++)
+            {
+                final int length = this.request.isoPacketLength(i);
+                final int actual = this.request.isoPacketActualLength(i);
+                final int packetStatus = this.request.isoPacketStatus(i);
+                if (packetStatus != LibUsb.TRANSFER_COMPLETED)
+                {
+                    errors++;
+                }
+                if (this.in && actual > 0)
+                {
+                    this.add(BufferUtils.slice(this.buffer, offset, actual));
+                }
+                this.iso.putInt(offset);
+                this.iso.putInt(length);
+                this.iso.putInt(actual);
+                this.iso.putInt(UsbIp.toUrbStatus(packetStatus));
+                offset += length;
+                actualLength += actual;
+            }
+            this.iso.flip();
+            this.add(this.iso);
+            this.header(UsbIp.RET_SUBMIT, this.seqnum, status);
+            this.header.putInt(actualLength);
+            this.header.putInt(this.startFrame);
+            this.header.putInt(this.packets);
+            this.header.putInt(errors);
+            this.header.putLong(0);
+            this.header.flip();
+            return this;
+        }
+
+        /**
+         * Prepares a RET_UNLINK reply.
+         *
+         * @param seqnum
+         *            The sequence number of the unlink command.
+         * @param status
+         *            The status.
+         * @return This URB.
+         */
+        Urb unlinked(final int seqnum, final int status)
+        {
+            this.header(UsbIp.RET_UNLINK, seqnum, status);
+            while (this.header.hasRemaining())
+            {
+                this.header.put((byte) 0);
+            }
+            this.header.flip();
+            this.add(this.header);
+            return this;
+        }
+
+        /**
+         * Checks if the reply has been written completely.
+         *
+         * @return True if sent.
+         */
+        boolean isSent()
+        {
+            return !this.segments[this.segmentCount - 1].hasRemaining();
+        }
+    }
+}
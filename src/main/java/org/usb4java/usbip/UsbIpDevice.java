@@ -0,0 +1,513 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.usb4java.ConfigDescriptor;
+import org.usb4java.Device;
+import org.usb4java.DeviceDescriptor;
+import org.usb4java.InterfaceDescriptor;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+
+/**
+ * The description of an exported device as transmitted in the device list
+ * and import replies.
+ *
+ * @author usb4java Team
+ */
+public final class UsbIpDevice
+{
+    /** The size of the path field. */
+    private static final int PATH_SIZE = 256;
+
+    /** The size of the device description without interfaces. */
+    public static final int SIZE = 312;
+
+    /** The size of an interface description. */
+    public static final int INTERFACE_SIZE = 4;
+
+    /** The charset of the string fields. */
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    /** The sysfs path of the device. */
+    private final String path;
+
+    /** The bus ID. */
+    private final String busId;
+
+    /** The bus number. */
+    private final int busNum;
+
+    /** The device number. */
+    private final int devNum;
+
+    /** The Linux USB speed. */
+    private final int speed;
+
+    /** The vendor ID. */
+    private final int vendorId;
+
+    /** The product ID. */
+    private final int productId;
+
+    /** The device release number in BCD. */
+    private final int bcdDevice;
+
+    /** The device class. */
+    private final int deviceClass;
+
+    /** The device sub class. */
+    private final int deviceSubClass;
+
+    /** The device protocol. */
+    private final int deviceProtocol;
+
+    /** The active configuration value. */
+    private final int configurationValue;
+
+    /** The number of configurations. */
+    private final int numConfigurations;
+
+    /** The interfaces (class, sub class and protocol in the lower 24 bits). */
+    private final int[] interfaces;
+
+    /**
+     * Constructs a device description from its fields.
+     *
+     * @param path
+     *            The sysfs path.
+     * @param busId
+     *            The bus ID.
+     * @param busNum
+     *            The bus number.
+     * @param devNum
+     *            The device number.
+     * @param speed
+     *            The Linux USB speed.
+     * @param descriptor
+     *            The fields of the device descriptor: idVendor, idProduct,
+     *            bcdDevice, bDeviceClass, bDeviceSubClass, bDeviceProtocol
+     *            and bNumConfigurations.
+     * @param configurationValue
+     *            The active configuration value.
+     * @param interfaces
+     *            The interfaces (class, sub class and protocol).
+     */
+    private UsbIpDevice(final String path, final String busId,
+        final int busNum, final int devNum, final int speed,
+        final int[] descriptor, final int configurationValue,
+        final int[] interfaces)
+    {
+        this.path = path;
+        this.busId = busId;
+        this.busNum = busNum;
+        this.devNum = devNum;
+        this.speed = speed;
+        this.vendorId = descriptor[0];
+        this.productId = descriptor[1];
+        this.bcdDevice = descriptor[2];
+        this.deviceClass = descriptor[3];
+        this.deviceSubClass = descriptor[4];
+        this.deviceProtocol = descriptor[5];
+        this.numConfigurations = descriptor[6];
+        this.configurationValue = configurationValue;
+        this.interfaces = interfaces.clone();
+    }
+
+    /**
+     * Constructs a device description.
+     *
+     * @param busId
+     *            The bus ID under which the device is exported, for example
+     *            "1-2".
+     * @param busNum
+     *            The bus number.
+     * @param devNum
+     *            The device number.
+     * @param speed
+     *            The Linux USB speed. One of the SPEED_* constants of
+     *            {@link UsbIp}.
+     * @param deviceDescriptor
+     *            The raw device descriptor (18 bytes). Read from position 0.
+     * @param configurationValue
+     *            The active configuration value.
+     * @param interfaces
+     *            The interfaces of the active configuration. Each element
+     *            contains class, sub class and protocol of an interface as
+     *            0xCCSSPP.
+     */
+    public UsbIpDevice(final String busId, final int busNum,
+        final int devNum, final int speed, final ByteBuffer deviceDescriptor,
+        final int configurationValue, final int[] interfaces)
+    {
+        this("/sys/devices/usb4java/" + busId, busId, busNum, devNum, speed,
+            new int[] {
+                (deviceDescriptor.get(8) & 0xff)
+                    | (deviceDescriptor.get(9) & 0xff) << 8,
+                (deviceDescriptor.get(10) & 0xff)
+                    | (deviceDescriptor.get(11) & 0xff) << 8,
+                (deviceDescriptor.get(12) & 0xff)
+                    | (deviceDescriptor.get(13) & 0xff) << 8,
+                deviceDescriptor.get(4) & 0xff,
+                deviceDescriptor.get(5) & 0xff,
+                deviceDescriptor.get(6) & 0xff,
+                deviceDescriptor.get(17) & 0xff },
+            configurationValue, interfaces);
+    }
+
+    /**
+     * Creates the description of a local device.
+     *
+     * @param device
+     *            The device.
+     * @return The device description.
+     * @throws LibUsbException
+     *             When the descriptors could not be read.
+     */
+    public static UsbIpDevice fromDevice(final Device device)
+    {
+        final DeviceDescriptor descriptor = new DeviceDescriptor();
+        int result = LibUsb.getDeviceDescriptor(device, descriptor);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to read device descriptor",
+                result);
+        }
+        final ConfigDescriptor config = new ConfigDescriptor();
+        result = LibUsb.getActiveConfigDescriptor(device, config);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to read config descriptor",
+                result);
+        }
+        try
+        {
+            final int[] interfaces = new int[config.bNumInterfaces() & 0xff];
+            for (int i = 0; i < interfaces.length; i++)
+            {
+                final InterfaceDescriptor iface =
+                    config.iface()[i].altsetting()[0];
+                interfaces[i] = (iface.bInterfaceClass() & 0xff) << 16
+                    | (iface.bInterfaceSubClass() & 0xff) << 8
+                    | (iface.bInterfaceProtocol() & 0xff);
+            }
+            final int busNum = LibUsb.getBusNumber(device);
+            final int devNum = LibUsb.getDeviceAddress(device);
+            final String busId = busNum + "-" + devNum;
+            return new UsbIpDevice("/sys/devices/usb4java/" + busId, busId,
+                busNum, devNum,
+                UsbIp.toLinuxSpeed(LibUsb.getDeviceSpeed(device)),
+                new int[] {
+                    descriptor.idVendor() & 0xffff,
+                    descriptor.idProduct() & 0xffff,
+                    descriptor.bcdDevice() & 0xffff,
+                    descriptor.bDeviceClass() & 0xff,
+                    descriptor.bDeviceSubClass() & 0xff,
+                    descriptor.bDeviceProtocol() & 0xff,
+                    descriptor.bNumConfigurations() & 0xff },
+                config.bConfigurationValue() & 0xff, interfaces);
+        }
+        finally
+        {
+            LibUsb.freeConfigDescriptor(config);
+        }
+    }
+
+    /**
+     * Reads a device description.
+     *
+     * @param buffer
+     *            The buffer. Read from position, the position is advanced.
+     * @param withInterfaces
+     *            Whether the interface descriptions follow (device list)
+     *            or not (import reply).
+     * @return The device description.
+     */
+    static UsbIpDevice read(final ByteBuffer buffer,
+        final boolean withInterfaces)
+    {
+        final String path = readString(buffer, PATH_SIZE);
+        final String busId = readString(buffer, UsbIp.BUS_ID_SIZE);
+        final int busNum = buffer.getInt();
+        final int devNum = buffer.getInt();
+        final int speed = buffer.getInt();
+        final int[] descriptor = new int[7];
+        descriptor[0] = buffer.getShort() & 0xffff;
+        descriptor[1] = buffer.getShort() & 0xffff;
+        descriptor[2] = buffer.getShort() & 0xffff;
+        descriptor[3] = buffer.get() & 0xff;
+        descriptor[4] = buffer.get() & 0xff;
+        descriptor[5] = buffer.get() & 0xff;
+        final int configurationValue = buffer.get() & 0xff;
+        descriptor[6] = buffer.get() & 0xff;
+        final int[] interfaces = new int[buffer.get() & 0xff];
+        if (withInterfaces)
+        {
+            for (int i = 0; i < interfaces.length; i++)
+            {
+                interfaces[i] = (buffer.get() & 0xff) << 16
+                    | (buffer.get() & 0xff) << 8 | (buffer.get() & 0xff);
+                buffer.get();
+            }
+        }
+        return new UsbIpDevice(path, busId, busNum, devNum, speed,
+            descriptor, configurationValue, interfaces);
+    }
+
+    /**
+     * Writes the device description.
+     *
+     * @param buffer
+     *            The buffer. Written at position, the position is advanced.
+     * @param withInterfaces
+     *            Whether to write the interface descriptions (device list)
+     *            or not (import reply).
+     */
+    void write(final ByteBuffer buffer, final boolean withInterfaces)
+    {
+        writeString(buffer, this.path, PATH_SIZE);
+        writeString(buffer, this.busId, UsbIp.BUS_ID_SIZE);
+        buffer.putInt(this.busNum);
+        buffer.putInt(this.devNum);
+        buffer.putInt(this.speed);
+        buffer.putShort((short) this.vendorId);
+        buffer.putShort((short) this.productId);
+        buffer.putShort((short) this.bcdDevice);
+        buffer.put((byte) this.deviceClass);
+        buffer.put((byte) this.deviceSubClass);
+        buffer.put((byte) this.deviceProtocol);
+        buffer.put((byte) this.configurationValue);
+        buffer.put((byte) this.numConfigurations);
+        buffer.put((byte) this.interfaces.length);
+        if (withInterfaces)
+        {
+            for (final int iface : this.interfaces)
+            {
+                buffer.put((byte) (iface >> 16));
+                buffer.put((byte) (iface >> 8));
+                buffer.put((byte) iface);
+                buffer.put((byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the description.
+     *
+     * @param withInterfaces
+     *            Whether the interface descriptions are included.
+     * @return The size in bytes.
+     */
+    int size(final boolean withInterfaces)
+    {
+        return SIZE + (withInterfaces ? this.interfaces.length
+            * INTERFACE_SIZE : 0);
+    }
+
+    /**
+     * Reads a zero terminated string from a fixed size field.
+     *
+     * @param buffer
+     *            The buffer. The position is advanced by the field size.
+     * @param size
+     *            The field size.
+     * @return The string.
+     */
+    static String readString(final ByteBuffer buffer, final int size)
+    {
+        final byte[] bytes = new byte[size];
+        buffer.get(bytes);
+        int length = 0;
+        while (length < size && bytes[length] != 0)
+        {
+            length++;
+        }
+        return new String(bytes, 0, length, ASCII);
+    }
+
+    /**
+     * Writes a zero padded string into a fixed size field.
+     *
+     * @param buffer
+     *            The buffer. The position is advanced by the field size.
+     * @param value
+     *            The string. Truncated if too long.
+     * @param size
+     *            The field size.
+     */
+    private static void writeString(final ByteBuffer buffer,
+        final String value, final int size)
+    {
+        final byte[] bytes = value.getBytes(ASCII);
+        final int length = Math.min(bytes.length, size - 1);
+        buffer.put(bytes, 0, length);
+        for (int i = length; i < size; i++)
+        {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Returns the sysfs path.
+     *
+     * @return The path.
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * Returns the bus ID.
+     *
+     * @return The bus ID.
+     */
+    public String getBusId()
+    {
+        return this.busId;
+    }
+
+    /**
+     * Returns the bus number.
+     *
+     * @return The bus number.
+     */
+    public int getBusNum()
+    {
+        return this.busNum;
+    }
+
+    /**
+     * Returns the device number.
+     *
+     * @return The device number.
+     */
+    public int getDevNum()
+    {
+        return this.devNum;
+    }
+
+    /**
+     * Returns the device ID used in the URB headers.
+     *
+     * @return The device ID (bus number in the upper, device number in the
+     *         lower 16 bits).
+     */
+    public int getDevId()
+    {
+        return this.busNum << 16 | this.devNum;
+    }
+
+    /**
+     * Returns the speed.
+     *
+     * @return The Linux USB speed.
+     */
+    public int getSpeed()
+    {
+        return this.speed;
+    }
+
+    /**
+     * Returns the vendor ID.
+     *
+     * @return The vendor ID.
+     */
+    public int getVendorId()
+    {
+        return this.vendorId;
+    }
+
+    /**
+     * Returns the product ID.
+     *
+     * @return The product ID.
+     */
+    public int getProductId()
+    {
+        return this.productId;
+    }
+
+    /**
+     * Returns the device release number.
+     *
+     * @return The release number in BCD.
+     */
+    public int getBcdDevice()
+    {
+        return this.bcdDevice;
+    }
+
+    /**
+     * Returns the device class.
+     *
+     * @return The device class.
+     */
+    public int getDeviceClass()
+    {
+        return this.deviceClass;
+    }
+
+    /**
+     * Returns the device sub class.
+     *
+     * @return The device sub class.
+     */
+    public int getDeviceSubClass()
+    {
+        return this.deviceSubClass;
+    }
+
+    /**
+     * Returns the device protocol.
+     *
+     * @return The device protocol.
+     */
+    public int getDeviceProtocol()
+    {
+        return this.deviceProtocol;
+    }
+
+    /**
+     * Returns the active configuration value.
+     *
+     * @return The configuration value.
+     */
+    public int getConfigurationValue()
+    {
+        return this.configurationValue;
+    }
+
+    /**
+     * Returns the number of configurations.
+     *
+     * @return The number of configurations.
+     */
+    public int getNumConfigurations()
+    {
+        return this.numConfigurations;
+    }
+
+    /**
+     * Returns the interfaces. Only available in device lists.
+     *
+     * @return The interfaces as 0xCCSSPP (class, sub class, protocol).
+     */
+    public int[] getInterfaces()
+    {
+        return this.interfaces.clone();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("USB/IP device %s (%04x:%04x)", this.busId,
+            this.vendorId, this.productId);
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.usb4java.ConfigDescriptor;
+import org.usb4java.Device;
+import org.usb4java.DeviceHandle;
+import org.usb4java.EndpointDescriptor;
+import org.usb4java.Interface;
+import org.usb4java.InterfaceDescriptor;
+import org.usb4java.IoBackend;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbBackend;
+import org.usb4java.LibUsbException;
+
+/**
+ * A device exported by a {@link UsbIpServer}.
+ *
+ * USB/IP commands only carry the endpoint number and direction, so the
+ * export knows the transfer type of each endpoint. Endpoints without a
+ * known type are treated as bulk endpoints, isochronous URBs are
+ * recognized by their packet count.
+ *
+ * @author usb4java Team
+ */
+public final class UsbIpExport
+{
+    /** Marker for control requests which are not intercepted. */
+    static final int NOT_INTERCEPTED = Integer.MIN_VALUE;
+
+    /** Standard request: CLEAR_FEATURE. */
+    private static final int CLEAR_FEATURE = 0x01;
+
+    /** Standard request: SET_CONFIGURATION. */
+    private static final int SET_CONFIGURATION = 0x09;
+
+    /** Standard request: SET_INTERFACE. */
+    private static final int SET_INTERFACE = 0x0B;
+
+    /** The device description. */
+    private final UsbIpDevice device;
+
+    /** The backend carrying out the URBs. */
+    private final IoBackend backend;
+
+    /** The device handle. Null for devices without a libusb handle. */
+    private final DeviceHandle handle;
+
+    /** The transfer types by endpoint address (bit 7 mapped to bit 4). */
+    private final byte[] endpointTypes = new byte[32];
+
+    /** The connection which imported the device. Null when available. */
+    private Object importer;
+
+    /**
+     * Constructs an export for a device which is accessed through an
+     * arbitrary backend, for example a simulated device. Control requests
+     * are passed to the backend unchanged.
+     *
+     * @param device
+     *            The device description.
+     * @param backend
+     *            The backend carrying out the URBs.
+     */
+    public UsbIpExport(final UsbIpDevice device, final IoBackend backend)
+    {
+        this(device, backend, null);
+    }
+
+    /**
+     * Constructs an export.
+     *
+     * @param device
+     *            The device description.
+     * @param backend
+     *            The backend carrying out the URBs.
+     * @param handle
+     *            The device handle used to carry out SET_CONFIGURATION,
+     *            SET_INTERFACE and CLEAR_FEATURE(ENDPOINT_HALT) requests.
+     *            Null to pass them to the backend.
+     */
+    private UsbIpExport(final UsbIpDevice device, final IoBackend backend,
+        final DeviceHandle handle)
+    {
+        this.device = device;
+        this.backend = backend;
+        this.handle = handle;
+        Arrays.fill(this.endpointTypes, LibUsb.TRANSFER_TYPE_BULK);
+        this.endpointTypes[0] = LibUsb.TRANSFER_TYPE_CONTROL;
+        this.endpointTypes[index((byte) 0x80)] = LibUsb.TRANSFER_TYPE_CONTROL;
+    }
+
+    /**
+     * Exports a local device. Claims all interfaces of the active
+     * configuration, detaching kernel drivers where supported, and records
+     * the transfer types of all endpoints.
+     *
+     * @param device
+     *            The device.
+     * @param handle
+     *            The open handle of the device. Must stay open while the
+     *            device is exported.
+     * @return The export.
+     * @throws LibUsbException
+     *             When the descriptors could not be read or an interface
+     *             could not be claimed.
+     */
+    public static UsbIpExport open(final Device device,
+        final DeviceHandle handle)
+    {
+        final UsbIpExport export = new UsbIpExport(
+            UsbIpDevice.fromDevice(device), new LibUsbBackend(handle),
+            handle);
+        final ConfigDescriptor config = new ConfigDescriptor();
+        int result = LibUsb.getActiveConfigDescriptor(device, config);
+        if (result != LibUsb.SUCCESS)
+        {
+            throw new LibUsbException("Unable to read config descriptor",
+                result);
+        }
+        try
+        {
+            LibUsb.setAutoDetachKernelDriver(handle, true);
+            for (final Interface iface : config.iface())
+            {
+                for (final InterfaceDescriptor setting : iface.altsetting())
+                {
+                    for (final EndpointDescriptor endpoint : setting
+                        .endpoint())
+                    {
+                        export.setEndpointType(endpoint.bEndpointAddress(),
+                            endpoint.bmAttributes()
+                                & LibUsb.TRANSFER_TYPE_MASK);
+                    }
+                }
+                final int number = iface.altsetting()[0].bInterfaceNumber();
+                result = LibUsb.claimInterface(handle, number);
+                if (result != LibUsb.SUCCESS)
+                {
+                    throw new LibUsbException("Unable to claim interface "
+                        + number, result);
+                }
+            }
+        }
+        finally
+        {
+            LibUsb.freeConfigDescriptor(config);
+        }
+        return export;
+    }
+
+    /**
+     * Returns the index of an endpoint address in the type table.
+     *
+     * @param endpoint
+     *            The endpoint address.
+     * @return The index.
+     */
+    private static int index(final byte endpoint)
+    {
+        return (endpoint & 0x0f) | ((endpoint & 0x80) >> 3);
+    }
+
+    /**
+     * Sets the transfer type of an endpoint.
+     *
+     * @param endpoint
+     *            The endpoint address.
+     * @param type
+     *            One of the TRANSFER_TYPE_* constants of {@link LibUsb}.
+     */
+    public void setEndpointType(final byte endpoint, final int type)
+    {
+        this.endpointTypes[index(endpoint)] = (byte) type;
+    }
+
+    /**
+     * Returns the transfer type of an endpoint.
+     *
+     * @param endpoint
+     *            The endpoint address.
+     * @return One of the TRANSFER_TYPE_* constants of {@link LibUsb}.
+     */
+    public int getEndpointType(final byte endpoint)
+    {
+        return this.endpointTypes[index(endpoint)];
+    }
+
+    /**
+     * Carries out standard requests which libusb doesn't allow as plain
+     * control transfers. Called on the network thread, the requests are
+     * quick.
+     *
+     * @param setup
+     *            The setup packet. Read from position 0.
+     * @return The URB status or {@link #NOT_INTERCEPTED} if the request must
+     *         be submitted to the backend.
+     */
+    int intercept(final ByteBuffer setup)
+    {
+        if (this.handle == null)
+        {
+            return NOT_INTERCEPTED;
+        }
+        final ByteBuffer data = setup.duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        final int requestType = data.get(0) & 0xff;
+        final int request = data.get(1) & 0xff;
+        final int value = data.getShort(2) & 0xffff;
+        final int index = data.getShort(4) & 0xffff;
+        final int result;
+        if (requestType == 0x00 && request == SET_CONFIGURATION)
+        {
+            result = LibUsb.setConfiguration(this.handle, value);
+        }
+        else if (requestType == 0x01 && request == SET_INTERFACE)
+        {
+            result = LibUsb.setInterfaceAltSetting(this.handle, index, value);
+        }
+        else if (requestType == 0x02 && request == CLEAR_FEATURE
+            && value == 0)
+        {
+            result = LibUsb.clearHalt(this.handle, (byte) index);
+        }
+        else
+        {
+            return NOT_INTERCEPTED;
+        }
+        return result == LibUsb.SUCCESS ? 0 : -UsbIp.EPIPE;
+    }
+
+    /**
+     * Marks the device as imported by a connection.
+     *
+     * @param connection
+     *            The importing connection.
+     * @return True on success, false if the device is already imported.
+     */
+    synchronized boolean acquire(final Object connection)
+    {
+        if (this.importer != null)
+        {
+            return false;
+        }
+        this.importer = connection;
+        return true;
+    }
+
+    /**
+     * Makes the device available again.
+     *
+     * @param connection
+     *            The connection which imported the device.
+     */
+    synchronized void release(final Object connection)
+    {
+        if (this.importer == connection)
+        {
+            this.importer = null;
+        }
+    }
+
+    /**
+     * Checks if the device is imported by a client.
+     *
+     * @return True if imported.
+     */
+    public synchronized boolean isImported()
+    {
+        return this.importer != null;
+    }
+
+    /**
+     * Returns the device description.
+     *
+     * @return The device description.
+     */
+    public UsbIpDevice getDevice()
+    {
+        return this.device;
+    }
+
+    /**
+     * Returns the backend.
+     *
+     * @return The backend.
+     */
+    public IoBackend getBackend()
+    {
+        return this.backend;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "USB/IP export of " + this.device;
+    }
+}
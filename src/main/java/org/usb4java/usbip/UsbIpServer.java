@@ -0,0 +1,577 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.usb4java.IoRequest;
+
+/**
+ * USB/IP server exporting devices over TCP.
+ *
+ * The server speaks the protocol of the Linux USB/IP tools, so remote hosts
+ * attach exported devices with the vhci-hcd driver ("usbip attach") or any
+ * other USB/IP client. No kernel support is needed on the exporting host.
+ *
+ * A single network thread multiplexes all connections with a
+ * {@link Selector}. Each CMD_SUBMIT is mapped to an asynchronous
+ * {@link IoRequest} on the {@link org.usb4java.IoBackend} of the exported
+ * device and CMD_UNLINK cancels it. Clients can pipeline URBs: Commands
+ * are submitted as soon as they are received, completions are collected
+ * from the backend threads and their replies are sent in batches with
+ * gathering writes.
+ *
+ * <pre>
+ * UsbIpServer server = new UsbIpServer();
+ * server.addExport(UsbIpExport.open(device, handle));
+ * server.start(new InetSocketAddress(UsbIp.DEFAULT_PORT));
+ * </pre>
+ *
+ * @author usb4java Team
+ */
+public final class UsbIpServer implements Closeable
+{
+    /** The default maximum number of URBs in use per connection. */
+    public static final int DEFAULT_MAX_OUTSTANDING = 256;
+
+    /** The default maximum transfer buffer length of an URB. */
+    public static final int DEFAULT_MAX_TRANSFER_SIZE = 16 * 1024 * 1024;
+
+    /** The exported devices by bus ID. */
+    private final Map<String, UsbIpExport> exports =
+        new LinkedHashMap<String, UsbIpExport>();
+
+    /** The maximum number of URBs in use per connection. */
+    private final int maxOutstanding;
+
+    /** The maximum transfer buffer length of an URB. */
+    private final int maxTransferSize;
+
+    /** The requests completed by the backends. */
+    private final Queue<IoRequest> completions =
+        new ConcurrentLinkedQueue<IoRequest>();
+
+    /** Whether the selector has been woken up for completions. */
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    /** The connections with replies to flush. Network thread only. */
+    private final List<UsbIpConnection> flushes =
+        new ArrayList<UsbIpConnection>();
+
+    /** The open connections. Network thread only. */
+    private final Set<UsbIpConnection> connections =
+        new HashSet<UsbIpConnection>();
+
+    /** The selector. */
+    private Selector selector;
+
+    /** The server socket channel. */
+    private ServerSocketChannel serverChannel;
+
+    /** The network thread. */
+    private Thread thread;
+
+    /** Whether the server is running. */
+    private volatile boolean running;
+
+    /** The number of accepted connections. */
+    volatile long acceptedConnections;
+
+    /** The number of submitted URBs. */
+    volatile long submittedUrbs;
+
+    /** The number of completed URBs. */
+    volatile long completedUrbs;
+
+    /** The number of unlink commands. */
+    volatile long unlinkedUrbs;
+
+    /** The number of connections closed because of protocol errors. */
+    volatile long protocolErrors;
+
+    /** The number of bytes received from clients. */
+    volatile long receivedBytes;
+
+    /** The number of bytes sent to clients. */
+    volatile long sentBytes;
+
+    /** The maximum number of URBs submitted at the same time. */
+    private volatile int peakPending;
+
+    /**
+     * Constructs a server with default limits.
+     */
+    public UsbIpServer()
+    {
+        this(DEFAULT_MAX_OUTSTANDING, DEFAULT_MAX_TRANSFER_SIZE);
+    }
+
+    /**
+     * Constructs a server.
+     *
+     * @param maxOutstanding
+     *            The maximum number of URBs in use per connection. URBs
+     *            are in use from their submission until their reply is
+     *            sent. When the limit is reached the server stops reading
+     *            commands from the connection.
+     * @param maxTransferSize
+     *            The maximum transfer buffer length of an URB. Connections
+     *            requesting larger transfers are closed.
+     */
+    public UsbIpServer(final int maxOutstanding, final int maxTransferSize)
+    {
+        if (maxOutstanding < 1)
+        {
+            throw new IllegalArgumentException(
+                "maxOutstanding must be positive");
+        }
+        this.maxOutstanding = maxOutstanding;
+        this.maxTransferSize = maxTransferSize;
+    }
+
+    /**
+     * Adds an exported device. Devices can be added while the server is
+     * running.
+     *
+     * @param export
+     *            The export.
+     */
+    public void addExport(final UsbIpExport export)
+    {
+        synchronized (this.exports)
+        {
+            this.exports.put(export.getDevice().getBusId(), export);
+        }
+    }
+
+    /**
+     * Returns the export with the specified bus ID.
+     *
+     * @param busId
+     *            The bus ID.
+     * @return The export or null if not found.
+     */
+    public UsbIpExport getExport(final String busId)
+    {
+        synchronized (this.exports)
+        {
+            return this.exports.get(busId);
+        }
+    }
+
+    /**
+     * Returns the descriptions of the devices which are not imported.
+     *
+     * @return The device descriptions.
+     */
+    UsbIpDevice[] getAvailableDevices()
+    {
+        final List<UsbIpDevice> devices = new ArrayList<UsbIpDevice>();
+        synchronized (this.exports)
+        {
+            for (final UsbIpExport export : this.exports.values())
+            {
+                if (!export.isImported())
+                {
+                    devices.add(export.getDevice());
+                }
+            }
+        }
+        return devices.toArray(new UsbIpDevice[devices.size()]);
+    }
+
+    /**
+     * Binds the server socket and starts the network thread.
+     *
+     * @param address
+     *            The address to listen on. Use port 0 for an ephemeral
+     *            port.
+     * @throws IOException
+     *             When the socket could not be bound.
+     */
+    public synchronized void start(final SocketAddress address)
+        throws IOException
+    {
+        if (this.thread != null)
+        {
+            throw new IllegalStateException("Server already started");
+        }
+        this.selector = Selector.open();
+        try
+        {
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.socket().setReuseAddress(true);
+            this.serverChannel.socket().bind(address);
+            this.serverChannel.configureBlocking(false);
+            this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        }
+        catch (final IOException e)
+        {
+            this.closeChannels();
+            throw e;
+        }
+        this.running = true;
+        this.thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                UsbIpServer.this.run();
+            }
+        }, "usb4java USB/IP server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the address the server listens on.
+     *
+     * @return The local address. Null if not started.
+     */
+    public synchronized InetSocketAddress getLocalAddress()
+    {
+        if (this.serverChannel == null)
+        {
+            return null;
+        }
+        return (InetSocketAddress) this.serverChannel.socket()
+            .getLocalSocketAddress();
+    }
+
+    /**
+     * Stops the server and closes all connections. URBs in progress are
+     * cancelled, but this method doesn't wait for their completion.
+     *
+     * @throws IOException
+     *             When interrupted while waiting for the network thread.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        final Thread thread;
+        synchronized (this)
+        {
+            thread = this.thread;
+            if (thread == null || !this.running)
+            {
+                return;
+            }
+            this.running = false;
+            this.selector.wakeup();
+        }
+        try
+        {
+            thread.join();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while stopping server");
+        }
+    }
+
+    /**
+     * The network thread.
+     */
+    void run()
+    {
+        try
+        {
+            while (this.running)
+            {
+                this.selector.select();
+                this.wakeupPending.set(false);
+                this.processCompletions();
+                final Iterator<SelectionKey> keys =
+                    this.selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                    {
+                        continue;
+                    }
+                    if (key.isAcceptable())
+                    {
+                        this.accept();
+                    }
+                    else
+                    {
+                        ((UsbIpConnection) key.attachment()).ready();
+                    }
+                }
+            }
+        }
+        catch (final IOException e)
+        {
+            // The selector failed, shut down
+            this.running = false;
+        }
+        finally
+        {
+            for (final UsbIpConnection connection
+                : new ArrayList<UsbIpConnection>(this.connections))
+            {
+                connection.close();
+            }
+            this.completions.clear();
+            this.closeChannels();
+        }
+    }
+
+    /**
+     * Closes the server socket channel and the selector.
+     */
+    private synchronized void closeChannels()
+    {
+        try
+        {
+            if (this.serverChannel != null)
+            {
+                this.serverChannel.close();
+            }
+        }
+        catch (final IOException e)
+        {
+            // Ignored, closing anyway
+        }
+        try
+        {
+            this.selector.close();
+        }
+        catch (final IOException e)
+        {
+            // Ignored, closing anyway
+        }
+    }
+
+    /**
+     * Accepts a connection.
+     *
+     * @throws IOException
+     *             When the server socket failed.
+     */
+    private void accept() throws IOException
+    {
+        final SocketChannel channel = this.serverChannel.accept();
+        if (channel == null)
+        {
+            return;
+        }
+        try
+        {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            this.connections.add(new UsbIpConnection(this, channel,
+                this.maxOutstanding));
+            this.acceptedConnections++;
+        }
+        catch (final IOException e)
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Registers a connection with the selector.
+     *
+     * @param channel
+     *            The channel of the connection.
+     * @param connection
+     *            The connection.
+     * @return The selection key.
+     * @throws IOException
+     *             When registration failed.
+     */
+    SelectionKey register(final SocketChannel channel,
+        final UsbIpConnection connection) throws IOException
+    {
+        return channel.register(this.selector, SelectionKey.OP_READ,
+            connection);
+    }
+
+    /**
+     * Called by a connection when it has been closed.
+     *
+     * @param connection
+     *            The closed connection.
+     */
+    void closed(final UsbIpConnection connection)
+    {
+        this.connections.remove(connection);
+    }
+
+    /**
+     * Hands a completed request over to the network thread. Called by the
+     * backend threads. The selector is only woken up once per batch of
+     * completions.
+     *
+     * @param request
+     *            The completed request.
+     */
+    void completed(final IoRequest request)
+    {
+        this.completions.add(request);
+        if (this.wakeupPending.compareAndSet(false, true))
+        {
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Passes the completed requests to their connections and flushes the
+     * replies.
+     */
+    private void processCompletions()
+    {
+        IoRequest request;
+        while ((request = this.completions.poll()) != null)
+        {
+            ((UsbIpConnection) request.callback()).completed(request);
+        }
+        for (final UsbIpConnection connection : this.flushes)
+        {
+            connection.flushCompleted();
+        }
+        this.flushes.clear();
+    }
+
+    /**
+     * Schedules a flush of the replies of a connection after the current
+     * batch of completions.
+     *
+     * @param connection
+     *            The connection.
+     */
+    void scheduleFlush(final UsbIpConnection connection)
+    {
+        this.flushes.add(connection);
+    }
+
+    /**
+     * Counts a submitted URB.
+     *
+     * @param pending
+     *            The number of URBs now submitted on the connection.
+     */
+    void submitted(final int pending)
+    {
+        this.submittedUrbs++;
+        if (pending > this.peakPending)
+        {
+            this.peakPending = pending;
+        }
+    }
+
+    /**
+     * Returns the maximum transfer buffer length of an URB.
+     *
+     * @return The maximum transfer size.
+     */
+    int getMaxTransferSize()
+    {
+        return this.maxTransferSize;
+    }
+
+    /**
+     * Returns the number of accepted connections.
+     *
+     * @return The number of connections.
+     */
+    public long getAcceptedConnections()
+    {
+        return this.acceptedConnections;
+    }
+
+    /**
+     * Returns the number of submitted URBs.
+     *
+     * @return The number of URBs.
+     */
+    public long getSubmittedUrbs()
+    {
+        return this.submittedUrbs;
+    }
+
+    /**
+     * Returns the number of completed URBs, including unlinked ones.
+     *
+     * @return The number of URBs.
+     */
+    public long getCompletedUrbs()
+    {
+        return this.completedUrbs;
+    }
+
+    /**
+     * Returns the number of received unlink commands.
+     *
+     * @return The number of unlink commands.
+     */
+    public long getUnlinkedUrbs()
+    {
+        return this.unlinkedUrbs;
+    }
+
+    /**
+     * Returns the number of connections closed because of protocol errors.
+     *
+     * @return The number of protocol errors.
+     */
+    public long getProtocolErrors()
+    {
+        return this.protocolErrors;
+    }
+
+    /**
+     * Returns the number of bytes received from clients.
+     *
+     * @return The number of bytes.
+     */
+    public long getReceivedBytes()
+    {
+        return this.receivedBytes;
+    }
+
+    /**
+     * Returns the number of bytes sent to clients.
+     *
+     * @return The number of bytes.
+     */
+    public long getSentBytes()
+    {
+        return this.sentBytes;
+    }
+
+    /**
+     * Returns the maximum number of URBs which were submitted to a device
+     * at the same time. Shows how deep clients pipeline.
+     *
+     * @return The peak number of pending URBs.
+     */
+    public int getPeakPending()
+    {
+        return this.peakPending;
+    }
+}
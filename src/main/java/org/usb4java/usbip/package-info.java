@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB/IP server and client for sharing USB devices over TCP.
+ */
+package org.usb4java.usbip;
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uvc;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+
+import org.usb4java.BufferUtils;
+
+/**
+ * A video frame assembled from the payloads of a video stream.
+ *
+ * Frames are pooled by the {@link UvcFrameAssembler}. The consumer must
+ * {@link #release()} a frame when it is done with it, otherwise the pool
+ * runs dry and further frames are dropped.
+ *
+ * @author usb4java Team
+ */
+public final class UvcFrame
+{
+    /** The pool the frame is returned to. */
+    private final BlockingQueue<UvcFrame> pool;
+
+    /** The frame data. */
+    private final ByteBuffer buffer;
+
+    /** The sequence number. */
+    private long sequence;
+
+    /** The presentation time stamp. -1 if not present. */
+    private long presentationTime;
+
+    /** The arrival time of the first payload in nanoseconds. */
+    private long startTime;
+
+    /** The arrival time of the last payload in nanoseconds. */
+    private long endTime;
+
+    /** The number of payloads. */
+    private int payloads;
+
+    /**
+     * Constructs a frame.
+     *
+     * @param pool
+     *            The pool the frame is returned to.
+     * @param capacity
+     *            The maximum frame size in bytes.
+     */
+    UvcFrame(final BlockingQueue<UvcFrame> pool, final int capacity)
+    {
+        this.pool = pool;
+        this.buffer = BufferUtils.allocateByteBuffer(capacity);
+    }
+
+    /**
+     * Prepares the frame for assembly.
+     *
+     * @param sequence
+     *            The sequence number.
+     * @param startTime
+     *            The arrival time of the first payload in nanoseconds.
+     */
+    void start(final long sequence, final long startTime)
+    {
+        this.sequence = sequence;
+        this.startTime = startTime;
+        this.endTime = startTime;
+        this.presentationTime = -1;
+        this.payloads = 0;
+        this.buffer.clear();
+    }
+
+    /**
+     * Appends payload data. The position and limit of the source buffer are
+     * restored afterwards.
+     *
+     * @param data
+     *            The buffer containing the payload.
+     * @param offset
+     *            The absolute offset of the data in the buffer.
+     * @param length
+     *            The length of the data.
+     * @param time
+     *            The arrival time of the payload in nanoseconds.
+     * @return False if the data doesn't fit into the frame.
+     */
+    boolean append(final ByteBuffer data, final int offset, final int length,
+        final long time)
+    {
+        this.payloads++;
+        this.endTime = time;
+        if (length > this.buffer.remaining())
+        {
+            return false;
+        }
+        // Copy without allocating a duplicate by temporarily moving the
+        // window of the source buffer
+        final int position = data.position();
+        final int limit = data.limit();
+        data.limit(offset + length).position(offset);
+        this.buffer.put(data);
+        data.limit(limit).position(position);
+        return true;
+    }
+
+    /**
+     * Sets the presentation time stamp if not already set.
+     *
+     * @param presentationTime
+     *            The presentation time stamp in device clock units.
+     */
+    void setPresentationTime(final long presentationTime)
+    {
+        if (this.presentationTime < 0)
+        {
+            this.presentationTime = presentationTime;
+        }
+    }
+
+    /**
+     * Finishes the assembly. The buffer is flipped for reading.
+     */
+    void finish()
+    {
+        this.buffer.flip();
+    }
+
+    /**
+     * Returns the frame to the pool. The frame must not be used afterwards.
+     */
+    public void release()
+    {
+        this.pool.offer(this);
+    }
+
+    /**
+     * Returns the frame data. Position is 0, limit is the frame size.
+     *
+     * @return The frame data.
+     */
+    public ByteBuffer getBuffer()
+    {
+        return this.buffer;
+    }
+
+    /**
+     * Returns the frame size.
+     *
+     * @return The frame size in bytes.
+     */
+    public int getSize()
+    {
+        return this.buffer.limit();
+    }
+
+    /**
+     * Returns the sequence number of the frame. Sequence numbers also count
+     * dropped and corrupted frames, so gaps indicate lost frames.
+     *
+     * @return The sequence number.
+     */
+    public long getSequence()
+    {
+        return this.sequence;
+    }
+
+    /**
+     * Returns the presentation time stamp of the first payload header which
+     * had one.
+     *
+     * @return The presentation time stamp in device clock units or -1 if no
+     *         payload header contained one.
+     */
+    public long getPresentationTime()
+    {
+        return this.presentationTime;
+    }
+
+    /**
+     * Returns the arrival time of the first payload.
+     *
+     * @return The time in nanoseconds as returned by
+     *         {@link System#nanoTime()}.
+     */
+    public long getStartTime()
+    {
+        return this.startTime;
+    }
+
+    /**
+     * Returns the arrival time of the last payload.
+     *
+     * @return The time in nanoseconds as returned by
+     *         {@link System#nanoTime()}.
+     */
+    public long getEndTime()
+    {
+        return this.endTime;
+    }
+
+    /**
+     * Returns the time it took to receive the frame.
+     *
+     * @return The time from the first to the last payload in nanoseconds.
+     */
+    public long getTransferTime()
+    {
+        return this.endTime - this.startTime;
+    }
+
+    /**
+     * Returns the number of payloads the frame was assembled from.
+     *
+     * @return The number of payloads.
+     */
+    public int getPayloadCount()
+    {
+        return this.payloads;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("UVC frame %d (%d bytes, %d payloads)",
+            this.sequence, this.buffer.limit(), this.payloads);
+    }
+}
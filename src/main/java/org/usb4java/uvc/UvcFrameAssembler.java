@@ -0,0 +1,400 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uvc;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Assembles video frames from UVC payloads.
+ *
+ * Each payload starts with a payload header. The header is stripped and the
+ * payload data is copied straight into a frame taken from a pool of
+ * preallocated direct buffers. A frame ends when a payload has the end of
+ * frame (EOF) bit set or when the frame ID (FID) bit toggles, whichever
+ * comes first, so devices which never set EOF are supported as well.
+ *
+ * Frames with the error bit set in any payload header, with malformed
+ * payload headers, with lost packets or which overflow the frame buffer
+ * are counted as corrupted and recycled without being delivered. Frames
+ * which arrive while the pool is empty are counted as dropped. Neither
+ * assembling nor delivering a frame allocates anything.
+ *
+ * An assembler is not thread-safe. All payloads must be passed in from the
+ * same thread, which is the thread handling the events when used by
+ * {@link UvcStream}.
+ *
+ * @author usb4java Team
+ */
+public final class UvcFrameAssembler
+{
+    /** Header bit: Frame ID. */
+    public static final int HEADER_FID = 0x01;
+
+    /** Header bit: End of frame. */
+    public static final int HEADER_EOF = 0x02;
+
+    /** Header bit: Presentation time stamp present. */
+    public static final int HEADER_PTS = 0x04;
+
+    /** Header bit: Source clock reference present. */
+    public static final int HEADER_SCR = 0x08;
+
+    /** Header bit: Still image. */
+    public static final int HEADER_STI = 0x20;
+
+    /** Header bit: Error. */
+    public static final int HEADER_ERR = 0x40;
+
+    /** Header bit: End of header. */
+    public static final int HEADER_EOH = 0x80;
+
+    /** The minimum size of a payload header. */
+    private static final int MIN_HEADER_SIZE = 2;
+
+    /** The size of a payload header including the PTS. */
+    private static final int PTS_HEADER_SIZE = 6;
+
+    /** The frame listener. */
+    private final UvcFrameListener listener;
+
+    /** The free frames. */
+    private final BlockingQueue<UvcFrame> pool;
+
+    /** The frame being assembled. Null when idle or discarding. */
+    private UvcFrame frame;
+
+    /** The FID of the current frame. -1 when idle. */
+    private int fid = -1;
+
+    /** Whether the current frame is corrupted. */
+    private boolean corrupt;
+
+    /** The sequence number of the next frame. */
+    private long sequence;
+
+    /** The number of delivered frames. */
+    private volatile long frames;
+
+    /** The number of frames dropped because the pool was empty. */
+    private volatile long droppedFrames;
+
+    /** The number of corrupted frames. */
+    private volatile long corruptFrames;
+
+    /** The number of payloads. */
+    private volatile long payloads;
+
+    /** The number of payload bytes without headers. */
+    private volatile long bytes;
+
+    /** The arrival time of the first payload of the last delivered frame. */
+    private long lastFrameStart;
+
+    /** The sum of the intervals between delivered frames in nanoseconds. */
+    private volatile long frameIntervals;
+
+    /** The largest interval between delivered frames in nanoseconds. */
+    private volatile long maxFrameInterval;
+
+    /**
+     * Constructs a new assembler.
+     *
+     * @param maxFrameSize
+     *            The maximum frame size in bytes. Usually the
+     *            dwMaxVideoFrameSize of the committed
+     *            {@link UvcStreamControl}.
+     * @param poolSize
+     *            The number of frame buffers. Should cover the frames held
+     *            by the consumer plus the one being assembled.
+     * @param listener
+     *            The listener receiving the frames.
+     */
+    public UvcFrameAssembler(final int maxFrameSize, final int poolSize,
+        final UvcFrameListener listener)
+    {
+        if (poolSize <= 0)
+        {
+            throw new IllegalArgumentException("poolSize must be positive");
+        }
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        this.listener = listener;
+        this.pool = new ArrayBlockingQueue<UvcFrame>(poolSize);
+        for (int i = 0; i < poolSize; i++)
+        {
+            this.pool.add(new UvcFrame(this.pool, maxFrameSize));
+        }
+    }
+
+    /**
+     * Processes a payload.
+     *
+     * @param buffer
+     *            The buffer containing the payload. Its position and limit
+     *            are not modified.
+     * @param offset
+     *            The absolute offset of the payload in the buffer.
+     * @param length
+     *            The length of the payload including the header. Empty
+     *            payloads are ignored.
+     */
+    public void processPayload(final ByteBuffer buffer, final int offset,
+        final int length)
+    {
+        if (length < MIN_HEADER_SIZE)
+        {
+            // Devices send empty isochronous packets between frames
+            return;
+        }
+        final long now = System.nanoTime();
+        this.payloads++;
+        final int headerLength = buffer.get(offset) & 0xff;
+        final int info = buffer.get(offset + 1) & 0xff;
+        if (headerLength < MIN_HEADER_SIZE || headerLength > length)
+        {
+            this.markCorrupt();
+            return;
+        }
+        final int fid = info & HEADER_FID;
+        if (this.fid >= 0 && fid != this.fid)
+        {
+            // FID toggled without EOF
+            this.finishFrame();
+        }
+        final int dataLength = length - headerLength;
+        if (this.fid < 0)
+        {
+            if (dataLength == 0)
+            {
+                // Header only payload after the end of a frame
+                return;
+            }
+            this.startFrame(fid, now);
+        }
+        if ((info & HEADER_ERR) != 0)
+        {
+            this.corrupt = true;
+        }
+        final UvcFrame frame = this.frame;
+        if (frame != null)
+        {
+            if ((info & HEADER_PTS) != 0 && headerLength >= PTS_HEADER_SIZE)
+            {
+                frame.setPresentationTime(getUnsignedInt(buffer,
+                    offset + MIN_HEADER_SIZE));
+            }
+            if (!frame.append(buffer, offset + headerLength, dataLength, now))
+            {
+                this.corrupt = true;
+            }
+        }
+        this.bytes += dataLength;
+        if ((info & HEADER_EOF) != 0)
+        {
+            this.finishFrame();
+        }
+    }
+
+    /**
+     * Marks the frame being assembled as corrupted. Called when payloads
+     * were lost, for example because of failed isochronous packets.
+     */
+    public void markCorrupt()
+    {
+        if (this.fid >= 0)
+        {
+            this.corrupt = true;
+        }
+    }
+
+    /**
+     * Discards the frame being assembled. Used when the stream is stopped.
+     */
+    public void reset()
+    {
+        if (this.frame != null)
+        {
+            this.frame.release();
+            this.frame = null;
+        }
+        this.fid = -1;
+        this.corrupt = false;
+    }
+
+    /**
+     * Reads an unsigned little endian 32 bit value.
+     *
+     * @param buffer
+     *            The buffer.
+     * @param offset
+     *            The absolute offset of the value.
+     * @return The value.
+     */
+    private static long getUnsignedInt(final ByteBuffer buffer,
+        final int offset)
+    {
+        return (buffer.get(offset) & 0xffL)
+            | (buffer.get(offset + 1) & 0xffL) << 8
+            | (buffer.get(offset + 2) & 0xffL) << 16
+            | (buffer.get(offset + 3) & 0xffL) << 24;
+    }
+
+    /**
+     * Starts a new frame.
+     *
+     * @param fid
+     *            The frame ID bit of the frame.
+     * @param now
+     *            The arrival time of the first payload.
+     */
+    private void startFrame(final int fid, final long now)
+    {
+        this.fid = fid;
+        this.corrupt = false;
+        this.frame = this.pool.poll();
+        if (this.frame == null)
+        {
+            this.droppedFrames++;
+            this.sequence++;
+        }
+        else
+        {
+            this.frame.start(this.sequence++, now);
+        }
+    }
+
+    /**
+     * Finishes the current frame and delivers it unless it is corrupted.
+     */
+    private void finishFrame()
+    {
+        final UvcFrame frame = this.frame;
+        this.frame = null;
+        this.fid = -1;
+        if (frame == null)
+        {
+            // Dropped frame
+            return;
+        }
+        if (this.corrupt)
+        {
+            this.corrupt = false;
+            this.corruptFrames++;
+            frame.release();
+            return;
+        }
+        if (this.frames > 0)
+        {
+            final long interval = frame.getStartTime() - this.lastFrameStart;
+            this.frameIntervals += interval;
+            if (interval > this.maxFrameInterval)
+            {
+                this.maxFrameInterval = interval;
+            }
+        }
+        this.lastFrameStart = frame.getStartTime();
+        this.frames++;
+        frame.finish();
+        this.listener.frameReceived(frame);
+    }
+
+    /**
+     * Returns the number of delivered frames.
+     *
+     * @return The number of frames.
+     */
+    public long getFrameCount()
+    {
+        return this.frames;
+    }
+
+    /**
+     * Returns the number of frames which were dropped because no frame
+     * buffer was free.
+     *
+     * @return The number of dropped frames.
+     */
+    public long getDroppedFrameCount()
+    {
+        return this.droppedFrames;
+    }
+
+    /**
+     * Returns the number of frames which were discarded because they were
+     * corrupted.
+     *
+     * @return The number of corrupted frames.
+     */
+    public long getCorruptFrameCount()
+    {
+        return this.corruptFrames;
+    }
+
+    /**
+     * Returns the number of processed non-empty payloads.
+     *
+     * @return The number of payloads.
+     */
+    public long getPayloadCount()
+    {
+        return this.payloads;
+    }
+
+    /**
+     * Returns the number of received payload bytes, without headers.
+     *
+     * @return The number of bytes.
+     */
+    public long getByteCount()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the average interval between the starts of delivered frames.
+     *
+     * @return The average frame interval in nanoseconds. 0 if less than two
+     *         frames were delivered.
+     */
+    public long getAverageFrameInterval()
+    {
+        final long frames = this.frames;
+        return frames < 2 ? 0 : this.frameIntervals / (frames - 1);
+    }
+
+    /**
+     * Returns the largest interval between the starts of two consecutively
+     * delivered frames.
+     *
+     * @return The largest frame interval in nanoseconds.
+     */
+    public long getMaxFrameInterval()
+    {
+        return this.maxFrameInterval;
+    }
+
+    /**
+     * Returns the number of free frame buffers.
+     *
+     * @return The number of free frame buffers.
+     */
+    public int getFreeFrameCount()
+    {
+        return this.pool.size();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "UVC frame assembler (%d frames, %d dropped, %d corrupt)",
+            this.frames, this.droppedFrames, this.corruptFrames);
+    }
+}
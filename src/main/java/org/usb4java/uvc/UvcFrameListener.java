@@ -0,0 +1,25 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uvc;
+
+/**
+ * Receives the frames assembled by a {@link UvcFrameAssembler}.
+ *
+ * @author usb4java Team
+ */
+public interface UvcFrameListener
+{
+    /**
+     * Called for each completely received frame. Called on the thread
+     * handling the events, so it should hand the frame over to another
+     * thread instead of processing it. The frame must be released with
+     * {@link UvcFrame#release()} when it is no longer used.
+     *
+     * @param frame
+     *            The frame.
+     */
+    void frameReceived(UvcFrame frame);
+}
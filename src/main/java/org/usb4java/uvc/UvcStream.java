@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uvc;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.usb4java.BlockingIo;
+import org.usb4java.BufferUtils;
+import org.usb4java.IoBackend;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.LibUsbException;
+import org.usb4java.RequestRing;
+
+/**
+ * Video stream of a UVC video streaming interface.
+ *
+ * The streaming parameters are negotiated with {@link #negotiate(
+ * UvcStreamControl)} (PROBE and COMMIT). Afterwards the application selects
+ * the alternate setting with enough bandwidth (isochronous) or keeps
+ * alternate setting 0 (bulk) and starts streaming with
+ * {@link #startIso(byte, int, int, int)} or {@link #startBulk(byte, int,
+ * int)}.
+ *
+ * While streaming, a {@link RequestRing} with a configurable number of
+ * requests is kept queued at all times. Each completed request is fed
+ * payload by payload into the {@link UvcFrameAssembler} directly on the
+ * event thread and resubmitted right away, so the only per packet work is
+ * parsing the payload header and copying the payload data into the frame
+ * buffer.
+ *
+ * @author usb4java Team
+ */
+public final class UvcStream
+{
+    /** SET_CUR request. */
+    public static final byte SET_CUR = 0x01;
+
+    /** GET_CUR request. */
+    public static final byte GET_CUR = (byte) 0x81;
+
+    /** Video streaming control selector: Probe. */
+    public static final int VS_PROBE_CONTROL = 0x01;
+
+    /** Video streaming control selector: Commit. */
+    public static final int VS_COMMIT_CONTROL = 0x02;
+
+    /** Class specific interface OUT request type. */
+    private static final byte CLASS_OUT = (byte) (LibUsb.ENDPOINT_OUT
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** Class specific interface IN request type. */
+    private static final byte CLASS_IN = (byte) (LibUsb.ENDPOINT_IN
+        | LibUsb.REQUEST_TYPE_CLASS | LibUsb.RECIPIENT_INTERFACE);
+
+    /** The backend. */
+    private final IoBackend backend;
+
+    /** Blocking I/O for the control requests. */
+    private final BlockingIo io;
+
+    /** The number of the video streaming interface. */
+    private final short interfaceNumber;
+
+    /** The frame assembler. */
+    private final UvcFrameAssembler assembler;
+
+    /** The timeout of control requests in milliseconds. */
+    private final long timeout;
+
+    /** The buffer of the probe and commit requests. */
+    private final ByteBuffer control;
+
+    /** The ring of streaming requests. */
+    private final RequestRing requestRing;
+
+    /** The number of failed requests and isochronous packets. */
+    private volatile long errors;
+
+    /** The result code of the last failure. */
+    private volatile int lastError = LibUsb.SUCCESS;
+
+    /**
+     * Constructs a new video stream.
+     *
+     * @param backend
+     *            The backend of the device.
+     * @param interfaceNumber
+     *            The number of the video streaming interface.
+     * @param uvcVersion
+     *            The UVC version of the device in BCD (bcdUVC of the video
+     *            control interface header). Determines the size of the
+     *            probe and commit structure.
+     * @param assembler
+     *            The frame assembler receiving the payloads.
+     * @param timeout
+     *            The timeout of control requests in milliseconds.
+     */
+    public UvcStream(final IoBackend backend, final int interfaceNumber,
+        final int uvcVersion, final UvcFrameAssembler assembler,
+        final long timeout)
+    {
+        this.backend = backend;
+        this.io = new BlockingIo(backend);
+        this.interfaceNumber = (short) interfaceNumber;
+        this.assembler = assembler;
+        this.timeout = timeout;
+        final int controlSize;
+        if (uvcVersion >= 0x0150)
+        {
+            controlSize = UvcStreamControl.SIZE_15;
+        }
+        else if (uvcVersion >= 0x0110)
+        {
+            controlSize = UvcStreamControl.SIZE_11;
+        }
+        else
+        {
+            controlSize = UvcStreamControl.SIZE_10;
+        }
+        this.control = BufferUtils.allocateByteBuffer(controlSize);
+        this.requestRing = new RequestRing(backend, new RequestRing.Handler()
+        {
+            @Override
+            public void prepare(final IoRequest request)
+            {
+                // Requests are resubmitted unchanged
+            }
+
+            @Override
+            public void completed(final IoRequest request)
+            {
+                UvcStream.this.process(request);
+            }
+
+            @Override
+            public void failed(final IoRequest request, final int result)
+            {
+                UvcStream.this.failed(result);
+            }
+        });
+    }
+
+    /**
+     * Sends a probe or commit request.
+     *
+     * @param request
+     *            The request.
+     * @param selector
+     *            The control selector.
+     * @param stream
+     *            The stream control to send or null to receive.
+     * @return The received stream control or null when sending.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    private UvcStreamControl control(final byte request, final int selector,
+        final UvcStreamControl stream)
+    {
+        this.control.clear();
+        if (stream != null)
+        {
+            stream.write(this.control);
+        }
+        final int result = this.io.controlTransfer(
+            stream == null ? CLASS_IN : CLASS_OUT, request,
+            (short) (selector << 8), this.interfaceNumber, this.control,
+            this.timeout);
+        if (result < 0)
+        {
+            throw new LibUsbException(String.format(
+                "Unable to %s video streaming control %d",
+                stream == null ? "get" : "set", selector), result);
+        }
+        if (stream != null)
+        {
+            return null;
+        }
+        this.control.limit(result);
+        return new UvcStreamControl(this.control);
+    }
+
+    /**
+     * Probes the streaming parameters. The device adjusts the requested
+     * parameters to what it supports.
+     *
+     * @param request
+     *            The requested parameters.
+     * @return The parameters proposed by the device.
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    public synchronized UvcStreamControl probe(
+        final UvcStreamControl request)
+    {
+        this.control(SET_CUR, VS_PROBE_CONTROL, request);
+        return this.control(GET_CUR, VS_PROBE_CONTROL, null);
+    }
+
+    /**
+     * Commits the streaming parameters.
+     *
+     * @param parameters
+     *            The parameters previously returned by
+     *            {@link #probe(UvcStreamControl)}.
+     * @throws LibUsbException
+     *             When the request failed.
+     */
+    public synchronized void commit(final UvcStreamControl parameters)
+    {
+        this.control(SET_CUR, VS_COMMIT_CONTROL, parameters);
+    }
+
+    /**
+     * Negotiates the streaming parameters by probing and committing them.
+     *
+     * @param request
+     *            The requested parameters.
+     * @return The committed parameters.
+     * @throws LibUsbException
+     *             When a request failed.
+     */
+    public synchronized UvcStreamControl negotiate(
+        final UvcStreamControl request)
+    {
+        final UvcStreamControl parameters = this.probe(request);
+        this.commit(parameters);
+        return parameters;
+    }
+
+    /**
+     * Starts isochronous streaming.
+     *
+     * @param endpoint
+     *            The isochronous IN endpoint.
+     * @param packetSize
+     *            The size of an isochronous packet. The maximum packet size
+     *            of the endpoint in the selected alternate setting,
+     *            including additional transactions per microframe.
+     * @param packetsPerRequest
+     *            The number of isochronous packets per request.
+     * @param depth
+     *            The number of requests to keep queued.
+     * @return {@link LibUsb#SUCCESS} or the error code of the first request
+     *         which could not be submitted. Already submitted requests are
+     *         cancelled in this case.
+     */
+    public synchronized int startIso(final byte endpoint,
+        final int packetSize, final int packetsPerRequest, final int depth)
+    {
+        final int[] lengths = new int[packetsPerRequest];
+        Arrays.fill(lengths, packetSize);
+        final IoRequest[] requests = this.allocate(depth,
+            packetSize * packetsPerRequest);
+        for (final IoRequest request : requests)
+        {
+            request.fillIso(endpoint, request.buffer(), lengths.clone(),
+                this.requestRing, null, 0);
+        }
+        return this.requestRing.start(requests);
+    }
+
+    /**
+     * Starts bulk streaming. Each bulk request receives one payload.
+     *
+     * @param endpoint
+     *            The bulk IN endpoint.
+     * @param payloadSize
+     *            The maximum payload size. The dwMaxPayloadTransferSize of
+     *            the committed {@link UvcStreamControl}.
+     * @param depth
+     *            The number of requests to keep queued.
+     * @return {@link LibUsb#SUCCESS} or the error code of the first request
+     *         which could not be submitted. Already submitted requests are
+     *         cancelled in this case.
+     */
+    public synchronized int startBulk(final byte endpoint,
+        final int payloadSize, final int depth)
+    {
+        final IoRequest[] requests = this.allocate(depth, payloadSize);
+        for (final IoRequest request : requests)
+        {
+            request.fillBulk(endpoint, request.buffer(), this.requestRing,
+                null, 0);
+        }
+        return this.requestRing.start(requests);
+    }
+
+    /**
+     * Allocates the streaming requests with buffers sliced from a single
+     * direct buffer.
+     *
+     * @param depth
+     *            The number of requests.
+     * @param size
+     *            The buffer size of each request.
+     * @return The requests.
+     */
+    private IoRequest[] allocate(final int depth, final int size)
+    {
+        if (this.requestRing.isStarted())
+        {
+            throw new IllegalStateException("Stream is already running");
+        }
+        if (depth <= 0)
+        {
+            throw new IllegalArgumentException("depth must be positive");
+        }
+        final ByteBuffer buffer = BufferUtils.allocateByteBuffer(depth
+            * size);
+        final IoRequest[] requests = new IoRequest[depth];
+        for (int i = 0; i < depth; i++)
+        {
+            requests[i] = new IoRequest();
+            requests[i].setBuffer(BufferUtils.slice(buffer, i * size, size));
+        }
+        return requests;
+    }
+
+    /**
+     * Stops streaming and waits until all requests are finished. The frame
+     * being assembled is discarded.
+     *
+     * @throws InterruptedException
+     *             When interrupted while waiting.
+     */
+    public synchronized void stop() throws InterruptedException
+    {
+        if (!this.requestRing.isStarted())
+        {
+            return;
+        }
+        this.requestRing.stop();
+        this.assembler.reset();
+    }
+
+    /**
+     * Checks if the stream is running.
+     *
+     * @return True if running.
+     */
+    public boolean isRunning()
+    {
+        return this.requestRing.isRunning();
+    }
+
+    /**
+     * Feeds the payloads of a completed streaming request into the frame
+     * assembler.
+     *
+     * @param request
+     *            The completed request.
+     */
+    void process(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        final int packets = request.numIsoPackets();
+        if (packets == 0)
+        {
+            this.assembler.processPayload(buffer, 0, request.actualLength());
+            return;
+        }
+        int offset = 0;
+        for (int i = 0; i < packets; i++)
+        {
+            if (request.isoPacketStatus(i) == LibUsb.TRANSFER_COMPLETED)
+            {
+                this.assembler.processPayload(buffer, offset,
+                    request.isoPacketActualLength(i));
+            }
+            else
+            {
+                this.errors++;
+                this.assembler.markCorrupt();
+            }
+            offset += request.isoPacketLength(i);
+        }
+    }
+
+    /**
+     * Records a streaming request which was not processed. The frame being
+     * assembled is incomplete then.
+     *
+     * @param result
+     *            The error code, {@link LibUsb#ERROR_INTERRUPTED} if
+     *            cancelled or {@link LibUsb#SUCCESS} if stopped.
+     */
+    void failed(final int result)
+    {
+        if (result != LibUsb.SUCCESS && result != LibUsb.ERROR_INTERRUPTED)
+        {
+            this.errors++;
+            this.lastError = result;
+        }
+        this.assembler.markCorrupt();
+    }
+
+    /**
+     * Returns the frame assembler.
+     *
+     * @return The frame assembler.
+     */
+    public UvcFrameAssembler getAssembler()
+    {
+        return this.assembler;
+    }
+
+    /**
+     * Returns the number of failed requests and isochronous packets.
+     *
+     * @return The number of errors.
+     */
+    public long getErrorCount()
+    {
+        return this.errors;
+    }
+
+    /**
+     * Returns the result code of the last failed request.
+     *
+     * @return The error code or {@link LibUsb#SUCCESS} if no request failed.
+     */
+    public int getLastError()
+    {
+        return this.lastError;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("usb4java UVC stream on interface %d",
+            this.interfaceNumber);
+    }
+}
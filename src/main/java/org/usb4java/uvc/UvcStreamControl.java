@@ -0,0 +1,466 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uvc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The video probe and commit control structure which is used to negotiate
+ * the streaming parameters of a video streaming interface.
+ *
+ * @author usb4java Team
+ */
+public final class UvcStreamControl
+{
+    /** The size of the structure in UVC 1.0. */
+    public static final int SIZE_10 = 26;
+
+    /** The size of the structure in UVC 1.1. */
+    public static final int SIZE_11 = 34;
+
+    /** The size of the structure in UVC 1.5. */
+    public static final int SIZE_15 = 48;
+
+    /** Hint bit: Keep the frame interval fixed. */
+    public static final int HINT_FRAME_INTERVAL = 0x0001;
+
+    /** The bmHint field. */
+    private int hint;
+
+    /** The bFormatIndex field. */
+    private int formatIndex;
+
+    /** The bFrameIndex field. */
+    private int frameIndex;
+
+    /** The dwFrameInterval field in 100 ns units. */
+    private int frameInterval;
+
+    /** The wKeyFrameRate field. */
+    private int keyFrameRate;
+
+    /** The wPFrameRate field. */
+    private int pFrameRate;
+
+    /** The wCompQuality field. */
+    private int compQuality;
+
+    /** The wCompWindowSize field. */
+    private int compWindowSize;
+
+    /** The wDelay field in milliseconds. */
+    private int delay;
+
+    /** The dwMaxVideoFrameSize field. */
+    private int maxVideoFrameSize;
+
+    /** The dwMaxPayloadTransferSize field. */
+    private int maxPayloadTransferSize;
+
+    /** The dwClockFrequency field (UVC 1.1). */
+    private int clockFrequency;
+
+    /** The bmFramingInfo field (UVC 1.1). */
+    private int framingInfo;
+
+    /** The bPreferedVersion field (UVC 1.1). */
+    private int preferedVersion;
+
+    /** The bMinVersion field (UVC 1.1). */
+    private int minVersion;
+
+    /** The bMaxVersion field (UVC 1.1). */
+    private int maxVersion;
+
+    /** The bUsage field (UVC 1.5). */
+    private int usage;
+
+    /** The bBitDepthLuma field (UVC 1.5). */
+    private int bitDepthLuma;
+
+    /** The bmSettings field (UVC 1.5). */
+    private int settings;
+
+    /** The bMaxNumberOfRefFramesPlus1 field (UVC 1.5). */
+    private int maxNumberOfRefFramesPlus1;
+
+    /** The bmRateControlModes field (UVC 1.5). */
+    private int rateControlModes;
+
+    /** The bmLayoutPerStream field (UVC 1.5). */
+    private long layoutPerStream;
+
+    /**
+     * Constructs a probe request for the specified format and frame.
+     *
+     * @param formatIndex
+     *            The index of the format descriptor.
+     * @param frameIndex
+     *            The index of the frame descriptor.
+     * @param frameInterval
+     *            The frame interval in 100 ns units.
+     */
+    public UvcStreamControl(final int formatIndex, final int frameIndex,
+        final int frameInterval)
+    {
+        this.hint = HINT_FRAME_INTERVAL;
+        this.formatIndex = formatIndex;
+        this.frameIndex = frameIndex;
+        this.frameInterval = frameInterval;
+    }
+
+    /**
+     * Constructs the structure from the response of a GET request.
+     *
+     * @param buffer
+     *            The response. Read from position 0 to limit.
+     */
+    public UvcStreamControl(final ByteBuffer buffer)
+    {
+        if (buffer.limit() < SIZE_10)
+        {
+            throw new IllegalArgumentException(
+                "Stream control response too short: " + buffer.limit());
+        }
+        final ByteBuffer data = buffer.duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        this.hint = data.getShort(0) & 0xffff;
+        this.formatIndex = data.get(2) & 0xff;
+        this.frameIndex = data.get(3) & 0xff;
+        this.frameInterval = data.getInt(4);
+        this.keyFrameRate = data.getShort(8) & 0xffff;
+        this.pFrameRate = data.getShort(10) & 0xffff;
+        this.compQuality = data.getShort(12) & 0xffff;
+        this.compWindowSize = data.getShort(14) & 0xffff;
+        this.delay = data.getShort(16) & 0xffff;
+        this.maxVideoFrameSize = data.getInt(18);
+        this.maxPayloadTransferSize = data.getInt(22);
+        if (buffer.limit() >= SIZE_11)
+        {
+            this.clockFrequency = data.getInt(26);
+            this.framingInfo = data.get(30) & 0xff;
+            this.preferedVersion = data.get(31) & 0xff;
+            this.minVersion = data.get(32) & 0xff;
+            this.maxVersion = data.get(33) & 0xff;
+        }
+        if (buffer.limit() >= SIZE_15)
+        {
+            this.usage = data.get(34) & 0xff;
+            this.bitDepthLuma = data.get(35) & 0xff;
+            this.settings = data.get(36) & 0xff;
+            this.maxNumberOfRefFramesPlus1 = data.get(37) & 0xff;
+            this.rateControlModes = data.getShort(38) & 0xffff;
+            this.layoutPerStream = data.getLong(40);
+        }
+    }
+
+    /**
+     * Writes the structure for a SET_CUR request.
+     *
+     * @param buffer
+     *            The buffer to write to. Written from position 0 up to its
+     *            limit, which must be {@link #SIZE_10}, {@link #SIZE_11} or
+     *            {@link #SIZE_15}.
+     */
+    void write(final ByteBuffer buffer)
+    {
+        final ByteBuffer data = buffer.duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < data.limit(); i++)
+        {
+            data.put(i, (byte) 0);
+        }
+        data.putShort(0, (short) this.hint);
+        data.put(2, (byte) this.formatIndex);
+        data.put(3, (byte) this.frameIndex);
+        data.putInt(4, this.frameInterval);
+        data.putShort(8, (short) this.keyFrameRate);
+        data.putShort(10, (short) this.pFrameRate);
+        data.putShort(12, (short) this.compQuality);
+        data.putShort(14, (short) this.compWindowSize);
+        data.putShort(16, (short) this.delay);
+        data.putInt(18, this.maxVideoFrameSize);
+        data.putInt(22, this.maxPayloadTransferSize);
+        if (data.limit() >= SIZE_11)
+        {
+            data.putInt(26, this.clockFrequency);
+            data.put(30, (byte) this.framingInfo);
+            data.put(31, (byte) this.preferedVersion);
+            data.put(32, (byte) this.minVersion);
+            data.put(33, (byte) this.maxVersion);
+        }
+        if (data.limit() >= SIZE_15)
+        {
+            data.put(34, (byte) this.usage);
+            data.put(35, (byte) this.bitDepthLuma);
+            data.put(36, (byte) this.settings);
+            data.put(37, (byte) this.maxNumberOfRefFramesPlus1);
+            data.putShort(38, (short) this.rateControlModes);
+            data.putLong(40, this.layoutPerStream);
+        }
+    }
+
+    /**
+     * Returns the hint bits.
+     *
+     * @return The bmHint field.
+     */
+    public int getHint()
+    {
+        return this.hint;
+    }
+
+    /**
+     * Sets the hint bits.
+     *
+     * @param hint
+     *            The bmHint field.
+     */
+    public void setHint(final int hint)
+    {
+        this.hint = hint;
+    }
+
+    /**
+     * Returns the format index.
+     *
+     * @return The index of the format descriptor.
+     */
+    public int getFormatIndex()
+    {
+        return this.formatIndex;
+    }
+
+    /**
+     * Returns the frame index.
+     *
+     * @return The index of the frame descriptor.
+     */
+    public int getFrameIndex()
+    {
+        return this.frameIndex;
+    }
+
+    /**
+     * Returns the frame interval.
+     *
+     * @return The frame interval in 100 ns units.
+     */
+    public int getFrameInterval()
+    {
+        return this.frameInterval;
+    }
+
+    /**
+     * Returns the key frame rate.
+     *
+     * @return The wKeyFrameRate field.
+     */
+    public int getKeyFrameRate()
+    {
+        return this.keyFrameRate;
+    }
+
+    /**
+     * Returns the P frame rate.
+     *
+     * @return The wPFrameRate field.
+     */
+    public int getPFrameRate()
+    {
+        return this.pFrameRate;
+    }
+
+    /**
+     * Returns the compression quality.
+     *
+     * @return The wCompQuality field.
+     */
+    public int getCompQuality()
+    {
+        return this.compQuality;
+    }
+
+    /**
+     * Sets the compression quality.
+     *
+     * @param compQuality
+     *            The wCompQuality field.
+     */
+    public void setCompQuality(final int compQuality)
+    {
+        this.compQuality = compQuality;
+    }
+
+    /**
+     * Returns the compression window size.
+     *
+     * @return The wCompWindowSize field.
+     */
+    public int getCompWindowSize()
+    {
+        return this.compWindowSize;
+    }
+
+    /**
+     * Returns the internal video streaming latency.
+     *
+     * @return The delay in milliseconds.
+     */
+    public int getDelay()
+    {
+        return this.delay;
+    }
+
+    /**
+     * Returns the maximum video frame size.
+     *
+     * @return The maximum frame size in bytes.
+     */
+    public int getMaxVideoFrameSize()
+    {
+        return this.maxVideoFrameSize;
+    }
+
+    /**
+     * Returns the maximum payload transfer size.
+     *
+     * @return The maximum number of bytes the device transmits in a single
+     *         payload transfer.
+     */
+    public int getMaxPayloadTransferSize()
+    {
+        return this.maxPayloadTransferSize;
+    }
+
+    /**
+     * Returns the device clock frequency. Only set by UVC 1.1 devices.
+     *
+     * @return The clock frequency in Hz or 0 if unknown.
+     */
+    public int getClockFrequency()
+    {
+        return this.clockFrequency;
+    }
+
+    /**
+     * Returns the framing information. Only set by UVC 1.1 devices.
+     *
+     * @return The bmFramingInfo field.
+     */
+    public int getFramingInfo()
+    {
+        return this.framingInfo;
+    }
+
+    /**
+     * Returns the preferred payload format version. Only set by UVC 1.1
+     * devices.
+     *
+     * @return The bPreferedVersion field.
+     */
+    public int getPreferedVersion()
+    {
+        return this.preferedVersion;
+    }
+
+    /**
+     * Returns the minimum supported payload format version. Only set by UVC
+     * 1.1 devices.
+     *
+     * @return The bMinVersion field.
+     */
+    public int getMinVersion()
+    {
+        return this.minVersion;
+    }
+
+    /**
+     * Returns the maximum supported payload format version. Only set by UVC
+     * 1.1 devices.
+     *
+     * @return The bMaxVersion field.
+     */
+    public int getMaxVersion()
+    {
+        return this.maxVersion;
+    }
+
+    /**
+     * Returns the usage of the stream. Only set by UVC 1.5 devices.
+     *
+     * @return The bUsage field.
+     */
+    public int getUsage()
+    {
+        return this.usage;
+    }
+
+    /**
+     * Returns the bit depth of the luma component. Only set by UVC 1.5
+     * devices.
+     *
+     * @return The bBitDepthLuma field.
+     */
+    public int getBitDepthLuma()
+    {
+        return this.bitDepthLuma;
+    }
+
+    /**
+     * Returns the codec settings. Only set by UVC 1.5 devices.
+     *
+     * @return The bmSettings field.
+     */
+    public int getSettings()
+    {
+        return this.settings;
+    }
+
+    /**
+     * Returns the maximum number of reference frames plus one. Only set by
+     * UVC 1.5 devices.
+     *
+     * @return The bMaxNumberOfRefFramesPlus1 field.
+     */
+    public int getMaxNumberOfRefFramesPlus1()
+    {
+        return this.maxNumberOfRefFramesPlus1;
+    }
+
+    /**
+     * Returns the supported rate control modes. Only set by UVC 1.5
+     * devices.
+     *
+     * @return The bmRateControlModes field.
+     */
+    public int getRateControlModes()
+    {
+        return this.rateControlModes;
+    }
+
+    /**
+     * Returns the layout of the simulcast streams. Only set by UVC 1.5
+     * devices.
+     *
+     * @return The bmLayoutPerStream field.
+     */
+    public long getLayoutPerStream()
+    {
+        return this.layoutPerStream;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "UVC stream control (format %d, frame %d, interval %d, "
+                + "max frame %d, max payload %d)",
+            this.formatIndex, this.frameIndex, this.frameInterval,
+            this.maxVideoFrameSize, this.maxPayloadTransferSize);
+    }
+}
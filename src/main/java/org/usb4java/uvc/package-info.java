@@ -0,0 +1,9 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+/**
+ * USB Video Class (UVC) streaming and frame assembly.
+ */
+package org.usb4java.uvc;
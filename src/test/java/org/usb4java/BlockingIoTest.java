@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+import org.usb4java.test.UsbAssume;
+
+/**
+ * Tests the {@link BlockingIo} class.
+ *
+ * @author usb4java Team
+ */
+public class BlockingIoTest
+{
+    /** The IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /** The OUT endpoint. */
+    private static final byte OUT = 0x02;
+
+    /** The IN endpoint which never responds. */
+    private static final byte SILENT = (byte) 0x83;
+
+    /** The IN endpoint which always times out. */
+    private static final byte SLOW = (byte) 0x84;
+
+    /** The last control setup packet received by the simulated device. */
+    volatile ControlSetup lastSetup;
+
+    /** The simulated device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final ByteBuffer buffer = request.buffer();
+            if (request.type() == LibUsb.TRANSFER_TYPE_CONTROL)
+            {
+                final ControlSetup setup = new ControlSetup(buffer);
+                BlockingIoTest.this.lastSetup = setup;
+                final int length = setup.wLength() & 0xffff;
+                if ((setup.bmRequestType() & LibUsb.ENDPOINT_IN) != 0)
+                {
+                    for (int i = 0; i < length / 2; i++)
+                    {
+                        buffer.put(LibUsb.CONTROL_SETUP_SIZE + i, (byte) i);
+                    }
+                    mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                        length / 2);
+                }
+                else
+                {
+                    mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+                }
+            }
+            else if (request.endpoint() == SILENT)
+            {
+                // Never completes unless cancelled
+            }
+            else if (request.endpoint() == SLOW)
+            {
+                mock.complete(request, LibUsb.TRANSFER_TIMED_OUT, 3);
+            }
+            else
+            {
+                if (request.endpoint() == IN)
+                {
+                    buffer.put(buffer.position(), (byte) 42);
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    request.length());
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The blocking I/O to test. */
+    private BlockingIo io;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.io = new BlockingIo(this.backend);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests a bulk transfer.
+     */
+    @Test
+    public void testBulkTransfer()
+    {
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(64);
+        final IntBuffer transferred = BufferUtils.allocateIntBuffer();
+        assertEquals(LibUsb.SUCCESS,
+            this.io.bulkTransfer(IN, data, transferred, 1000));
+        assertEquals(64, transferred.get(0));
+        assertEquals(42, data.get(0));
+        assertEquals(0, data.position());
+    }
+
+    /**
+     * Tests an interrupt transfer.
+     */
+    @Test
+    public void testInterruptTransfer()
+    {
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(8);
+        final IntBuffer transferred = BufferUtils.allocateIntBuffer();
+        assertEquals(LibUsb.SUCCESS,
+            this.io.interruptTransfer(OUT, data, transferred, 1000));
+        assertEquals(8, transferred.get(0));
+        assertEquals(LibUsb.TRANSFER_TYPE_INTERRUPT,
+            this.backend.submitted.get(0).type());
+    }
+
+    /**
+     * Tests a timed out transfer.
+     */
+    @Test
+    public void testTimeout()
+    {
+        final IntBuffer transferred = BufferUtils.allocateIntBuffer();
+        assertEquals(LibUsb.ERROR_TIMEOUT, this.io.bulkTransfer(SLOW,
+            BufferUtils.allocateByteBuffer(8), transferred, 10));
+        assertEquals(3, transferred.get(0));
+    }
+
+    /**
+     * Tests an IN control transfer.
+     */
+    @Test
+    public void testControlTransferIn()
+    {
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(10);
+        final int result = this.io.controlTransfer(
+            (byte) (LibUsb.ENDPOINT_IN | LibUsb.REQUEST_TYPE_VENDOR), (byte) 1,
+            (short) 2, (short) 3, data, 1000);
+        assertEquals(5, result);
+        assertEquals(0, data.position());
+        assertEquals(4, data.get(4));
+        assertEquals(1, this.lastSetup.bRequest());
+        assertEquals(2, this.lastSetup.wValue());
+        assertEquals(3, this.lastSetup.wIndex());
+        assertEquals(10, this.lastSetup.wLength());
+    }
+
+    /**
+     * Tests an OUT control transfer.
+     */
+    @Test
+    public void testControlTransferOut()
+    {
+        final ByteBuffer data = ByteBuffer.allocateDirect(4);
+        data.put(new byte[] { 9, 8, 7, 6 }).flip();
+        final int result = this.io.controlTransfer(
+            LibUsb.REQUEST_TYPE_VENDOR, (byte) 1, (short) 0, (short) 0, data,
+            1000);
+        assertEquals(4, result);
+        assertEquals(7, this.backend.submitted.get(0).buffer()
+            .get(LibUsb.CONTROL_SETUP_SIZE + 2));
+    }
+
+    /**
+     * Tests that interrupting a waiting thread cancels the transfer.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testInterrupt() throws InterruptedException
+    {
+        final AtomicInteger result = new AtomicInteger();
+        final AtomicInteger interrupted = new AtomicInteger();
+        final Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                result.set(BlockingIoTest.this.io.bulkTransfer(SILENT,
+                    BufferUtils.allocateByteBuffer(8),
+                    BufferUtils.allocateIntBuffer(), 0));
+                interrupted.set(Thread.currentThread().isInterrupted() ? 1
+                    : 0);
+            }
+        });
+        thread.start();
+        while (this.backend.getPendingCount() == 0)
+        {
+            Thread.sleep(1);
+        }
+        thread.interrupt();
+        thread.join(5000);
+        assertEquals(LibUsb.ERROR_INTERRUPTED, result.get());
+        assertEquals(1, interrupted.get());
+        assertEquals(0, this.backend.getPendingCount());
+    }
+
+    /**
+     * Starts a new thread. Uses a virtual thread when the Java runtime
+     * supports them, otherwise a platform thread.
+     *
+     * @param task
+     *            The task to run.
+     * @return True if a virtual thread was started, false if not.
+     */
+    private static boolean startThread(final Runnable task)
+    {
+        try
+        {
+            final Object builder =
+                Thread.class.getMethod("ofVirtual").invoke(null);
+            final Method start = Class.forName("java.lang.Thread$Builder")
+                .getMethod("start", Runnable.class);
+            start.invoke(builder, task);
+            return true;
+        }
+        catch (final Exception e)
+        {
+            final Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            thread.start();
+            return false;
+        }
+    }
+
+    /**
+     * Benchmarks 1000 concurrent readers against a simulated backend. Each
+     * reader uses its own thread, so with virtual threads this only works
+     * because waiting threads are unmounted from their carrier threads.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void benchmarkConcurrentReaders() throws InterruptedException
+    {
+        UsbAssume.assumeBenchmarksEnabled();
+        final int readers = 1000;
+        final int reads = 200;
+        final CountDownLatch done = new CountDownLatch(readers);
+        final AtomicInteger failures = new AtomicInteger();
+        final Runnable reader = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                final ByteBuffer data = BufferUtils.allocateByteBuffer(512);
+                final IntBuffer transferred =
+                    BufferUtils.allocateIntBuffer();
+                for (int i = 0; i < reads; i++)
+                {
+                    if (BlockingIoTest.this.io.bulkTransfer(IN, data,
+                        transferred, 0) != LibUsb.SUCCESS)
+                    {
+                        failures.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }
+        };
+        final long start = System.nanoTime();
+        boolean virtual = false;
+        for (int i = 0; i < readers; i++)
+        {
+            virtual = startThread(reader);
+        }
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        final long nanos = System.nanoTime() - start;
+        assertEquals(0, failures.get());
+        final long transfers = (long) readers * reads;
+        System.out.println(String.format(
+            "BlockingIo: %d %s readers, %d transfers in %d ms, "
+                + "%.0f transfers/s, %.1f us/transfer",
+            readers, virtual ? "virtual" : "platform", transfers,
+            nanos / 1000000, transfers * 1e9 / nanos,
+            nanos / 1000.0 / transfers));
+    }
+}
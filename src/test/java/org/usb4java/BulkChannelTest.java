@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link BulkChannel} class.
+ *
+ * @author usb4java Team
+ */
+public class BulkChannelTest
+{
+    /** The IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /** The OUT endpoint. */
+    private static final byte OUT = 0x02;
+
+    /** The simulated device sending a byte sequence in 100 byte chunks. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        /** The next byte to send. */
+        private int next;
+
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            if (request.endpoint() == IN)
+            {
+                final ByteBuffer buffer = request.buffer();
+                final int length = Math.min(100, request.length());
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.put(i, (byte) this.next++);
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+            else
+            {
+                BulkChannelTest.this.written += request.length();
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    request.length());
+            }
+        }
+    };
+
+    /** The number of bytes written to the device. */
+    volatile int written;
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The channel to test. */
+    private BulkChannel channel;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.channel = new BulkChannel(this.backend, IN, OUT, 64, 128, 4,
+            1000);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.channel.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests reading a continuous byte sequence through an input stream.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testInputStream() throws IOException
+    {
+        final InputStream stream = Channels.newInputStream(this.channel);
+        final byte[] data = new byte[1000];
+        new DataInputStream(stream).readFully(data);
+        for (int i = 0; i < data.length; i++)
+        {
+            assertEquals((byte) i, data[i]);
+        }
+    }
+
+    /**
+     * Tests that read-ahead keeps the configured number of requests queued.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testReadAhead() throws IOException
+    {
+        assertEquals(1, this.channel.read(ByteBuffer.allocate(1)));
+        assertTrue(this.backend.submitted.size() >= 4);
+        for (final IoRequest request : this.backend.submitted)
+        {
+            assertEquals(IN, request.endpoint());
+            assertEquals(128, request.buffer().capacity());
+        }
+    }
+
+    /**
+     * Tests a scattering read.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testScatteringRead() throws IOException
+    {
+        final ByteBuffer a = ByteBuffer.allocate(30);
+        final ByteBuffer b = ByteBuffer.allocate(30);
+        long total = 0;
+        while (b.hasRemaining())
+        {
+            total += this.channel.read(new ByteBuffer[] { a, b });
+        }
+        assertEquals(60, total);
+        assertEquals(0, a.get(0));
+        assertEquals(30, b.get(0));
+    }
+
+    /**
+     * Tests a gathering write.
+     *
+     * @throws IOException
+     *             When writing fails.
+     */
+    @Test
+    public void testGatheringWrite() throws IOException
+    {
+        final long count = this.channel.write(new ByteBuffer[] {
+            ByteBuffer.allocateDirect(10), ByteBuffer.allocateDirect(300) });
+        assertEquals(310, count);
+        assertEquals(310, this.written);
+    }
+
+    /**
+     * Tests writing to a read-only channel.
+     *
+     * @throws IOException
+     *             When writing fails.
+     */
+    @Test(expected = NonWritableChannelException.class)
+    public void testWriteReadOnly() throws IOException
+    {
+        final BulkChannel readOnly = new BulkChannel(this.backend, IN,
+            (byte) 0, 64, 64, 1, 0);
+        readOnly.write(ByteBuffer.allocateDirect(1));
+    }
+
+    /**
+     * Tests closing the channel.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testClose() throws IOException
+    {
+        assertTrue(this.channel.isOpen());
+        this.channel.close();
+        assertFalse(this.channel.isOpen());
+        try
+        {
+            this.channel.read(ByteBuffer.allocate(1));
+            fail("Expected ClosedChannelException");
+        }
+        catch (final ClosedChannelException e)
+        {
+            // Expected
+        }
+    }
+}
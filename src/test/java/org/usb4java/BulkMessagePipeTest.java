@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link BulkMessagePipe} class.
+ *
+ * @author usb4java Team
+ */
+public class BulkMessagePipeTest
+{
+    /** The IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /** The OUT endpoint. */
+    private static final byte OUT = 0x02;
+
+    /** The maximum packet size. */
+    private static final int PACKET_SIZE = 64;
+
+    /** The messages the simulated device sends. */
+    final LinkedList<ByteBuffer> outgoing = new LinkedList<ByteBuffer>();
+
+    /** The messages the simulated device received. */
+    final List<byte[]> incoming = new ArrayList<byte[]>();
+
+    /** If the message currently sent needs a zero length packet. */
+    boolean zeroPacketPending;
+
+    /** If the next IN request fails. */
+    volatile boolean failNextRead;
+
+    /** The message currently received by the simulated device. */
+    final ByteArrayOutputStream receiving = new ByteArrayOutputStream();
+
+    /**
+     * Simulated device which follows the short packet rules of the USB
+     * specification.
+     */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final BulkMessagePipeTest test = BulkMessagePipeTest.this;
+            final ByteBuffer buffer = request.buffer();
+            if (request.endpoint() == OUT)
+            {
+                final int length = buffer.remaining();
+                final byte[] data = new byte[length];
+                buffer.duplicate().get(data);
+                test.receiving.write(data, 0, length);
+                final boolean zlp = (request.flags()
+                    & LibUsb.TRANSFER_ADD_ZERO_PACKET) != 0;
+                if (length % PACKET_SIZE != 0 || length == 0 || zlp)
+                {
+                    test.incoming.add(test.receiving.toByteArray());
+                    test.receiving.reset();
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+                return;
+            }
+            if (test.failNextRead)
+            {
+                test.failNextRead = false;
+                mock.complete(request, LibUsb.TRANSFER_ERROR, 0);
+                return;
+            }
+            if (test.zeroPacketPending)
+            {
+                test.zeroPacketPending = false;
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, 0);
+                return;
+            }
+            final ByteBuffer message = test.outgoing.peek();
+            if (message == null)
+            {
+                // Nothing to send, keep request pending
+                return;
+            }
+            final int requested = buffer.remaining();
+            final int length = Math.min(message.remaining(), requested);
+            final ByteBuffer chunk = message.duplicate();
+            chunk.limit(chunk.position() + length);
+            buffer.put(chunk);
+            message.position(message.position() + length);
+            if (!message.hasRemaining())
+            {
+                test.outgoing.poll();
+                test.zeroPacketPending = length == requested
+                    && length % PACKET_SIZE == 0;
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The pipe to test. */
+    private BulkMessagePipe pipe;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.pipe = new BulkMessagePipe(this.backend, IN, OUT, PACKET_SIZE,
+            256, 1, 1000);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.pipe.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates a message.
+     *
+     * @param size
+     *            The message size.
+     * @return The message.
+     */
+    private static ByteBuffer message(final int size)
+    {
+        final ByteBuffer message = ByteBuffer.allocateDirect(size);
+        for (int i = 0; i < size; i++)
+        {
+            message.put((byte) (size + i));
+        }
+        message.flip();
+        return message;
+    }
+
+    /**
+     * Tests reading messages of various sizes, including sizes which are
+     * multiples of the packet size and of the request size.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testReadMessages() throws IOException
+    {
+        final int[] sizes = new int[] { 10, 64, 256, 300, 512, 0, 1000 };
+        for (final int size : sizes)
+        {
+            this.outgoing.add(message(size));
+        }
+        for (final int size : sizes)
+        {
+            final ByteBuffer message = this.pipe.readMessage();
+            assertEquals(message(size), message);
+            this.pipe.recycle(message);
+        }
+    }
+
+    /**
+     * Tests that a message fitting into a single request is returned without
+     * copying.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testReadIsZeroCopy() throws IOException
+    {
+        this.outgoing.add(message(100));
+        final ByteBuffer message = this.pipe.readMessage();
+
+        // The request buffer itself is returned and not a copy
+        assertEquals(256, message.capacity());
+        assertEquals(100, message.limit());
+        assertNotSame(message, this.backend.submitted.get(0).buffer());
+    }
+
+    /**
+     * Tests that written messages get a zero length packet when needed.
+     *
+     * @throws IOException
+     *             When writing fails.
+     */
+    @Test
+    public void testWriteMessages() throws IOException
+    {
+        final int[] sizes = new int[] { 10, 64, 256, 300, 512, 0 };
+        for (final int size : sizes)
+        {
+            this.pipe.writeMessage(message(size));
+        }
+        assertEquals(sizes.length, this.incoming.size());
+        for (int i = 0; i < sizes.length; i++)
+        {
+            final byte[] expected = new byte[sizes[i]];
+            message(sizes[i]).get(expected);
+            assertEquals(ByteBuffer.wrap(expected),
+                ByteBuffer.wrap(this.incoming.get(i)));
+        }
+    }
+
+    /**
+     * Tests that the zero length packet decision uses the packet size of the
+     * OUT endpoint when the IN endpoint has a larger packet size.
+     *
+     * @throws IOException
+     *             When writing fails.
+     */
+    @Test
+    public void testWriteWithSmallerOutPacketSize() throws IOException
+    {
+        this.pipe.close();
+        this.pipe = new BulkMessagePipe(this.backend, IN, OUT, 512,
+            PACKET_SIZE, 1024, 1, 1000);
+        assertEquals(512, this.pipe.getMaxPacketSize());
+        final int[] sizes = new int[] { 64, 128, 10, 192 };
+        for (final int size : sizes)
+        {
+            this.pipe.writeMessage(message(size));
+        }
+        assertEquals(sizes.length, this.incoming.size());
+        for (int i = 0; i < sizes.length; i++)
+        {
+            assertEquals(sizes[i], this.incoming.get(i).length);
+        }
+    }
+
+    /**
+     * Tests that a received message is returned even when its read-ahead
+     * request can't be re-submitted, and that the failure is reported by the
+     * next read.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testResubmitFailure() throws IOException
+    {
+        this.outgoing.add(message(10));
+        this.outgoing.add(message(20));
+        this.backend.failSubmitAt = 1;
+        assertEquals(message(10), this.pipe.readMessage());
+
+        this.backend.failSubmitAt = 2;
+        try
+        {
+            this.pipe.readMessage();
+            fail("Expected IOException");
+        }
+        catch (final IOException e)
+        {
+            assertEquals("Unable to submit read request", e.getMessage());
+        }
+        assertEquals(message(20), this.pipe.readMessage());
+    }
+
+    /**
+     * Tests that a failed read reports its own error even when the request
+     * can't be re-submitted.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testReadFailureWithResubmitFailure() throws IOException
+    {
+        this.failNextRead = true;
+        this.backend.failSubmitAt = 1;
+        try
+        {
+            this.pipe.readMessage();
+            fail("Expected IOException");
+        }
+        catch (final IOException e)
+        {
+            assertEquals("Bulk message read failed", e.getMessage());
+            assertSame(LibUsbException.class, e.getCause().getClass());
+            assertEquals(LibUsb.ERROR_IO,
+                ((LibUsbException) e.getCause()).getErrorCode());
+        }
+        this.outgoing.add(message(10));
+        assertEquals(message(10), this.pipe.readMessage());
+    }
+}
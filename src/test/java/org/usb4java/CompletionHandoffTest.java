@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link CompletionHandoff} class.
+ *
+ * @author usb4java Team
+ */
+public class CompletionHandoffTest
+{
+    /** The handoff to test. */
+    private CompletionHandoff handoff;
+
+    /** The backend mock. */
+    private final BackendMock backend = new BackendMock();
+
+    /**
+     * Tear down the test.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        if (this.handoff != null)
+        {
+            this.handoff.shutdown();
+        }
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates a request.
+     *
+     * @param callback
+     *            The request callback.
+     * @return The request.
+     */
+    private static IoRequest request(final IoCallback callback)
+    {
+        final IoRequest request = new IoRequest();
+        request.fillBulk((byte) 0x81, ByteBuffer.allocateDirect(16),
+            callback, null, 0);
+        return request;
+    }
+
+    /**
+     * Tests that callbacks run on a worker thread in completion order.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testHandoff() throws InterruptedException
+    {
+        this.handoff = new CompletionHandoff(64, 1);
+        final List<Thread> threads =
+            Collections.synchronizedList(new ArrayList<Thread>());
+        final List<IoRequest> order =
+            Collections.synchronizedList(new ArrayList<IoRequest>());
+        final CountDownLatch done = new CountDownLatch(10);
+        final IoCallback callback = this.handoff.wrapRequest(new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                threads.add(Thread.currentThread());
+                order.add(request);
+                done.countDown();
+            }
+        });
+        final List<IoRequest> submitted = new ArrayList<IoRequest>();
+        final Thread[] eventThread = new Thread[1];
+        for (int i = 0; i < 10; i++)
+        {
+            final IoRequest request = request(new IoCallback()
+            {
+                @Override
+                public void processRequest(final IoRequest finished)
+                {
+                    eventThread[0] = Thread.currentThread();
+                    callback.processRequest(finished);
+                }
+            });
+            submitted.add(request);
+            this.backend.submit(request);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(submitted, order);
+        for (final Thread thread : threads)
+        {
+            assertEquals("usb4java completion 0", thread.getName());
+            assertNotSame(eventThread[0], thread);
+        }
+        assertEquals(10, this.handoff.getHandoffCount());
+        assertEquals(0, this.handoff.getOverflowCount());
+        assertTrue(this.handoff.getMaxHandoffLatency()
+            >= this.handoff.getAverageHandoffLatency());
+        assertTrue(this.handoff.getMaxOccupancy() >= 1);
+    }
+
+    /**
+     * Tests that the completing thread processes completions itself when the
+     * ring is full.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testOverflow() throws InterruptedException
+    {
+        this.handoff = new CompletionHandoff(2, 1);
+        assertEquals(2, this.handoff.getCapacity());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Thread> threads =
+            Collections.synchronizedList(new ArrayList<Thread>());
+        final IoCallback callback = this.handoff.wrapRequest(new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                threads.add(Thread.currentThread());
+                if (blocked.getCount() == 0)
+                {
+                    return;
+                }
+                blocked.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        // First completion blocks the single worker
+        request(callback).complete(LibUsb.TRANSFER_COMPLETED, 0);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        try
+        {
+            // Two completions fill the ring, the next one overflows
+            request(callback).complete(LibUsb.TRANSFER_COMPLETED, 0);
+            request(callback).complete(LibUsb.TRANSFER_COMPLETED, 0);
+            assertEquals(2, this.handoff.getOccupancy());
+            request(callback).complete(LibUsb.TRANSFER_COMPLETED, 0);
+            assertEquals(1, this.handoff.getOverflowCount());
+            assertSame(Thread.currentThread(), threads.get(1));
+        }
+        finally
+        {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Tests that each callback sees the status and actual length of its own
+     * completion, even when the request completed again before the worker
+     * took the first record from the ring.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testResultCopied() throws InterruptedException
+    {
+        this.handoff = new CompletionHandoff(4, 1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(3);
+        final List<String> results =
+            Collections.synchronizedList(new ArrayList<String>());
+        final IoCallback callback = this.handoff.wrapRequest(new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                if (blocked.getCount() != 0)
+                {
+                    blocked.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                else
+                {
+                    results.add(request.status() + "/"
+                        + request.actualLength());
+                }
+                done.countDown();
+            }
+        });
+
+        // Block the single worker so the following records stay in the ring
+        request(callback).complete(LibUsb.TRANSFER_COMPLETED, 0);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        final IoRequest request = request(callback);
+        request.complete(LibUsb.TRANSFER_COMPLETED, 16);
+        request.complete(LibUsb.TRANSFER_ERROR, 3);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(
+            LibUsb.TRANSFER_COMPLETED + "/16", LibUsb.TRANSFER_ERROR + "/3"),
+            results);
+    }
+
+    /**
+     * Tests that records in the ring are processed on shutdown.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testShutdown() throws InterruptedException
+    {
+        this.handoff = new CompletionHandoff(16, 4);
+        final CountDownLatch done = new CountDownLatch(100);
+        final IoCallback callback = this.handoff.wrapRequest(new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                done.countDown();
+            }
+        });
+        for (int i = 0; i < 100; i++)
+        {
+            request(callback).complete(LibUsb.TRANSFER_COMPLETED, 0);
+        }
+        this.handoff.shutdown();
+        assertEquals(0, done.getCount());
+        assertEquals(100, this.handoff.getHandoffCount()
+            + this.handoff.getOverflowCount());
+        this.handoff = null;
+    }
+
+    /**
+     * Tests invalid capacity.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity()
+    {
+        new CompletionHandoff(0, 1);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.usb4java.test.UsbAssume.assumeBenchmarksEnabled;
+import static org.usb4java.test.UsbAssume.assumeUsbTestsEnabled;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ContextShards} class.
+ *
+ * @author usb4java Team
+ */
+public class ContextShardsTest
+{
+    /**
+     * Tests initializing shards and opening all devices which can be opened.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testOpenDevices() throws InterruptedException
+    {
+        assumeUsbTestsEnabled();
+        final ContextShards shards = new ContextShards(2);
+        try
+        {
+            final DeviceList list = new DeviceList();
+            assertTrue(LibUsb.getDeviceList(shards.getContext(0), list) >= 0);
+            final List<DeviceHandle> handles = new ArrayList<DeviceHandle>();
+            try
+            {
+                for (final Device device : list)
+                {
+                    try
+                    {
+                        handles.add(shards.open(device));
+                    }
+                    catch (final LibUsbException e)
+                    {
+                        // Devices without access permission are skipped
+                    }
+                }
+            }
+            finally
+            {
+                LibUsb.freeDeviceList(list, true);
+            }
+            assertTrue(shards.getLoad(0) - shards.getLoad(1) <= 1);
+            for (final DeviceHandle handle : handles)
+            {
+                final int shard = shards.getShard(handle);
+                assertTrue(shard >= 0);
+                shards.close(handle);
+                assertEquals(-1, shards.getShard(handle));
+            }
+        }
+        finally
+        {
+            shards.close();
+        }
+    }
+
+    /**
+     * Simulated device completing its requests on the event handling thread
+     * of its shard. The request callbacks process the received data on the
+     * same thread, like the callbacks of a real device in this shard.
+     */
+    private static final class SimulatedDevice implements IoBackend,
+        IoCallback
+    {
+        /** The shards. */
+        private final ContextShards shards;
+
+        /** The shard of the device. */
+        private final int shard;
+
+        /** The remaining number of requests to submit. */
+        private final AtomicLong remaining;
+
+        /** Counted down when done. */
+        private final CountDownLatch done;
+
+        /** The checksum of the processed data. */
+        private long checksum;
+
+        /**
+         * Constructor.
+         *
+         * @param shards
+         *            The shards.
+         * @param shard
+         *            The shard of the device.
+         * @param remaining
+         *            The remaining number of requests shared by all devices.
+         * @param done
+         *            Counted down when all requests are processed.
+         */
+        SimulatedDevice(final ContextShards shards, final int shard,
+            final AtomicLong remaining, final CountDownLatch done)
+        {
+            this.shards = shards;
+            this.shard = shard;
+            this.remaining = remaining;
+            this.done = done;
+        }
+
+        /**
+         * Submits the specified number of requests.
+         *
+         * @param depth
+         *            The number of requests to keep in flight.
+         */
+        void start(final int depth)
+        {
+            for (int i = 0; i < depth; i++)
+            {
+                final IoRequest request = new IoRequest();
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+                for (int j = 0; j < buffer.capacity(); j++)
+                {
+                    buffer.put(j, (byte) (j * 7 + i));
+                }
+
+                // The completion of the request is stored as user data so
+                // completing it allocates nothing
+                request.fillBulk((byte) 0x81, buffer, this, new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        request.complete(LibUsb.TRANSFER_COMPLETED,
+                            request.length());
+                    }
+                }, 0);
+                this.resubmit(request);
+            }
+        }
+
+        /**
+         * Submits the request again if requests remain.
+         *
+         * @param request
+         *            The request.
+         */
+        private void resubmit(final IoRequest request)
+        {
+            if (this.remaining.getAndDecrement() <= 0
+                || this.submit(request) != LibUsb.SUCCESS)
+            {
+                this.done.countDown();
+            }
+        }
+
+        @Override
+        public int submit(final IoRequest request)
+        {
+            this.shards.execute(this.shard, (Runnable) request.userData());
+            return LibUsb.SUCCESS;
+        }
+
+        @Override
+        public int cancel(final IoRequest request)
+        {
+            return LibUsb.ERROR_NOT_FOUND;
+        }
+
+        @Override
+        public void processRequest(final IoRequest request)
+        {
+            // Simulates processing the received data
+            final ByteBuffer buffer = request.buffer();
+            long checksum = this.checksum + request.actualLength();
+            for (int i = 0; i < buffer.capacity(); i++)
+            {
+                checksum = checksum * 31 + buffer.get(i);
+            }
+            this.checksum = checksum;
+            this.resubmit(request);
+        }
+    }
+
+    /**
+     * Runs simulated devices in the specified number of shards. The
+     * completions and callbacks of the devices run on the event handling
+     * threads of the shards.
+     *
+     * @param shardCount
+     *            The number of shards.
+     * @param devices
+     *            The number of simulated devices.
+     * @param requests
+     *            The total number of requests.
+     * @return The number of requests per second.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private static double simulate(final int shardCount, final int devices,
+        final long requests) throws InterruptedException
+    {
+        // A short poll interval lets the first requests, which are submitted
+        // by this thread, start without waiting for the event timeout
+        final ContextShards shards = new ContextShards(shardCount, 1000);
+        try
+        {
+            final AtomicLong remaining = new AtomicLong(requests);
+            final int depth = 4;
+            final CountDownLatch done = new CountDownLatch(devices * depth);
+            final List<SimulatedDevice> simulated =
+                new ArrayList<SimulatedDevice>();
+            for (int i = 0; i < devices; i++)
+            {
+                simulated.add(new SimulatedDevice(shards, i % shardCount,
+                    remaining, done));
+            }
+            final long start = System.nanoTime();
+            for (final SimulatedDevice device : simulated)
+            {
+                device.start(depth);
+            }
+            assertTrue(done.await(300, TimeUnit.SECONDS));
+            return requests * 1e9 / (System.nanoTime() - start);
+        }
+        finally
+        {
+            shards.close();
+        }
+    }
+
+    /**
+     * Benchmarks the callback throughput of 1 to N shards with 64 simulated
+     * devices, where N is the number of available processors. Needs no USB
+     * hardware.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void benchmarkScaling() throws InterruptedException
+    {
+        assumeBenchmarksEnabled();
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final int devices = 64;
+        final long requests = 200000;
+
+        // Warm-up
+        simulate(1, devices, requests / 4);
+
+        double single = 0;
+        int shards = 1;
+        while (true)
+        {
+            final double rate = simulate(shards, devices, requests);
+            if (shards == 1)
+            {
+                single = rate;
+            }
+            System.out.println(String.format(
+                "ContextShards: %d shard(s): %.0f requests/s, speedup %.2f",
+                shards, rate, rate / single));
+            if (shards == cores)
+            {
+                break;
+            }
+            shards = Math.min(shards * 2, cores);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link ControlChannel} class.
+ *
+ * @author usb4java Team
+ */
+public class ControlChannelTest
+{
+    /** The vendor IN request type. */
+    private static final byte VENDOR_IN =
+        (byte) (LibUsb.ENDPOINT_IN | LibUsb.REQUEST_TYPE_VENDOR);
+
+    /** The vendor OUT request type. */
+    private static final byte VENDOR_OUT = LibUsb.REQUEST_TYPE_VENDOR;
+
+    /** The register access request. */
+    private static final byte REGISTER = 1;
+
+    /** The request which always stalls. */
+    private static final byte STALL = 2;
+
+    /** If the simulated device should hold back its responses. */
+    volatile boolean hold;
+
+    /** The held back requests. */
+    final List<IoRequest> held =
+        Collections.synchronizedList(new ArrayList<IoRequest>());
+
+    /** The register values written to the simulated device. */
+    final List<Integer> written =
+        Collections.synchronizedList(new ArrayList<Integer>());
+
+    /**
+     * The simulated device. Reads return the low byte of the value in every
+     * byte, writes record the first data byte.
+     */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final ControlChannelTest test = ControlChannelTest.this;
+            final ByteBuffer buffer = request.buffer();
+            final ControlSetup setup = new ControlSetup(buffer);
+            final int length = setup.wLength() & 0xffff;
+            if (setup.bRequest() == STALL)
+            {
+                mock.complete(request, LibUsb.TRANSFER_STALL, 0);
+                return;
+            }
+            if ((setup.bmRequestType() & LibUsb.ENDPOINT_IN) != 0)
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.put(LibUsb.CONTROL_SETUP_SIZE + i,
+                        (byte) setup.wValue());
+                }
+            }
+            else if (length > 0)
+            {
+                test.written.add(Integer.valueOf(
+                    buffer.get(LibUsb.CONTROL_SETUP_SIZE)));
+            }
+            if (test.hold)
+            {
+                test.held.add(request);
+            }
+            else
+            {
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+        }
+    };
+
+    /** Callback recording the results and the first data byte. */
+    private final ControlCallback recorder = new ControlCallback()
+    {
+        @Override
+        public void processControl(final int result, final ByteBuffer data,
+            final Object userData)
+        {
+            final int first = data.hasRemaining() ? data.get(0) : -1;
+            ControlChannelTest.this.results.add(userData + ":" + result + ":"
+                + first);
+        }
+    };
+
+    /** The recorded results. */
+    final List<String> results =
+        Collections.synchronizedList(new ArrayList<String>());
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The channel to test. */
+    private ControlChannel channel;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.channel = new ControlChannel(this.backend, 4, 64);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.channel.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests that results are delivered in queue order even when the
+     * backend completes the requests in reverse order.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testInOrder() throws InterruptedException
+    {
+        this.hold = true;
+        for (int i = 0; i < 4; i++)
+        {
+            assertEquals(LibUsb.SUCCESS, this.channel.read(VENDOR_IN,
+                REGISTER, (short) (10 + i), (short) 0, 2, 1000, this.recorder,
+                Integer.valueOf(i)));
+        }
+        while (this.held.size() < 4)
+        {
+            Thread.sleep(1);
+        }
+        for (int i = 3; i >= 0; i--)
+        {
+            this.backend.complete(this.held.get(i),
+                LibUsb.TRANSFER_COMPLETED, 2);
+        }
+        assertEquals(LibUsb.SUCCESS, this.channel.flush());
+        assertEquals(Arrays.asList("0:2:10", "1:2:11", "2:2:12", "3:2:13"),
+            this.results);
+        assertEquals(0, this.channel.getPending());
+    }
+
+    /**
+     * Tests queuing more requests than slots.
+     */
+    @Test
+    public void testBackToBack()
+    {
+        final ByteBuffer data = ByteBuffer.allocateDirect(4);
+        for (int i = 0; i < 100; i++)
+        {
+            data.put(0, (byte) i);
+            assertEquals(LibUsb.SUCCESS, this.channel.write(VENDOR_OUT,
+                REGISTER, (short) 0, (short) 0, data, 1000, null, null));
+            assertEquals(0, data.position());
+        }
+        assertEquals(LibUsb.SUCCESS, this.channel.flush());
+        assertEquals(100, this.written.size());
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(i, this.written.get(i).intValue());
+        }
+        assertEquals(100, this.backend.submitted.size());
+    }
+
+    /**
+     * Tests that flush reports the first error.
+     */
+    @Test
+    public void testFlushError()
+    {
+        this.channel.write(VENDOR_OUT, REGISTER, (short) 0, (short) 0, null,
+            1000, null, null);
+        this.channel.write(VENDOR_OUT, STALL, (short) 0, (short) 0, null,
+            1000, null, null);
+        this.channel.write(VENDOR_OUT, REGISTER, (short) 0, (short) 0, null,
+            1000, null, null);
+        assertEquals(LibUsb.ERROR_PIPE, this.channel.flush());
+        assertEquals(LibUsb.SUCCESS, this.channel.flush());
+    }
+
+    /**
+     * Tests that a failed submission is delivered in order.
+     */
+    @Test
+    public void testSubmitFailure()
+    {
+        this.backend.failSubmitAt = 1;
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(LibUsb.SUCCESS, this.channel.read(VENDOR_IN,
+                REGISTER, (short) 7, (short) 0, 1, 1000, this.recorder,
+                Integer.valueOf(i)));
+        }
+        assertEquals(LibUsb.ERROR_IO, this.channel.flush());
+        assertEquals("0:1:7", this.results.get(0));
+        assertEquals("1:" + LibUsb.ERROR_IO + ":-1", this.results.get(1));
+        assertEquals("2:1:7", this.results.get(2));
+    }
+
+    /**
+     * Tests that callbacks get a busy error instead of blocking when all
+     * slots are in use.
+     */
+    @Test
+    public void testBusyFromCallback()
+    {
+        final ControlChannel single = new ControlChannel(this.backend, 1, 8);
+        final int[] result = new int[1];
+        single.write(VENDOR_OUT, REGISTER, (short) 0, (short) 0, null, 1000,
+            new ControlCallback()
+            {
+                @Override
+                public void processControl(final int r, final ByteBuffer data,
+                    final Object userData)
+                {
+                    result[0] = single.write(VENDOR_OUT, REGISTER, (short) 0,
+                        (short) 0, null, 1000, null, null);
+                }
+            }, null);
+        assertEquals(LibUsb.SUCCESS, single.flush());
+        assertEquals(LibUsb.ERROR_BUSY, result[0]);
+        single.close();
+    }
+
+    /**
+     * Tests that closing cancels the pending requests.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testClose() throws InterruptedException
+    {
+        this.hold = true;
+        final CountDownLatch done = new CountDownLatch(2);
+        final ControlCallback callback = new ControlCallback()
+        {
+            @Override
+            public void processControl(final int result, final ByteBuffer data,
+                final Object userData)
+            {
+                ControlChannelTest.this.results.add(String.valueOf(result));
+                done.countDown();
+            }
+        };
+        this.channel.read(VENDOR_IN, REGISTER, (short) 0, (short) 0, 1, 0,
+            callback, null);
+        this.channel.read(VENDOR_IN, REGISTER, (short) 0, (short) 0, 1, 0,
+            callback, null);
+        this.channel.close();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(String.valueOf(LibUsb.ERROR_INTERRUPTED),
+            this.results.get(0));
+        assertEquals(LibUsb.ERROR_NO_DEVICE, this.channel.read(VENDOR_IN,
+            REGISTER, (short) 0, (short) 0, 1, 0, callback, null));
+    }
+
+    /**
+     * Tests that data longer than the slots is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLong()
+    {
+        this.channel.read(VENDOR_IN, REGISTER, (short) 0, (short) 0, 65, 0,
+            this.recorder, null);
+    }
+
+    /**
+     * Tests that the direction is checked.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongDirection()
+    {
+        this.channel.write(VENDOR_IN, REGISTER, (short) 0, (short) 0, null, 0,
+            null, null);
+    }
+}
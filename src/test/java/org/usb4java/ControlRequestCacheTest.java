@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link ControlRequestCache} class.
+ *
+ * @author usb4java Team
+ */
+public class ControlRequestCacheTest
+{
+    /** The vendor IN request type. */
+    private static final byte VENDOR_IN =
+        (byte) (LibUsb.ENDPOINT_IN | LibUsb.REQUEST_TYPE_VENDOR);
+
+    /** The vendor OUT request type. */
+    private static final byte VENDOR_OUT = LibUsb.REQUEST_TYPE_VENDOR;
+
+    /** The "read register" request. */
+    private static final byte READ = 1;
+
+    /** The request which always stalls. */
+    private static final byte STALL = 2;
+
+    /** The "write register" request. */
+    private static final byte WRITE = 3;
+
+    /** The number of control transfers received by the simulated device. */
+    final AtomicInteger transfers = new AtomicInteger();
+
+    /** If the simulated device should hold back its read responses. */
+    volatile boolean hold;
+
+    /** The held back request. */
+    volatile IoRequest held;
+
+    /**
+     * The simulated device. Responds to reads with the low byte of the
+     * value.
+     */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final ControlRequestCacheTest test = ControlRequestCacheTest.this;
+            test.transfers.incrementAndGet();
+            final ControlSetup setup = new ControlSetup(request.buffer());
+            final int length = setup.wLength() & 0xffff;
+            if (setup.bRequest() == STALL)
+            {
+                mock.complete(request, LibUsb.TRANSFER_STALL, 0);
+                return;
+            }
+            for (int i = 0; i < length; i++)
+            {
+                request.buffer().put(LibUsb.CONTROL_SETUP_SIZE + i,
+                    (byte) setup.wValue());
+            }
+            if (test.hold && setup.bRequest() == READ)
+            {
+                test.held = request;
+            }
+            else
+            {
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The cache to test. */
+    private ControlRequestCache cache;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.cache = new ControlRequestCache(this.backend);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Reads a register.
+     *
+     * @param register
+     *            The register number.
+     * @return The read data.
+     */
+    private ByteBuffer read(final int register)
+    {
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(4);
+        assertEquals(4, this.cache.controlTransfer(VENDOR_IN, READ,
+            (short) register, (short) 0, data, 1000));
+        return data;
+    }
+
+    /**
+     * Tests that repeated requests are served from the cache.
+     */
+    @Test
+    public void testCacheHit()
+    {
+        this.cache.markIdempotent(VENDOR_IN, READ, 60000);
+        assertEquals(5, this.read(5).get(3));
+        assertEquals(5, this.read(5).get(3));
+        assertEquals(7, this.read(7).get(0));
+        assertEquals(2, this.transfers.get());
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(2, this.cache.getMissCount());
+        assertEquals(0, this.cache.getBypassCount());
+    }
+
+    /**
+     * Tests that requests not marked as idempotent are passed through.
+     */
+    @Test
+    public void testBypass()
+    {
+        this.read(5);
+        this.read(5);
+        assertEquals(2, this.transfers.get());
+        assertEquals(2, this.cache.getBypassCount());
+        assertEquals(0, this.cache.getHitCount());
+    }
+
+    /**
+     * Tests that cached results expire.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testExpiry() throws InterruptedException
+    {
+        this.cache.markIdempotent(VENDOR_IN, READ, 1);
+        this.read(5);
+        Thread.sleep(10);
+        this.read(5);
+        assertEquals(2, this.transfers.get());
+        assertEquals(0, this.cache.getHitCount());
+    }
+
+    /**
+     * Tests that host-to-device requests and explicit invalidation drop the
+     * cached results.
+     */
+    @Test
+    public void testInvalidate()
+    {
+        this.cache.markIdempotent(VENDOR_IN, READ, 60000);
+        this.read(5);
+        assertEquals(0, this.cache.controlTransfer(VENDOR_OUT, WRITE,
+            (short) 5, (short) 0, null, 1000));
+        this.read(5);
+        this.cache.invalidate();
+        this.read(5);
+        assertEquals(4, this.transfers.get());
+        assertEquals(0, this.cache.getHitCount());
+        assertEquals(1, this.cache.getBypassCount());
+    }
+
+    /**
+     * Tests that failures are not cached.
+     */
+    @Test
+    public void testFailureNotCached()
+    {
+        this.cache.markIdempotent(VENDOR_IN, STALL, 60000);
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(4);
+        assertEquals(LibUsb.ERROR_PIPE, this.cache.controlTransfer(VENDOR_IN,
+            STALL, (short) 0, (short) 0, data, 1000));
+        assertEquals(LibUsb.ERROR_PIPE, this.cache.controlTransfer(VENDOR_IN,
+            STALL, (short) 0, (short) 0, data, 1000));
+        assertEquals(2, this.transfers.get());
+    }
+
+    /**
+     * Tests that concurrent identical requests are coalesced into a single
+     * transfer.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testCoalesce() throws InterruptedException
+    {
+        this.cache.markIdempotent(VENDOR_IN, READ, 0);
+        this.hold = true;
+        final ByteBuffer[] results = new ByteBuffer[4];
+        final Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++)
+        {
+            final int index = i;
+            threads[i] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    results[index] = ControlRequestCacheTest.this.read(9);
+                }
+            });
+            threads[i].start();
+        }
+        while (this.held == null
+            || this.cache.getCoalescedCount() < threads.length - 1)
+        {
+            Thread.sleep(1);
+        }
+        this.backend.complete(this.held, LibUsb.TRANSFER_COMPLETED, 4);
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+        for (final ByteBuffer result : results)
+        {
+            assertEquals(9, result.get(0));
+            assertEquals(9, result.get(3));
+        }
+        assertEquals(1, this.transfers.get());
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(3, this.cache.getCoalescedCount());
+
+        // TTL 0 only coalesces, so the next request is a new transfer
+        this.hold = false;
+        this.read(9);
+        assertEquals(2, this.transfers.get());
+    }
+
+    /**
+     * Tests that host-to-device requests can't be marked as idempotent.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMarkOutRequest()
+    {
+        this.cache.markIdempotent(VENDOR_OUT, WRITE, 1000);
+    }
+
+    /**
+     * Tests that a read which was in flight while a write completed is
+     * neither cached nor joined by reads issued after the write.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testReadRacingWrite() throws InterruptedException
+    {
+        this.cache.markIdempotent(VENDOR_IN, READ, 60000);
+        this.hold = true;
+        final ByteBuffer[] results = new ByteBuffer[2];
+        final Thread before = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                results[0] = ControlRequestCacheTest.this.read(5);
+            }
+        });
+        before.start();
+        while (this.held == null)
+        {
+            Thread.sleep(1);
+        }
+        final IoRequest stale = this.held;
+
+        // The register changes while the first read is in flight
+        for (int i = 0; i < 4; i++)
+        {
+            stale.buffer().put(LibUsb.CONTROL_SETUP_SIZE + i, (byte) 0x55);
+        }
+        this.hold = false;
+        assertEquals(0, this.cache.controlTransfer(VENDOR_OUT, WRITE,
+            (short) 5, (short) 0, null, 1000));
+
+        final Thread after = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                results[1] = ControlRequestCacheTest.this.read(5);
+            }
+        });
+        after.start();
+        after.join(5000);
+        assertFalse(after.isAlive());
+        assertEquals(5, results[1].get(0));
+        assertEquals(0, this.cache.getCoalescedCount());
+
+        this.backend.complete(stale, LibUsb.TRANSFER_COMPLETED, 4);
+        before.join(5000);
+        assertEquals(0x55, results[0].get(0));
+
+        // The fresh result is cached, the stale one is not
+        assertEquals(5, this.read(5).get(0));
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(3, this.transfers.get());
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link DeviceGroup} class.
+ *
+ * @author usb4java Team
+ */
+public class DeviceGroupTest
+{
+    /** The IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /** Opened when the simulated devices may complete requests. */
+    final CountDownLatch gate = new CountDownLatch(1);
+
+    /** The simulated devices. */
+    private final List<BackendMock> devices = new ArrayList<BackendMock>();
+
+    /** The names of the members in completion order of their requests. */
+    final List<String> completions =
+        Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.gate.countDown();
+        for (final BackendMock device : this.devices)
+        {
+            device.shutdown();
+        }
+    }
+
+    /**
+     * Creates a simulated device which completes requests as soon as the
+     * gate is opened.
+     *
+     * @return The simulated device.
+     */
+    private BackendMock device()
+    {
+        final BackendMock device = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock, final IoRequest request)
+            {
+                try
+                {
+                    DeviceGroupTest.this.gate.await();
+                }
+                catch (final InterruptedException e)
+                {
+                    return;
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    request.length());
+            }
+        });
+        this.devices.add(device);
+        return device;
+    }
+
+    /**
+     * Submits requests to a member.
+     *
+     * @param member
+     *            The member.
+     * @param count
+     *            The number of requests.
+     * @param size
+     *            The request size.
+     * @param done
+     *            Counted down when a request is finished.
+     */
+    private void submit(final DeviceGroup.Member member, final int count,
+        final int size, final CountDownLatch done)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final IoRequest request = new IoRequest();
+            request.fillBulk(IN, ByteBuffer.allocateDirect(size),
+                new IoCallback()
+                {
+                    @Override
+                    public void processRequest(final IoRequest finished)
+                    {
+                        DeviceGroupTest.this.completions.add(
+                            member.getName());
+                        done.countDown();
+                    }
+                }, null, 0);
+            assertEquals(LibUsb.SUCCESS, member.submit(request));
+        }
+    }
+
+    /**
+     * Counts the completions of a member within the first completions.
+     *
+     * @param name
+     *            The name of the member.
+     * @param first
+     *            The number of completions to look at.
+     * @return The number of completions of the member.
+     */
+    private int count(final String name, final int first)
+    {
+        int count = 0;
+        for (final String completion : this.completions.subList(0, first))
+        {
+            if (completion.equals(name))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tests that the transfer volume is shared according to the weights.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testWeightedFairness() throws InterruptedException
+    {
+        final DeviceGroup group = new DeviceGroup(1, 512);
+        final DeviceGroup.Member a = group.add("a", this.device(), 1, 4);
+        final DeviceGroup.Member b = group.add("b", this.device(), 3, 4);
+        final DeviceGroup.Member c = group.add("c", this.device(), 1, 4);
+        final CountDownLatch done = new CountDownLatch(120);
+        this.submit(a, 40, 512, done);
+        this.submit(b, 40, 512, done);
+
+        // Member c uses larger requests but must not get more volume
+        this.submit(c, 40, 1024, done);
+        this.gate.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // One request of "a" was submitted before the others were queued
+        final List<String> rest = this.completions.subList(1, 51);
+        final int countA = Collections.frequency(rest, "a");
+        final int countB = Collections.frequency(rest, "b");
+        final int countC = Collections.frequency(rest, "c");
+        assertTrue("a: " + countA, countA >= 8 && countA <= 12);
+        assertTrue("b: " + countB, countB >= 27 && countB <= 33);
+        assertTrue("c: " + countC, countC >= 4 && countC <= 6);
+        assertEquals(40 * 512, a.getTransferredBytes());
+        assertEquals(40 * 1024, c.getTransferredBytes());
+        assertEquals(40, b.getCompletedRequests());
+        assertTrue(c.getMaxQueueDelay() >= c.getAverageQueueDelay());
+        assertTrue(c.getStarvedTime() > 0);
+        assertTrue(b.getThroughput() > 0);
+    }
+
+    /**
+     * Tests that equally weighted members alternate.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testRoundRobin() throws InterruptedException
+    {
+        final DeviceGroup group = new DeviceGroup(1, 64);
+        final DeviceGroup.Member a = group.add("a", this.device(), 1, 1);
+        final DeviceGroup.Member b = group.add("b", this.device(), 1, 1);
+        final CountDownLatch done = new CountDownLatch(20);
+        this.submit(a, 10, 64, done);
+        this.submit(b, 10, 64, done);
+        this.gate.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(10, this.count("a", 20));
+
+        // The first request of "a" was submitted before "b" had requests,
+        // so "b" has one request left at the end
+        for (int i = 2; i < 19; i++)
+        {
+            assertTrue(!this.completions.get(i).equals(
+                this.completions.get(i - 1)));
+        }
+    }
+
+    /**
+     * Tests the group and member limits of submitted requests.
+     */
+    @Test
+    public void testInFlightLimits()
+    {
+        final DeviceGroup group = new DeviceGroup(3);
+        final BackendMock deviceA = this.device();
+        final BackendMock deviceB = this.device();
+        final DeviceGroup.Member a = group.add("a", deviceA, 1, 2);
+        final DeviceGroup.Member b = group.add("b", deviceB, 1, 2);
+        final CountDownLatch done = new CountDownLatch(10);
+        this.submit(a, 5, 64, done);
+        this.submit(b, 5, 64, done);
+        assertEquals(3, group.getInFlight());
+        assertEquals(2, a.getInFlight());
+        assertEquals(1, b.getInFlight());
+        assertEquals(3, a.getQueued());
+        assertEquals(2, deviceA.getPendingCount());
+    }
+
+    /**
+     * Tests cancelling a queued request.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testCancelQueued() throws InterruptedException
+    {
+        final DeviceGroup group = new DeviceGroup(1);
+        final DeviceGroup.Member a = group.add("a", this.device(), 1, 1);
+        final CountDownLatch done = new CountDownLatch(2);
+        this.submit(a, 2, 64, done);
+        final BackendMock device = this.devices.get(0);
+        assertEquals(1, device.submitted.size());
+        final IoRequest queued = new IoRequest();
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        queued.fillBulk(IN, ByteBuffer.allocateDirect(64), new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                assertEquals(LibUsb.TRANSFER_CANCELLED, request.status());
+                cancelled.countDown();
+            }
+        }, null, 0);
+        a.submit(queued);
+        assertEquals(LibUsb.SUCCESS, a.cancel(queued));
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+        assertEquals(LibUsb.ERROR_NOT_FOUND, a.cancel(queued));
+        this.gate.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, device.submitted.size());
+    }
+
+    /**
+     * Tests removing a member.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testRemove() throws InterruptedException
+    {
+        final DeviceGroup group = new DeviceGroup(1);
+        final DeviceGroup.Member a = group.add("a", this.device(), 1, 1);
+        final CountDownLatch done = new CountDownLatch(3);
+        this.submit(a, 3, 64, done);
+        group.remove(a);
+        assertEquals(0, group.getMembers().size());
+        assertEquals(LibUsb.ERROR_NOT_FOUND, a.submit(new IoRequest()));
+        this.gate.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, group.getInFlight());
+    }
+
+    /**
+     * Tests that a request which is already queued or submitted can't be
+     * submitted again before it has finished.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testSubmitTwice() throws InterruptedException
+    {
+        final DeviceGroup group = new DeviceGroup(1);
+        final DeviceGroup.Member a = group.add("a", this.device(), 1, 1);
+        final DeviceGroup.Member b = group.add("b", this.device(), 1, 1);
+        final CountDownLatch done = new CountDownLatch(3);
+        final IoCallback callback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                done.countDown();
+            }
+        };
+        final IoRequest submitted = new IoRequest();
+        submitted.fillBulk(IN, ByteBuffer.allocateDirect(64), callback, null,
+            0);
+        final IoRequest queued = new IoRequest();
+        queued.fillBulk(IN, ByteBuffer.allocateDirect(64), callback, null, 0);
+        assertEquals(LibUsb.SUCCESS, a.submit(submitted));
+        assertEquals(LibUsb.SUCCESS, a.submit(queued));
+        assertEquals(1, a.getInFlight());
+        assertEquals(1, a.getQueued());
+
+        assertEquals(LibUsb.ERROR_BUSY, a.submit(submitted));
+        assertEquals(LibUsb.ERROR_BUSY, a.submit(queued));
+        assertEquals(LibUsb.ERROR_BUSY, b.submit(queued));
+        assertEquals(1, a.getQueued());
+        assertEquals(0, b.getQueued());
+
+        this.gate.countDown();
+        while (done.getCount() > 1)
+        {
+            Thread.sleep(1);
+        }
+        assertEquals(LibUsb.SUCCESS, b.submit(submitted));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, this.devices.get(1).submitted.size());
+    }
+
+    /**
+     * Tests that a member is starved only while it has queued requests but
+     * none submitted.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testStarvedTime() throws InterruptedException
+    {
+        final DeviceGroup group = new DeviceGroup(1);
+        final DeviceGroup.Member a = group.add("a", this.device(), 1, 1);
+        final DeviceGroup.Member b = group.add("b", this.device(), 1, 1);
+        final CountDownLatch done = new CountDownLatch(2);
+        this.submit(a, 1, 64, done);
+        this.submit(b, 1, 64, done);
+        Thread.sleep(20);
+        // Member a was only starved until its request was dispatched
+        assertTrue(b.getStarvedTime() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(a.getStarvedTime() < b.getStarvedTime());
+        this.gate.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        final long starved = b.getStarvedTime();
+        Thread.sleep(5);
+        assertEquals(starved, b.getStarvedTime());
+        b.resetStatistics();
+        assertEquals(0, b.getStarvedTime());
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DeviceHandlePool} class.
+ *
+ * @author usb4java Team
+ */
+public class DeviceHandlePoolTest
+{
+    /**
+     * Simulated native operations recording the calls.
+     */
+    static final class RecordingDriver implements DeviceHandlePool.Driver
+    {
+        /** The calls in the order they were made. */
+        final List<String> calls =
+            Collections.synchronizedList(new ArrayList<String>());
+
+        /** Opened when devices may be opened. */
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        /** Counted down when a device is being opened. */
+        final CountDownLatch opening = new CountDownLatch(1);
+
+        @Override
+        public int open(final Device device, final DeviceHandle handle)
+        {
+            this.opening.countDown();
+            try
+            {
+                this.gate.await();
+            }
+            catch (final InterruptedException e)
+            {
+                return LibUsb.ERROR_INTERRUPTED;
+            }
+            this.calls.add("open " + device.getPointer());
+            return LibUsb.SUCCESS;
+        }
+
+        @Override
+        public void close(final DeviceHandle handle)
+        {
+            this.calls.add("close");
+        }
+
+        @Override
+        public int claimInterface(final DeviceHandle handle, final int iface)
+        {
+            this.calls.add("claim " + iface);
+            return LibUsb.SUCCESS;
+        }
+
+        @Override
+        public int releaseInterface(final DeviceHandle handle,
+            final int iface)
+        {
+            this.calls.add("release " + iface);
+            return LibUsb.SUCCESS;
+        }
+
+        /**
+         * Counts the calls starting with the specified prefix.
+         *
+         * @param prefix
+         *            The call prefix.
+         * @return The number of calls.
+         */
+        int count(final String prefix)
+        {
+            int count = 0;
+            synchronized (this.calls)
+            {
+                for (final String call : this.calls)
+                {
+                    if (call.startsWith(prefix))
+                    {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /** The simulated native operations. */
+    private final RecordingDriver driver = new RecordingDriver();
+
+    /** The pool under test. */
+    private DeviceHandlePool pool;
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.driver.gate.countDown();
+        if (this.pool != null)
+        {
+            this.pool.close();
+        }
+    }
+
+    /**
+     * Creates a pool with the simulated native operations.
+     *
+     * @param idleTimeout
+     *            The idle timeout in milliseconds.
+     * @return The pool.
+     */
+    private DeviceHandlePool createPool(final long idleTimeout)
+    {
+        this.driver.gate.countDown();
+        this.pool = new DeviceHandlePool(idleTimeout, this.driver);
+        return this.pool;
+    }
+
+    /**
+     * Creates a device with the specified pointer.
+     *
+     * @param pointer
+     *            The native pointer.
+     * @return The device.
+     * @throws Exception
+     *             When the pointer could not be set.
+     */
+    private static Device device(final long pointer) throws Exception
+    {
+        final Device device = new Device();
+        final Field field = Device.class.getDeclaredField("devicePointer");
+        field.setAccessible(true);
+        field.setLong(device, pointer);
+        return device;
+    }
+
+    /**
+     * Tests that leases of the same device share the open handle and that
+     * idle handles are reused.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testReuse() throws Exception
+    {
+        final DeviceHandlePool pool = this.createPool(60000);
+        final DeviceHandlePool.Lease a = pool.acquire(device(1));
+        final DeviceHandlePool.Lease b = pool.acquire(device(1));
+        final DeviceHandlePool.Lease c = pool.acquire(device(2));
+        assertSame(a.getHandle(), b.getHandle());
+        assertEquals(2, pool.getOpenHandles());
+        assertEquals(0, pool.getIdleHandles());
+
+        a.release();
+        b.release();
+        b.release();
+        assertEquals(1, pool.getIdleHandles());
+        final DeviceHandlePool.Lease d = pool.acquire(device(1));
+        assertSame(a.getHandle(), d.getHandle());
+        d.release();
+        c.release();
+
+        assertEquals(2, this.driver.count("open"));
+        assertEquals(0, this.driver.count("close"));
+        assertEquals(4, pool.getAcquireCount());
+        assertEquals(2, pool.getReuseCount());
+        assertEquals(0.5, pool.getReuseRate(), 0.0001);
+        assertEquals(2, pool.getOpenCount());
+        assertTrue(pool.getMaxOpenLatency() >= pool.getAverageOpenLatency());
+
+        assertEquals(2, pool.evictIdle());
+        assertEquals(0, pool.getOpenHandles());
+        assertEquals(2, pool.getCloseCount());
+    }
+
+    /**
+     * Tests that interfaces are claimed once per handle and released when
+     * the handle is closed.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testClaimOnDemand() throws Exception
+    {
+        final DeviceHandlePool pool = this.createPool(0);
+        final DeviceHandlePool.Lease a = pool.acquire(device(1));
+        final DeviceHandlePool.Lease b = pool.acquire(device(1));
+        a.claimInterface(0);
+        b.claimInterface(0);
+        b.claimInterface(1);
+        assertTrue(a.isClaimed(1));
+        assertFalse(a.isClaimed(2));
+        a.release();
+        assertEquals(0, this.driver.count("close"));
+        b.release();
+        assertEquals(Arrays.asList("open 1", "claim 0", "claim 1",
+            "release 0", "release 1", "close"), this.driver.calls);
+    }
+
+    /**
+     * Tests that released leases can't be used to claim interfaces.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testClaimAfterRelease() throws Exception
+    {
+        final DeviceHandlePool.Lease lease =
+            this.createPool(1000).acquire(device(1));
+        lease.release();
+        lease.claimInterface(0);
+    }
+
+    /**
+     * Tests that idle handles are closed after the idle timeout and that a
+     * lease in the meantime keeps the handle open.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testIdleTimeout() throws Exception
+    {
+        final DeviceHandlePool pool = this.createPool(100);
+        pool.acquire(device(1)).release();
+        final DeviceHandlePool.Lease lease = pool.acquire(device(1));
+        Thread.sleep(200);
+        assertEquals(1, pool.getOpenHandles());
+        lease.release();
+        final long deadline = System.nanoTime()
+            + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getOpenHandles() > 0 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pool.getOpenHandles());
+        assertEquals(1, this.driver.count("open"));
+        assertEquals(1, this.driver.count("close"));
+    }
+
+    /**
+     * Tests that concurrent leases of a device which is being opened wait
+     * for the open and share the handle.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testConcurrentOpen() throws Exception
+    {
+        this.pool = new DeviceHandlePool(1000, this.driver);
+        final Device device = device(1);
+        final List<DeviceHandlePool.Lease> leases =
+            Collections.synchronizedList(
+                new ArrayList<DeviceHandlePool.Lease>());
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++)
+        {
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    leases.add(DeviceHandlePoolTest.this.pool
+                        .acquire(device));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        assertTrue(this.driver.opening.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        this.driver.gate.countDown();
+        for (final Thread thread : threads)
+        {
+            thread.join(5000);
+        }
+        assertEquals(4, leases.size());
+        assertEquals(1, this.driver.count("open"));
+        assertEquals(3, this.pool.getReuseCount());
+    }
+
+    /**
+     * Tests closing the pool with leased and idle handles.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testClose() throws Exception
+    {
+        final DeviceHandlePool pool = this.createPool(60000);
+        final DeviceHandlePool.Lease lease = pool.acquire(device(1));
+        pool.acquire(device(2)).release();
+        pool.close();
+        assertEquals(1, this.driver.count("close"));
+        assertEquals(1, pool.getOpenHandles());
+        lease.release();
+        assertEquals(2, this.driver.count("close"));
+        assertEquals(0, pool.getOpenHandles());
+        try
+        {
+            pool.acquire(device(1));
+            fail("Pool accepted lease after close");
+        }
+        catch (final IllegalStateException e)
+        {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link EndpointPublisher} class.
+ *
+ * @author usb4java Team
+ */
+public class EndpointPublisherTest
+{
+    /** The IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /**
+     * Subscriber recording all signals.
+     */
+    private static final class RecordingSubscriber implements
+        Flow.Subscriber<ByteBuffer>
+    {
+        /** The received items. */
+        final List<ByteBuffer> items =
+            Collections.synchronizedList(new ArrayList<ByteBuffer>());
+
+        /** Counted down on each item. */
+        volatile CountDownLatch itemLatch = new CountDownLatch(0);
+
+        /** Counted down on termination. */
+        final CountDownLatch done = new CountDownLatch(1);
+
+        /** The subscription. */
+        volatile Flow.Subscription subscription;
+
+        /** The received error. */
+        volatile Throwable error;
+
+        /** If onComplete was called. */
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final ByteBuffer item)
+        {
+            this.items.add(item);
+            this.itemLatch.countDown();
+        }
+
+        @Override
+        public void onError(final Throwable throwable)
+        {
+            this.error = throwable;
+            this.done.countDown();
+        }
+
+        @Override
+        public void onComplete()
+        {
+            this.completed = true;
+            this.done.countDown();
+        }
+
+        /**
+         * Requests items and waits until they have been received.
+         *
+         * @param n
+         *            The number of items.
+         * @throws InterruptedException
+         *             When interrupted.
+         */
+        void requestAndWait(final int n) throws InterruptedException
+        {
+            this.itemLatch = new CountDownLatch(n);
+            this.subscription.request(n);
+            assertTrue(this.itemLatch.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The publisher to test. */
+    private EndpointPublisher publisher;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(new BackendMock.Handler()
+        {
+            /** The next byte to send. */
+            private int next;
+
+            @Override
+            public void handle(final BackendMock mock, final IoRequest request)
+            {
+                request.buffer().put(0, (byte) this.next++);
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, 10);
+            }
+        });
+        this.publisher = new EndpointPublisher(this.backend, IN,
+            LibUsb.TRANSFER_TYPE_BULK, 64, 4);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.publisher.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests that no more requests are submitted than demanded.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testDemandLimitsRequests() throws InterruptedException
+    {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        this.publisher.subscribe(subscriber);
+        assertEquals(0, this.backend.submitted.size());
+
+        subscriber.requestAndWait(3);
+        Thread.sleep(50);
+        assertEquals(3, this.backend.submitted.size());
+        assertEquals(3, subscriber.items.size());
+        for (int i = 0; i < 3; i++)
+        {
+            final ByteBuffer item = subscriber.items.get(i);
+            assertEquals(0, item.position());
+            assertEquals(10, item.limit());
+            assertEquals(i, item.get(0));
+        }
+        assertEquals(0, this.publisher.getInFlight());
+    }
+
+    /**
+     * Tests that the number of requests in flight is limited.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testMaxInFlight() throws InterruptedException
+    {
+        final BackendMock stalled = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock, final IoRequest request)
+            {
+                // Device never sends data
+            }
+        });
+        try
+        {
+            final EndpointPublisher slow = new EndpointPublisher(stalled, IN,
+                LibUsb.TRANSFER_TYPE_INTERRUPT, 8, 4);
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            slow.subscribe(subscriber);
+            subscriber.subscription.request(100);
+            assertEquals(4, slow.getInFlight());
+            assertEquals(4, stalled.submitted.size());
+            assertEquals(LibUsb.TRANSFER_TYPE_INTERRUPT,
+                stalled.submitted.get(0).type());
+
+            subscriber.subscription.cancel();
+            Thread.sleep(50);
+            assertEquals(0, slow.getInFlight());
+            assertEquals(0, stalled.getPendingCount());
+        }
+        finally
+        {
+            stalled.shutdown();
+        }
+    }
+
+    /**
+     * Tests that released buffers are used for the next requests.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testRelease() throws InterruptedException
+    {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        this.publisher.subscribe(subscriber);
+        subscriber.requestAndWait(1);
+        final ByteBuffer buffer = subscriber.items.get(0);
+        this.publisher.release(buffer);
+        subscriber.requestAndWait(1);
+        assertSame(buffer, subscriber.items.get(1));
+    }
+
+    /**
+     * Tests that a second subscriber is rejected.
+     */
+    @Test
+    public void testSingleSubscriber()
+    {
+        this.publisher.subscribe(new RecordingSubscriber());
+        final RecordingSubscriber second = new RecordingSubscriber();
+        this.publisher.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    /**
+     * Tests that closing the publisher completes the subscriber.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testClose() throws InterruptedException
+    {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        this.publisher.subscribe(subscriber);
+        subscriber.requestAndWait(2);
+        this.publisher.close();
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.completed);
+        assertEquals(null, subscriber.error);
+    }
+
+    /**
+     * Tests that a failed request terminates the subscription with an error.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testError() throws InterruptedException
+    {
+        final BackendMock failing = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock, final IoRequest request)
+            {
+                mock.complete(request, LibUsb.TRANSFER_STALL, 0);
+            }
+        });
+        try
+        {
+            final EndpointPublisher broken = new EndpointPublisher(failing,
+                IN, LibUsb.TRANSFER_TYPE_BULK, 64, 2);
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            broken.subscribe(subscriber);
+            subscriber.subscription.request(1);
+            assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+            assertFalse(subscriber.completed);
+            assertTrue(subscriber.error != null);
+        }
+        finally
+        {
+            failing.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ErrorStrings} class.
+ *
+ * @author usb4java Team
+ */
+public class ErrorStringsTest
+{
+    /**
+     * Tests the mapping of error codes to slots.
+     */
+    @Test
+    public void testSlot()
+    {
+        assertEquals(0, ErrorStrings.slot(LibUsb.SUCCESS));
+        assertEquals(1, ErrorStrings.slot(LibUsb.ERROR_IO));
+        assertEquals(12, ErrorStrings.slot(LibUsb.ERROR_NOT_SUPPORTED));
+        assertEquals(13, ErrorStrings.slot(LibUsb.ERROR_OTHER));
+        assertEquals(-1, ErrorStrings.slot(-13));
+        assertEquals(-1, ErrorStrings.slot(1));
+    }
+
+    /**
+     * Tests the error names.
+     */
+    @Test
+    public void testGetName()
+    {
+        final String name = ErrorStrings.getName(LibUsb.ERROR_PIPE);
+        assertEquals("LIBUSB_ERROR_PIPE", name);
+        assertSame(name, ErrorStrings.getName(LibUsb.ERROR_PIPE));
+        assertEquals("LIBUSB_ERROR_OTHER",
+            ErrorStrings.getName(LibUsb.ERROR_OTHER));
+        assertEquals("LIBUSB_TRANSFER_STALL",
+            ErrorStrings.getName(LibUsb.TRANSFER_STALL));
+        assertEquals("**UNKNOWN**", ErrorStrings.getName(-1000));
+    }
+
+    /**
+     * Tests the error messages.
+     */
+    @Test
+    public void testGetMessage()
+    {
+        final String message = ErrorStrings.getMessage(LibUsb.ERROR_BUSY);
+        assertEquals("Resource busy", message);
+        assertSame(message, ErrorStrings.getMessage(LibUsb.ERROR_BUSY));
+        assertEquals("Other error", ErrorStrings.getMessage(-1000));
+    }
+
+    /**
+     * Tests switching the message tables with the locale.
+     */
+    @Test
+    public void testSetLocale()
+    {
+        assertEquals(LibUsb.SUCCESS, ErrorStrings.setLocale("en"));
+        final String message = ErrorStrings.getMessage(LibUsb.ERROR_BUSY);
+        assertEquals("Resource busy", message);
+        final LibUsbException e = LibUsbException.of(LibUsb.ERROR_BUSY);
+
+        assertEquals(LibUsb.ERROR_NOT_FOUND, ErrorStrings.setLocale("xx"));
+        assertSame(message, ErrorStrings.getMessage(LibUsb.ERROR_BUSY));
+        assertSame(e.getMessage(),
+            LibUsbException.of(LibUsb.ERROR_BUSY).getMessage());
+
+        assertEquals(LibUsb.SUCCESS, ErrorStrings.setLocale("de"));
+        assertNotSame(e.getMessage(),
+            LibUsbException.of(LibUsb.ERROR_BUSY).getMessage());
+        assertEquals(LibUsb.SUCCESS, ErrorStrings.setLocale("en_US.UTF-8"));
+        assertSame(message, ErrorStrings.getMessage(LibUsb.ERROR_BUSY));
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link GatheringBulkWriter} class.
+ *
+ * @author usb4java Team
+ */
+public class GatheringBulkWriterTest
+{
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The writer to test. */
+    private GatheringBulkWriter writer;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock();
+        this.writer = new GatheringBulkWriter(this.backend, (byte) 0x02, 512,
+            1024, 1000);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates a direct buffer filled with increasing values.
+     *
+     * @param size
+     *            The buffer size.
+     * @param start
+     *            The first value.
+     * @return The buffer.
+     */
+    private static ByteBuffer buffer(final int size, final int start)
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        for (int i = 0; i < size; i++)
+        {
+            buffer.put((byte) (start + i));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Returns the lengths of the specified buffers.
+     *
+     * @param buffers
+     *            The buffers.
+     * @return The lengths.
+     */
+    private static int[] lengths(final List<ByteBuffer> buffers)
+    {
+        final int[] lengths = new int[buffers.size()];
+        for (int i = 0; i < lengths.length; i++)
+        {
+            lengths[i] = buffers.get(i).remaining();
+        }
+        return lengths;
+    }
+
+    /**
+     * Tests that a header, payload and CRC are split into packet aligned
+     * requests and only the last request is short.
+     */
+    @Test
+    public void testSplitHeaderPayloadCrc()
+    {
+        final ByteBuffer[] srcs = new ByteBuffer[] { buffer(16, 0),
+            buffer(4096, 16), buffer(4, 0) };
+        final List<ByteBuffer> parts = this.writer.split(srcs, 0, 3,
+            new ArrayList<ByteBuffer>());
+
+        // 16 header bytes + 496 payload bytes, 3584 aligned payload bytes in
+        // chunks of at most 1024 bytes, 16 payload bytes + 4 CRC bytes
+        assertEquals("[512, 1024, 1024, 1024, 512, 20]",
+            java.util.Arrays.toString(lengths(parts)));
+        int expected = 0;
+        for (final ByteBuffer part : parts.subList(0, parts.size() - 1))
+        {
+            while (part.hasRemaining())
+            {
+                assertEquals((byte) expected++, part.get());
+            }
+        }
+    }
+
+    /**
+     * Tests that packet aligned data of direct buffers is not copied.
+     */
+    @Test
+    public void testSplitIsZeroCopy()
+    {
+        final ByteBuffer payload = buffer(1024, 0);
+        final List<ByteBuffer> parts = this.writer.split(
+            new ByteBuffer[] { payload }, 0, 1, new ArrayList<ByteBuffer>());
+        assertEquals(1, parts.size());
+        payload.put(100, (byte) 42);
+        assertEquals(42, parts.get(0).get(100));
+    }
+
+    /**
+     * Tests that non-direct buffers are copied.
+     */
+    @Test
+    public void testSplitHeapBuffer()
+    {
+        final ByteBuffer heap = ByteBuffer.wrap(new byte[] { 1, 2, 3 });
+        final List<ByteBuffer> parts = this.writer.split(
+            new ByteBuffer[] { heap }, 0, 1, new ArrayList<ByteBuffer>());
+        assertEquals(1, parts.size());
+        assertTrue(parts.get(0).isDirect());
+        assertEquals(3, parts.get(0).remaining());
+        assertEquals(0, heap.position());
+    }
+
+    /**
+     * Tests that non-direct buffers and the bytes straddling packet
+     * boundaries are packed into as few bounce buffers as possible.
+     */
+    @Test
+    public void testSplitPacksBounceBuffers()
+    {
+        final ByteBuffer[] srcs = new ByteBuffer[] {
+            ByteBuffer.wrap(new byte[100]), ByteBuffer.wrap(new byte[600]),
+            buffer(1024, 0), ByteBuffer.wrap(new byte[4]) };
+        final List<ByteBuffer> bounce = new ArrayList<ByteBuffer>();
+        final List<ByteBuffer> parts = this.writer.split(srcs, 0, 4, bounce);
+
+        // 700 heap bytes + 324 direct bytes, 512 aligned direct bytes,
+        // 188 direct bytes + 4 heap bytes
+        assertEquals("[1024, 512, 192]",
+            java.util.Arrays.toString(lengths(parts)));
+        assertEquals(2, bounce.size());
+        assertSame(bounce.get(0), parts.get(0));
+        assertSame(bounce.get(1), parts.get(2));
+        assertEquals(0, parts.get(0).get(699));
+        assertEquals(1, parts.get(0).get(701));
+        assertEquals((byte) 324, parts.get(1).get(0));
+        assertEquals((byte) 1023, parts.get(2).get(187));
+    }
+
+    /**
+     * Tests that the bounce buffers of a finished message are reused by the
+     * following messages.
+     */
+    @Test
+    public void testBounceBuffersReused()
+    {
+        this.writer.write(new ByteBuffer[] { ByteBuffer.allocate(100) },
+            false);
+        this.writer.write(new ByteBuffer[] { ByteBuffer.allocate(200) },
+            false);
+        assertEquals(2, this.backend.submitted.size());
+        assertSame(this.backend.submitted.get(0).buffer(),
+            this.backend.submitted.get(1).buffer());
+    }
+
+    /**
+     * Tests that the number of free bounce buffers kept after a burst of
+     * concurrent messages is bounded.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testBounceBuffersBounded() throws InterruptedException
+    {
+        this.backend.shutdown();
+        this.backend = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock,
+                final IoRequest request)
+            {
+                // Completed by the test
+            }
+        });
+        this.writer = new GatheringBulkWriter(this.backend, (byte) 0x02, 512,
+            1024, 1000);
+        final int messages = GatheringBulkWriter.MAX_FREE_BOUNCE_BUFFERS * 2;
+        final CountDownLatch done = new CountDownLatch(messages);
+        final IoCallback callback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < messages; i++)
+        {
+            assertEquals(LibUsb.SUCCESS, this.writer.submit(
+                new ByteBuffer[] { ByteBuffer.allocate(100) }, 0, 1, false,
+                callback, null));
+        }
+        assertEquals(messages, this.backend.submitted.size());
+        for (final IoRequest request : this.backend.submitted)
+        {
+            this.backend.complete(request, LibUsb.TRANSFER_COMPLETED, 100);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(GatheringBulkWriter.MAX_FREE_BOUNCE_BUFFERS,
+            this.writer.getFreeBounceBufferCount());
+    }
+
+    /**
+     * Tests that the positions of the buffers are only advanced up to the
+     * first failed part, even when later parts were written.
+     */
+    @Test
+    public void testPartialFailure()
+    {
+        this.backend.shutdown();
+        this.backend = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock,
+                final IoRequest request)
+            {
+                // Hold back the failing first part until the second part
+                // has been submitted, so the writer doesn't stop early
+                if (mock.submitted.size() == 2
+                    && mock.submitted.get(1) == request)
+                {
+                    mock.complete(mock.submitted.get(0),
+                        LibUsb.TRANSFER_ERROR, 100);
+                    mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                        request.length());
+                }
+            }
+        });
+        this.writer = new GatheringBulkWriter(this.backend, (byte) 0x02, 512,
+            1024, 1000);
+        final ByteBuffer payload = buffer(2048, 0);
+        try
+        {
+            this.writer.write(new ByteBuffer[] { payload }, false);
+            fail("Expected LibUsbException");
+        }
+        catch (final LibUsbException e)
+        {
+            assertEquals(LibUsb.ERROR_IO, e.getErrorCode());
+        }
+        assertEquals(2, this.backend.submitted.size());
+        assertEquals(100, payload.position());
+    }
+
+    /**
+     * Tests that an empty message results in a single zero length request.
+     */
+    @Test
+    public void testSplitEmpty()
+    {
+        final List<ByteBuffer> parts = this.writer.split(
+            new ByteBuffer[] { buffer(0, 0) }, 0, 1,
+            new ArrayList<ByteBuffer>());
+        assertEquals(1, parts.size());
+        assertEquals(0, parts.get(0).remaining());
+    }
+
+    /**
+     * Tests synchronous writing of a message with zero length packet.
+     */
+    @Test
+    public void testWrite()
+    {
+        final ByteBuffer header = buffer(12, 0);
+        final ByteBuffer payload = buffer(500, 0);
+        final long written = this.writer.write(
+            new ByteBuffer[] { header, payload }, true);
+        assertEquals(512, written);
+        assertEquals(12, header.position());
+        assertEquals(500, payload.position());
+        assertEquals(1, this.backend.submitted.size());
+        assertEquals(LibUsb.TRANSFER_ADD_ZERO_PACKET,
+            this.backend.submitted.get(0).flags());
+    }
+
+    /**
+     * Tests that only the last request of a message gets the zero packet
+     * flag.
+     */
+    @Test
+    public void testZeroPacketOnlyOnLastRequest()
+    {
+        this.writer.write(new ByteBuffer[] { buffer(2048, 0) }, true);
+        assertEquals(2, this.backend.submitted.size());
+        assertEquals(0, this.backend.submitted.get(0).flags());
+        assertEquals(LibUsb.TRANSFER_ADD_ZERO_PACKET,
+            this.backend.submitted.get(1).flags());
+    }
+
+    /**
+     * Tests that a failing first submission is reported directly.
+     */
+    @Test
+    public void testSubmitFailure()
+    {
+        this.backend.failSubmitAt = 0;
+        final ByteBuffer payload = buffer(100, 0);
+        try
+        {
+            this.writer.write(new ByteBuffer[] { payload }, false);
+            fail("Expected LibUsbException");
+        }
+        catch (final LibUsbException e)
+        {
+            assertEquals(LibUsb.ERROR_IO, e.getErrorCode());
+        }
+        assertEquals(0, payload.position());
+    }
+
+    /**
+     * Tests the constructor parameter validation.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRequestSize()
+    {
+        new GatheringBulkWriter(this.backend, (byte) 2, 512, 100, 0);
+    }
+}
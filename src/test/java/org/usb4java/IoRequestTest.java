@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link IoRequest} class.
+ *
+ * @author usb4java Team
+ */
+public class IoRequestTest
+{
+    /**
+     * Tests the fill methods.
+     */
+    @Test
+    public void testFill()
+    {
+        final IoRequest request = new IoRequest();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        final Object userData = new Object();
+        request.fillIso((byte) 0x81, buffer, new int[] { 16, 16 }, null,
+            userData, 100);
+        assertEquals(LibUsb.TRANSFER_TYPE_ISOCHRONOUS, request.type());
+        assertEquals(2, request.numIsoPackets());
+        request.fillBulk((byte) 0x82, buffer, null, userData, 200);
+        assertEquals(LibUsb.TRANSFER_TYPE_BULK, request.type());
+        assertEquals((byte) 0x82, request.endpoint());
+        assertEquals(0, request.numIsoPackets());
+        assertEquals(64, request.length());
+        assertEquals(200, request.timeout());
+        assertSame(userData, request.userData());
+        request.fillControl(buffer, null, null, 300);
+        assertEquals(LibUsb.TRANSFER_TYPE_CONTROL, request.type());
+        assertEquals(0, request.endpoint());
+        assertNull(request.userData());
+    }
+
+    /**
+     * Tests the {@link IoRequest#complete(int, int)} method.
+     */
+    @Test
+    public void testComplete()
+    {
+        final IoRequest[] notified = new IoRequest[1];
+        final IoRequest request = new IoRequest();
+        request.setCallback(new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest r)
+            {
+                notified[0] = r;
+            }
+        });
+        request.complete(LibUsb.TRANSFER_COMPLETED, 13);
+        assertSame(request, notified[0]);
+        assertEquals(13, request.actualLength());
+        assertEquals(LibUsb.TRANSFER_COMPLETED, request.status());
+    }
+
+    /**
+     * Tests the {@link IoRequest#resultCode()} method.
+     */
+    @Test
+    public void testResultCode()
+    {
+        final IoRequest request = new IoRequest();
+        final int[][] mapping = new int[][] {
+            { LibUsb.TRANSFER_COMPLETED, LibUsb.SUCCESS },
+            { LibUsb.TRANSFER_TIMED_OUT, LibUsb.ERROR_TIMEOUT },
+            { LibUsb.TRANSFER_STALL, LibUsb.ERROR_PIPE },
+            { LibUsb.TRANSFER_OVERFLOW, LibUsb.ERROR_OVERFLOW },
+            { LibUsb.TRANSFER_NO_DEVICE, LibUsb.ERROR_NO_DEVICE },
+            { LibUsb.TRANSFER_CANCELLED, LibUsb.ERROR_INTERRUPTED },
+            { LibUsb.TRANSFER_ERROR, LibUsb.ERROR_IO } };
+        for (final int[] entry : mapping)
+        {
+            request.complete(entry[0], 0);
+            assertEquals(entry[1], request.resultCode());
+        }
+    }
+}
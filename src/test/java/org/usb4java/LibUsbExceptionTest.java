@@ -6,6 +6,11 @@
 package org.usb4java;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
 
 import org.junit.Test;
 
@@ -26,7 +31,8 @@ public class LibUsbExceptionTest
             new LibUsbException(LibUsb.ERROR_INVALID_PARAM);
         assertEquals(LibUsb.ERROR_INVALID_PARAM, e.getErrorCode());
         assertEquals("USB error 2: Invalid parameter", e.getMessage());
-
+        assertEquals("testConstructorWithCode",
+            e.getStackTrace()[0].getMethodName());
     }
 
     /**
@@ -42,4 +48,72 @@ public class LibUsbExceptionTest
             e.getMessage());
 
     }
+
+    /**
+     * Tests the exceptions without stack trace.
+     */
+    @Test
+    public void testOf()
+    {
+        final LibUsbException e = LibUsbException.of(LibUsb.ERROR_TIMEOUT);
+        assertSame(e.getMessage(),
+            LibUsbException.of(LibUsb.ERROR_TIMEOUT).getMessage());
+        assertNotSame(e, LibUsbException.of(LibUsb.ERROR_OTHER));
+        assertEquals(LibUsb.ERROR_TIMEOUT, e.getErrorCode());
+        assertEquals("USB error 7: Operation timed out", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+        assertNull(e.getCause());
+    }
+
+    /**
+     * Tests that a suppressed exception added to an exception without stack
+     * trace doesn't show up in later exceptions of the same error code.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testOfSuppressed() throws Exception
+    {
+        final Method addSuppressed;
+        try
+        {
+            addSuppressed = Throwable.class.getMethod("addSuppressed",
+                Throwable.class);
+        }
+        catch (final NoSuchMethodException e)
+        {
+            // Java 6 shares the instances because they can't be modified
+            assertSame(LibUsbException.of(LibUsb.ERROR_IO),
+                LibUsbException.of(LibUsb.ERROR_IO));
+            return;
+        }
+        addSuppressed.invoke(LibUsbException.of(LibUsb.ERROR_IO),
+            new Exception());
+        final Method getSuppressed =
+            Throwable.class.getMethod("getSuppressed");
+        assertEquals(0, ((Throwable[]) getSuppressed.invoke(
+            LibUsbException.of(LibUsb.ERROR_IO))).length);
+    }
+
+    /**
+     * Tests that the exceptions without stack trace can't get a cause.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testOfCause()
+    {
+        LibUsbException.of(LibUsb.ERROR_IO).initCause(new Exception());
+    }
+
+    /**
+     * Tests the exceptions without stack trace for unknown error codes.
+     */
+    @Test
+    public void testOfUnknownCode()
+    {
+        final LibUsbException e = LibUsbException.of(-1000);
+        assertNotSame(e, LibUsbException.of(-1000));
+        assertEquals(-1000, e.getErrorCode());
+        assertEquals(0, e.getStackTrace().length);
+    }
 }
@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.usb4java.test.UsbAssume.assumeBenchmarksEnabled;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the {@link NativeScope} class with simulated native resources.
+ *
+ * @author usb4java Team
+ */
+public class NativeScopeTest
+{
+    /**
+     * A simulated native resource.
+     */
+    static final class Resource
+    {
+        // Empty
+    }
+
+    /**
+     * Simulated native free operation recording the freed resources.
+     */
+    static final class Free implements Runnable
+    {
+        /** The freed resources in the order they were freed. */
+        private final List<String> freed;
+
+        /** The name of the resource. */
+        private final String name;
+
+        /**
+         * Constructor.
+         *
+         * @param freed
+         *            The freed resources.
+         * @param name
+         *            The name of the resource.
+         */
+        Free(final List<String> freed, final String name)
+        {
+            this.freed = freed;
+            this.name = name;
+        }
+
+        @Override
+        public void run()
+        {
+            this.freed.add(this.name);
+        }
+    }
+
+    /** The freed resources. */
+    private final List<String> freed = new ArrayList<String>();
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        ResourceTracker.setLeakListener(null);
+        ResourceTracker.disable();
+    }
+
+    /**
+     * Adds a simulated resource to a scope.
+     *
+     * @param scope
+     *            The scope.
+     * @param name
+     *            The name of the resource.
+     * @return The resource.
+     */
+    private Resource add(final NativeScope scope, final String name)
+    {
+        return scope.add(new Resource(), new Free(this.freed, name));
+    }
+
+    /**
+     * Tests that closing a scope frees all resources in reverse allocation
+     * order, including the deferred cleanup operations.
+     */
+    @Test
+    public void testClose()
+    {
+        final NativeScope scope = new NativeScope();
+        this.add(scope, "list");
+        scope.defer(new Free(this.freed, "cleanup"));
+        for (int i = 0; i < 20; i++)
+        {
+            this.add(scope, "config " + i);
+        }
+        assertEquals(22, scope.size());
+
+        scope.close();
+        assertTrue(scope.isClosed());
+        assertEquals(0, scope.size());
+        assertEquals(22, this.freed.size());
+        assertEquals("config 19", this.freed.get(0));
+        assertEquals(Arrays.asList("cleanup", "list"),
+            this.freed.subList(20, 22));
+
+        scope.close();
+        assertEquals(22, this.freed.size());
+    }
+
+    /**
+     * Tests that a scope is tracked as a single resource and unregistered
+     * when it is closed.
+     */
+    @Test
+    public void testTracking()
+    {
+        ResourceTracker.enable(0);
+        final int before = ResourceTracker.getLiveCount(NativeScope.class);
+        final NativeScope scope = new NativeScope();
+        for (int i = 0; i < 5; i++)
+        {
+            this.add(scope, "transfer " + i);
+        }
+        assertEquals(before + 1,
+            ResourceTracker.getLiveCount(NativeScope.class));
+        scope.close();
+        assertEquals(before, ResourceTracker.getLiveCount(NativeScope.class));
+        assertEquals(5, this.freed.size());
+    }
+
+    /**
+     * Tests that a scope which is garbage collected without being closed is
+     * reported, and that its resources are not freed because objects taken
+     * from them may still be in use.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testLeak() throws InterruptedException
+    {
+        ResourceTracker.enable(0);
+        final CountDownLatch reported = new CountDownLatch(1);
+        final List<Class<?>> types = new ArrayList<Class<?>>();
+        ResourceTracker.setLeakListener(new LeakListener()
+        {
+            @Override
+            public void processLeak(final Class<?> type, final long pointer,
+                final Throwable allocationSite)
+            {
+                synchronized (types)
+                {
+                    types.add(type);
+                }
+                reported.countDown();
+            }
+        });
+        final List<String> leaked =
+            Collections.synchronizedList(new ArrayList<String>());
+        NativeScope scope = new NativeScope();
+        scope.add(new Resource(), new Free(leaked, "first"));
+        scope.add(new Resource(), new Free(leaked, "second"));
+        scope = null;
+        for (int i = 0; i < 100 && reported.getCount() > 0; i++)
+        {
+            System.gc();
+            reported.await(50, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, reported.getCount());
+        assertEquals(0, leaked.size());
+        synchronized (types)
+        {
+            assertEquals(Arrays.<Class<?>>asList(NativeScope.class), types);
+        }
+    }
+
+    /**
+     * Tests that all resources are freed when a free operation fails and
+     * that the failure is thrown afterwards.
+     */
+    @Test
+    public void testFailure()
+    {
+        final NativeScope scope = new NativeScope();
+        this.add(scope, "first");
+        final RuntimeException failure = new IllegalStateException();
+        scope.defer(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                throw failure;
+            }
+        });
+        this.add(scope, "last");
+        try
+        {
+            scope.close();
+            fail("Failure not thrown");
+        }
+        catch (final IllegalStateException e)
+        {
+            assertSame(failure, e);
+        }
+        assertEquals(Arrays.asList("last", "first"), this.freed);
+    }
+
+    /**
+     * Tests that resources added to a closed scope are freed immediately.
+     */
+    @Test
+    public void testAddAfterClose()
+    {
+        final NativeScope scope = new NativeScope();
+        scope.close();
+        try
+        {
+            scope.defer(new Free(this.freed, "late"));
+            fail("Closed scope accepted resource");
+        }
+        catch (final IllegalStateException e)
+        {
+            // Expected
+        }
+        assertEquals(Arrays.asList("late"), this.freed);
+    }
+
+    /**
+     * Tests that a null cleanup operation is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeferNull()
+    {
+        new NativeScope().defer(null);
+    }
+
+    /**
+     * Runs one round of the bulk release benchmark.
+     *
+     * @param objects
+     *            The simulated resources.
+     * @param free
+     *            The simulated native free operation.
+     * @param scoped
+     *            True to release the resources with a scope, false to
+     *            release them one by one.
+     * @return The time needed to allocate and release the resources in
+     *         nanoseconds.
+     */
+    private static long releaseRound(final Resource[] objects,
+        final Runnable free, final boolean scoped)
+    {
+        final long start = System.nanoTime();
+        if (scoped)
+        {
+            final NativeScope scope = new NativeScope();
+            for (final Resource object : objects)
+            {
+                scope.add(object, free);
+            }
+            scope.close();
+        }
+        else
+        {
+            // Same as the ResourceTracker allocation and free methods
+            for (int i = 0; i < objects.length; i++)
+            {
+                ResourceTracker.register(objects[i], 0x100000 + i, free);
+            }
+            for (int i = 0; i < objects.length; i++)
+            {
+                ResourceTracker.unregister(0x100000 + i);
+                free.run();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Benchmarks allocating and releasing resources one by one against
+     * releasing them with a scope. Both variants use the same simulated
+     * native free operation and run with and without tracking.
+     */
+    @Test
+    public void benchmarkBulkRelease()
+    {
+        assumeBenchmarksEnabled();
+        final int resources = 10000;
+        final int rounds = 50;
+        final AtomicLong freed = new AtomicLong();
+        final Runnable free = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Simulated native free
+                freed.incrementAndGet();
+            }
+        };
+        final Resource[] objects = new Resource[resources];
+        for (int i = 0; i < resources; i++)
+        {
+            objects[i] = new Resource();
+        }
+        for (final boolean tracking : new boolean[] { false, true })
+        {
+            if (tracking)
+            {
+                ResourceTracker.enable(0);
+            }
+            else
+            {
+                ResourceTracker.disable();
+            }
+
+            // Warm-up
+            for (int round = 0; round < rounds / 5; round++)
+            {
+                releaseRound(objects, free, false);
+                releaseRound(objects, free, true);
+            }
+            long individual = 0;
+            long bulk = 0;
+            freed.set(0);
+            for (int round = 0; round < rounds; round++)
+            {
+                individual += releaseRound(objects, free, false);
+                bulk += releaseRound(objects, free, true);
+            }
+            assertEquals(2L * resources * rounds, freed.get());
+            final double total = (double) resources * rounds;
+            System.out.println(String.format(
+                "NativeScope: tracking %b: individual %.1f ns/resource, "
+                    + "bulk %.1f ns/resource, speedup %.2f", tracking,
+                individual / total, bulk / total,
+                (double) individual / bulk));
+        }
+    }
+}
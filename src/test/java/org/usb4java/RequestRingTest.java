@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link RequestRing} class.
+ *
+ * @author usb4java Team
+ */
+public class RequestRingTest
+{
+    /** The endpoint of the requests. */
+    private static final byte ENDPOINT = (byte) 0x81;
+
+    /**
+     * Handler recording the processed requests.
+     */
+    static final class Recorder implements RequestRing.Handler
+    {
+        /** The number of prepared requests. */
+        final AtomicInteger prepared = new AtomicInteger();
+
+        /** The number of completed requests. */
+        final AtomicInteger completed = new AtomicInteger();
+
+        /** The results of the failed requests. */
+        final List<Integer> failed = new ArrayList<Integer>();
+
+        @Override
+        public void prepare(final IoRequest request)
+        {
+            this.prepared.incrementAndGet();
+        }
+
+        @Override
+        public void completed(final IoRequest request)
+        {
+            this.completed.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void failed(final IoRequest request,
+            final int result)
+        {
+            this.failed.add(Integer.valueOf(result));
+        }
+
+        /**
+         * Returns the results of the failed requests.
+         *
+         * @return The results.
+         */
+        synchronized List<Integer> getFailed()
+        {
+            return new ArrayList<Integer>(this.failed);
+        }
+    }
+
+    /** Device handler which never completes a request. */
+    private static final BackendMock.Handler STUCK = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            // Completed by cancellation only
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The recording handler. */
+    private final Recorder recorder = new Recorder();
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        if (this.backend != null)
+        {
+            this.backend.shutdown();
+        }
+    }
+
+    /**
+     * Creates interrupt requests with the ring as callback.
+     *
+     * @param ring
+     *            The ring.
+     * @param count
+     *            The number of requests.
+     * @return The requests.
+     */
+    private static IoRequest[] requests(final RequestRing ring,
+        final int count)
+    {
+        final IoRequest[] requests = new IoRequest[count];
+        for (int i = 0; i < count; i++)
+        {
+            requests[i] = new IoRequest();
+            requests[i].fillInterrupt(ENDPOINT,
+                BufferUtils.allocateByteBuffer(8), ring, null, 0);
+        }
+        return requests;
+    }
+
+    /**
+     * Tests that finished requests are resubmitted until the ring is
+     * stopped, and that no request is in flight after stopping.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testResubmit() throws InterruptedException
+    {
+        this.backend = new BackendMock();
+        final RequestRing ring = new RequestRing(this.backend, this.recorder);
+        assertEquals(LibUsb.SUCCESS, ring.start(requests(ring, 3)));
+        assertTrue(ring.isRunning());
+        while (this.recorder.completed.get() < 100)
+        {
+            Thread.sleep(1);
+        }
+        ring.stop();
+        assertFalse(ring.isRunning());
+        assertFalse(ring.isStarted());
+        assertEquals(0, this.backend.getPendingCount());
+        final int completed = this.recorder.completed.get();
+        Thread.sleep(20);
+        assertEquals(completed, this.recorder.completed.get());
+    }
+
+    /**
+     * Tests that stopping waits for the cancelled requests, so the ring can
+     * be started again right away without submitting a request twice.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testRestart() throws InterruptedException
+    {
+        this.backend = new BackendMock(STUCK);
+        final RequestRing ring = new RequestRing(this.backend, this.recorder);
+        final IoRequest[] requests = requests(ring, 4);
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(LibUsb.SUCCESS, ring.start(requests));
+            assertEquals(4, this.backend.getPendingCount());
+            ring.stop();
+            assertEquals(0, this.backend.getPendingCount());
+        }
+        assertEquals(12, this.recorder.prepared.get());
+        assertEquals(12, this.recorder.getFailed().size());
+        for (final Integer result : this.recorder.getFailed())
+        {
+            assertEquals(LibUsb.ERROR_INTERRUPTED, result.intValue());
+        }
+    }
+
+    /**
+     * Tests that the submitted requests are cancelled when a request can't
+     * be submitted.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testStartFailure() throws InterruptedException
+    {
+        this.backend = new BackendMock(STUCK);
+        this.backend.failSubmitAt = 2;
+        final RequestRing ring = new RequestRing(this.backend, this.recorder);
+        final IoRequest[] requests = requests(ring, 4);
+        assertEquals(LibUsb.ERROR_IO, ring.start(requests));
+        assertFalse(ring.isStarted());
+        assertFalse(ring.isRunning());
+        assertEquals(0, this.backend.getPendingCount());
+        assertEquals(3, this.recorder.getFailed().size());
+        assertEquals(LibUsb.ERROR_IO,
+            this.recorder.getFailed().get(0).intValue());
+
+        assertEquals(LibUsb.SUCCESS, ring.start(requests));
+        ring.stop();
+    }
+
+    /**
+     * Tests that the ring stops by itself when the device is gone.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testNoDevice() throws InterruptedException
+    {
+        this.backend = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock,
+                final IoRequest request)
+            {
+                mock.complete(request, LibUsb.TRANSFER_NO_DEVICE, 0);
+            }
+        });
+        final RequestRing ring = new RequestRing(this.backend, this.recorder);
+        assertEquals(LibUsb.SUCCESS, ring.start(requests(ring, 2)));
+        while (ring.isRunning())
+        {
+            Thread.sleep(1);
+        }
+        assertTrue(ring.isStarted());
+        ring.stop();
+        assertEquals(2, this.recorder.prepared.get());
+        assertEquals(0, this.recorder.completed.get());
+        assertTrue(this.recorder.getFailed().contains(
+            Integer.valueOf(LibUsb.ERROR_NO_DEVICE)));
+    }
+
+    /**
+     * Tests that the ring stops by itself when too many requests in a row
+     * failed instead of resubmitting them forever.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testConsecutiveErrors() throws InterruptedException
+    {
+        this.backend = new BackendMock(new BackendMock.Handler()
+        {
+            @Override
+            public void handle(final BackendMock mock,
+                final IoRequest request)
+            {
+                mock.complete(request, LibUsb.TRANSFER_ERROR, 0);
+            }
+        });
+        final RequestRing ring = new RequestRing(this.backend, this.recorder);
+        assertEquals(LibUsb.SUCCESS, ring.start(requests(ring, 1)));
+        while (ring.isRunning())
+        {
+            Thread.sleep(1);
+        }
+        ring.stop();
+        assertEquals(RequestRing.MAX_CONSECUTIVE_ERRORS,
+            this.recorder.getFailed().size());
+        assertEquals(RequestRing.MAX_CONSECUTIVE_ERRORS,
+            this.backend.submitted.size());
+        assertEquals(0, this.backend.getPendingCount());
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ResourceTracker} class with simulated native resources.
+ *
+ * @author usb4java Team
+ */
+public class ResourceTrackerTest
+{
+    /**
+     * A simulated native resource.
+     */
+    static final class Resource
+    {
+        // Empty
+    }
+
+    /**
+     * Simulated native free operation counting the calls.
+     */
+    static final class Free implements Runnable
+    {
+        /** The number of calls. */
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void run()
+        {
+            this.calls.incrementAndGet();
+        }
+    }
+
+    /** The next simulated native pointer. */
+    private static long nextPointer = 0x10000;
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        ResourceTracker.setLeakListener(null);
+        ResourceTracker.disable();
+    }
+
+    /**
+     * Registers a simulated resource.
+     *
+     * @param resource
+     *            The resource object.
+     * @param free
+     *            The simulated free operation.
+     * @return The native pointer of the resource.
+     */
+    private static synchronized long register(final Object resource,
+        final Runnable free)
+    {
+        final long pointer = nextPointer++;
+        ResourceTracker.register(resource, pointer, free);
+        return pointer;
+    }
+
+    /**
+     * Runs the garbage collector until the condition is met.
+     *
+     * @param latch
+     *            The condition.
+     * @return True if the condition is met.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private static boolean collect(final CountDownLatch latch)
+        throws InterruptedException
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            System.gc();
+            if (latch.await(50, TimeUnit.MILLISECONDS))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests that freed resources are not reported and that the live counts
+     * follow the allocations.
+     */
+    @Test
+    public void testLiveCounts()
+    {
+        ResourceTracker.enable(0);
+        final Free free = new Free();
+        final List<Resource> resources = new ArrayList<Resource>();
+        final List<Long> pointers = new ArrayList<Long>();
+        final int before = ResourceTracker.getLiveCount(Resource.class);
+        for (int i = 0; i < 3; i++)
+        {
+            final Resource resource = new Resource();
+            resources.add(resource);
+            pointers.add(Long.valueOf(register(resource, free)));
+        }
+        assertEquals(before + 3, ResourceTracker.getLiveCount(Resource.class));
+        assertEquals(Integer.valueOf(before + 3),
+            ResourceTracker.getLiveCounts().get(Resource.class));
+
+        ResourceTracker.unregister(pointers.get(0).longValue());
+        ResourceTracker.unregister(pointers.get(0).longValue());
+        assertEquals(before + 2, ResourceTracker.getLiveCount(Resource.class));
+        ResourceTracker.unregister(pointers.get(1).longValue());
+        ResourceTracker.unregister(pointers.get(2).longValue());
+        assertEquals(before, ResourceTracker.getLiveCount(Resource.class));
+        assertEquals(0, free.calls.get());
+
+        // Keeps the resources reachable until here
+        assertEquals(3, resources.size());
+    }
+
+    /**
+     * Tests that nothing is registered while tracking is disabled.
+     */
+    @Test
+    public void testDisabled()
+    {
+        assertFalse(ResourceTracker.isEnabled());
+        final Resource resource = new Resource();
+        final int before = ResourceTracker.getLiveCount(Resource.class);
+        register(resource, new Free());
+        assertEquals(before, ResourceTracker.getLiveCount(Resource.class));
+    }
+
+    /**
+     * Tests that a collected resource which has not been freed is freed by
+     * the tracker and reported with its allocation site.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testLeak() throws InterruptedException
+    {
+        ResourceTracker.enable(1);
+        final CountDownLatch reported = new CountDownLatch(1);
+        final List<Object[]> leaks = new ArrayList<Object[]>();
+        ResourceTracker.setLeakListener(new LeakListener()
+        {
+            @Override
+            public void processLeak(final Class<?> type, final long pointer,
+                final Throwable allocationSite)
+            {
+                synchronized (leaks)
+                {
+                    leaks.add(new Object[] { type, Long.valueOf(pointer),
+                        allocationSite });
+                }
+                reported.countDown();
+            }
+        });
+        final Free free = new Free();
+        final long leakCount = ResourceTracker.getLeakCount();
+        final long pointer = register(new Resource(), free);
+
+        assertTrue(collect(reported));
+        assertEquals(1, free.calls.get());
+        assertEquals(leakCount + 1, ResourceTracker.getLeakCount());
+        synchronized (leaks)
+        {
+            assertEquals(1, leaks.size());
+            assertEquals(Resource.class, leaks.get(0)[0]);
+            assertEquals(Long.valueOf(pointer), leaks.get(0)[1]);
+            final Throwable site = (Throwable) leaks.get(0)[2];
+            assertNotNull(site);
+            assertEquals("register",
+                site.getStackTrace()[0].getMethodName());
+        }
+    }
+
+    /**
+     * Tests that leaked resources without free operation are only reported.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testReportOnly() throws InterruptedException
+    {
+        ResourceTracker.enable(0);
+        final CountDownLatch reported = new CountDownLatch(1);
+        final AtomicInteger leaks = new AtomicInteger();
+        ResourceTracker.setLeakListener(new LeakListener()
+        {
+            @Override
+            public void processLeak(final Class<?> type, final long pointer,
+                final Throwable allocationSite)
+            {
+                leaks.incrementAndGet();
+                reported.countDown();
+            }
+        });
+        final long leakCount = ResourceTracker.getLeakCount();
+        register(new Resource(), null);
+        assertTrue(collect(reported));
+        assertEquals(1, leaks.get());
+        assertEquals(leakCount + 1, ResourceTracker.getLeakCount());
+    }
+
+    /**
+     * Tests that only every n-th allocation records its allocation site.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testSampling() throws InterruptedException
+    {
+        ResourceTracker.enable(1000000);
+        final CountDownLatch reported = new CountDownLatch(10);
+        final AtomicInteger sampled = new AtomicInteger();
+        ResourceTracker.setLeakListener(new LeakListener()
+        {
+            @Override
+            public void processLeak(final Class<?> type, final long pointer,
+                final Throwable allocationSite)
+            {
+                if (allocationSite != null)
+                {
+                    sampled.incrementAndGet();
+                }
+                reported.countDown();
+            }
+        });
+        final Free free = new Free();
+        for (int i = 0; i < 10; i++)
+        {
+            register(new Resource(), free);
+        }
+        assertTrue(collect(reported));
+        assertEquals(10, free.calls.get());
+        assertTrue(sampled.get() <= 1);
+    }
+
+    /**
+     * Tests that resources freed before they are collected are not freed
+     * again.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testFreedNotReported() throws InterruptedException
+    {
+        ResourceTracker.enable(0);
+        final Free free = new Free();
+        final AtomicInteger reported = new AtomicInteger();
+        ResourceTracker.setLeakListener(new LeakListener()
+        {
+            @Override
+            public void processLeak(final Class<?> type, final long pointer,
+                final Throwable allocationSite)
+            {
+                reported.incrementAndGet();
+            }
+        });
+        ResourceTracker.unregister(register(new Resource(), free));
+        for (int i = 0; i < 5; i++)
+        {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, free.calls.get());
+        assertEquals(0, reported.get());
+        assertNull(ResourceTracker.getLiveCounts().get(Resource.class));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ShardRouter} class.
+ *
+ * @author usb4java Team
+ */
+public class ShardRouterTest
+{
+    /**
+     * Tests that keys are spread evenly over the shards.
+     */
+    @Test
+    public void testBalance()
+    {
+        final ShardRouter router = new ShardRouter(4);
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals(i % 4, router.acquire("device" + i));
+        }
+        assertEquals(3, router.getLoad(0));
+        assertEquals(3, router.getLoad(1));
+        assertEquals(2, router.getLoad(2));
+        assertEquals(2, router.getLoad(3));
+    }
+
+    /**
+     * Tests that a key stays in its shard until fully released.
+     */
+    @Test
+    public void testSticky()
+    {
+        final ShardRouter router = new ShardRouter(2);
+        assertEquals(0, router.acquire("a"));
+        assertEquals(1, router.acquire("b"));
+        assertEquals(0, router.acquire("a"));
+        assertEquals(1, router.getLoad(0));
+
+        router.release("a");
+        assertEquals(0, router.getShard("a"));
+        router.release("a");
+        assertEquals(-1, router.getShard("a"));
+        assertEquals(0, router.getLoad(0));
+
+        // Released shard is least loaded again
+        assertEquals(0, router.acquire("c"));
+    }
+
+    /**
+     * Tests releasing an unknown key.
+     */
+    @Test
+    public void testReleaseUnknown()
+    {
+        final ShardRouter router = new ShardRouter(1);
+        router.release("unknown");
+        assertEquals(0, router.getLoad(0));
+    }
+
+    /**
+     * Tests creating a router without shards.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoShards()
+    {
+        new ShardRouter(0);
+    }
+}
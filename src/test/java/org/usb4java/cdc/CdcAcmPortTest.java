@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.cdc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.usb4java.test.UsbAssume.assumeBenchmarksEnabled;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link CdcAcmPort} class against a simulated loopback device.
+ *
+ * @author usb4java Team
+ */
+public class CdcAcmPortTest
+{
+    /** The bulk IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /** The bulk OUT endpoint. */
+    private static final byte OUT = 0x01;
+
+    /** The data looped back by the simulated device. */
+    final Queue<Byte> loop = new ArrayDeque<Byte>();
+
+    /** The flags of the OUT requests received by the simulated device. */
+    final List<Byte> outFlags =
+        Collections.synchronizedList(new ArrayList<Byte>());
+
+    /** The pending IN requests of the simulated device. */
+    final Queue<IoRequest> pendingIn = new ArrayDeque<IoRequest>();
+
+    /** The line coding of the simulated device. */
+    final byte[] lineCoding = new byte[LineCoding.SIZE];
+
+    /** The control line state of the simulated device. */
+    volatile int controlLineState;
+
+    /** The simulated loopback device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            CdcAcmPortTest.this.process(mock, request);
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The port to test. */
+    private CdcAcmPort port;
+
+    /**
+     * Processes a request in the simulated device.
+     *
+     * @param mock
+     *            The backend mock.
+     * @param request
+     *            The request.
+     */
+    void process(final BackendMock mock, final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer().duplicate();
+        if (request.type() == LibUsb.TRANSFER_TYPE_CONTROL)
+        {
+            final byte bRequest = buffer.get(1);
+            int length = 0;
+            if (bRequest == CdcAcmPort.SET_LINE_CODING)
+            {
+                for (int i = 0; i < LineCoding.SIZE; i++)
+                {
+                    this.lineCoding[i] = buffer.get(
+                        LibUsb.CONTROL_SETUP_SIZE + i);
+                }
+                length = LineCoding.SIZE;
+            }
+            else if (bRequest == CdcAcmPort.GET_LINE_CODING)
+            {
+                for (int i = 0; i < LineCoding.SIZE; i++)
+                {
+                    buffer.put(LibUsb.CONTROL_SETUP_SIZE + i,
+                        this.lineCoding[i]);
+                }
+                length = LineCoding.SIZE;
+            }
+            else if (bRequest == CdcAcmPort.SET_CONTROL_LINE_STATE)
+            {
+                this.controlLineState = buffer.get(2) & 0xff;
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            return;
+        }
+        if (request.endpoint() == OUT)
+        {
+            this.outFlags.add(Byte.valueOf(request.flags()));
+            final int length = buffer.remaining();
+            while (buffer.hasRemaining())
+            {
+                this.loop.add(buffer.get());
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+        }
+        else
+        {
+            this.pendingIn.add(request);
+        }
+
+        // Loop back the data
+        while (!this.loop.isEmpty() && !this.pendingIn.isEmpty())
+        {
+            final IoRequest in = this.pendingIn.poll();
+            final ByteBuffer dst = in.buffer().duplicate();
+            int length = 0;
+            while (dst.hasRemaining() && !this.loop.isEmpty())
+            {
+                dst.put(this.loop.poll());
+                length++;
+            }
+            mock.complete(in, LibUsb.TRANSFER_COMPLETED, length);
+        }
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.port = new CdcAcmPort(this.backend, 0, IN, OUT, 64, 512, 4,
+            1000);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.port.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests the line coding and control line requests.
+     */
+    @Test
+    public void testControl()
+    {
+        this.port.setLineCoding(new LineCoding(115200, 8,
+            LineCoding.PARITY_EVEN, LineCoding.STOP_BITS_2));
+        final LineCoding coding = this.port.getLineCoding();
+        assertEquals(115200, coding.getBaudRate());
+        assertEquals(8, coding.getDataBits());
+        assertEquals(LineCoding.PARITY_EVEN, coding.getParity());
+        assertEquals(LineCoding.STOP_BITS_2, coding.getStopBits());
+        this.port.setControlLineState(true, false);
+        assertEquals(CdcAcmPort.CONTROL_DTR, this.controlLineState);
+    }
+
+    /**
+     * Tests streaming more data than fits into the rings.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testStreams() throws IOException
+    {
+        final byte[] data = new byte[10000];
+        new Random(1).nextBytes(data);
+        final OutputStream out = this.port.getOutputStream();
+        final InputStream in = this.port.getInputStream();
+        final byte[] received = new byte[data.length];
+        int offset = 0;
+        for (int i = 0; i < data.length; i += 1000)
+        {
+            out.write(data, i, 1000);
+            out.flush();
+            while (offset < i + 1000)
+            {
+                offset += in.read(received, offset, i + 1000 - offset);
+            }
+        }
+        assertArrayEquals(data, received);
+        assertEquals(data.length, this.port.getReadBytes());
+        assertEquals(data.length, this.port.getWrittenBytes());
+        assertEquals(0, this.port.available());
+    }
+
+    /**
+     * Tests the read timeout.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testReadTimeout() throws IOException
+    {
+        this.port.setReadTimeout(20);
+        try
+        {
+            this.port.read(ByteBuffer.allocate(1));
+            fail("Read should time out");
+        }
+        catch (final InterruptedIOException e)
+        {
+            // Expected
+        }
+    }
+
+    /**
+     * Tests that only the last request of a packet aligned write gets the
+     * zero packet flag, and that unaligned writes get none.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testZeroPacketOnlyOnLastChunk() throws IOException
+    {
+        this.port.write(ByteBuffer.allocate(3 * 512));
+        this.port.write(ByteBuffer.allocate(600));
+        this.port.flush();
+        final List<Byte> flags = this.outFlags;
+        assertEquals(5, flags.size());
+        assertEquals(0, flags.get(0).byteValue());
+        assertEquals(0, flags.get(1).byteValue());
+        assertEquals(LibUsb.TRANSFER_ADD_ZERO_PACKET, flags.get(2).byteValue());
+        assertEquals(0, flags.get(3).byteValue());
+        assertEquals(0, flags.get(4).byteValue());
+    }
+
+    /**
+     * Tests echoing single bytes through the loopback device.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testEcho() throws IOException
+    {
+        this.port.start();
+        final ByteBuffer tx = ByteBuffer.allocate(1);
+        final ByteBuffer rx = ByteBuffer.allocate(1);
+        for (int i = 0; i < 300; i++)
+        {
+            tx.clear();
+            tx.put(0, (byte) i);
+            this.port.write(tx);
+            rx.clear();
+            assertEquals(1, this.port.read(rx));
+            assertEquals((byte) i, rx.get(0));
+        }
+    }
+
+    /**
+     * Measures the round trip latency of single bytes through the loopback
+     * device.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void benchmarkLatency() throws IOException
+    {
+        assumeBenchmarksEnabled();
+        this.port.start();
+        final ByteBuffer tx = ByteBuffer.allocate(1);
+        final ByteBuffer rx = ByteBuffer.allocate(1);
+        final int rounds = 10000;
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++)
+        {
+            tx.clear();
+            tx.put(0, (byte) i);
+            this.port.write(tx);
+            rx.clear();
+            this.port.read(rx);
+        }
+        final long latency = (System.nanoTime() - start) / rounds;
+        System.out.println(String.format(
+            "CdcAcmPort: Round trip latency %d ns", latency));
+    }
+}
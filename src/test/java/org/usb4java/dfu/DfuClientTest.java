@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.dfu;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link DfuClient} class against a simulated DFU device.
+ *
+ * @author usb4java Team
+ */
+public class DfuClientTest
+{
+    /** The transfer size of the simulated device. */
+    private static final int TRANSFER_SIZE = 64;
+
+    /** The poll timeout reported by the simulated device in milliseconds. */
+    private static final int POLL_TIMEOUT = 3;
+
+    /** The memory of the simulated device. */
+    final byte[] memory = new byte[4096];
+
+    /** The number of bytes in memory. */
+    int memoryLength;
+
+    /** The state of the simulated device. */
+    int state = DfuStatus.STATE_DFU_IDLE;
+
+    /** The status of the simulated device. */
+    int status = DfuStatus.OK;
+
+    /** The expected number of the next downloaded block. */
+    int nextBlock;
+
+    /** The time the current poll timeout expires. */
+    long pollDeadline;
+
+    /** The block number at which programming fails. -1 for never. */
+    volatile int failAtBlock = -1;
+
+    /** The number of status requests received before the poll timeout. */
+    volatile int earlyPolls;
+
+    /** Set when the device has been manifested. */
+    volatile boolean manifested;
+
+    /** The received request numbers in order. */
+    final List<Byte> received =
+        Collections.synchronizedList(new ArrayList<Byte>());
+
+    /** The simulated DFU device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final ByteBuffer buffer = request.buffer().duplicate()
+                .order(ByteOrder.LITTLE_ENDIAN);
+            final byte bRequest = buffer.get(1);
+            final int value = buffer.getShort(2) & 0xffff;
+            final int length = buffer.getShort(6) & 0xffff;
+            final int result = DfuClientTest.this.process(bRequest, value,
+                buffer, length);
+            if (result < 0)
+            {
+                mock.complete(request, LibUsb.TRANSFER_STALL, 0);
+            }
+            else
+            {
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, result);
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The client to test. */
+    private DfuClient client;
+
+    /**
+     * Processes a DFU request in the simulated device.
+     *
+     * @param bRequest
+     *            The request.
+     * @param value
+     *            The value of the setup packet.
+     * @param buffer
+     *            The request buffer including the setup packet.
+     * @param length
+     *            The length of the data stage.
+     * @return The number of transferred bytes or -1 to stall.
+     */
+    int process(final byte bRequest, final int value, final ByteBuffer buffer,
+        final int length)
+    {
+        final int data = LibUsb.CONTROL_SETUP_SIZE;
+        this.received.add(bRequest);
+        switch (bRequest)
+        {
+            case DfuClient.DFU_DNLOAD:
+                if ((this.state != DfuStatus.STATE_DFU_IDLE
+                    && this.state != DfuStatus.STATE_DFU_DNLOAD_IDLE)
+                    || value != this.nextBlock)
+                {
+                    return this.stall();
+                }
+                if (length == 0)
+                {
+                    this.state = DfuStatus.STATE_DFU_MANIFEST_SYNC;
+                    return 0;
+                }
+                for (int i = 0; i < length; i++)
+                {
+                    this.memory[this.memoryLength++] = buffer.get(data + i);
+                }
+                this.nextBlock++;
+                this.state = DfuStatus.STATE_DFU_DNLOAD_SYNC;
+                return length;
+
+            case DfuClient.DFU_GETSTATUS:
+                int pollTimeout = 0;
+                final long now = System.nanoTime();
+                if (this.state == DfuStatus.STATE_DFU_DNBUSY
+                    || this.state == DfuStatus.STATE_DFU_MANIFEST)
+                {
+                    if (now < this.pollDeadline)
+                    {
+                        this.earlyPolls++;
+                    }
+                }
+                if (this.state == DfuStatus.STATE_DFU_DNLOAD_SYNC)
+                {
+                    this.state = DfuStatus.STATE_DFU_DNBUSY;
+                    pollTimeout = POLL_TIMEOUT;
+                }
+                else if (this.state == DfuStatus.STATE_DFU_DNBUSY)
+                {
+                    if (this.nextBlock - 1 == this.failAtBlock)
+                    {
+                        this.status = DfuStatus.ERR_WRITE;
+                        this.state = DfuStatus.STATE_DFU_ERROR;
+                    }
+                    else
+                    {
+                        this.state = DfuStatus.STATE_DFU_DNLOAD_IDLE;
+                    }
+                }
+                else if (this.state == DfuStatus.STATE_DFU_MANIFEST_SYNC)
+                {
+                    this.state = DfuStatus.STATE_DFU_MANIFEST;
+                    pollTimeout = POLL_TIMEOUT;
+                }
+                else if (this.state == DfuStatus.STATE_DFU_MANIFEST)
+                {
+                    this.manifested = true;
+                    this.nextBlock = 0;
+                    this.state = DfuStatus.STATE_DFU_IDLE;
+                }
+                this.pollDeadline = now
+                    + TimeUnit.MILLISECONDS.toNanos(pollTimeout);
+                buffer.put(data, (byte) this.status);
+                buffer.put(data + 1, (byte) pollTimeout);
+                buffer.put(data + 2, (byte) (pollTimeout >> 8));
+                buffer.put(data + 3, (byte) (pollTimeout >> 16));
+                buffer.put(data + 4, (byte) this.state);
+                buffer.put(data + 5, (byte) 0);
+                return DfuStatus.SIZE;
+
+            case DfuClient.DFU_GETSTATE:
+                buffer.put(data, (byte) this.state);
+                return 1;
+
+            case DfuClient.DFU_CLRSTATUS:
+                if (this.state != DfuStatus.STATE_DFU_ERROR)
+                {
+                    return this.stall();
+                }
+                this.status = DfuStatus.OK;
+                this.state = DfuStatus.STATE_DFU_IDLE;
+                this.nextBlock = 0;
+                return 0;
+
+            case DfuClient.DFU_ABORT:
+                this.state = DfuStatus.STATE_DFU_IDLE;
+                this.nextBlock = 0;
+                return 0;
+
+            case DfuClient.DFU_UPLOAD:
+                final int offset = value * TRANSFER_SIZE;
+                final int count = Math.max(0, Math.min(length,
+                    this.memoryLength - offset));
+                for (int i = 0; i < count; i++)
+                {
+                    buffer.put(data + i, this.memory[offset + i]);
+                }
+                this.state = count < length ? DfuStatus.STATE_DFU_IDLE
+                    : DfuStatus.STATE_DFU_UPLOAD_IDLE;
+                return count;
+
+            default:
+                return this.stall();
+        }
+    }
+
+    /**
+     * Moves the simulated device into the error state.
+     *
+     * @return -1 to stall the request.
+     */
+    private int stall()
+    {
+        this.status = DfuStatus.ERR_STALLEDPKT;
+        this.state = DfuStatus.STATE_DFU_ERROR;
+        return -1;
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.client = new DfuClient(this.backend, 0,
+            new DfuFunctionalDescriptor(DfuFunctionalDescriptor.ATTR_CAN_DNLOAD
+                | DfuFunctionalDescriptor.ATTR_CAN_UPLOAD
+                | DfuFunctionalDescriptor.ATTR_MANIFESTATION_TOLERANT, 1000,
+                TRANSFER_SIZE, 0x0110), 1000);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.client.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates random firmware.
+     *
+     * @param size
+     *            The size of the firmware.
+     * @return The firmware.
+     */
+    private static byte[] createFirmware(final int size)
+    {
+        final byte[] firmware = new byte[size];
+        new Random(1).nextBytes(firmware);
+        return firmware;
+    }
+
+    /**
+     * Tests a complete download.
+     *
+     * @throws IOException
+     *             When download fails.
+     */
+    @Test
+    public void testDownload() throws IOException
+    {
+        final byte[] firmware = createFirmware(1000);
+        this.client.download(firmware);
+        assertTrue(this.manifested);
+        assertEquals(firmware.length, this.memoryLength);
+        for (int i = 0; i < firmware.length; i++)
+        {
+            assertEquals(firmware[i], this.memory[i]);
+        }
+        assertEquals(1000, this.client.getDownloadedBytes());
+        assertEquals(16, this.client.getDownloadedBlocks());
+        assertTrue(this.client.getDownloadRate() > 0);
+        assertEquals(0, this.earlyPolls);
+        assertTrue(this.client.getPollWaitTime() > 0);
+    }
+
+    /**
+     * Tests that each DFU_DNLOAD request is queued together with the
+     * following DFU_GETSTATUS request.
+     *
+     * @throws IOException
+     *             When download fails.
+     */
+    @Test
+    public void testStatusFollowsBlock() throws IOException
+    {
+        this.client.download(createFirmware(200));
+        int blocks = 0;
+        for (int i = 0; i < this.received.size(); i++)
+        {
+            if (this.received.get(i) == DfuClient.DFU_DNLOAD)
+            {
+                assertEquals(DfuClient.DFU_GETSTATUS,
+                    (byte) this.received.get(i + 1));
+                blocks++;
+            }
+        }
+
+        // Four data blocks and the final empty block
+        assertEquals(5, blocks);
+    }
+
+    /**
+     * Tests that a programming error is reported.
+     *
+     * @throws IOException
+     *             When download fails.
+     */
+    @Test
+    public void testDownloadError() throws IOException
+    {
+        this.failAtBlock = 2;
+        try
+        {
+            this.client.download(createFirmware(1000));
+            fail("Download should fail");
+        }
+        catch (final DfuException e)
+        {
+            assertEquals(DfuStatus.ERR_WRITE, e.getStatus());
+            assertEquals(DfuStatus.STATE_DFU_ERROR, e.getState());
+        }
+        assertEquals(2, this.client.getDownloadedBlocks());
+
+        // The next download clears the error
+        this.failAtBlock = -1;
+        this.memoryLength = 0;
+        this.client.download(createFirmware(100));
+        assertEquals(100, this.memoryLength);
+    }
+
+    /**
+     * Tests uploading the firmware.
+     *
+     * @throws IOException
+     *             When upload fails.
+     */
+    @Test
+    public void testUpload() throws IOException
+    {
+        final byte[] firmware = createFirmware(300);
+        System.arraycopy(firmware, 0, this.memory, 0, firmware.length);
+        this.memoryLength = firmware.length;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(300, this.client.upload(out));
+        assertArrayEquals(firmware, out.toByteArray());
+        assertEquals(DfuStatus.STATE_DFU_IDLE, this.client.getState());
+    }
+
+    /**
+     * Tests clearing an error status.
+     */
+    @Test
+    public void testClearStatus()
+    {
+        this.stall();
+        assertEquals(DfuStatus.STATE_DFU_ERROR, this.client.getState());
+        final DfuStatus status = this.client.getStatus();
+        assertEquals(DfuStatus.ERR_STALLEDPKT, status.getStatus());
+        this.client.clearStatus();
+        assertEquals(DfuStatus.STATE_DFU_IDLE, this.client.getState());
+    }
+}
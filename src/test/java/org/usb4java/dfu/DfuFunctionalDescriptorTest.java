@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.dfu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link DfuFunctionalDescriptor} class.
+ *
+ * @author usb4java Team
+ */
+public class DfuFunctionalDescriptorTest
+{
+    /**
+     * Creates a buffer with an unrelated descriptor followed by a DFU
+     * functional descriptor.
+     *
+     * @param transferSize
+     *            The wTransferSize field.
+     * @return The descriptors.
+     */
+    private static ByteBuffer descriptors(final int transferSize)
+    {
+        return ByteBuffer.wrap(new byte[] {
+            3, 0x24, 0,
+            9, DfuFunctionalDescriptor.DESCRIPTOR_TYPE, 0x0b,
+            (byte) 0xe8, 0x03, (byte) transferSize, (byte) (transferSize >> 8),
+            0x10, 0x01 });
+    }
+
+    /**
+     * Tests finding the descriptor.
+     */
+    @Test
+    public void testFind()
+    {
+        final DfuFunctionalDescriptor descriptor =
+            DfuFunctionalDescriptor.find(descriptors(2048));
+        assertEquals(0x0b, descriptor.getAttributes());
+        assertEquals(1000, descriptor.getDetachTimeout());
+        assertEquals(2048, descriptor.getTransferSize());
+        assertEquals(0x0110, descriptor.getDfuVersion());
+    }
+
+    /**
+     * Tests that a descriptor with a transfer size of 0 is treated as not
+     * found instead of throwing an exception.
+     */
+    @Test
+    public void testFindZeroTransferSize()
+    {
+        assertNull(DfuFunctionalDescriptor.find(descriptors(0)));
+    }
+
+    /**
+     * Tests that truncated descriptors are ignored.
+     */
+    @Test
+    public void testFindTruncated()
+    {
+        final ByteBuffer extra = descriptors(2048);
+        extra.limit(8);
+        assertNull(DfuFunctionalDescriptor.find(extra));
+    }
+}
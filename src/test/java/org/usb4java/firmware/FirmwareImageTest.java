@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.firmware;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link FirmwareImage} class.
+ *
+ * @author usb4java Team
+ */
+public class FirmwareImageTest
+{
+    /**
+     * Builds an Intel HEX record with correct checksum.
+     *
+     * @param type
+     *            The record type.
+     * @param address
+     *            The 16 bit address.
+     * @param data
+     *            The data bytes.
+     * @return The record line.
+     */
+    static String record(final int type, final int address,
+        final int... data)
+    {
+        final StringBuilder builder = new StringBuilder(":");
+        int sum = data.length + (address >> 8) + address + type;
+        builder.append(String.format("%02X%04X%02X", data.length,
+            address & 0xffff, type));
+        for (final int value : data)
+        {
+            builder.append(String.format("%02X", value & 0xff));
+            sum += value;
+        }
+        builder.append(String.format("%02X", -sum & 0xff));
+        return builder.append("\n").toString();
+    }
+
+    /**
+     * Returns a stream reading the specified text.
+     *
+     * @param text
+     *            The text.
+     * @return The stream.
+     */
+    static InputStream stream(final String text)
+    {
+        return new ByteArrayInputStream(text.getBytes());
+    }
+
+    /**
+     * Tests that adjacent records are merged into segments.
+     *
+     * @throws IOException
+     *             When parsing fails.
+     */
+    @Test
+    public void testMerge() throws IOException
+    {
+        final FirmwareImage image = FirmwareImage.readHex(stream(
+            record(0, 0x0004, 5, 6, 7)
+            + record(0, 0x0000, 1, 2, 3, 4)
+            + "\n"
+            + record(0, 0x0100, 9)
+            + record(1, 0)));
+        assertEquals(2, image.getSegments().size());
+        assertEquals(8, image.getSize());
+        final FirmwareImage.Segment first = image.getSegments().get(0);
+        assertEquals(0, first.getAddress());
+        assertEquals(7, first.getLength());
+        assertEquals(7, first.get(6));
+        assertEquals(0x100, image.getSegments().get(1).getAddress());
+        assertEquals(-1, image.getStartAddress());
+    }
+
+    /**
+     * Tests extended address and start address records.
+     *
+     * @throws IOException
+     *             When parsing fails.
+     */
+    @Test
+    public void testExtendedAddresses() throws IOException
+    {
+        final FirmwareImage image = FirmwareImage.readHex(stream(
+            record(4, 0, 0x00, 0x01)
+            + record(0, 0x0010, 1)
+            + record(2, 0, 0x10, 0x00)
+            + record(0, 0x0002, 2)
+            + record(5, 0, 0x00, 0x01, 0x23, 0x45)
+            + record(1, 0)));
+        assertEquals(0x10002, image.getSegments().get(0).getAddress());
+        assertEquals(0x10010, image.getSegments().get(1).getAddress());
+        assertEquals(0x12345, image.getStartAddress());
+    }
+
+    /**
+     * Tests that checksum errors are detected.
+     *
+     * @throws IOException
+     *             When parsing fails.
+     */
+    @Test(expected = IOException.class)
+    public void testChecksumError() throws IOException
+    {
+        FirmwareImage.readHex(stream(":0100000001FF\n" + record(1, 0)));
+    }
+
+    /**
+     * Tests that a missing end of file record is detected.
+     *
+     * @throws IOException
+     *             When parsing fails.
+     */
+    @Test(expected = IOException.class)
+    public void testMissingEof() throws IOException
+    {
+        FirmwareImage.readHex(stream(record(0, 0, 1)));
+    }
+
+    /**
+     * Tests that overlapping records are detected.
+     *
+     * @throws IOException
+     *             When parsing fails.
+     */
+    @Test(expected = IOException.class)
+    public void testOverlap() throws IOException
+    {
+        FirmwareImage.readHex(stream(record(0, 0, 1, 2) + record(0, 1, 3)
+            + record(1, 0)));
+    }
+
+    /**
+     * Tests binary images.
+     *
+     * @throws IOException
+     *             When reading fails.
+     */
+    @Test
+    public void testBinary() throws IOException
+    {
+        final FirmwareImage image = FirmwareImage.readBinary(
+            new ByteArrayInputStream(new byte[10000]), 0x4000);
+        assertEquals(1, image.getSegments().size());
+        assertEquals(0x4000, image.getSegments().get(0).getAddress());
+        assertEquals(10000, image.getSize());
+        assertEquals(0, FirmwareImage.fromBinary(new byte[0], 0).getSize());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.firmware;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link FirmwareLoader} class.
+ *
+ * @author usb4java Team
+ */
+public class FirmwareLoaderTest
+{
+    /** The bulk OUT endpoint of the simulated device. */
+    private static final byte BULK_OUT = 0x02;
+
+    /** The segment announcement request of the simulated device. */
+    private static final byte ANNOUNCE = (byte) 0xA1;
+
+    /** The memory of the simulated device. */
+    final byte[] memory = new byte[0x20000];
+
+    /** The address written by the next bulk data. */
+    int bulkAddress;
+
+    /** Address which ignores writes. -1 for none. */
+    volatile int brokenAddress = -1;
+
+    /** The simulated EZ-USB like device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final FirmwareLoaderTest test = FirmwareLoaderTest.this;
+            final ByteBuffer buffer = request.buffer().duplicate()
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (request.type() == LibUsb.TRANSFER_TYPE_BULK)
+            {
+                final int length = buffer.remaining();
+                for (int i = 0; i < length; i++)
+                {
+                    test.write(test.bulkAddress++, buffer.get());
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+                return;
+            }
+            final byte requestType = buffer.get(0);
+            final byte bRequest = buffer.get(1);
+            final int address = (buffer.getShort(2) & 0xffff)
+                | ((buffer.getShort(4) & 0xffff) << 16);
+            final int length = buffer.getShort(6) & 0xffff;
+            if (bRequest == ANNOUNCE)
+            {
+                test.bulkAddress = address;
+                assertEquals(4, length);
+            }
+            else if ((requestType & LibUsb.ENDPOINT_IN) != 0)
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.put(LibUsb.CONTROL_SETUP_SIZE + i,
+                        test.memory[address + i]);
+                }
+            }
+            else
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    test.write(address + i,
+                        buffer.get(LibUsb.CONTROL_SETUP_SIZE + i));
+                }
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The loader to test. */
+    private FirmwareLoader loader;
+
+    /**
+     * Writes a byte into the memory of the simulated device.
+     *
+     * @param address
+     *            The address.
+     * @param value
+     *            The value.
+     */
+    void write(final int address, final byte value)
+    {
+        if (address != this.brokenAddress)
+        {
+            this.memory[address] = value;
+        }
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        this.loader = new FirmwareLoader(this.backend, 4, 64, 1000);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.loader.close();
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates an image with two segments of random data.
+     *
+     * @return The image.
+     * @throws IOException
+     *             When parsing fails.
+     */
+    private static FirmwareImage createImage() throws IOException
+    {
+        final Random random = new Random(1);
+        final StringBuilder hex = new StringBuilder();
+        for (int address = 0; address < 1000; address += 16)
+        {
+            final int[] data = new int[16];
+            for (int i = 0; i < data.length; i++)
+            {
+                data[i] = random.nextInt(256);
+            }
+            hex.append(FirmwareImageTest.record(0, address, data));
+        }
+        hex.append(FirmwareImageTest.record(4, 0, 0x00, 0x01));
+        hex.append(FirmwareImageTest.record(0, 0x0100, 0xAB, 0xCD));
+        hex.append(FirmwareImageTest.record(1, 0));
+        return FirmwareImage.readHex(FirmwareImageTest.stream(
+            hex.toString()));
+    }
+
+    /**
+     * Checks that the memory of the simulated device contains the image.
+     *
+     * @param image
+     *            The image.
+     */
+    private void assertLoaded(final FirmwareImage image)
+    {
+        for (final FirmwareImage.Segment segment : image.getSegments())
+        {
+            for (int i = 0; i < segment.getLength(); i++)
+            {
+                assertEquals(segment.get(i),
+                    this.memory[(int) segment.getAddress() + i]);
+            }
+        }
+    }
+
+    /**
+     * Tests loading with control requests.
+     *
+     * @throws IOException
+     *             When loading fails.
+     */
+    @Test
+    public void testControlLoad() throws IOException
+    {
+        final FirmwareImage image = createImage();
+        this.loader.load(image);
+        this.assertLoaded(image);
+        assertEquals(1010, this.loader.getWrittenBytes());
+        assertEquals(1010, this.loader.getVerifiedBytes());
+        assertTrue(this.loader.getWriteRate() > 0);
+        assertTrue(this.loader.getVerifyRate() > 0);
+
+        // 1008 bytes in 64 byte blocks plus the second segment, twice
+        assertEquals(2 * (16 + 1), this.backend.submitted.size());
+    }
+
+    /**
+     * Tests that verification detects a mismatch.
+     *
+     * @throws IOException
+     *             When loading fails.
+     */
+    @Test
+    public void testVerifyMismatch() throws IOException
+    {
+        this.brokenAddress = 500;
+        this.memory[500] = (byte) ~createImage().getSegments().get(0).get(500);
+        try
+        {
+            this.loader.load(createImage());
+            fail("Verification should fail");
+        }
+        catch (final IOException e)
+        {
+            assertEquals("Verification failed at address 0x000001f4",
+                e.getMessage());
+        }
+    }
+
+    /**
+     * Tests loading with bulk transfers.
+     *
+     * @throws IOException
+     *             When loading fails.
+     */
+    @Test
+    public void testBulkLoad() throws IOException
+    {
+        final FirmwareImage image = createImage();
+        this.loader.setBulkWrite(BULK_OUT, 64);
+        this.loader.setAnnounceRequest(ANNOUNCE);
+        this.loader.load(image);
+        this.assertLoaded(image);
+        int bulkRequests = 0;
+        for (final IoRequest request : this.backend.submitted)
+        {
+            if (request.endpoint() == BULK_OUT)
+            {
+                bulkRequests++;
+            }
+        }
+        assertEquals(16 + 1, bulkRequests);
+    }
+}
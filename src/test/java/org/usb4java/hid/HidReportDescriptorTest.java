@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link HidReportDescriptor} and {@link HidReportLayout} classes.
+ *
+ * @author usb4java Team
+ */
+public class HidReportDescriptorTest
+{
+    /** Report descriptor of a mouse with three buttons and a wheel. */
+    static final int[] MOUSE = {
+        0x05, 0x01, 0x09, 0x02, 0xA1, 0x01, 0x09, 0x01, 0xA1, 0x00,
+        0x05, 0x09, 0x19, 0x01, 0x29, 0x03, 0x15, 0x00, 0x25, 0x01,
+        0x95, 0x03, 0x75, 0x01, 0x81, 0x02, 0x95, 0x01, 0x75, 0x05,
+        0x81, 0x03, 0x05, 0x01, 0x09, 0x30, 0x09, 0x31, 0x09, 0x38,
+        0x15, 0x81, 0x25, 0x7F, 0x75, 0x08, 0x95, 0x03, 0x81, 0x06,
+        0xC0, 0xC0
+    };
+
+    /**
+     * Report descriptor with two input reports: Report 1 with two signed 12
+     * bit axes and report 2 with 16 buttons.
+     */
+    static final int[] SENSOR = {
+        0x05, 0x01, 0x09, 0x04, 0xA1, 0x01,
+        0x85, 0x01, 0x09, 0x30, 0x09, 0x31, 0x16, 0x00, 0xF8, 0x26,
+        0xFF, 0x07, 0x75, 0x0C, 0x95, 0x02, 0x81, 0x02,
+        0x85, 0x02, 0x05, 0x09, 0x19, 0x01, 0x29, 0x10, 0x15, 0x00,
+        0x25, 0x01, 0x75, 0x01, 0x95, 0x10, 0x81, 0x02,
+        0xC0
+    };
+
+    /**
+     * Converts unsigned byte values into a buffer.
+     *
+     * @param bytes
+     *            The byte values.
+     * @return The buffer.
+     */
+    static ByteBuffer buffer(final int... bytes)
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+        for (final int b : bytes)
+        {
+            buffer.put((byte) b);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Tests that a usage range covering all 32 bit values is clamped to the
+     * 16 bit usage IDs instead of being expanded completely.
+     */
+    @Test(timeout = 10000)
+    public void testHugeUsageRange()
+    {
+        final HidReportDescriptor descriptor = new HidReportDescriptor(
+            buffer(0x05, 0x07, 0x19, 0x00, 0x2B, 0xFF, 0xFF, 0xFF, 0xFF,
+                0x15, 0x00, 0x26, 0xFF, 0x00, 0x75, 0x08, 0x95, 0x06,
+                0x81, 0x00));
+        assertEquals(1, descriptor.getFields().size());
+        assertEquals(0x10000,
+            descriptor.getFields().get(0).getUsageCount());
+    }
+
+    /**
+     * Tests that a report count and size overflowing the report length are
+     * rejected instead of allocating huge value arrays.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testHugeReportCount()
+    {
+        // Report Size 32, Report Count 0x08000000: 2^32 bits
+        new HidReportDescriptor(buffer(0x05, 0x01, 0x09, 0x30, 0x75, 0x20,
+            0x97, 0x00, 0x00, 0x00, 0x08, 0x81, 0x02));
+    }
+
+    /**
+     * Tests that the reports of several main items together may not exceed
+     * the maximum report length either.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testReportTooLong()
+    {
+        // Two items of 8 * 0x8000 bits
+        new HidReportDescriptor(buffer(0x75, 0x08, 0x96, 0x00, 0x80, 0x81,
+            0x02, 0x81, 0x02));
+    }
+
+    /**
+     * Tests parsing and decoding the mouse descriptor.
+     */
+    @Test
+    public void testMouse()
+    {
+        final HidReportDescriptor descriptor = new HidReportDescriptor(
+            buffer(MOUSE));
+        assertFalse(descriptor.usesReportIds());
+        assertEquals(2, descriptor.getFields().size());
+        final HidReportLayout layout = descriptor.getInputReport(0);
+        assertEquals(4, layout.getLength());
+        assertEquals(6, layout.getValueCount());
+        final HidField buttons = layout.getFields().get(0);
+        assertEquals(0x09, buttons.getUsagePage());
+        assertEquals(3, buttons.getUsageCount());
+        assertFalse(buttons.isSigned());
+        final HidField axes = layout.getFields().get(1);
+        assertEquals(8, axes.getBitOffset());
+        assertTrue(axes.isSigned());
+        assertEquals(-127, axes.getLogicalMinimum());
+        assertEquals(127, axes.getLogicalMaximum());
+
+        final int[] values = new int[layout.getValueCount()];
+        assertEquals(6, layout.decode(buffer(0x05, 0x10, 0xF0, 0xFF),
+            values));
+        assertEquals(1, values[0]);
+        assertEquals(0, values[1]);
+        assertEquals(1, values[2]);
+        assertEquals(16, values[layout.indexOf(0x01, 0x30)]);
+        assertEquals(-16, values[layout.indexOf(0x01, 0x31)]);
+        assertEquals(-1, values[layout.indexOf(0x01, 0x38)]);
+        assertEquals(-1, layout.indexOf(0x01, 0x32));
+
+        // Too short
+        assertEquals(-1, layout.decode(buffer(0x05, 0x10), values));
+    }
+
+    /**
+     * Tests reports with report IDs and values crossing byte boundaries.
+     */
+    @Test
+    public void testReportIds()
+    {
+        final HidReportDescriptor descriptor = new HidReportDescriptor(
+            buffer(SENSOR));
+        assertTrue(descriptor.usesReportIds());
+        assertNull(descriptor.getInputReport(0));
+        assertNull(descriptor.getInputReport(3));
+
+        final HidReportLayout axes = descriptor.getInputReport(1);
+        assertEquals(4, axes.getLength());
+        assertEquals(2047, axes.getFields().get(0).getLogicalMaximum());
+        final int[] values = new int[axes.getValueCount()];
+
+        // X = 0x7FF, Y = -2048 (0x800)
+        assertEquals(2, axes.decode(buffer(0x01, 0xFF, 0x07, 0x80), values));
+        assertEquals(2047, values[0]);
+        assertEquals(-2048, values[1]);
+
+        final HidReportLayout buttons = descriptor.getInputReport(2);
+        assertEquals(3, buttons.getLength());
+        final int[] pressed = new int[buttons.getValueCount()];
+        buttons.decode(buffer(0x02, 0x01, 0x80), pressed);
+        assertEquals(1, pressed[buttons.indexOf(0x09, 1)]);
+        assertEquals(0, pressed[buttons.indexOf(0x09, 2)]);
+        assertEquals(1, pressed[buttons.indexOf(0x09, 16)]);
+    }
+
+    /**
+     * Tests finding the HID descriptor in the extra descriptors.
+     */
+    @Test
+    public void testHidDescriptor()
+    {
+        final HidDescriptor descriptor = HidDescriptor.find(buffer(
+            0x05, 0x24, 0x00, 0x00, 0x00,
+            0x09, 0x21, 0x11, 0x01, 0x00, 0x01, 0x22, 0x34, 0x00));
+        assertEquals(0x0111, descriptor.getHidVersion());
+        assertEquals(0x34, descriptor.getReportDescriptorLength());
+        assertNull(HidDescriptor.find(buffer(0x05, 0x24, 0x00, 0x00, 0x00)));
+    }
+
+    /**
+     * Tests that malformed descriptors are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated()
+    {
+        new HidReportDescriptor(buffer(0x05, 0x01, 0x26, 0xFF));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.hid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link HidReportReader} class against a simulated sensor which
+ * always has a report ready.
+ *
+ * @author usb4java Team
+ */
+public class HidReportReaderTest
+{
+    /** The interrupt IN endpoint. */
+    private static final byte ENDPOINT = (byte) 0x81;
+
+    /** The number of reports sent by the simulated device. */
+    private static final int REPORTS = 8000;
+
+    /** The number of sent reports. Only used by the event thread. */
+    int sent;
+
+    /** The simulated sensor. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final HidReportReaderTest test = HidReportReaderTest.this;
+            if (test.sent == REPORTS)
+            {
+                // No more data, keep request pending
+                return;
+            }
+            final int n = test.sent++;
+            final ByteBuffer buffer = request.buffer();
+            if (n % 100 == 99)
+            {
+                // Every 100th report is a button report
+                buffer.put(0, (byte) 2);
+                buffer.put(1, (byte) n);
+                buffer.put(2, (byte) 0);
+            }
+            else
+            {
+                // X = n & 0x7FF, Y = -X
+                final int x = n & 0x7ff;
+                final int y = -x & 0xfff;
+                buffer.put(0, (byte) 1);
+                buffer.put(1, (byte) x);
+                buffer.put(2, (byte) ((x >> 8) | (y << 4)));
+                buffer.put(3, (byte) (y >> 4));
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                n % 100 == 99 ? 3 : 4);
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests receiving a stream of reports.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testStream() throws InterruptedException
+    {
+        final HidReportDescriptor descriptor = new HidReportDescriptor(
+            HidReportDescriptorTest.buffer(HidReportDescriptorTest.SENSOR));
+        final CountDownLatch done = new CountDownLatch(REPORTS);
+        final int[] mismatches = new int[1];
+        final int[] buttonReports = new int[1];
+        final HidReportListener listener = new HidReportListener()
+        {
+            private int next;
+
+            @Override
+            public void reportReceived(final HidReportLayout layout,
+                final int[] values, final ByteBuffer report)
+            {
+                final int n = this.next++;
+                if (layout.getReportId() == 2)
+                {
+                    buttonReports[0]++;
+                    if (values[0] != (n & 1))
+                    {
+                        mismatches[0]++;
+                    }
+                }
+                else if (values[0] != (n & 0x7ff) || values[1] != -values[0])
+                {
+                    mismatches[0]++;
+                }
+                done.countDown();
+            }
+
+            @Override
+            public void readFailed(final int result)
+            {
+                mismatches[0]++;
+            }
+        };
+        final HidReportReader reader = new HidReportReader(this.backend,
+            ENDPOINT, 64, 4, descriptor, listener);
+        assertEquals(LibUsb.SUCCESS, reader.start());
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        reader.stop();
+
+        assertEquals(0, mismatches[0]);
+        assertEquals(REPORTS / 100, buttonReports[0]);
+        assertEquals(REPORTS, reader.getReportCount());
+        assertEquals(0, reader.getInvalidReportCount());
+        assertEquals(0, reader.getErrorCount());
+
+        // Every report was read by a resubmitted request
+        assertTrue(this.backend.submitted.size() >= REPORTS);
+    }
+
+    /**
+     * Tests that the reader can be started again right after stopping it
+     * while its requests are pending.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testRestart() throws InterruptedException
+    {
+        this.sent = REPORTS;
+        final HidReportDescriptor descriptor = new HidReportDescriptor(
+            HidReportDescriptorTest.buffer(HidReportDescriptorTest.SENSOR));
+        final int[] failures = new int[1];
+        final HidReportReader reader = new HidReportReader(this.backend,
+            ENDPOINT, 64, 4, descriptor, new HidReportListener()
+            {
+                @Override
+                public void reportReceived(final HidReportLayout layout,
+                    final int[] values, final ByteBuffer report)
+                {
+                    // Empty
+                }
+
+                @Override
+                public void readFailed(final int result)
+                {
+                    failures[0]++;
+                }
+            });
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(LibUsb.SUCCESS, reader.start());
+            assertEquals(4, this.backend.getPendingCount());
+            reader.stop();
+            assertEquals(0, this.backend.getPendingCount());
+        }
+        assertEquals(0, failures[0]);
+        assertEquals(0, reader.getErrorCount());
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.mocks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.usb4java.IoBackend;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+
+/**
+ * A mocked I/O backend simulating a device. Requests are processed by a
+ * handler on a single "event" thread, just like libusb calls transfer
+ * callbacks from the thread handling the events.
+ *
+ * @author usb4java Team
+ */
+public class BackendMock implements IoBackend
+{
+    /**
+     * Simulates the device side of requests.
+     */
+    public interface Handler
+    {
+        /**
+         * Handles a request. Called on the event thread of the mock. The
+         * handler must complete the request with
+         * {@link BackendMock#complete(IoRequest, int, int)}, either
+         * immediately or later.
+         *
+         * @param mock
+         *            The backend mock.
+         * @param request
+         *            The request to handle.
+         */
+        void handle(BackendMock mock, IoRequest request);
+    }
+
+    /** Handler which successfully completes all requests with full length. */
+    public static final Handler ACCEPT_ALL = new Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                request.length());
+        }
+    };
+
+    /** All submitted requests in submission order. */
+    public final List<IoRequest> submitted =
+        Collections.synchronizedList(new ArrayList<IoRequest>());
+
+    /** The requests which are not yet completed. */
+    private final Set<IoRequest> pending = Collections
+        .newSetFromMap(new ConcurrentHashMap<IoRequest, Boolean>());
+
+    /** The simulated event thread. */
+    private final ExecutorService events;
+
+    /** The device handler. */
+    private final Handler handler;
+
+    /** Submission index at which submit fails. -1 for never. */
+    public volatile int failSubmitAt = -1;
+
+    /** The number of submit calls. */
+    private int submitCalls;
+
+    /**
+     * Constructs a mock which accepts all requests.
+     */
+    public BackendMock()
+    {
+        this(ACCEPT_ALL);
+    }
+
+    /**
+     * Constructs a mock with the specified device handler.
+     *
+     * @param handler
+     *            The device handler.
+     */
+    public BackendMock(final Handler handler)
+    {
+        this.handler = handler;
+        this.events = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable r)
+            {
+                final Thread thread = new Thread(r, "usb4java mock events");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public int submit(final IoRequest request)
+    {
+        synchronized (this)
+        {
+            if (this.submitCalls++ == this.failSubmitAt)
+            {
+                return LibUsb.ERROR_IO;
+            }
+        }
+        if (!this.pending.add(request))
+        {
+            return LibUsb.ERROR_BUSY;
+        }
+        this.submitted.add(request);
+        this.events.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (BackendMock.this.pending.contains(request))
+                {
+                    BackendMock.this.handler.handle(BackendMock.this,
+                        request);
+                }
+            }
+        });
+        return LibUsb.SUCCESS;
+    }
+
+    @Override
+    public int cancel(final IoRequest request)
+    {
+        if (!this.pending.contains(request))
+        {
+            return LibUsb.ERROR_NOT_FOUND;
+        }
+        this.events.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                BackendMock.this.complete(request,
+                    LibUsb.TRANSFER_CANCELLED, 0);
+            }
+        });
+        return LibUsb.SUCCESS;
+    }
+
+    /**
+     * Completes a request on the event thread. Does nothing when request is
+     * no longer pending (because it was cancelled for example).
+     *
+     * @param request
+     *            The request to complete.
+     * @param status
+     *            The request status.
+     * @param actualLength
+     *            The actual length.
+     */
+    public void complete(final IoRequest request, final int status,
+        final int actualLength)
+    {
+        if (!this.pending.remove(request))
+        {
+            return;
+        }
+        this.events.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                request.complete(status, actualLength);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of pending requests.
+     *
+     * @return The number of pending requests.
+     */
+    public int getPendingCount()
+    {
+        return this.pending.size();
+    }
+
+    /**
+     * Stops the event thread.
+     */
+    public void shutdown()
+    {
+        this.events.shutdownNow();
+    }
+}
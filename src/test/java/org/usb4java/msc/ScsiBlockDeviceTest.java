@@ -0,0 +1,640 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.msc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.usb4java.test.UsbAssume.assumeBenchmarksEnabled;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link ScsiBlockDevice} and {@link BulkOnlyTransport} classes
+ * against a simulated mass storage device.
+ *
+ * @author usb4java Team
+ */
+public class ScsiBlockDeviceTest
+{
+    /** The bulk IN endpoint. */
+    private static final byte IN = (byte) 0x81;
+
+    /** The bulk OUT endpoint. */
+    private static final byte OUT = 0x02;
+
+    /** The block size of the simulated device. */
+    private static final int BLOCK_SIZE = 512;
+
+    /** The number of blocks of the simulated device. */
+    private static final int BLOCKS = 4096;
+
+    /** Waiting for a command block wrapper. */
+    private static final int PHASE_COMMAND = 0;
+
+    /** Sending data. */
+    private static final int PHASE_DATA_IN = 1;
+
+    /** Receiving data. */
+    private static final int PHASE_DATA_OUT = 2;
+
+    /** Sending the command status wrapper. */
+    private static final int PHASE_STATUS = 3;
+
+    /** The medium of the simulated device. */
+    final byte[] medium = new byte[BLOCKS * BLOCK_SIZE];
+
+    /** The received command blocks. */
+    final List<byte[]> commands = new ArrayList<byte[]>();
+
+    /** The current phase. */
+    int phase = PHASE_COMMAND;
+
+    /** The tag of the current command. */
+    int tag;
+
+    /** The current data offset. */
+    int offset;
+
+    /** The remaining data length. */
+    int remaining;
+
+    /** The residue reported in the status. */
+    int residue;
+
+    /** The status of the current command. */
+    int status;
+
+    /** The response of the current non-medium IN command. */
+    byte[] response;
+
+    /** If the IN endpoint is halted. */
+    boolean halted;
+
+    /** The sense key of the last failed command. */
+    int senseKey;
+
+    /** The additional sense code of the last failed command. */
+    int asc;
+
+    /** The number of remaining unit attentions. */
+    int unitAttentions = 1;
+
+    /** The number of received reset requests. */
+    int resets;
+
+    /** If the device never answers requests of the IN data phase. */
+    volatile boolean stuck;
+
+    /** The simulated mass storage device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final ScsiBlockDeviceTest test = ScsiBlockDeviceTest.this;
+            if (test.stuck && request.endpoint() == IN
+                && test.phase == PHASE_DATA_IN)
+            {
+                // Keep request pending until it is cancelled
+                return;
+            }
+            final int result = test.process(request);
+            if (result < 0)
+            {
+                mock.complete(request, LibUsb.TRANSFER_STALL, 0);
+            }
+            else
+            {
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, result);
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The transport of the last opened block device. */
+    private BulkOnlyTransport transport;
+
+    /**
+     * Processes a request in the simulated device.
+     *
+     * @param request
+     *            The request.
+     * @return The number of transferred bytes or -1 to stall.
+     */
+    int process(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer().duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        if (request.type() == LibUsb.TRANSFER_TYPE_CONTROL)
+        {
+            final byte bRequest = buffer.get(1);
+            if (bRequest == BulkOnlyTransport.REQUEST_RESET)
+            {
+                this.resets++;
+                this.phase = PHASE_COMMAND;
+            }
+            else if (bRequest == LibUsb.REQUEST_CLEAR_FEATURE)
+            {
+                this.halted = false;
+            }
+            else if (bRequest == BulkOnlyTransport.REQUEST_GET_MAX_LUN)
+            {
+                buffer.put(LibUsb.CONTROL_SETUP_SIZE, (byte) 0);
+                return 1;
+            }
+            return 0;
+        }
+        final int length = buffer.remaining();
+        final int start = buffer.position();
+        if (request.endpoint() == OUT)
+        {
+            if (this.phase == PHASE_COMMAND)
+            {
+                this.command(buffer);
+                return length;
+            }
+            if (this.phase != PHASE_DATA_OUT)
+            {
+                return -1;
+            }
+            final int n = Math.min(length, this.remaining);
+            buffer.get(this.medium, this.offset, n);
+            this.offset += n;
+            this.remaining -= n;
+            if (this.remaining == 0)
+            {
+                this.phase = PHASE_STATUS;
+            }
+            return n;
+        }
+        if (this.halted)
+        {
+            return -1;
+        }
+        if (this.phase == PHASE_DATA_IN)
+        {
+            final int n = Math.min(length, this.remaining);
+            if (this.response != null)
+            {
+                buffer.put(this.response, 0, n);
+            }
+            else
+            {
+                buffer.put(this.medium, this.offset, n);
+            }
+            this.offset += n;
+            this.remaining -= n;
+            if (this.remaining == 0 || n < length)
+            {
+                this.residue = this.remaining;
+                this.phase = PHASE_STATUS;
+            }
+            return n;
+        }
+        if (this.phase == PHASE_STATUS && length >= 13)
+        {
+            buffer.putInt(start, BulkOnlyTransport.CSW_SIGNATURE);
+            buffer.putInt(start + 4, this.tag);
+            buffer.putInt(start + 8, this.residue);
+            buffer.put(start + 12, (byte) this.status);
+            this.phase = PHASE_COMMAND;
+            return 13;
+        }
+        return -1;
+    }
+
+    /**
+     * Processes a command block wrapper.
+     *
+     * @param cbw
+     *            The command block wrapper.
+     */
+    private void command(final ByteBuffer cbw)
+    {
+        final int start = cbw.position();
+        assertEquals(BulkOnlyTransport.CBW_SIGNATURE, cbw.getInt(start));
+        this.tag = cbw.getInt(start + 4);
+        final int length = cbw.getInt(start + 8);
+        final boolean in = (cbw.get(start + 12) & 0x80) != 0;
+        final byte[] cb = new byte[cbw.get(start + 14)];
+        cbw.position(start + 15);
+        cbw.get(cb);
+        this.commands.add(cb);
+        final ByteBuffer command = ByteBuffer.wrap(cb);
+        this.status = BulkOnlyTransport.STATUS_PASSED;
+        this.response = null;
+        this.residue = 0;
+        this.offset = 0;
+        long lba = 0;
+        int blocks = 0;
+        switch (cb[0])
+        {
+            case ScsiBlockDevice.TEST_UNIT_READY:
+                if (this.unitAttentions > 0)
+                {
+                    this.unitAttentions--;
+                    this.failCommand(ScsiBlockDevice.SENSE_UNIT_ATTENTION,
+                        0x29);
+                }
+                break;
+            case ScsiBlockDevice.REQUEST_SENSE:
+                this.response = new byte[18];
+                this.response[0] = 0x70;
+                this.response[2] = (byte) this.senseKey;
+                this.response[7] = 10;
+                this.response[12] = (byte) this.asc;
+                break;
+            case ScsiBlockDevice.READ_CAPACITY_10:
+                this.response = ByteBuffer.allocate(8).putInt(BLOCKS - 1)
+                    .putInt(BLOCK_SIZE).array();
+                break;
+            case ScsiBlockDevice.READ_10:
+            case ScsiBlockDevice.WRITE_10:
+                lba = command.getInt(2) & 0xffffffffL;
+                blocks = command.getShort(7) & 0xffff;
+                break;
+            case ScsiBlockDevice.READ_16:
+            case ScsiBlockDevice.WRITE_16:
+                lba = command.getLong(2);
+                blocks = command.getInt(10);
+                break;
+            default:
+                break;
+        }
+        if (blocks > 0)
+        {
+            if (lba + blocks > BLOCKS)
+            {
+                this.failCommand(ScsiBlockDevice.SENSE_ILLEGAL_REQUEST, 0x21);
+            }
+            else
+            {
+                this.offset = (int) lba * BLOCK_SIZE;
+            }
+        }
+        this.remaining = length;
+        if (this.status != BulkOnlyTransport.STATUS_PASSED)
+        {
+            this.residue = length;
+            this.remaining = 0;
+            this.halted = length > 0 && in;
+            this.phase = PHASE_STATUS;
+        }
+        else if (length == 0)
+        {
+            this.phase = PHASE_STATUS;
+        }
+        else
+        {
+            this.phase = in ? PHASE_DATA_IN : PHASE_DATA_OUT;
+        }
+    }
+
+    /**
+     * Fails the current command.
+     *
+     * @param key
+     *            The sense key.
+     * @param code
+     *            The additional sense code.
+     */
+    private void failCommand(final int key, final int code)
+    {
+        this.status = BulkOnlyTransport.STATUS_FAILED;
+        this.senseKey = key;
+        this.asc = code;
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        new Random(1).nextBytes(this.medium);
+        this.backend = new BackendMock(this.device);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates and opens a block device on the simulated device.
+     *
+     * @param maxTransferSize
+     *            The maximum transfer size per command.
+     * @param requestSize
+     *            The size of a data request.
+     * @param depth
+     *            The number of data requests in flight.
+     * @return The block device.
+     * @throws IOException
+     *             When opening fails.
+     */
+    private ScsiBlockDevice open(final int maxTransferSize,
+        final int requestSize, final int depth) throws IOException
+    {
+        this.transport = new BulkOnlyTransport(this.backend, 0, IN, OUT,
+            requestSize, depth, 1000);
+        final ScsiBlockDevice device = new ScsiBlockDevice(this.transport, 0,
+            maxTransferSize);
+        device.open();
+        return device;
+    }
+
+    /**
+     * Asserts that a buffer contains the specified part of the medium.
+     *
+     * @param buffer
+     *            The buffer. Read from 0 to position.
+     * @param position
+     *            The position on the medium.
+     */
+    private void assertMedium(final ByteBuffer buffer, final long position)
+    {
+        final byte[] actual = new byte[buffer.position()];
+        final ByteBuffer copy = buffer.duplicate();
+        copy.flip();
+        copy.get(actual);
+        final byte[] expected = new byte[actual.length];
+        System.arraycopy(this.medium, (int) position, expected, 0,
+            expected.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Tests opening the device.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testOpen() throws IOException
+    {
+        final ScsiBlockDevice device = this.open(65536, 16384, 4);
+        assertEquals(BLOCK_SIZE, device.getBlockSize());
+        assertEquals(BLOCKS, device.getBlockCount());
+        assertEquals(BLOCKS * BLOCK_SIZE, device.size());
+        assertEquals(0, this.unitAttentions);
+    }
+
+    /**
+     * Tests a large read which is split into several pipelined commands.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testRead() throws IOException
+    {
+        final ScsiBlockDevice device = this.open(65536, 16384, 4);
+        this.commands.clear();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        assertEquals(buffer.capacity(), device.read(buffer, 4096));
+        this.assertMedium(buffer, 4096);
+        assertEquals(4, this.commands.size());
+        for (final byte[] command : this.commands)
+        {
+            assertEquals(ScsiBlockDevice.READ_10, command[0]);
+        }
+        assertEquals(buffer.capacity(), device.getReadBytes());
+        assertEquals(4, this.transport.getMaxInFlight());
+    }
+
+    /**
+     * Tests that a persistent unit attention is reported.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testNotReady() throws IOException
+    {
+        this.unitAttentions = 10;
+        try
+        {
+            this.open(65536, 16384, 4);
+            fail("Open should fail");
+        }
+        catch (final ScsiException e)
+        {
+            assertEquals(ScsiBlockDevice.SENSE_UNIT_ATTENTION,
+                e.getSenseKey());
+            assertEquals(0x29, e.getAsc());
+        }
+    }
+
+    /**
+     * Tests reading into a heap buffer at unaligned positions.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testUnalignedRead() throws IOException
+    {
+        final ScsiBlockDevice device = this.open(65536, 16384, 4);
+        final ByteBuffer buffer = ByteBuffer.allocate(3000);
+        assertEquals(3000, device.read(buffer, 1000));
+        this.assertMedium(buffer, 1000);
+
+        // Reading stops at the end of the device
+        buffer.clear();
+        assertEquals(100, device.read(buffer, device.size() - 100));
+        this.assertMedium(buffer, device.size() - 100);
+        buffer.clear();
+        assertEquals(-1, device.read(buffer, device.size()));
+    }
+
+    /**
+     * Tests writing.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testWrite() throws IOException
+    {
+        final ScsiBlockDevice device = this.open(16384, 4096, 4);
+        final byte[] data = new byte[40 * BLOCK_SIZE];
+        new Random(2).nextBytes(data);
+        assertEquals(data.length, device.write(ByteBuffer.wrap(data),
+            8 * BLOCK_SIZE));
+        device.force();
+        final byte[] written = new byte[data.length];
+        System.arraycopy(this.medium, 8 * BLOCK_SIZE, written, 0,
+            data.length);
+        assertArrayEquals(data, written);
+        try
+        {
+            device.write(ByteBuffer.wrap(data), 1);
+            fail("Unaligned write must fail");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Expected
+        }
+    }
+
+    /**
+     * Tests that a failed command reports the sense data and the transport
+     * recovers from the stalled data phase.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testFailedCommand() throws IOException
+    {
+        final ScsiBlockDevice device = this.open(65536, 16384, 4);
+        this.medium[0] = 42;
+
+        // Read a block beyond the end of the medium
+        final byte[] command = new byte[10];
+        command[0] = ScsiBlockDevice.READ_10;
+        command[2] = 0x7f;
+        command[8] = 1;
+        final ByteBuffer data = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        assertEquals(BulkOnlyTransport.STATUS_FAILED,
+            this.transport.execute(0, command, true, data));
+        assertEquals(0, data.position());
+
+        // The device is usable afterwards
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        device.read(buffer, 0);
+        assertEquals(42, buffer.get(0));
+    }
+
+    /**
+     * Tests that an interrupted data phase performs the reset recovery so
+     * the device is usable afterwards.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testInterruptedDataPhase() throws IOException
+    {
+        final ScsiBlockDevice device = this.open(65536, 16384, 4);
+        this.medium[0] = 42;
+        this.stuck = true;
+        final Thread reader = Thread.currentThread();
+        final Thread interrupter = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep(100);
+                }
+                catch (final InterruptedException e)
+                {
+                    return;
+                }
+                reader.interrupt();
+            }
+        });
+        interrupter.start();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        try
+        {
+            device.read(buffer, 0);
+            fail("Read should be interrupted");
+        }
+        catch (final InterruptedIOException e)
+        {
+            // Expected
+        }
+        assertTrue(Thread.interrupted());
+        assertEquals(1, this.resets);
+        assertEquals(PHASE_COMMAND, this.phase);
+
+        // The device is usable afterwards
+        this.stuck = false;
+        buffer.clear();
+        device.read(buffer, 0);
+        assertEquals(42, buffer.get(0));
+    }
+
+    /**
+     * Tests that large reads are split into few commands whose data phases
+     * are pipelined, while small transfer sizes need one command per block.
+     *
+     * @throws IOException
+     *             When test fails.
+     */
+    @Test
+    public void testPipelining() throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(
+            this.medium.length);
+        final ScsiBlockDevice single = this.open(BLOCK_SIZE, BLOCK_SIZE, 1);
+        this.commands.clear();
+        single.read(buffer, 0);
+        this.assertMedium(buffer, 0);
+        assertEquals(BLOCKS, this.commands.size());
+        assertEquals(1, this.transport.getMaxInFlight());
+
+        buffer.clear();
+        final ScsiBlockDevice pipelined = this.open(1024 * 1024, 65536, 4);
+        this.commands.clear();
+        pipelined.read(buffer, 0);
+        this.assertMedium(buffer, 0);
+        assertEquals(2, this.commands.size());
+        assertEquals(4, this.transport.getMaxInFlight());
+    }
+
+    /**
+     * Compares the read rate of pipelined large commands with one command
+     * per block.
+     *
+     * @throws IOException
+     *             When benchmark fails.
+     */
+    @Test
+    public void benchmarkThroughput() throws IOException
+    {
+        assumeBenchmarksEnabled();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(
+            this.medium.length);
+        final ScsiBlockDevice single = this.open(BLOCK_SIZE, BLOCK_SIZE, 1);
+        final ScsiBlockDevice pipelined = this.open(1024 * 1024, 65536, 4);
+        for (int round = 0; round < 10; round++)
+        {
+            buffer.clear();
+            single.read(buffer, 0);
+            buffer.clear();
+            pipelined.read(buffer, 0);
+        }
+        System.out.println(String.format(
+            "ScsiBlockDevice: single %.1f MB/s, pipelined %.1f MB/s",
+            single.getReadRate() / 1e6, pipelined.getReadRate() / 1e6));
+    }
+}
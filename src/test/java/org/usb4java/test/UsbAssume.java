@@ -25,6 +25,9 @@ public class UsbAssume
 
     /** If TCK tests are to be executed. */
     private static Boolean tckTests;
+
+    /** If benchmarks are to be executed. */
+    private static Boolean benchmarks;
     
     /**
      * Check if USB tests are enabled.
@@ -177,4 +180,21 @@ public class UsbAssume
         assumeTrue("This test is ignored when TCK_TESTS property is not set",
             tckTests);
     }
+
+    /**
+     * Assume that benchmarks are enabled. Call this in the first line of
+     * benchmark test methods. Benchmarks take some time and their results
+     * are only meaningful on an otherwise idle system, so they are not
+     * executed by default.
+     * 
+     * Benchmarks can be enabled by setting the system property BENCHMARKS
+     * to true.
+     */
+    public static void assumeBenchmarksEnabled()
+    {
+        if (benchmarks == null)
+            benchmarks = Boolean.valueOf(System.getProperty("BENCHMARKS"));
+        assumeTrue("This test is ignored when BENCHMARKS property is not set",
+            benchmarks);
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link UacCapture} class against a simulated microphone.
+ *
+ * @author usb4java Team
+ */
+public class UacCaptureTest
+{
+    /** The data endpoint. */
+    private static final byte DATA = (byte) 0x81;
+
+    /** 48 kHz mono with 16 bit samples. */
+    private static final UacFormat FORMAT = new UacFormat(48000, 1, 2);
+
+    /** The packet size sent by the microphone (48 frames). */
+    private static final int PACKET_SIZE = 96;
+
+    /** The number of packets per request. */
+    private static final int PACKETS = 8;
+
+    /** The number of requests the microphone completes. */
+    private static final int REQUESTS = 200;
+
+    /** The number of completed requests. */
+    int requests;
+
+    /** The number of sent bytes. */
+    int sent;
+
+    /** The request in which a packet fails. -1 for none. */
+    volatile int failInRequest = -1;
+
+    /** Counted down when the microphone completed all requests. */
+    final CountDownLatch done = new CountDownLatch(1);
+
+    /** The simulated microphone. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final UacCaptureTest test = UacCaptureTest.this;
+            if (test.requests == REQUESTS)
+            {
+                return;
+            }
+            final ByteBuffer buffer = request.buffer();
+            int offset = 0;
+            for (int i = 0; i < request.numIsoPackets(); i++)
+            {
+                if (test.requests == test.failInRequest && i == 0)
+                {
+                    request.setIsoPacketResult(i, LibUsb.TRANSFER_ERROR, 0);
+                }
+                else
+                {
+                    for (int j = 0; j < PACKET_SIZE; j++)
+                    {
+                        buffer.put(offset + j, (byte) test.sent++);
+                    }
+                    request.setIsoPacketResult(i, LibUsb.TRANSFER_COMPLETED,
+                        PACKET_SIZE);
+                }
+                offset += request.isoPacketLength(i);
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED, offset);
+            if (++test.requests == REQUESTS)
+            {
+                test.done.countDown();
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Tests capturing a continuous stream.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testCapture() throws InterruptedException
+    {
+        this.failInRequest = 10;
+        final UacCapture capture = new UacCapture(this.backend, FORMAT, 1000,
+            DATA, PACKET_SIZE, PACKETS, 4, 2000000);
+        assertEquals(LibUsb.SUCCESS, capture.start());
+        final int total = (REQUESTS * PACKETS - 1) * PACKET_SIZE;
+        final ByteBuffer buffer = ByteBuffer.allocate(777);
+        int received = 0;
+        int mismatches = 0;
+        while (received < total)
+        {
+            buffer.clear();
+            final int count = capture.read(buffer, 5000);
+            assertTrue(count > 0);
+            for (int i = 0; i < count; i++)
+            {
+                if (buffer.get(i) != (byte) (received + i))
+                {
+                    mismatches++;
+                }
+            }
+            received += count;
+        }
+        assertTrue(this.done.await(10, TimeUnit.SECONDS));
+        capture.stop();
+
+        assertEquals(total, received);
+        assertEquals(0, mismatches);
+        assertEquals(0, capture.getOverrunCount());
+        assertEquals(1, capture.getErrorCount());
+        assertEquals(total, capture.getReceivedBytes());
+        assertEquals(0, capture.getLatency());
+    }
+
+    /**
+     * Tests that data is dropped when the application doesn't read.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testOverrun() throws InterruptedException
+    {
+        // 10 ms of buffer
+        final UacCapture capture = new UacCapture(this.backend, FORMAT, 1000,
+            DATA, PACKET_SIZE, PACKETS, 4, 10000);
+        assertEquals(LibUsb.SUCCESS, capture.start());
+        assertTrue(this.done.await(10, TimeUnit.SECONDS));
+        capture.stop();
+
+        final int capacity = 10 * PACKET_SIZE;
+        assertEquals(capacity, capture.getBufferedBytes());
+        assertEquals(10000, capture.getLatency());
+        assertTrue(capture.getOverrunCount() > 0);
+        assertEquals(capture.getReceivedBytes() - capacity,
+            capture.getDroppedBytes());
+
+        // The oldest data is kept
+        final ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        assertEquals(capacity, capture.read(buffer, 0));
+        for (int i = 0; i < capacity; i++)
+        {
+            assertEquals((byte) i, buffer.get(i));
+        }
+        buffer.clear();
+        assertEquals(0, capture.read(buffer, 10));
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link UacPlayback} class against a simulated asynchronous
+ * audio device.
+ *
+ * @author usb4java Team
+ */
+public class UacPlaybackTest
+{
+    /** The data endpoint. */
+    private static final byte DATA = 0x01;
+
+    /** The feedback endpoint. */
+    private static final byte FEEDBACK = (byte) 0x81;
+
+    /** 44.1 kHz stereo with 16 bit samples. */
+    private static final UacFormat FORMAT = new UacFormat(44100, 2, 2);
+
+    /** The maximum packet size of the data endpoint. */
+    private static final int MAX_PACKET_SIZE = 192;
+
+    /** The number of packets per data request. */
+    private static final int PACKETS = 10;
+
+    /** The number of data requests the device completes. */
+    private static final int REQUESTS = 100;
+
+    /** The feedback value sent by the device. -1 for none. */
+    volatile long feedback = -1;
+
+    /** The number of completed data requests. */
+    int dataRequests;
+
+    /** The number of completed feedback requests. */
+    int feedbackRequests;
+
+    /** The value of the next expected data byte. */
+    int nextByte;
+
+    /** The number of received non-silence bytes with unexpected value. */
+    int mismatches;
+
+    /** The number of received silence bytes. */
+    int silence;
+
+    /** The number of frames of each received packet. */
+    final List<Integer> packetFrames =
+        Collections.synchronizedList(new ArrayList<Integer>());
+
+    /** Counted down when the device completed all data requests. */
+    final CountDownLatch done = new CountDownLatch(1);
+
+    /** The simulated device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final UacPlaybackTest test = UacPlaybackTest.this;
+            if (request.endpoint() == FEEDBACK)
+            {
+                if (test.feedbackRequests++ < 5)
+                {
+                    test.sendFeedback(mock, request);
+                }
+                return;
+            }
+            if (test.dataRequests == REQUESTS)
+            {
+                return;
+            }
+            test.receive(request);
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                request.buffer().limit());
+            if (++test.dataRequests == REQUESTS)
+            {
+                test.done.countDown();
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /**
+     * Answers a feedback request in 10.14 format.
+     *
+     * @param mock
+     *            The backend mock.
+     * @param request
+     *            The feedback request.
+     */
+    void sendFeedback(final BackendMock mock, final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        int offset = 0;
+        for (int i = 0; i < request.numIsoPackets(); i++)
+        {
+            final long value = this.feedback;
+            buffer.put(offset, (byte) value);
+            buffer.put(offset + 1, (byte) (value >> 8));
+            buffer.put(offset + 2, (byte) (value >> 16));
+            request.setIsoPacketResult(i, LibUsb.TRANSFER_COMPLETED, 3);
+            offset += request.isoPacketLength(i);
+        }
+        mock.complete(request, LibUsb.TRANSFER_COMPLETED, offset);
+    }
+
+    /**
+     * Receives the packets of a data request.
+     *
+     * @param request
+     *            The data request.
+     */
+    void receive(final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        int offset = 0;
+        for (int i = 0; i < request.numIsoPackets(); i++)
+        {
+            final int length = request.isoPacketLength(i);
+            this.packetFrames.add(length / FORMAT.getFrameSize());
+            for (int j = 0; j < length; j++)
+            {
+                final byte b = buffer.get(offset + j);
+                if (b == pattern(this.nextByte))
+                {
+                    this.nextByte++;
+                }
+                else if (b == 0)
+                {
+                    this.silence++;
+                }
+                else
+                {
+                    this.mismatches++;
+                }
+            }
+            request.setIsoPacketResult(i, LibUsb.TRANSFER_COMPLETED, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Returns the value of a byte of the written audio data. The pattern
+     * never contains zero bytes, so silence can be told apart.
+     *
+     * @param index
+     *            The index of the byte in the audio data.
+     * @return The byte value.
+     */
+    static byte pattern(final int index)
+    {
+        return (byte) (index % 255 + 1);
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Creates a playback stream with two seconds of buffer.
+     *
+     * @return The playback stream.
+     */
+    private UacPlayback createPlayback()
+    {
+        return new UacPlayback(this.backend, FORMAT, 1000, DATA,
+            MAX_PACKET_SIZE, PACKETS, 4, 2000000);
+    }
+
+    /**
+     * Writes audio data with the test pattern.
+     *
+     * @param playback
+     *            The playback stream.
+     * @param bytes
+     *            The number of bytes to write.
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    private static void write(final UacPlayback playback, final int bytes)
+        throws InterruptedException
+    {
+        final ByteBuffer data = ByteBuffer.allocate(bytes);
+        for (int i = 0; i < bytes; i++)
+        {
+            data.put(i, pattern(i));
+        }
+        assertEquals(bytes, playback.write(data, 1000));
+    }
+
+    /**
+     * Sums up the frames of the last received packets.
+     *
+     * @param packets
+     *            The number of packets.
+     * @return The number of frames.
+     */
+    private int lastFrames(final int packets)
+    {
+        int frames = 0;
+        final int size = this.packetFrames.size();
+        for (int i = size - packets; i < size; i++)
+        {
+            frames += this.packetFrames.get(i);
+        }
+        return frames;
+    }
+
+    /**
+     * Tests the packet sizes at the nominal rate.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testNominalRate() throws InterruptedException
+    {
+        final UacPlayback playback = this.createPlayback();
+        write(playback, 1500 * 176);
+        assertEquals(LibUsb.SUCCESS, playback.start());
+        assertTrue(this.done.await(10, TimeUnit.SECONDS));
+        assertTrue(playback.getLatency() > 0);
+        playback.stop();
+
+        assertEquals(REQUESTS * PACKETS, this.packetFrames.size());
+        for (final int frames : this.packetFrames)
+        {
+            assertTrue(frames == 44 || frames == 45);
+        }
+        assertEquals(44100, this.lastFrames(1000), 1);
+        assertEquals(0, this.mismatches);
+        assertEquals(0, this.silence);
+        assertEquals(0, playback.getUnderrunCount());
+        assertEquals(44100, playback.getRate(), 1);
+    }
+
+    /**
+     * Tests that the packet sizes follow the feedback endpoint.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testFeedback() throws InterruptedException
+    {
+        // 44.2 frames per packet in 10.14 format
+        this.feedback = Math.round(44.2 * (1 << 14));
+        final UacPlayback playback = this.createPlayback();
+        playback.setFeedback(FEEDBACK, 2);
+        write(playback, 1500 * 176);
+        assertEquals(LibUsb.SUCCESS, playback.start());
+        assertTrue(this.done.await(10, TimeUnit.SECONDS));
+        playback.stop();
+
+        assertEquals(5, playback.getFeedbackCount());
+        assertEquals(0, playback.getInvalidFeedbackCount());
+        assertEquals(44200, playback.getRate(), 1);
+        assertEquals(22100, this.lastFrames(500), 1);
+        assertEquals(0, this.mismatches);
+        assertEquals(0, playback.getUnderrunCount());
+    }
+
+    /**
+     * Tests that implausible feedback values are rejected.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testInvalidFeedback() throws InterruptedException
+    {
+        // 88.2 frames per packet, twice the nominal rate
+        this.feedback = Math.round(88.2 * (1 << 14)) & 0xffffff;
+        final UacPlayback playback = this.createPlayback();
+        playback.setFeedback(FEEDBACK, 0);
+        write(playback, 1500 * 176);
+        assertEquals(LibUsb.SUCCESS, playback.start());
+        assertTrue(this.done.await(10, TimeUnit.SECONDS));
+        playback.stop();
+
+        assertEquals(0, playback.getFeedbackCount());
+        assertEquals(5, playback.getInvalidFeedbackCount());
+        assertEquals(44100, playback.getRate(), 1);
+    }
+
+    /**
+     * Tests that missing data is replaced by silence and counted.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testUnderrun() throws InterruptedException
+    {
+        final UacPlayback playback = this.createPlayback();
+        write(playback, 1000);
+        assertEquals(LibUsb.SUCCESS, playback.start());
+        assertTrue(this.done.await(10, TimeUnit.SECONDS));
+        playback.stop();
+
+        assertEquals(0, this.mismatches);
+        assertEquals(1000, this.nextByte);
+        assertTrue(this.silence > 0);
+        assertTrue(playback.getUnderrunCount() >= REQUESTS);
+        assertEquals(0, playback.getBufferedBytes());
+        assertEquals(0, playback.getLatency());
+    }
+}
@@ -0,0 +1,558 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.BlockingIo;
+import org.usb4java.BufferUtils;
+import org.usb4java.IoCallback;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link UsbIpClient} and {@link UsbIpBackend} classes against a
+ * local {@link UsbIpServer} exporting a simulated device.
+ *
+ * @author usb4java Team
+ */
+public class UsbIpBackendTest
+{
+    /** The bus ID of the exported device. */
+    private static final String BUS_ID = "3-4";
+
+    /** Bulk OUT endpoint which accepts everything. */
+    private static final byte BULK_OUT = 0x02;
+
+    /** Bulk IN endpoint which returns half of the requested data. */
+    private static final byte BULK_IN = (byte) 0x81;
+
+    /** Bulk IN endpoint which never completes. */
+    private static final byte STUCK_IN = (byte) 0x83;
+
+    /** Isochronous IN endpoint. */
+    private static final byte ISO_IN = (byte) 0x85;
+
+    /** The value of the next byte sent on the bulk IN endpoint. */
+    int nextByte;
+
+    /** The bytes received on the bulk OUT endpoint. */
+    volatile int bulkOutBytes;
+
+    /** The simulated device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final UsbIpBackendTest test = UsbIpBackendTest.this;
+            final ByteBuffer buffer = request.buffer();
+            if (request.type() == LibUsb.TRANSFER_TYPE_CONTROL)
+            {
+                // GET_DESCRIPTOR answered with type and index
+                final int length = request.length() - 8;
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.put(8 + i, buffer.get(3 - i % 2));
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+            else if (request.endpoint() == BULK_OUT)
+            {
+                test.bulkOutBytes += request.length();
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    request.length());
+            }
+            else if (request.endpoint() == BULK_IN)
+            {
+                final int length = request.length() / 2;
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.put(i, (byte) test.nextByte++);
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+            else if (request.endpoint() == ISO_IN)
+            {
+                int offset = 0;
+                for (int i = 0; i < request.numIsoPackets(); i++)
+                {
+                    final int length = request.isoPacketLength(i);
+                    for (int j = 0; j < length / 2; j++)
+                    {
+                        buffer.put(offset + j, (byte) (i + 1));
+                    }
+                    request.setIsoPacketResult(i, i == 1
+                        ? LibUsb.TRANSFER_ERROR : LibUsb.TRANSFER_COMPLETED,
+                        length / 2);
+                    offset += length;
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, offset);
+            }
+        }
+    };
+
+    /** The backend mock of the simulated device. */
+    private BackendMock mock;
+
+    /** The export of the simulated device. */
+    private UsbIpExport export;
+
+    /** The server. */
+    private UsbIpServer server;
+
+    /** The server address. */
+    private InetSocketAddress address;
+
+    /** The backend under test. */
+    private UsbIpBackend backend;
+
+    /**
+     * Set up the test.
+     *
+     * @throws IOException
+     *             When the server could not be started.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        this.mock = new BackendMock(this.device);
+        final ByteBuffer descriptor = ByteBuffer.allocate(18);
+        descriptor.putShort(8, (short) 0xcdab);
+        descriptor.putShort(10, (short) 0x3412);
+        this.export = new UsbIpExport(new UsbIpDevice(BUS_ID, 3, 4,
+            UsbIp.SPEED_FULL, descriptor, 1, new int[] { 0x020201 }),
+            this.mock);
+        this.export.setEndpointType(ISO_IN,
+            LibUsb.TRANSFER_TYPE_ISOCHRONOUS);
+        this.server = new UsbIpServer();
+        this.server.addExport(this.export);
+        this.server.start(new InetSocketAddress(
+            InetAddress.getByName("127.0.0.1"), 0));
+        this.address = this.server.getLocalAddress();
+        this.backend = UsbIpClient.attach(this.address, BUS_ID);
+    }
+
+    /**
+     * Tear down the test.
+     *
+     * @throws IOException
+     *             When closing fails.
+     */
+    @After
+    public void tearDown() throws IOException
+    {
+        this.backend.close();
+        this.server.close();
+        this.mock.shutdown();
+    }
+
+    /**
+     * Tests the device list and that attached devices are not listed.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testListDevices() throws Exception
+    {
+        assertEquals(0, UsbIpClient.listDevices(this.address).length);
+        assertEquals(0xabcd, this.backend.getDevice().getVendorId());
+        this.backend.close();
+        while (this.export.isImported())
+        {
+            Thread.sleep(10);
+        }
+        final UsbIpDevice[] devices = UsbIpClient.listDevices(this.address);
+        assertEquals(1, devices.length);
+        assertEquals(BUS_ID, devices[0].getBusId());
+        assertEquals(0x1234, devices[0].getProductId());
+        assertEquals(0x020201, devices[0].getInterfaces()[0]);
+    }
+
+    /**
+     * Tests that attaching an unavailable device fails.
+     */
+    @Test(expected = IOException.class)
+    public void testAttachUnavailable() throws IOException
+    {
+        UsbIpClient.attach(this.address, BUS_ID);
+    }
+
+    /**
+     * Tests blocking control and bulk transfers.
+     */
+    @Test
+    public void testBlockingTransfers()
+    {
+        final ByteBuffer descriptor = BufferUtils.allocateByteBuffer(9);
+        assertEquals(9, this.backend.getDescriptor(LibUsb.DT_CONFIG,
+            (byte) 5, descriptor, 1000));
+        for (int i = 0; i < 9; i++)
+        {
+            assertEquals(i % 2 == 0 ? LibUsb.DT_CONFIG : 5,
+                descriptor.get(i));
+        }
+
+        final BlockingIo io = new BlockingIo(this.backend);
+        final IntBuffer transferred = IntBuffer.allocate(1);
+        assertEquals(LibUsb.SUCCESS, io.bulkTransfer(BULK_OUT,
+            BufferUtils.allocateByteBuffer(300), transferred, 1000));
+        assertEquals(300, transferred.get(0));
+        assertEquals(300, this.bulkOutBytes);
+
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(64);
+        assertEquals(LibUsb.SUCCESS,
+            io.bulkTransfer(BULK_IN, data, transferred, 1000));
+        assertEquals(32, transferred.get(0));
+        for (int i = 0; i < 32; i++)
+        {
+            assertEquals((byte) i, data.get(i));
+        }
+    }
+
+    /**
+     * Tests many pipelined asynchronous requests.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testPipelining() throws InterruptedException
+    {
+        final int count = 2000;
+        final CountDownLatch done = new CountDownLatch(count);
+        final AtomicInteger failures = new AtomicInteger();
+        final IoCallback callback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                final int expected = request.endpoint() == BULK_IN ? 8 : 16;
+                if (request.status() != LibUsb.TRANSFER_COMPLETED
+                    || request.actualLength() != expected)
+                {
+                    failures.incrementAndGet();
+                }
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < count; i++)
+        {
+            final IoRequest request = new IoRequest();
+            request.fillBulk(i % 2 == 0 ? BULK_IN : BULK_OUT,
+                BufferUtils.allocateByteBuffer(16), callback, null, 0);
+            assertEquals(LibUsb.SUCCESS, this.backend.submit(request));
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+        assertEquals(count, this.backend.getSubmittedUrbs());
+        assertEquals(count, this.backend.getCompletedUrbs());
+        assertEquals(count / 2 * 16, this.bulkOutBytes);
+        assertEquals(count / 2 * 8, this.nextByte);
+        // Small requests are batched into fewer writes
+        assertTrue(this.backend.getWriteCount() < count);
+        assertTrue(this.server.getPeakPending() > 1);
+    }
+
+    /**
+     * Tests that read-ahead data is handed out in order and without loss.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testReadAhead() throws InterruptedException
+    {
+        assertEquals(LibUsb.SUCCESS,
+            this.backend.enableReadAhead(BULK_IN, 4, 64));
+        assertEquals(LibUsb.ERROR_BUSY,
+            this.backend.enableReadAhead(BULK_IN, 4, 64));
+        while (this.nextByte < 4 * 32)
+        {
+            Thread.sleep(10);
+        }
+        final BlockingIo io = new BlockingIo(this.backend);
+        final IntBuffer transferred = IntBuffer.allocate(1);
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(20);
+        int received = 0;
+        while (received < 1000)
+        {
+            assertEquals(LibUsb.SUCCESS,
+                io.bulkTransfer(BULK_IN, data, transferred, 1000));
+            final int length = transferred.get(0);
+            // Never more than the rest of one 32 byte transfer
+            assertTrue(length > 0 && length <= 20);
+            assertTrue(received / 32 == (received + length - 1) / 32);
+            for (int i = 0; i < length; i++)
+            {
+                assertEquals((byte) (received + i), data.get(i));
+            }
+            received += length;
+        }
+        assertTrue(this.backend.getReadAheadHits() > 0);
+    }
+
+    /**
+     * Tests that requests waiting for read-ahead data time out.
+     */
+    @Test
+    public void testReadAheadTimeout()
+    {
+        assertEquals(LibUsb.SUCCESS,
+            this.backend.enableReadAhead(STUCK_IN, 2, 64));
+        final BlockingIo io = new BlockingIo(this.backend);
+        final IntBuffer transferred = IntBuffer.allocate(1);
+        final ByteBuffer data = BufferUtils.allocateByteBuffer(8);
+        final long start = System.nanoTime();
+        assertEquals(LibUsb.ERROR_TIMEOUT,
+            io.bulkTransfer(STUCK_IN, data, transferred, 100));
+        assertEquals(0, transferred.get(0));
+        assertTrue(System.nanoTime() - start
+            >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    /**
+     * Tests that a read-ahead which could not be submitted is not kept.
+     *
+     * @throws IOException
+     *             When closing fails.
+     */
+    @Test
+    public void testReadAheadFailure() throws IOException
+    {
+        this.backend.close();
+        assertEquals(LibUsb.ERROR_NO_DEVICE,
+            this.backend.enableReadAhead(BULK_IN, 2, 64));
+        assertEquals(LibUsb.ERROR_NO_DEVICE,
+            this.backend.enableReadAhead(BULK_IN, 2, 64));
+    }
+
+    /**
+     * Tests cancellation and timeouts of pending requests.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testCancelAndTimeout() throws InterruptedException
+    {
+        final List<IoRequest> completed = new ArrayList<IoRequest>();
+        final CountDownLatch done = new CountDownLatch(2);
+        final IoCallback callback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                synchronized (completed)
+                {
+                    completed.add(request);
+                }
+                done.countDown();
+            }
+        };
+        final IoRequest cancelled = new IoRequest();
+        cancelled.fillBulk(STUCK_IN, BufferUtils.allocateByteBuffer(8),
+            callback, null, 0);
+        final IoRequest timedOut = new IoRequest();
+        timedOut.fillBulk(STUCK_IN, BufferUtils.allocateByteBuffer(8),
+            callback, null, 100);
+        assertEquals(LibUsb.SUCCESS, this.backend.submit(cancelled));
+        assertEquals(LibUsb.SUCCESS, this.backend.submit(timedOut));
+        assertEquals(LibUsb.ERROR_BUSY, this.backend.submit(cancelled));
+        assertEquals(LibUsb.SUCCESS, this.backend.cancel(cancelled));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(cancelled, completed.get(0));
+        assertEquals(LibUsb.TRANSFER_CANCELLED, cancelled.status());
+        assertEquals(timedOut, completed.get(1));
+        assertEquals(LibUsb.TRANSFER_TIMED_OUT, timedOut.status());
+        assertEquals(LibUsb.ERROR_NOT_FOUND, this.backend.cancel(cancelled));
+        assertEquals(0, this.mock.getPendingCount());
+    }
+
+    /**
+     * Tests that cancelling a request while it completes never unlinks
+     * another request which reuses the URB of the completed request.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testCancelRacingCompletion() throws InterruptedException
+    {
+        // The stuck requests stay below the outstanding URB limit
+        final int count = 200;
+        final AtomicInteger completions = new AtomicInteger();
+        final IoCallback callback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                synchronized (completions)
+                {
+                    completions.incrementAndGet();
+                    completions.notifyAll();
+                }
+            }
+        };
+        final AtomicInteger stuckCompletions = new AtomicInteger();
+        final IoCallback stuckCallback = new IoCallback()
+        {
+            @Override
+            public void processRequest(final IoRequest request)
+            {
+                stuckCompletions.incrementAndGet();
+            }
+        };
+        final IoRequest racer = new IoRequest();
+        racer.fillBulk(BULK_IN, BufferUtils.allocateByteBuffer(16), callback,
+            null, 0);
+        final Thread canceller = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while (!Thread.currentThread().isInterrupted())
+                {
+                    UsbIpBackendTest.this.backend.cancel(racer);
+                }
+            }
+        });
+        canceller.start();
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                assertEquals(LibUsb.SUCCESS, this.backend.submit(racer));
+                synchronized (completions)
+                {
+                    while (completions.get() <= i)
+                    {
+                        completions.wait();
+                    }
+                }
+                assertTrue(racer.status() == LibUsb.TRANSFER_COMPLETED
+                    || racer.status() == LibUsb.TRANSFER_CANCELLED);
+
+                // Likely reuses the URB the canceller is looking at
+                final IoRequest stuck = new IoRequest();
+                stuck.fillBulk(STUCK_IN, BufferUtils.allocateByteBuffer(8),
+                    stuckCallback, null, 0);
+                assertEquals(LibUsb.SUCCESS, this.backend.submit(stuck));
+            }
+        }
+        finally
+        {
+            canceller.interrupt();
+            canceller.join();
+        }
+
+        // Wait for unlink replies which are still on their way
+        final IoRequest marker = new IoRequest();
+        marker.fillBulk(BULK_OUT, BufferUtils.allocateByteBuffer(8),
+            callback, null, 0);
+        assertEquals(LibUsb.SUCCESS, this.backend.submit(marker));
+        synchronized (completions)
+        {
+            while (completions.get() <= count)
+            {
+                completions.wait();
+            }
+        }
+        assertEquals(0, stuckCompletions.get());
+    }
+
+    /**
+     * Tests an isochronous IN request. The server sends the packet data
+     * back to back, the backend moves it to the packet offsets.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testIso() throws InterruptedException
+    {
+        final CountDownLatch done = new CountDownLatch(1);
+        final IoRequest request = new IoRequest();
+        final ByteBuffer buffer = BufferUtils.allocateByteBuffer(60);
+        request.fillIso(ISO_IN, buffer, new int[] { 10, 20, 30 },
+            new IoCallback()
+            {
+                @Override
+                public void processRequest(final IoRequest request)
+                {
+                    done.countDown();
+                }
+            }, null, 0);
+        assertEquals(LibUsb.SUCCESS, this.backend.submit(request));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(LibUsb.TRANSFER_COMPLETED, request.status());
+        assertEquals(30, request.actualLength());
+        final int[] offsets = { 0, 10, 30 };
+        for (int i = 0; i < 3; i++)
+        {
+            final int actual = request.isoPacketLength(i) / 2;
+            assertEquals(actual, request.isoPacketActualLength(i));
+            assertEquals(i == 1 ? LibUsb.TRANSFER_ERROR
+                : LibUsb.TRANSFER_COMPLETED, request.isoPacketStatus(i));
+            for (int j = 0; j < actual; j++)
+            {
+                assertEquals(i + 1, buffer.get(offsets[i] + j));
+            }
+        }
+    }
+
+    /**
+     * Tests that outstanding requests fail when the server goes away.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testServerGone() throws Exception
+    {
+        final CountDownLatch done = new CountDownLatch(1);
+        final IoRequest request = new IoRequest();
+        request.fillBulk(STUCK_IN, BufferUtils.allocateByteBuffer(8),
+            new IoCallback()
+            {
+                @Override
+                public void processRequest(final IoRequest request)
+                {
+                    done.countDown();
+                }
+            }, null, 0);
+        assertEquals(LibUsb.SUCCESS, this.backend.submit(request));
+        this.server.close();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(LibUsb.TRANSFER_NO_DEVICE, request.status());
+        while (!this.backend.isClosed())
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(LibUsb.ERROR_NO_DEVICE, this.backend.submit(request));
+        assertFalse(this.export.isImported());
+    }
+}
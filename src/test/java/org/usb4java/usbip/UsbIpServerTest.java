@@ -0,0 +1,797 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.usbip;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link UsbIpServer} class with a simulated device and a minimal
+ * USB/IP client speaking the wire protocol over a local socket.
+ *
+ * @author usb4java Team
+ */
+public class UsbIpServerTest
+{
+    /** The bus ID of the exported device. */
+    private static final String BUS_ID = "1-1";
+
+    /** Bulk OUT endpoint which accepts everything. */
+    private static final byte BULK_OUT = 0x02;
+
+    /** Bulk IN endpoint which returns half of the requested data. */
+    private static final byte BULK_IN = (byte) 0x81;
+
+    /** Bulk IN endpoint which never completes. */
+    private static final byte STUCK_IN = (byte) 0x83;
+
+    /** Isochronous IN endpoint. */
+    private static final byte ISO_IN = (byte) 0x85;
+
+    /** The bytes received on the bulk OUT endpoint. */
+    volatile int bulkOutBytes;
+
+    /** The data of the last control OUT request. */
+    volatile byte[] controlData;
+
+    /** The requests on the endpoint which never completes. */
+    final List<IoRequest> stuck = new ArrayList<IoRequest>();
+
+    /** The simulated device. */
+    private final BackendMock.Handler device = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final UsbIpServerTest test = UsbIpServerTest.this;
+            final ByteBuffer buffer = request.buffer();
+            if (request.type() == LibUsb.TRANSFER_TYPE_CONTROL)
+            {
+                final int length = request.length() - 8;
+                if ((buffer.get(0) & 0x80) != 0)
+                {
+                    for (int i = 0; i < length; i++)
+                    {
+                        buffer.put(8 + i, (byte) (i + 1));
+                    }
+                }
+                else
+                {
+                    final byte[] data = new byte[length];
+                    for (int i = 0; i < length; i++)
+                    {
+                        data[i] = buffer.get(8 + i);
+                    }
+                    test.controlData = data;
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+            else if (request.endpoint() == BULK_OUT)
+            {
+                test.bulkOutBytes += request.length();
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    request.length());
+            }
+            else if (request.endpoint() == BULK_IN)
+            {
+                final int length = request.length() / 2;
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.put(i, (byte) i);
+                }
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED, length);
+            }
+            else if (request.endpoint() == ISO_IN)
+            {
+                test.sendIso(mock, request);
+            }
+            else
+            {
+                synchronized (test.stuck)
+                {
+                    test.stuck.add(request);
+                }
+            }
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /** The exported device. */
+    private UsbIpExport export;
+
+    /** The server. */
+    private UsbIpServer server;
+
+    /**
+     * Answers an isochronous IN request. Each packet is one byte short and
+     * filled with its index, packet 2 fails.
+     *
+     * @param mock
+     *            The backend mock.
+     * @param request
+     *            The request.
+     */
+    void sendIso(final BackendMock mock, final IoRequest request)
+    {
+        final ByteBuffer buffer = request.buffer();
+        int offset = 0;
+        for (int i = 0; i < request.numIsoPackets(); i++)
+        {
+            final int length = request.isoPacketLength(i);
+            if (i == 2)
+            {
+                request.setIsoPacketResult(i, LibUsb.TRANSFER_ERROR, 0);
+            }
+            else
+            {
+                for (int j = 0; j < length - 1; j++)
+                {
+                    buffer.put(offset + j, (byte) i);
+                }
+                request.setIsoPacketResult(i, LibUsb.TRANSFER_COMPLETED,
+                    length - 1);
+            }
+            offset += length;
+        }
+        mock.complete(request, LibUsb.TRANSFER_COMPLETED, offset);
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.device);
+        final ByteBuffer descriptor = ByteBuffer.allocate(18);
+        descriptor.put(0, (byte) 18);
+        descriptor.put(1, LibUsb.DT_DEVICE);
+        descriptor.putShort(8, (short) 0x3412);
+        descriptor.putShort(10, (short) 0x7856);
+        descriptor.putShort(12, (short) 0x0001);
+        descriptor.put(4, (byte) 0xef);
+        descriptor.put(17, (byte) 1);
+        this.export = new UsbIpExport(new UsbIpDevice(BUS_ID, 1, 2,
+            UsbIp.SPEED_HIGH, descriptor, 1, new int[] { 0xff0102,
+                0x030000 }), this.backend);
+        this.export.setEndpointType(ISO_IN,
+            LibUsb.TRANSFER_TYPE_ISOCHRONOUS);
+    }
+
+    /**
+     * Tear down the test.
+     *
+     * @throws IOException
+     *             When closing the server fails.
+     */
+    @After
+    public void tearDown() throws IOException
+    {
+        if (this.server != null)
+        {
+            this.server.close();
+        }
+        this.backend.shutdown();
+    }
+
+    /**
+     * Starts the server on an ephemeral local port.
+     *
+     * @param maxOutstanding
+     *            The maximum number of URBs in use per connection.
+     * @return The connected client.
+     * @throws IOException
+     *             When starting or connecting fails.
+     */
+    private Client start(final int maxOutstanding) throws IOException
+    {
+        this.server = new UsbIpServer(maxOutstanding,
+            UsbIpServer.DEFAULT_MAX_TRANSFER_SIZE);
+        this.server.addExport(this.export);
+        this.server.start(new InetSocketAddress(
+            InetAddress.getByName("127.0.0.1"), 0));
+        return new Client(this.server.getLocalAddress());
+    }
+
+    /**
+     * Tests the device list.
+     *
+     * @throws IOException
+     *             When communication fails.
+     */
+    @Test
+    public void testDeviceList() throws IOException
+    {
+        final Client client = this.start(16);
+        try
+        {
+            client.op(UsbIp.OP_REQ_DEVLIST);
+            client.out.flush();
+            assertEquals(UsbIp.VERSION, client.in.readShort());
+            assertEquals(UsbIp.OP_REP_DEVLIST, client.in.readShort());
+            assertEquals(0, client.in.readInt());
+            assertEquals(1, client.in.readInt());
+            final byte[] data = new byte[UsbIpDevice.SIZE
+                + 2 * UsbIpDevice.INTERFACE_SIZE];
+            client.in.readFully(data);
+            final UsbIpDevice device =
+                UsbIpDevice.read(ByteBuffer.wrap(data), true);
+            assertEquals(BUS_ID, device.getBusId());
+            assertEquals(0x1234, device.getVendorId());
+            assertEquals(0x5678, device.getProductId());
+            assertEquals(0x0100, device.getBcdDevice());
+            assertEquals(0xef, device.getDeviceClass());
+            assertEquals(UsbIp.SPEED_HIGH, device.getSpeed());
+            assertEquals(0x10002, device.getDevId());
+            assertArrayEquals(new int[] { 0xff0102, 0x030000 },
+                device.getInterfaces());
+            assertEquals(-1, client.in.read());
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests that a device can only be imported once and unknown devices are
+     * rejected.
+     *
+     * @throws IOException
+     *             When communication fails.
+     */
+    @Test
+    public void testImport() throws IOException
+    {
+        final Client client = this.start(16);
+        try
+        {
+            final UsbIpDevice device = client.importDevice(BUS_ID);
+            assertNotNull(device);
+            assertEquals(0x1234, device.getVendorId());
+            assertTrue(this.export.isImported());
+
+            final Client second = new Client(this.server.getLocalAddress());
+            assertEquals(null, second.importDevice(BUS_ID));
+            assertEquals(-1, second.in.read());
+            second.close();
+
+            final Client third = new Client(this.server.getLocalAddress());
+            assertEquals(null, third.importDevice("9-9"));
+            third.close();
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests many pipelined bulk URBs.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testPipelining() throws Exception
+    {
+        final int urbs = 2000;
+        final Client client = this.start(64);
+        try
+        {
+            assertNotNull(client.importDevice(BUS_ID));
+            for (int i = 1; i <= urbs; i++)
+            {
+                if (i % 2 == 0)
+                {
+                    client.submit(i, UsbIp.DIR_IN, BULK_IN & 0x0f, 200, null,
+                        null, 0);
+                }
+                else
+                {
+                    client.submit(i, UsbIp.DIR_OUT, BULK_OUT, 100, null,
+                        new byte[100], 0);
+                }
+            }
+            final Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        client.out.flush();
+                    }
+                    catch (final IOException e)
+                    {
+                        // Detected by the reader
+                    }
+                }
+            };
+            // All commands are sent in one burst
+            thread.start();
+            final Map<Integer, Reply> replies = new HashMap<Integer, Reply>();
+            for (int i = 0; i < urbs; i++)
+            {
+                final Reply reply = client.read();
+                replies.put(reply.seqnum, reply);
+            }
+            thread.join();
+
+            assertEquals(urbs, replies.size());
+            for (int i = 1; i <= urbs; i++)
+            {
+                final Reply reply = replies.get(i);
+                assertEquals(UsbIp.RET_SUBMIT, reply.command);
+                assertEquals(0, reply.status);
+                assertEquals(100, reply.actualLength);
+                if (i % 2 == 0)
+                {
+                    for (int j = 0; j < 100; j++)
+                    {
+                        assertEquals((byte) j, reply.data[j]);
+                    }
+                }
+            }
+            assertEquals(urbs / 2 * 100, this.bulkOutBytes);
+            assertEquals(urbs, this.server.getSubmittedUrbs());
+            assertEquals(urbs, this.server.getCompletedUrbs());
+            assertTrue(this.server.getPeakPending() > 1);
+            assertTrue(this.server.getPeakPending() <= 64);
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests control URBs in both directions.
+     *
+     * @throws IOException
+     *             When communication fails.
+     */
+    @Test
+    public void testControl() throws IOException
+    {
+        final Client client = this.start(16);
+        try
+        {
+            assertNotNull(client.importDevice(BUS_ID));
+            client.submit(1, UsbIp.DIR_IN, 0, 18, new byte[] {
+                (byte) 0x80, 6, 0, 1, 0, 0, 18, 0 }, null, 0);
+            client.submit(2, UsbIp.DIR_OUT, 0, 3, new byte[] { 0x40, 1, 0,
+                0, 0, 0, 3, 0 }, new byte[] { 7, 8, 9 }, 0);
+            client.out.flush();
+            final Reply in = client.read();
+            assertEquals(1, in.seqnum);
+            assertEquals(18, in.actualLength);
+            for (int i = 0; i < 18; i++)
+            {
+                assertEquals(i + 1, in.data[i]);
+            }
+            final Reply out = client.read();
+            assertEquals(2, out.seqnum);
+            assertEquals(0, out.status);
+            assertEquals(3, out.actualLength);
+            assertArrayEquals(new byte[] { 7, 8, 9 }, this.controlData);
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests unlinking a pending URB and an already completed URB.
+     *
+     * @throws IOException
+     *             When communication fails.
+     */
+    @Test
+    public void testUnlink() throws IOException
+    {
+        final Client client = this.start(16);
+        try
+        {
+            assertNotNull(client.importDevice(BUS_ID));
+            client.submit(1, UsbIp.DIR_IN, STUCK_IN & 0x0f, 64, null, null,
+                0);
+            client.unlink(2, 1);
+            client.unlink(3, 99);
+            client.submit(4, UsbIp.DIR_IN, BULK_IN & 0x0f, 8, null, null,
+                0);
+            client.out.flush();
+
+            final Map<Integer, Reply> replies = new HashMap<Integer, Reply>();
+            for (int i = 0; i < 3; i++)
+            {
+                final Reply reply = client.read();
+                replies.put(reply.seqnum, reply);
+            }
+            assertEquals(UsbIp.RET_UNLINK, replies.get(2).command);
+            assertEquals(-UsbIp.ECONNRESET, replies.get(2).status);
+            assertEquals(UsbIp.RET_UNLINK, replies.get(3).command);
+            assertEquals(0, replies.get(3).status);
+            assertEquals(UsbIp.RET_SUBMIT, replies.get(4).command);
+            assertEquals(4, replies.get(4).actualLength);
+            assertEquals(2, this.server.getUnlinkedUrbs());
+            assertEquals(0, this.backend.getPendingCount());
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests an isochronous IN URB.
+     *
+     * @throws IOException
+     *             When communication fails.
+     */
+    @Test
+    public void testIso() throws IOException
+    {
+        final Client client = this.start(16);
+        try
+        {
+            assertNotNull(client.importDevice(BUS_ID));
+            final int[] lengths = { 10, 20, 30, 40 };
+            client.submit(1, UsbIp.DIR_IN, ISO_IN & 0x0f, 100, null, null,
+                lengths.length);
+            client.isoDescriptors(lengths);
+            client.out.flush();
+            final Reply reply = client.read();
+            assertEquals(0, reply.status);
+            assertEquals(9 + 19 + 39, reply.actualLength);
+            assertEquals(1, reply.errorCount);
+            final int[] offsets = { 0, 10, 30, 60 };
+            final int[] actual = { 9, 19, 0, 39 };
+            int position = 0;
+            for (int i = 0; i < lengths.length; i++)
+            {
+                assertEquals(offsets[i], reply.iso[i][0]);
+                assertEquals(lengths[i], reply.iso[i][1]);
+                assertEquals(actual[i], reply.iso[i][2]);
+                assertEquals(i == 2 ? -UsbIp.EPROTO : 0, reply.iso[i][3]);
+                for (int j = 0; j < actual[i]; j++)
+                {
+                    assertEquals(i, reply.data[position++]);
+                }
+            }
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Tests that the server stops reading commands when the maximum number
+     * of URBs is in use and continues when they complete.
+     *
+     * @throws Exception
+     *             When test fails.
+     */
+    @Test
+    public void testMaxOutstanding() throws Exception
+    {
+        final Client client = this.start(4);
+        try
+        {
+            assertNotNull(client.importDevice(BUS_ID));
+            for (int i = 1; i <= 10; i++)
+            {
+                client.submit(i, UsbIp.DIR_IN, STUCK_IN & 0x0f, 8, null,
+                    null, 0);
+            }
+            client.out.flush();
+            while (this.backend.getPendingCount() < 4)
+            {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            assertEquals(4, this.backend.getPendingCount());
+            assertEquals(4, this.server.getSubmittedUrbs());
+
+            int received = 0;
+            while (received < 10)
+            {
+                final List<IoRequest> requests;
+                synchronized (this.stuck)
+                {
+                    requests = new ArrayList<IoRequest>(this.stuck);
+                    this.stuck.clear();
+                }
+                for (final IoRequest request : requests)
+                {
+                    this.backend.complete(request, LibUsb.TRANSFER_STALL, 0);
+                }
+                for (int i = 0; i < requests.size(); i++)
+                {
+                    assertEquals(-UsbIp.EPIPE, client.read().status);
+                    received++;
+                }
+                Thread.sleep(10);
+            }
+            assertEquals(10, this.server.getSubmittedUrbs());
+            assertEquals(4, this.server.getPeakPending());
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * A reply received by the client.
+     */
+    private static final class Reply
+    {
+        /** The reply command. */
+        int command;
+
+        /** The sequence number. */
+        int seqnum;
+
+        /** The status. */
+        int status;
+
+        /** The actual length. */
+        int actualLength;
+
+        /** The number of failed isochronous packets. */
+        int errorCount;
+
+        /** The received data. */
+        byte[] data;
+
+        /** The isochronous packet descriptors. */
+        int[][] iso;
+    }
+
+    /**
+     * A minimal USB/IP client.
+     */
+    private static final class Client
+    {
+        /** The socket. */
+        private final Socket socket;
+
+        /** The direction and packet count of the URBs by sequence number. */
+        private final Map<Integer, int[]> urbs =
+            new HashMap<Integer, int[]>();
+
+        /** The input stream. */
+        final DataInputStream in;
+
+        /** The output stream. */
+        final DataOutputStream out;
+
+        /**
+         * Connects a client.
+         *
+         * @param address
+         *            The server address.
+         * @throws IOException
+         *             When connecting fails.
+         */
+        Client(final InetSocketAddress address) throws IOException
+        {
+            this.socket = new Socket(address.getAddress(), address.getPort());
+            this.socket.setSoTimeout(10000);
+            this.in = new DataInputStream(this.socket.getInputStream());
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                this.socket.getOutputStream(), 1 << 20));
+        }
+
+        /**
+         * Writes an operation header.
+         *
+         * @param code
+         *            The operation code.
+         * @throws IOException
+         *             When writing fails.
+         */
+        void op(final int code) throws IOException
+        {
+            this.out.writeShort(UsbIp.VERSION);
+            this.out.writeShort(code);
+            this.out.writeInt(0);
+        }
+
+        /**
+         * Imports a device.
+         *
+         * @param busId
+         *            The bus ID.
+         * @return The device or null if the import was rejected.
+         * @throws IOException
+         *             When communication fails.
+         */
+        UsbIpDevice importDevice(final String busId) throws IOException
+        {
+            this.op(UsbIp.OP_REQ_IMPORT);
+            final byte[] id = new byte[UsbIp.BUS_ID_SIZE];
+            System.arraycopy(busId.getBytes("US-ASCII"), 0, id, 0,
+                busId.length());
+            this.out.write(id);
+            this.out.flush();
+            assertEquals(UsbIp.VERSION, this.in.readShort());
+            assertEquals(UsbIp.OP_REP_IMPORT, this.in.readShort());
+            if (this.in.readInt() != 0)
+            {
+                return null;
+            }
+            final byte[] data = new byte[UsbIpDevice.SIZE];
+            this.in.readFully(data);
+            return UsbIpDevice.read(ByteBuffer.wrap(data), false);
+        }
+
+        /**
+         * Writes a CMD_SUBMIT.
+         *
+         * @param seqnum
+         *            The sequence number.
+         * @param direction
+         *            The direction.
+         * @param endpoint
+         *            The endpoint number.
+         * @param length
+         *            The transfer buffer length.
+         * @param setup
+         *            The setup packet. Null for non-control URBs.
+         * @param data
+         *            The OUT data. Null for IN URBs.
+         * @param packets
+         *            The number of isochronous packets.
+         * @throws IOException
+         *             When writing fails.
+         */
+        void submit(final int seqnum, final int direction,
+            final int endpoint, final int length, final byte[] setup,
+            final byte[] data, final int packets) throws IOException
+        {
+            this.urbs.put(seqnum, new int[] { direction, packets });
+            this.out.writeInt(UsbIp.CMD_SUBMIT);
+            this.out.writeInt(seqnum);
+            this.out.writeInt(0x10002);
+            this.out.writeInt(direction);
+            this.out.writeInt(endpoint);
+            this.out.writeInt(0);
+            this.out.writeInt(length);
+            this.out.writeInt(0);
+            this.out.writeInt(packets > 0 ? packets : -1);
+            this.out.writeInt(0);
+            this.out.write(setup == null ? new byte[8] : setup);
+            if (data != null)
+            {
+                this.out.write(data);
+            }
+        }
+
+        /**
+         * Writes isochronous packet descriptors.
+         *
+         * @param lengths
+         *            The packet lengths.
+         * @throws IOException
+         *             When writing fails.
+         */
+        void isoDescriptors(final int[] lengths) throws IOException
+        {
+            int offset = 0;
+            for (final int length : lengths)
+            {
+                this.out.writeInt(offset);
+                this.out.writeInt(length);
+                this.out.writeInt(0);
+                this.out.writeInt(0);
+                offset += length;
+            }
+        }
+
+        /**
+         * Writes a CMD_UNLINK.
+         *
+         * @param seqnum
+         *            The sequence number.
+         * @param unlinkSeqnum
+         *            The sequence number of the URB to unlink.
+         * @throws IOException
+         *             When writing fails.
+         */
+        void unlink(final int seqnum, final int unlinkSeqnum)
+            throws IOException
+        {
+            this.out.writeInt(UsbIp.CMD_UNLINK);
+            this.out.writeInt(seqnum);
+            this.out.writeInt(0x10002);
+            this.out.writeInt(0);
+            this.out.writeInt(0);
+            this.out.writeInt(unlinkSeqnum);
+            this.out.write(new byte[24]);
+        }
+
+        /**
+         * Reads a reply.
+         *
+         * @return The reply.
+         * @throws IOException
+         *             When reading fails.
+         */
+        Reply read() throws IOException
+        {
+            final Reply reply = new Reply();
+            reply.command = this.in.readInt();
+            reply.seqnum = this.in.readInt();
+            this.in.readInt();
+            this.in.readInt();
+            this.in.readInt();
+            reply.status = this.in.readInt();
+            if (reply.command == UsbIp.RET_UNLINK)
+            {
+                this.in.readFully(new byte[24]);
+                return reply;
+            }
+            final int[] urb = this.urbs.remove(reply.seqnum);
+            final int packets = urb[1];
+            reply.actualLength = this.in.readInt();
+            this.in.readInt();
+            assertEquals(packets, this.in.readInt());
+            reply.errorCount = this.in.readInt();
+            this.in.readLong();
+            reply.data = new byte[urb[0] == UsbIp.DIR_IN
+                ? reply.actualLength : 0];
+            this.in.readFully(reply.data);
+            reply.iso = new int[packets][4];
+            for (int i = 0; i < packets; i++)
+            {
+                for (int j = 0; j < 4; j++)
+                {
+                    reply.iso[i][j] = this.in.readInt();
+                }
+            }
+            return reply;
+        }
+
+        /**
+         * Closes the connection.
+         *
+         * @throws IOException
+         *             When closing fails.
+         */
+        void close() throws IOException
+        {
+            this.socket.close();
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2026 usb4java Team
+ * See LICENSE.md for licensing information.
+ */
+
+package org.usb4java.uvc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.usb4java.IoRequest;
+import org.usb4java.LibUsb;
+import org.usb4java.mocks.BackendMock;
+
+/**
+ * Tests the {@link UvcStream} and {@link UvcFrameAssembler} classes against
+ * a simulated camera.
+ *
+ * @author usb4java Team
+ */
+public class UvcStreamTest
+{
+    /** The streaming endpoint. */
+    private static final byte ENDPOINT = (byte) 0x81;
+
+    /** The frame size of the simulated camera. */
+    private static final int FRAME_SIZE = 10000;
+
+    /** The payload size of the simulated camera. */
+    private static final int PAYLOAD_SIZE = 1024;
+
+    /** The payload header size of the simulated camera. */
+    private static final int HEADER_SIZE = 12;
+
+    /** The number of frames sent by the simulated camera. */
+    private static final int FRAMES = 200;
+
+    /** The last probe or commit structure received by the camera. */
+    final ByteBuffer probe = ByteBuffer.allocate(UvcStreamControl.SIZE_15)
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    /** The length of the last probe or commit structure received. */
+    volatile int probeLength;
+
+    /** Whether the camera received a commit request. */
+    volatile boolean committed;
+
+    /** Whether the camera sets the EOF bit. */
+    volatile boolean sendEof = true;
+
+    /** The frame in which an isochronous packet fails. -1 for none. */
+    volatile int failPacketInFrame = -1;
+
+    /** The frame in which the camera sets the error bit. -1 for none. */
+    volatile int errorBitInFrame = -1;
+
+    /** The frame currently sent by the camera. */
+    int frame;
+
+    /** The offset in the current frame. */
+    int frameOffset;
+
+    /** Whether an empty packet is sent before the next frame. */
+    boolean gap;
+
+    /** The simulated camera. */
+    private final BackendMock.Handler camera = new BackendMock.Handler()
+    {
+        @Override
+        public void handle(final BackendMock mock, final IoRequest request)
+        {
+            final UvcStreamTest test = UvcStreamTest.this;
+            if (request.type() == LibUsb.TRANSFER_TYPE_CONTROL)
+            {
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    test.control(request.buffer()));
+                return;
+            }
+            if (test.frame >= FRAMES)
+            {
+                // Stream is over, keep request pending
+                return;
+            }
+            final ByteBuffer buffer = request.buffer();
+            final int packets = request.numIsoPackets();
+            if (packets == 0)
+            {
+                mock.complete(request, LibUsb.TRANSFER_COMPLETED,
+                    test.payload(buffer, 0));
+                return;
+            }
+            int total = 0;
+            for (int i = 0; i < packets; i++)
+            {
+                final int failFrame = test.failPacketInFrame;
+                if (test.frame == failFrame && test.frameOffset > 0)
+                {
+                    test.failPacketInFrame = -1;
+                    test.payload(buffer, i * PAYLOAD_SIZE);
+                    request.setIsoPacketResult(i, LibUsb.TRANSFER_ERROR, 0);
+                    continue;
+                }
+                final int length = test.frame < FRAMES
+                    ? test.payload(buffer, i * PAYLOAD_SIZE) : 0;
+                request.setIsoPacketResult(i, LibUsb.TRANSFER_COMPLETED,
+                    length);
+                total += length;
+            }
+            mock.complete(request, LibUsb.TRANSFER_COMPLETED, total);
+        }
+    };
+
+    /** The backend mock. */
+    private BackendMock backend;
+
+    /**
+     * Processes a probe or commit request in the simulated camera.
+     *
+     * @param buffer
+     *            The request buffer including the setup packet.
+     * @return The number of transferred bytes.
+     */
+    int control(final ByteBuffer buffer)
+    {
+        final ByteBuffer setup = buffer.duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        final byte bRequest = setup.get(1);
+        final int selector = (setup.getShort(2) & 0xffff) >> 8;
+        final int length = setup.getShort(6) & 0xffff;
+        final int data = LibUsb.CONTROL_SETUP_SIZE;
+        if (bRequest == UvcStream.SET_CUR)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                this.probe.put(i, buffer.get(data + i));
+            }
+            this.probeLength = length;
+            if (selector == UvcStream.VS_PROBE_CONTROL)
+            {
+                // Fill in the fields the device is responsible for
+                this.probe.putInt(18, FRAME_SIZE);
+                this.probe.putInt(22, PAYLOAD_SIZE);
+                this.probe.putInt(26, 48000000);
+                this.probe.put(35, (byte) 8);
+                this.probe.putLong(40, 0x0001000200030004L);
+            }
+            else
+            {
+                this.committed = true;
+            }
+        }
+        else
+        {
+            for (int i = 0; i < length; i++)
+            {
+                buffer.put(data + i, this.probe.get(i));
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the expected value of a frame byte.
+     *
+     * @param frame
+     *            The frame number.
+     * @param offset
+     *            The offset in the frame.
+     * @return The byte value.
+     */
+    static byte frameByte(final int frame, final int offset)
+    {
+        return (byte) (frame * 31 + offset);
+    }
+
+    /**
+     * Writes the next payload of the simulated camera.
+     *
+     * @param buffer
+     *            The request buffer.
+     * @param offset
+     *            The offset of the payload in the buffer.
+     * @return The payload length.
+     */
+    int payload(final ByteBuffer buffer, final int offset)
+    {
+        if (this.gap)
+        {
+            this.gap = false;
+            return 0;
+        }
+        final int length = Math.min(PAYLOAD_SIZE - HEADER_SIZE, FRAME_SIZE
+            - this.frameOffset);
+        final boolean last = this.frameOffset + length == FRAME_SIZE;
+        int info = UvcFrameAssembler.HEADER_EOH
+            | UvcFrameAssembler.HEADER_PTS | UvcFrameAssembler.HEADER_SCR
+            | (this.frame & 1);
+        if (last && this.sendEof)
+        {
+            info |= UvcFrameAssembler.HEADER_EOF;
+        }
+        if (this.frame == this.errorBitInFrame)
+        {
+            info |= UvcFrameAssembler.HEADER_ERR;
+        }
+        buffer.put(offset, (byte) HEADER_SIZE);
+        buffer.put(offset + 1, (byte) info);
+        buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(offset + 2, 1000 + this.frame);
+        for (int i = 0; i < length; i++)
+        {
+            buffer.put(offset + HEADER_SIZE + i, frameByte(this.frame,
+                this.frameOffset + i));
+        }
+        this.frameOffset += length;
+        if (last)
+        {
+            this.frame++;
+            this.frameOffset = 0;
+            this.gap = true;
+        }
+        return HEADER_SIZE + length;
+    }
+
+    /**
+     * Set up the test.
+     */
+    @Before
+    public void setUp()
+    {
+        this.backend = new BackendMock(this.camera);
+    }
+
+    /**
+     * Tear down the test.
+     */
+    @After
+    public void tearDown()
+    {
+        this.backend.shutdown();
+    }
+
+    /**
+     * Frame listener which verifies the frame content.
+     */
+    private static final class Verifier implements UvcFrameListener
+    {
+        /** Counted down for each received frame. */
+        final CountDownLatch latch;
+
+        /** The number of frames with unexpected content. */
+        volatile int mismatches;
+
+        /** The number of received frames. */
+        volatile int received;
+
+        /**
+         * Constructor.
+         *
+         * @param frames
+         *            The number of expected frames.
+         */
+        Verifier(final int frames)
+        {
+            this.latch = new CountDownLatch(frames);
+        }
+
+        @Override
+        public void frameReceived(final UvcFrame frame)
+        {
+            final int number = (int) frame.getSequence();
+            final ByteBuffer buffer = frame.getBuffer();
+            if (frame.getSize() != FRAME_SIZE
+                || frame.getPresentationTime() != 1000 + number)
+            {
+                this.mismatches++;
+            }
+            else
+            {
+                for (int i = 0; i < FRAME_SIZE; i++)
+                {
+                    if (buffer.get(i) != frameByte(number, i))
+                    {
+                        this.mismatches++;
+                        break;
+                    }
+                }
+            }
+            this.received++;
+            frame.release();
+            this.latch.countDown();
+        }
+    }
+
+    /**
+     * Tests negotiating the streaming parameters.
+     */
+    @Test
+    public void testNegotiate()
+    {
+        final UvcStream stream = new UvcStream(this.backend, 1, 0x0110,
+            new UvcFrameAssembler(FRAME_SIZE, 2, new Verifier(0)), 1000);
+        final UvcStreamControl request = new UvcStreamControl(1, 2, 333333);
+        final UvcStreamControl result = stream.negotiate(request);
+        assertTrue(this.committed);
+        assertEquals(1, result.getFormatIndex());
+        assertEquals(2, result.getFrameIndex());
+        assertEquals(333333, result.getFrameInterval());
+        assertEquals(UvcStreamControl.HINT_FRAME_INTERVAL, result.getHint());
+        assertEquals(FRAME_SIZE, result.getMaxVideoFrameSize());
+        assertEquals(PAYLOAD_SIZE, result.getMaxPayloadTransferSize());
+        assertEquals(48000000, result.getClockFrequency());
+    }
+
+    /**
+     * Tests negotiating the streaming parameters with the larger structure
+     * of UVC 1.5 devices.
+     */
+    @Test
+    public void testNegotiate15()
+    {
+        final UvcStream stream = new UvcStream(this.backend, 1, 0x0150,
+            new UvcFrameAssembler(FRAME_SIZE, 2, new Verifier(0)), 1000);
+        final UvcStreamControl result =
+            stream.negotiate(new UvcStreamControl(1, 2, 333333));
+        assertTrue(this.committed);
+        assertEquals(UvcStreamControl.SIZE_15, this.probeLength);
+        assertEquals(48000000, result.getClockFrequency());
+        assertEquals(8, result.getBitDepthLuma());
+        assertEquals(0x0001000200030004L, result.getLayoutPerStream());
+
+        // The commit request sends the negotiated fields back
+        assertEquals(0x0001000200030004L, this.probe.getLong(40));
+    }
+
+    /**
+     * Tests isochronous streaming with a lost packet and an error bit.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testIso() throws InterruptedException
+    {
+        this.failPacketInFrame = 50;
+        this.errorBitInFrame = 100;
+        final Verifier verifier = new Verifier(FRAMES - 2);
+        final UvcFrameAssembler assembler = new UvcFrameAssembler(FRAME_SIZE,
+            4, verifier);
+        final UvcStream stream = new UvcStream(this.backend, 1, 0x0100,
+            assembler, 1000);
+        assertEquals(LibUsb.SUCCESS, stream.startIso(ENDPOINT, PAYLOAD_SIZE,
+            8, 3));
+        assertTrue(verifier.latch.await(10, TimeUnit.SECONDS));
+        stream.stop();
+
+        assertEquals(0, verifier.mismatches);
+        assertEquals(FRAMES - 2, assembler.getFrameCount());
+        assertEquals(2, assembler.getCorruptFrameCount());
+        assertEquals(0, assembler.getDroppedFrameCount());
+        assertEquals(1, stream.getErrorCount());
+        assertEquals(4, assembler.getFreeFrameCount());
+        assertTrue(assembler.getAverageFrameInterval() > 0);
+        assertTrue(assembler.getMaxFrameInterval()
+            >= assembler.getAverageFrameInterval());
+        assertEquals(0, this.backend.getPendingCount());
+    }
+
+    /**
+     * Tests bulk streaming of a camera which never sets the EOF bit, so
+     * frames are only terminated by the FID toggle.
+     *
+     * @throws InterruptedException
+     *             When interrupted.
+     */
+    @Test
+    public void testBulkWithoutEof() throws InterruptedException
+    {
+        this.sendEof = false;
+        final Verifier verifier = new Verifier(FRAMES - 1);
+        final UvcFrameAssembler assembler = new UvcFrameAssembler(FRAME_SIZE,
+            4, verifier);
+        final UvcStream stream = new UvcStream(this.backend, 1, 0x0100,
+            assembler, 1000);
+        assertEquals(LibUsb.SUCCESS, stream.startBulk(ENDPOINT, PAYLOAD_SIZE,
+            4));
+        assertTrue(verifier.latch.await(10, TimeUnit.SECONDS));
+        stream.stop();
+
+        assertEquals(0, verifier.mismatches);
+        assertEquals(FRAMES - 1, assembler.getFrameCount());
+        assertEquals(0, assembler.getCorruptFrameCount());
+        assertTrue(assembler.getByteCount()
+            >= (long) (FRAMES - 1) * FRAME_SIZE);
+
+        // The last frame was discarded on stop
+        assertEquals(4, assembler.getFreeFrameCount());
+    }
+
+    /**
+     * Tests that frames are dropped when the consumer doesn't release them.
+     */
+    @Test
+    public void testDropped()
+    {
+        final int[] received = new int[1];
+        final UvcFrameAssembler assembler = new UvcFrameAssembler(FRAME_SIZE,
+            2, new UvcFrameListener()
+            {
+                @Override
+                public void frameReceived(final UvcFrame frame)
+                {
+                    received[0]++;
+                }
+            });
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(PAYLOAD_SIZE);
+        for (int i = 0; i < 5; i++)
+        {
+            this.sendEof = i % 2 == 0;
+            while (this.frame == i)
+            {
+                assembler.processPayload(buffer, 0, this.payload(buffer, 0));
+            }
+        }
+        assertEquals(2, received[0]);
+        assertEquals(2, assembler.getFrameCount());
+        assertEquals(3, assembler.getDroppedFrameCount());
+        assertEquals(0, assembler.getFreeFrameCount());
+    }
+
+    /**
+     * Tests that a malformed payload header corrupts the frame.
+     */
+    @Test
+    public void testMalformedHeader()
+    {
+        final Verifier verifier = new Verifier(1);
+        final UvcFrameAssembler assembler = new UvcFrameAssembler(FRAME_SIZE,
+            2, verifier);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(PAYLOAD_SIZE);
+        assembler.processPayload(buffer, 0, this.payload(buffer, 0));
+        buffer.put(0, (byte) 0xff);
+        assembler.processPayload(buffer, 0, 20);
+        while (this.frame < 2)
+        {
+            assembler.processPayload(buffer, 0, this.payload(buffer, 0));
+        }
+        assertEquals(1, verifier.received);
+        assertEquals(0, verifier.mismatches);
+        assertEquals(1, assembler.getCorruptFrameCount());
+    }
+}